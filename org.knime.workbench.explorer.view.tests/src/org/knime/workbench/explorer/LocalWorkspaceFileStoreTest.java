@@ -48,12 +48,18 @@
  */
 package org.knime.workbench.explorer;
 
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 import static org.knime.workbench.explorer.filesystem.AbstractExplorerFileStore.isComponentTemplate;
 import static org.knime.workbench.explorer.filesystem.AbstractExplorerFileStore.isMetaNodeTemplate;
+import static org.knime.workbench.explorer.filesystem.AbstractExplorerFileStore.isNode;
+import static org.knime.workbench.explorer.filesystem.AbstractExplorerFileStore.isWorkflow;
+import static org.knime.workbench.explorer.filesystem.AbstractExplorerFileStore.isWorkflowGroup;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.security.NoSuchAlgorithmException;
 import java.util.function.Consumer;
 
@@ -62,11 +68,14 @@
 import org.eclipse.jface.preference.IPreferenceStore;
 import org.junit.Before;
 import org.junit.Test;
+import org.knime.core.node.workflow.FileSingleNodeContainerPersistor;
 import org.knime.core.node.workflow.NodeID;
 import org.knime.core.node.workflow.SubNodeContainer;
 import org.knime.core.node.workflow.WorkflowContext;
 import org.knime.core.node.workflow.WorkflowCreationHelper;
 import org.knime.core.node.workflow.WorkflowManager;
+import org.knime.core.node.workflow.WorkflowPersistor;
+import org.knime.core.util.PathUtils;
 import org.knime.workbench.explorer.filesystem.AbstractExplorerFileStore;
 import org.knime.workbench.explorer.filesystem.LocalExplorerFileStore;
 import org.knime.workbench.explorer.localworkspace.LocalWorkspaceContentProvider;
@@ -119,6 +128,34 @@ public void testEncryptedSharedComponent() {
         assertTrue("wrong template type", isComponentTemplate(wt));
     }
 
+    /**
+     * Checks that the (cached) classification of an item follows changes on disk once the store is refreshed.
+     *
+     * @throws Exception if the test fails
+     */
+    @Test
+    public void testClassificationAfterRefresh() throws Exception {
+        Path dir = m_localExplorerRoot.toLocalFile().toPath().resolve("classification_test");
+        PathUtils.deleteDirectoryIfExists(dir);
+        Files.createDirectories(dir.resolve("node (#1)"));
+        m_localExplorerRoot.refresh();
+        try {
+            LocalExplorerFileStore store = m_localExplorerRoot.getChild("classification_test");
+            assertTrue("plain directory should be a workflow group", isWorkflowGroup(store));
+            assertFalse("plain directory isn't a workflow", isWorkflow(store));
+
+            Files.createFile(dir.resolve(WorkflowPersistor.WORKFLOW_FILE));
+            Files.createFile(dir.resolve("node (#1)").resolve(FileSingleNodeContainerPersistor.SETTINGS_FILE_NAME));
+            store.refresh();
+            assertTrue("directory with workflow file should be a workflow", isWorkflow(store));
+            assertFalse("workflow isn't a workflow group", isWorkflowGroup(store));
+            assertTrue("node folder should be a node", isNode(store.getChild("node (#1)")));
+        } finally {
+            PathUtils.deleteDirectoryIfExists(dir);
+            m_localExplorerRoot.refresh();
+        }
+    }
+
     /**
      * Creates a 'real' template (with no input and output ports) where the respective files
      * (<tt>workflow.knime, template.knime</tt> etc.) have actual content.
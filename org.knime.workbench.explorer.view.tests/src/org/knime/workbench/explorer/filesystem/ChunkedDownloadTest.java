@@ -0,0 +1,267 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.workbench.explorer.filesystem;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Tests the {@link ChunkedDownload} against a local HTTP server that supports range requests.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class ChunkedDownloadTest {
+
+    private static final Pattern RANGE = Pattern.compile("bytes=(\\d+)-(\\d+)");
+
+    private static final int CHUNK_SIZE = 1000;
+
+    @Rule
+    public TemporaryFolder m_tempFolder = new TemporaryFolder();
+
+    private final byte[] m_content = new byte[10 * CHUNK_SIZE + 123];
+
+    private HttpServer m_server;
+
+    private URL m_url;
+
+    /** Range starts that were requested. */
+    private final Set<Long> m_requestedStarts = ConcurrentHashMap.newKeySet();
+
+    /** Number of range requests the server breaks off (after half of the range) before behaving again. */
+    private final AtomicInteger m_failures = new AtomicInteger();
+
+    /** The ETag sent by the server, none if <code>null</code>. */
+    private volatile String m_etag = "\"v1\"";
+
+    @Before
+    public void setUp() throws IOException {
+        new Random(42).nextBytes(m_content);
+        m_server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        m_server.createContext("/artifact", this::handle);
+        m_server.start();
+        m_url = new URL("http://localhost:" + m_server.getAddress().getPort() + "/artifact");
+    }
+
+    @After
+    public void tearDown() {
+        m_server.stop(0);
+    }
+
+    private void handle(final HttpExchange exchange) throws IOException {
+        exchange.getResponseHeaders().add("Accept-Ranges", "bytes");
+        if (m_etag != null) {
+            exchange.getResponseHeaders().add("ETag", m_etag);
+        }
+        if ("HEAD".equals(exchange.getRequestMethod())) {
+            exchange.getResponseHeaders().add("Content-Length", Integer.toString(m_content.length));
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+            return;
+        }
+        Matcher m = RANGE.matcher(exchange.getRequestHeaders().getFirst("Range"));
+        if (!m.matches()) {
+            exchange.sendResponseHeaders(416, -1);
+            exchange.close();
+            return;
+        }
+        int start = Integer.parseInt(m.group(1));
+        int end = Integer.parseInt(m.group(2)) + 1;
+        m_requestedStarts.add((long)start);
+        exchange.getResponseHeaders().add("Content-Range", "bytes " + start + "-" + (end - 1) + "/" + m_content.length);
+        exchange.sendResponseHeaders(206, end - start);
+        try (OutputStream out = exchange.getResponseBody()) {
+            if (m_failures.getAndDecrement() > 0) {
+                // drop the connection in the middle of the range
+                out.write(m_content, start, (end - start) / 2);
+                out.flush();
+                throw new IOException("Connection dropped");
+            }
+            out.write(m_content, start, end - start);
+        }
+    }
+
+    private ChunkedDownload newDownload(final File target) {
+        return new ChunkedDownload(ChunkedDownload.forHttp(m_url, Collections.emptyMap()), target)
+            .setChunkSize(CHUNK_SIZE).setParallelism(3).setRetries(3, 1);
+    }
+
+    /** All chunks are downloaded in parallel, the consumer gets the same bytes while the download is running. */
+    @Test
+    public void testParallelDownloadWithConsumer() throws IOException {
+        File target = m_tempFolder.newFile("download.tmp");
+        ByteArrayOutputStream consumed = new ByteArrayOutputStream();
+        newDownload(target).setCompletedBytesConsumer(in -> {
+            byte[] buf = new byte[77];
+            int read;
+            while ((read = in.read(buf)) >= 0) {
+                consumed.write(buf, 0, read);
+            }
+        }).run(null);
+        assertArrayEquals("Downloaded content", m_content, Files.readAllBytes(target.toPath()));
+        assertArrayEquals("Consumed content", m_content, consumed.toByteArray());
+        assertThat("Download state removed", new File(target.getPath() + ".parts").exists(), is(false));
+    }
+
+    /** Dropped connections are continued with a range request for the missing bytes. */
+    @Test
+    public void testRetryAfterDroppedConnection() throws IOException {
+        m_failures.set(2);
+        File target = m_tempFolder.newFile("download.tmp");
+        newDownload(target).run(null);
+        assertArrayEquals("Downloaded content", m_content, Files.readAllBytes(target.toPath()));
+    }
+
+    /** A failed download is resumed, only the missing chunks are requested again. */
+    @Test
+    public void testResumeFailedDownload() throws IOException {
+        File target = createPartialDownload();
+        newDownload(target).run(null);
+        assertArrayEquals("Downloaded content", m_content, Files.readAllBytes(target.toPath()));
+        assertThat("First chunk requested again", m_requestedStarts.contains(0L), is(false));
+        assertThat("Second chunk requested again", m_requestedStarts.contains((long)CHUNK_SIZE), is(false));
+        assertThat("Number of requested chunks", m_requestedStarts.size(), is(9));
+    }
+
+    /** Simulates a download that failed after the first two chunks. */
+    private File createPartialDownload() throws IOException {
+        m_failures.set(Integer.MAX_VALUE);
+        File target = m_tempFolder.newFile("download.tmp");
+        try {
+            // a single thread, so that no request of this download arrives after it failed
+            newDownload(target).setRetries(0, 1).setParallelism(1).run(null);
+            fail("Download should have failed");
+        } catch (IOException e) { // NOSONAR expected
+        }
+        assertThat("Download state kept", new File(target.getPath() + ".parts").exists(), is(true));
+
+        // the first run completed no chunk, complete some of them by hand as if the server had sent them
+        m_failures.set(0);
+        try (OutputStream out = Files.newOutputStream(target.toPath())) {
+            out.write(m_content, 0, 2 * CHUNK_SIZE);
+            out.write(new byte[m_content.length - 2 * CHUNK_SIZE]);
+        }
+        Files.write(new File(target.getPath() + ".parts").toPath(), "0\n1\n".getBytes(StandardCharsets.UTF_8),
+            StandardOpenOption.APPEND);
+        m_requestedStarts.clear();
+        return target;
+    }
+
+    /** Without a version of the artifact a failed download is not resumed but started over. */
+    @Test
+    public void testNoResumeWithoutVersion() throws IOException {
+        m_etag = null;
+        File target = createPartialDownload();
+        newDownload(target).run(null);
+        assertArrayEquals("Downloaded content", m_content, Files.readAllBytes(target.toPath()));
+        assertThat("Number of requested chunks", m_requestedStarts.size(), is(11));
+    }
+
+    /** A target file that is being downloaded into is not touched by a second download. */
+    @Test
+    public void testConcurrentDownloadRefused() throws IOException {
+        File target = createPartialDownload();
+        try (FileChannel channel = FileChannel.open(target.toPath(), StandardOpenOption.WRITE);
+                FileLock lock = channel.lock()) {
+            newDownload(target).run(null);
+            fail("Download into a locked file should have failed");
+        } catch (IOException e) {
+            assertThat("Error message", e.getMessage().contains("is being downloaded already"), is(true));
+        }
+        assertThat("No chunk requested", m_requestedStarts.isEmpty(), is(true));
+        assertThat("Partial download untouched", target.length(), is((long)m_content.length));
+    }
+
+    /** Unfinished downloads are deleted with their state once they are stale, unless they are running. */
+    @Test
+    public void testDeleteStaleDownloads() throws IOException {
+        File target = createPartialDownload();
+        File parts = new File(target.getPath() + ".parts");
+        ChunkedDownload.deleteStale(m_tempFolder.getRoot(), 60_000);
+        assertThat("Recent download kept", target.exists() && parts.exists(), is(true));
+
+        target.setLastModified(System.currentTimeMillis() - 120_000);
+        try (FileChannel channel = FileChannel.open(target.toPath(), StandardOpenOption.WRITE);
+                FileLock lock = channel.lock()) {
+            ChunkedDownload.deleteStale(m_tempFolder.getRoot(), 60_000);
+        }
+        assertThat("Running download kept", target.exists() && parts.exists(), is(true));
+
+        ChunkedDownload.deleteStale(m_tempFolder.getRoot(), 60_000);
+        assertThat("Stale download deleted", target.exists(), is(false));
+        assertThat("State of stale download deleted", parts.exists(), is(false));
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.workbench.explorer.localworkspace;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests the file system operations of the {@link LocalCopyEngine}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class LocalCopyEngineTest {
+
+    @Rule
+    public TemporaryFolder m_tempFolder = new TemporaryFolder();
+
+    private final LocalCopyEngine m_engine = new LocalCopyEngine(false).setThreads(3);
+
+    @After
+    public void shutdown() {
+        m_engine.shutdown();
+    }
+
+    private Path createWorkflow(final String name) throws IOException {
+        Path flow = m_tempFolder.newFolder(name).toPath();
+        for (String file : new String[]{"workflow.knime", "Node (#1)/settings.xml", "Node (#2)/port_1/data.bin"}) {
+            Path p = flow.resolve(file);
+            Files.createDirectories(p.getParent());
+            Files.write(p, file.getBytes(StandardCharsets.UTF_8));
+        }
+        Files.createDirectories(flow.resolve("empty"));
+        return flow;
+    }
+
+    private static String content(final Path p) throws IOException {
+        return new String(Files.readAllBytes(p), StandardCharsets.UTF_8);
+    }
+
+    /** All files and folders are copied, the source stays untouched and modification times are kept. */
+    @Test
+    public void testCopyTree() throws IOException {
+        Path flow = createWorkflow("Flow");
+        FileTime time = FileTime.fromMillis(1_500_000_000_000L);
+        Files.setLastModifiedTime(flow.resolve("workflow.knime"), time);
+        Path copy = flow.resolveSibling("Copy");
+        m_engine.copyTree(flow, copy, new NullProgressMonitor());
+
+        assertThat("Workflow file copied", content(copy.resolve("workflow.knime")), is("workflow.knime"));
+        assertThat("Nested file copied", content(copy.resolve("Node (#2)/port_1/data.bin")),
+            is("Node (#2)/port_1/data.bin"));
+        assertThat("Empty folder copied", Files.isDirectory(copy.resolve("empty")), is(true));
+        assertThat("Modification time kept", Files.getLastModifiedTime(copy.resolve("workflow.knime")), is(time));
+        assertThat("Source untouched", content(flow.resolve("workflow.knime")), is("workflow.knime"));
+    }
+
+    /** A move into a free location is a rename. */
+    @Test
+    public void testMoveTree() throws IOException {
+        Path flow = createWorkflow("Flow");
+        Path group = m_tempFolder.newFolder("Group").toPath();
+        Path moved = group.resolve("Flow");
+        m_engine.moveTree(flow, moved, new NullProgressMonitor());
+
+        assertThat("Source removed", Files.exists(flow), is(false));
+        assertThat("Nested file moved", content(moved.resolve("Node (#1)/settings.xml")),
+            is("Node (#1)/settings.xml"));
+    }
+
+    /** Moving onto an existing folder merges the trees and overwrites existing files. */
+    @Test
+    public void testMoveTreeMerges() throws IOException {
+        Path flow = createWorkflow("Flow");
+        Path existing = m_tempFolder.newFolder("Existing").toPath();
+        Files.write(existing.resolve("workflow.knime"), "old".getBytes(StandardCharsets.UTF_8));
+        Files.write(existing.resolve("other.txt"), "other".getBytes(StandardCharsets.UTF_8));
+        m_engine.moveTree(flow, existing, new NullProgressMonitor());
+
+        assertThat("Source removed", Files.exists(flow), is(false));
+        assertThat("Existing file overwritten", content(existing.resolve("workflow.knime")), is("workflow.knime"));
+        assertThat("Other file kept", content(existing.resolve("other.txt")), is("other"));
+        assertThat("Nested file moved", content(existing.resolve("Node (#2)/port_1/data.bin")),
+            is("Node (#2)/port_1/data.bin"));
+    }
+
+    /** Single files are copied as well. */
+    @Test
+    public void testCopyFile() throws IOException {
+        Path file = m_tempFolder.newFile("file.txt").toPath();
+        Files.write(file, new byte[1 << 20]);
+        Path copy = file.resolveSibling("copy.txt");
+        m_engine.copyTree(file, copy, new NullProgressMonitor());
+        assertThat("File size", Files.size(copy), is(1L << 20));
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.workbench.explorer.localworkspace;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.knime.core.node.workflow.WorkflowPersistor;
+
+/**
+ * Tests which directories the {@link LocalWorkspaceWatcher} observes and which changes it reports.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class LocalWorkspaceWatcherTest {
+
+    /** Generous, some watch services poll the file system. */
+    private static final long TIMEOUT_S = 30;
+
+    @Rule
+    public TemporaryFolder m_tempFolder = new TemporaryFolder();
+
+    private final BlockingQueue<Set<Path>> m_changes = new LinkedBlockingQueue<>();
+
+    private LocalWorkspaceWatcher m_watcher;
+
+    @Before
+    public void createWatcher() throws IOException {
+        m_watcher = new LocalWorkspaceWatcher(m_changes::add);
+    }
+
+    @After
+    public void closeWatcher() {
+        m_watcher.close();
+    }
+
+    private void awaitChange(final Path dir) throws InterruptedException {
+        final long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(TIMEOUT_S);
+        while (System.currentTimeMillis() < deadline) {
+            final Set<Path> changed = m_changes.poll(deadline - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+            if (changed != null && changed.contains(dir)) {
+                return;
+            }
+        }
+        fail("No change reported for \"" + dir + "\"");
+    }
+
+    private Path createWorkflow(final Path parent, final String name) throws IOException {
+        final Path flow = Files.createDirectory(parent.resolve(name));
+        Files.createFile(flow.resolve(WorkflowPersistor.WORKFLOW_FILE));
+        return flow;
+    }
+
+    /** A directory created in an observed group is reported as change of the group. */
+    @Test
+    public void testNewDirectoryInGroupIsReported() throws IOException, InterruptedException {
+        final Path group = m_tempFolder.newFolder("Group").toPath();
+        m_watcher.watch(group);
+        assertThat("Group watched", m_watcher.isWatched(group), is(true));
+
+        Files.createDirectory(group.resolve("Sub"));
+        awaitChange(group);
+    }
+
+    /** Workflows (and their lock files and saves) are never observed. */
+    @Test
+    public void testWorkflowsAreNotWatched() throws IOException {
+        final Path flow = createWorkflow(m_tempFolder.getRoot().toPath(), "Flow");
+        m_watcher.watch(flow);
+        assertThat("Workflow not watched", m_watcher.isWatched(flow), is(false));
+    }
+
+    /** A group that turns into a workflow is released and its parent is reported. */
+    @Test
+    public void testGroupTurningIntoWorkflow() throws IOException, InterruptedException {
+        final Path root = m_tempFolder.getRoot().toPath();
+        final Path group = m_tempFolder.newFolder("Group").toPath();
+        m_watcher.watch(root);
+        m_watcher.watch(group);
+
+        Files.createFile(group.resolve(WorkflowPersistor.WORKFLOW_FILE));
+        awaitChange(root);
+        assertThat("Former group not watched anymore", m_watcher.isWatched(group), is(false));
+        assertThat("Parent still watched", m_watcher.isWatched(root), is(true));
+    }
+
+    /** Collapsing a group releases the group and everything below it, but nothing else. */
+    @Test
+    public void testUnwatchReleasesSubDirectories() throws IOException {
+        final Path group = m_tempFolder.newFolder("Group").toPath();
+        final Path sub = Files.createDirectory(group.resolve("Sub"));
+        final Path subSub = Files.createDirectory(sub.resolve("SubSub"));
+        final Path other = m_tempFolder.newFolder("Group 2").toPath();
+        for (Path p : new Path[]{group, sub, subSub, other}) {
+            m_watcher.watch(p);
+        }
+
+        m_watcher.unwatch(group);
+        assertThat("Group released", m_watcher.isWatched(group), is(false));
+        assertThat("Sub group released", m_watcher.isWatched(sub), is(false));
+        assertThat("Nested sub group released", m_watcher.isWatched(subSub), is(false));
+        assertThat("Sibling with common name prefix still watched", m_watcher.isWatched(other), is(true));
+    }
+
+    /** A deleted group is released and reported as change of its parent. */
+    @Test
+    public void testDeletedDirectoryIsUnwatched() throws IOException, InterruptedException {
+        final Path group = m_tempFolder.newFolder("Group").toPath();
+        final Path sub = Files.createDirectory(group.resolve("Sub"));
+        m_watcher.watch(group);
+        m_watcher.watch(sub);
+
+        Files.delete(sub);
+        awaitChange(group);
+        assertThat("Deleted group released", m_watcher.isWatched(sub), is(false));
+        assertThat("Parent still watched", m_watcher.isWatched(group), is(true));
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.workbench.explorer.view;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+import org.knime.workbench.explorer.filesystem.AbstractExplorerFileStore;
+
+/**
+ * Tests that the {@link DeferredChildrenLoader} fetches children in the background and forgets the children of
+ * elements that aren't shown anymore.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class DeferredChildrenLoaderTest {
+
+    private final AbstractContentProvider m_provider = mock(AbstractContentProvider.class);
+
+    private final Map<Object, Object[]> m_children = new ConcurrentHashMap<>();
+
+    private final BlockingQueue<Object> m_loaded = new LinkedBlockingQueue<>();
+
+    private final DeferredChildrenLoader m_loader =
+        new DeferredChildrenLoader(p -> m_children.getOrDefault(p, new Object[0]), m_loaded::add);
+
+    private final Object m_placeholder = new Object();
+
+    @After
+    public void dispose() {
+        m_loader.dispose();
+    }
+
+    private ContentObject item(final String path) {
+        final AbstractExplorerFileStore store = mock(AbstractExplorerFileStore.class);
+        when(store.getFullName()).thenReturn(path);
+        return new ContentObject(m_provider, store);
+    }
+
+    /** Requests the children of the element and waits until they have been fetched. */
+    private Object[] load(final Object parent) throws InterruptedException {
+        m_loader.getChildren(parent, m_placeholder);
+        assertThat("Children of " + parent + " fetched", m_loaded.poll(10, TimeUnit.SECONDS), is(parent));
+        return m_loader.getChildren(parent, m_placeholder);
+    }
+
+    /** The placeholder is returned until the children are known. */
+    @Test
+    public void testPlaceholderUntilLoaded() throws InterruptedException {
+        final ContentObject group = item("/Group");
+        m_children.put(m_provider, new Object[]{group});
+
+        assertThat("Unknown if there are children", m_loader.hasChildren(m_provider), is(nullValue()));
+        assertThat("Placeholder while loading", m_loader.getChildren(m_provider, m_placeholder),
+            is(new Object[]{m_placeholder}));
+        final Object[] children = load(m_provider);
+        assertThat("Fetched children returned", children, is(new Object[]{group}));
+        assertThat("Known that there are children", m_loader.hasChildren(m_provider), is(Boolean.TRUE));
+        assertThat("Children of children not fetched", m_loader.hasChildren(group), is(nullValue()));
+    }
+
+    /** Collapsing an element forgets everything below it but keeps its own children. */
+    @Test
+    public void testReleaseForgetsChildrenBelow() throws InterruptedException {
+        final ContentObject group = item("/Group");
+        final ContentObject sub = item("/Group/Sub");
+        final ContentObject subSub = item("/Group/Sub/SubSub");
+        final ContentObject other = item("/Group 2");
+        m_children.put(m_provider, new Object[]{group, other});
+        m_children.put(group, new Object[]{sub});
+        m_children.put(sub, new Object[]{subSub});
+        for (Object element : new Object[]{m_provider, group, sub, other}) {
+            load(element);
+        }
+        assertThat("All loaded", m_loader.size(), is(4));
+
+        m_loader.release(group);
+        assertThat("Children below collapsed group forgotten", m_loader.hasChildren(sub), is(nullValue()));
+        assertThat("Children of collapsed group kept", m_loader.hasChildren(group), is(Boolean.TRUE));
+        assertThat("Sibling with common name prefix kept", m_loader.hasChildren(other), is(Boolean.FALSE));
+        assertThat("Remaining entries", m_loader.size(), is(3));
+    }
+
+    /** Children of elements that disappeared on a refresh are forgotten. */
+    @Test
+    public void testRefreshForgetsRemovedChildren() throws InterruptedException {
+        final ContentObject group = item("/Group");
+        final ContentObject sub = item("/Group/Sub");
+        final ContentObject other = item("/Other");
+        m_children.put(m_provider, new Object[]{group, other});
+        m_children.put(group, new Object[]{sub});
+        for (Object element : new Object[]{m_provider, group, sub, other}) {
+            load(element);
+        }
+
+        m_children.put(m_provider, new Object[]{other});
+        m_loader.invalidate(m_provider);
+        assertThat("Refreshed children", load(m_provider), is(new Object[]{other}));
+        assertThat("Children of removed group forgotten", m_loader.hasChildren(group), is(nullValue()));
+        assertThat("Children below removed group forgotten", m_loader.hasChildren(sub), is(nullValue()));
+        assertThat("Remaining entries", m_loader.size(), is(2));
+    }
+}
@@ -56,18 +56,24 @@
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 import org.eclipse.core.runtime.FileLocator;
 import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.Platform;
@@ -172,6 +178,98 @@ public void testZipFilesWithAllFilesAndFolders() throws Exception {
         assertThat("File count in extracted zip", indexInExtracted.get(Boolean.FALSE).size(), is(4));
     }
 
+    /**
+     * Deflates files (small ones in memory, one larger than the in-memory limit via a temporary file) on several
+     * threads and checks that the raw entries are written in order and can be read back.
+     */
+    @Test
+    public void testParallelDeflate() throws IOException {
+        final File folder = m_tempParentFolder.newFolder("parallel");
+        final List<File> files = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            files.add(createFile(folder, "file" + i + ".txt", 1000 * i, true));
+        }
+        files.add(createFile(folder, "large.bin", 9 << 20, true));
+        files.add(createFile(folder, "empty.txt", 0, true));
+        final File emptyDir = new File(folder, "emptyDir");
+        assertTrue("Empty directory created", emptyDir.mkdir());
+        files.add(emptyDir);
+        final File zipFile = new File(m_tempParentFolder.getRoot(), "parallel.zip");
+
+        Zipper.zipFiles(files, zipFile, m_tempParentFolder.getRoot().toPath().getNameCount(), 6, 4,
+            new NullProgressMonitor());
+
+        try (ZipFile zip = new ZipFile(zipFile)) {
+            final List<String> names = zip.stream().map(ZipEntry::getName).collect(Collectors.toList());
+            assertThat("Entries in order of the file list", names, is(files.stream()
+                .map(f -> "parallel/" + f.getName() + (f.isDirectory() ? "/" : "")).collect(Collectors.toList())));
+            for (File f : files) {
+                if (f.isFile()) {
+                    final ZipEntry entry = zip.getEntry("parallel/" + f.getName());
+                    assertThat("Method of " + f.getName(), entry.getMethod(), is(ZipEntry.DEFLATED));
+                    assertContent(zip, entry, f);
+                }
+            }
+        }
+    }
+
+    /**
+     * Files that are compressed already are stored by the overload that takes a level, but still deflated by the
+     * legacy one.
+     */
+    @Test
+    public void testCompressedFilesStored() throws IOException {
+        final File folder = m_tempParentFolder.newFolder("compressed");
+        final List<File> files = Arrays.asList(createFile(folder, "data.zip", 100_000, false),
+            createFile(folder, "image.PNG", 1000, false), createFile(folder, "text.txt", 100_000, true));
+        final int stripOff = m_tempParentFolder.getRoot().toPath().getNameCount();
+
+        final File storedZip = new File(m_tempParentFolder.getRoot(), "stored.zip");
+        Zipper.zipFiles(files, storedZip, stripOff, 9, 2, new NullProgressMonitor());
+        try (ZipFile zip = new ZipFile(storedZip)) {
+            for (File f : files) {
+                final ZipEntry entry = zip.getEntry("compressed/" + f.getName());
+                assertThat("Method of " + f.getName(), entry.getMethod(),
+                    is(f.getName().endsWith(".txt") ? ZipEntry.DEFLATED : ZipEntry.STORED));
+                assertContent(zip, entry, f);
+            }
+        }
+
+        final File legacyZip = new File(m_tempParentFolder.getRoot(), "legacy.zip");
+        Zipper.zipFiles(files, legacyZip, stripOff, new NullProgressMonitor());
+        try (ZipFile zip = new ZipFile(legacyZip)) {
+            for (File f : files) {
+                final ZipEntry entry = zip.getEntry("compressed/" + f.getName());
+                assertThat("Method of " + f.getName() + " (legacy)", entry.getMethod(), is(ZipEntry.DEFLATED));
+                assertContent(zip, entry, f);
+            }
+        }
+    }
+
+    /** Creates a file with compressible (repeated text) or incompressible (random) content. */
+    private static File createFile(final File folder, final String name, final int size, final boolean compressible)
+        throws IOException {
+        final byte[] content = new byte[size];
+        if (compressible) {
+            for (int i = 0; i < size; i++) {
+                content[i] = (byte)('a' + (i % 7));
+            }
+        } else {
+            new Random(size).nextBytes(content);
+        }
+        final File file = new File(folder, name);
+        Files.write(file.toPath(), content);
+        return file;
+    }
+
+    private static void assertContent(final ZipFile zip, final ZipEntry entry, final File file) throws IOException {
+        assertThat("Size of " + entry.getName(), entry.getSize(), is(file.length()));
+        try (InputStream in = zip.getInputStream(entry)) {
+            assertTrue("Content of " + entry.getName(), Arrays.equals(IOUtils.toByteArray(in),
+                Files.readAllBytes(file.toPath())));
+        }
+    }
+
     /** A map with:
      * TRUE -> the list of folders within the argument path (excluding the arg path)
      * FALSE -> the list of files in that path
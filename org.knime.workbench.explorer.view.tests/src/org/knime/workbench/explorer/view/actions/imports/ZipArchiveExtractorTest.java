@@ -0,0 +1,216 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.workbench.explorer.view.actions.imports;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.function.Function;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import org.apache.commons.io.FileUtils;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.Path;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests the {@link ZipArchiveExtractor}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class ZipArchiveExtractorTest {
+
+    @Rule
+    public TemporaryFolder m_tempFolder = new TemporaryFolder();
+
+    private File createArchive(final String... names) throws IOException {
+        File archive = m_tempFolder.newFile("archive.knwf");
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(archive))) {
+            for (String name : names) {
+                out.putNextEntry(new ZipEntry(name));
+                if (!name.endsWith("/")) {
+                    out.write(name.getBytes(StandardCharsets.UTF_8));
+                }
+                out.closeEntry();
+            }
+        }
+        return archive;
+    }
+
+    /** The single workflow in the archive ends up in the renamed target folder, in parallel and sequentially. */
+    @Test
+    public void testExtractSingleWorkflowRenamed() throws IOException {
+        File archive = createArchive("Flow/", "Flow/workflow.knime", "Flow/Node (#1)/settings.xml", "Flow/empty/");
+        for (int threads : new int[]{1, 4}) {
+            File dest = m_tempFolder.newFolder("dest" + threads);
+            try (ZipFile zipFile = new ZipFile(archive)) {
+                assertThat("Single root folder", ZipArchiveExtractor.getSingleRootFolder(zipFile),
+                    is(new Path("Flow")));
+                new ZipArchiveExtractor(zipFile, dest,
+                    ZipArchiveExtractor.relocate(new Path("Flow"), new Path("Renamed"))).setThreads(threads)
+                        .extract(null);
+            }
+            assertThat("Workflow file content",
+                FileUtils.readFileToString(new File(dest, "Renamed/workflow.knime"), StandardCharsets.UTF_8),
+                is("Flow/workflow.knime"));
+            assertThat("Node settings content",
+                FileUtils.readFileToString(new File(dest, "Renamed/Node (#1)/settings.xml"), StandardCharsets.UTF_8),
+                is("Flow/Node (#1)/settings.xml"));
+            assertThat("Empty folder extracted", new File(dest, "Renamed/empty").isDirectory(), is(true));
+            assertThat("Original folder not created", new File(dest, "Flow").exists(), is(false));
+        }
+    }
+
+    /** Archives with several workflows have no single root. */
+    @Test
+    public void testNoSingleRootFolder() throws IOException {
+        File archive = createArchive("A/workflow.knime", "B/workflow.knime");
+        try (ZipFile zipFile = new ZipFile(archive)) {
+            assertThat("Single root folder", ZipArchiveExtractor.getSingleRootFolder(zipFile), is(nullValue()));
+        }
+    }
+
+    /** Entries must not be written outside of the destination. */
+    @Test
+    public void testEntryOutsideDestination() throws IOException {
+        File archive = createArchive("Flow/workflow.knime", "Flow/../../evil.txt");
+        File dest = m_tempFolder.newFolder("dest");
+        try (ZipFile zipFile = new ZipFile(archive)) {
+            new ZipArchiveExtractor(zipFile, dest, p -> p).extract(null);
+            fail("Entry pointing outside of the destination was extracted");
+        } catch (IOException e) { // NOSONAR expected
+        }
+        assertThat("File outside destination", new File(dest.getParentFile(), "evil.txt").exists(), is(false));
+    }
+
+    /**
+     * Only the elements selected in the import wizard are extracted, each into its (possibly renamed) path. An
+     * unselected sibling and everything outside of the elements are skipped.
+     */
+    @Test
+    public void testExtractImportElements() throws IOException {
+        File archive = createArchive("Group/", "Group/workflowset.meta", "Group/Flow/", "Group/Flow/workflow.knime",
+            "Group/Flow/Node (#1)/settings.xml", "Group/Sibling/", "Group/Sibling/workflow.knime",
+            "Other/workflow.knime");
+        ImportElement root = new ImportElement("archive.knwf");
+        ImportElement group = new ImportElement("Group");
+        ImportElement flow = new ImportElement("Flow");
+        ImportElement sibling = new ImportElement("Sibling");
+        root.addChild(group);
+        group.addChild(flow);
+        group.addChild(sibling);
+        flow.setName("Renamed");
+
+        Function<IPath, IPath> mapping = ZipArchiveExtractor.forImportElements(Arrays.asList(group, flow),
+            Collections.singletonList(sibling));
+        assertThat("Mapped path in renamed workflow", mapping.apply(new Path("Group/Flow/workflow.knime")),
+            is(new Path("Group/Renamed/workflow.knime")));
+        assertThat("Mapped path in unselected sibling", mapping.apply(new Path("Group/Sibling/workflow.knime")),
+            is(nullValue()));
+
+        File dest = m_tempFolder.newFolder("dest");
+        try (ZipFile zipFile = new ZipFile(archive)) {
+            new ZipArchiveExtractor(zipFile, dest, mapping).extract(null);
+        }
+        assertThat("Group meta info content",
+            FileUtils.readFileToString(new File(dest, "Group/workflowset.meta"), StandardCharsets.UTF_8),
+            is("Group/workflowset.meta"));
+        assertThat("Workflow file content",
+            FileUtils.readFileToString(new File(dest, "Group/Renamed/workflow.knime"), StandardCharsets.UTF_8),
+            is("Group/Flow/workflow.knime"));
+        assertThat("Node settings content", FileUtils.readFileToString(
+            new File(dest, "Group/Renamed/Node (#1)/settings.xml"), StandardCharsets.UTF_8),
+            is("Group/Flow/Node (#1)/settings.xml"));
+        assertThat("Original workflow folder not created", new File(dest, "Group/Flow").exists(), is(false));
+        assertThat("Unselected sibling extracted", new File(dest, "Group/Sibling").exists(), is(false));
+        assertThat("Entry outside of the elements extracted", new File(dest, "Other").exists(), is(false));
+    }
+
+    /** An import element that is only used for its (renamed) path. */
+    private static final class ImportElement extends AbstractWorkflowImportElement {
+        ImportElement(final String name) {
+            super(name);
+        }
+
+        @Override
+        public InputStream getContents() {
+            return null;
+        }
+
+        @Override
+        public boolean isWorkflow() {
+            return false;
+        }
+
+        @Override
+        public boolean isWorkflowGroup() {
+            return false;
+        }
+
+        @Override
+        public boolean isTemplate() {
+            return false;
+        }
+
+        @Override
+        public boolean isFile() {
+            return false;
+        }
+    }
+}
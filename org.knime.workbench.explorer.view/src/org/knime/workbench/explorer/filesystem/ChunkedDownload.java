@@ -0,0 +1,742 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.workbench.explorer.filesystem;
+
+import java.io.BufferedReader;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.Writer;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.knime.core.node.NodeLogger;
+
+/**
+ * Downloads a remote artifact into a local file using range requests. The artifact is split into chunks that are
+ * fetched in parallel; a chunk whose connection drops is continued from the last byte received. Completed chunks are
+ * recorded next to the target file, so a later download of the same artifact into the same file only fetches the
+ * missing chunks; this requires the source to report a {@link RangeSource#getVersion() version}, otherwise every
+ * download starts over. The target file is locked while the download runs. Bytes that are complete from the start of
+ * the file on can be consumed while the download is still running, see
+ * {@link #setCompletedBytesConsumer(CompletedBytesConsumer)}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ * @since 8.7
+ */
+public final class ChunkedDownload {
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(ChunkedDownload.class);
+
+    private static final int BUFFSIZE = 1 << 16;
+
+    private static final long DEFAULT_CHUNK_SIZE = 8L << 20;
+
+    private static final String STATE_FILE_SUFFIX = ".parts";
+
+    /**
+     * An artifact that can be read in byte ranges, e.g. a file served by an HTTP server supporting range requests.
+     */
+    public interface RangeSource {
+
+        /**
+         * @return the number of bytes of the artifact
+         * @throws IOException if the length can't be determined or ranges are not supported
+         */
+        long length() throws IOException;
+
+        /**
+         * @return a value that changes whenever the artifact changes (e.g. an HTTP ETag), or <code>null</code> if
+         *         unknown (downloads of the artifact are not resumed then); only called after {@link #length()}
+         */
+        default String getVersion() {
+            return null;
+        }
+
+        /**
+         * @param start the first byte to read
+         * @param end the byte after the last byte to read
+         * @return a stream with exactly the requested bytes
+         * @throws IOException if the range can't be opened
+         */
+        InputStream openRange(long start, long end) throws IOException;
+    }
+
+    /** Consumes the downloaded bytes while the download is still running. */
+    @FunctionalInterface
+    public interface CompletedBytesConsumer {
+
+        /**
+         * Called on a separate thread. The stream blocks until further bytes are downloaded, it ends when the download
+         * is complete and fails if the download fails.
+         *
+         * @param in the downloaded bytes, from the start of the artifact on
+         * @throws IOException if consuming fails
+         */
+        void accept(InputStream in) throws IOException;
+    }
+
+    /** Exponentially growing delays for polling and retrying. */
+    public static final class Backoff {
+
+        private final long m_initialMillis;
+
+        private final long m_maxMillis;
+
+        private long m_nextMillis;
+
+        /**
+         * @param initialMillis the first delay
+         * @param maxMillis the upper bound of all delays
+         */
+        public Backoff(final long initialMillis, final long maxMillis) {
+            m_initialMillis = Math.max(1, initialMillis);
+            m_maxMillis = Math.max(m_initialMillis, maxMillis);
+            m_nextMillis = m_initialMillis;
+        }
+
+        /**
+         * Sleeps for the next delay and doubles it (up to the maximum).
+         *
+         * @throws InterruptedException if interrupted while sleeping
+         */
+        public void sleep() throws InterruptedException {
+            final long millis = m_nextMillis;
+            m_nextMillis = Math.min(m_maxMillis, 2 * m_nextMillis);
+            Thread.sleep(millis);
+        }
+
+        /** Starts over with the initial delay, e.g. after progress was made. */
+        public void reset() {
+            m_nextMillis = m_initialMillis;
+        }
+    }
+
+    private final RangeSource m_source;
+
+    private final File m_target;
+
+    private long m_chunkSize = DEFAULT_CHUNK_SIZE;
+
+    private int m_parallelism = 4;
+
+    private int m_maxRetries = 5;
+
+    private long m_initialRetryDelay = 500;
+
+    private LongConsumer m_progressListener;
+
+    private CompletedBytesConsumer m_completedBytesConsumer;
+
+    private final AtomicLong m_downloaded = new AtomicLong();
+
+    // guards the fields below, notified whenever a chunk completes or the download ends
+    private final Object m_lock = new Object();
+
+    private boolean[] m_completed;
+
+    private long m_length;
+
+    private long m_contiguous;
+
+    private boolean m_finished;
+
+    private IOException m_failure;
+
+    private Writer m_stateWriter;
+
+    /**
+     * @param source the artifact to download
+     * @param target the local file, an existing file is continued if the state of an earlier download of the same
+     *            artifact is found next to it, otherwise it is overwritten
+     */
+    public ChunkedDownload(final RangeSource source, final File target) {
+        m_source = Objects.requireNonNull(source);
+        m_target = Objects.requireNonNull(target);
+    }
+
+    /**
+     * @param chunkSize bytes fetched per range request
+     * @return this
+     */
+    public ChunkedDownload setChunkSize(final long chunkSize) {
+        m_chunkSize = Math.max(1, chunkSize);
+        return this;
+    }
+
+    /**
+     * @param parallelism number of chunks fetched at the same time
+     * @return this
+     */
+    public ChunkedDownload setParallelism(final int parallelism) {
+        m_parallelism = Math.max(1, parallelism);
+        return this;
+    }
+
+    /**
+     * @param maxRetries how often a chunk is retried without any progress before the download fails
+     * @param initialDelayMillis the delay before the first retry, it doubles with every further retry
+     * @return this
+     */
+    public ChunkedDownload setRetries(final int maxRetries, final long initialDelayMillis) {
+        m_maxRetries = Math.max(0, maxRetries);
+        m_initialRetryDelay = initialDelayMillis;
+        return this;
+    }
+
+    /**
+     * @param listener called on the thread running the download with the number of bytes downloaded so far
+     * @return this
+     */
+    public ChunkedDownload setProgressListener(final LongConsumer listener) {
+        m_progressListener = listener;
+        return this;
+    }
+
+    /**
+     * @param consumer gets the downloaded bytes while the download is running, {@link #run(IProgressMonitor)} only
+     *            returns after the consumer did
+     * @return this
+     */
+    public ChunkedDownload setCompletedBytesConsumer(final CompletedBytesConsumer consumer) {
+        m_completedBytesConsumer = consumer;
+        return this;
+    }
+
+    /**
+     * @return the number of bytes of the artifact, available once the download is running
+     */
+    public long getLength() {
+        synchronized (m_lock) {
+            return m_length;
+        }
+    }
+
+    /**
+     * Downloads all missing chunks into the target file.
+     *
+     * @param mon checked for cancellation (can be null), progress is reported to the progress listener
+     * @throws IOException if the target file is locked by another download, or if the download or the consumer of the
+     *             completed bytes fails; the target file and the download state are kept so that the download can be
+     *             resumed
+     * @throws OperationCanceledException if the monitor was canceled
+     */
+    public void run(final IProgressMonitor mon) throws IOException {
+        final IProgressMonitor monitor = mon == null ? new NullProgressMonitor() : mon;
+        final long length = m_source.length();
+        final String version = m_source.getVersion();
+        final int nrChunks = (int)((length + m_chunkSize - 1) / m_chunkSize);
+        final File stateFile = new File(m_target.getPath() + STATE_FILE_SUFFIX);
+        final String stateHeader = length + " " + m_chunkSize + " " + (version == null ? "" : version);
+
+        final AtomicInteger count = new AtomicInteger();
+        final ExecutorService pool = Executors.newFixedThreadPool(m_parallelism, r -> {
+            final Thread t = new Thread(r, "KNIME Chunked Download-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        Thread consumerThread = null;
+        final IOException[] consumerFailure = new IOException[1];
+        try (FileChannel channel = FileChannel.open(m_target.toPath(), StandardOpenOption.CREATE,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+                FileLock lock = lock(channel)) {
+            // without a version a changed artifact can't be told apart from the one partially downloaded before
+            final boolean[] completed = version == null ? null : readState(stateFile, stateHeader, nrChunks);
+            final boolean resumed = completed != null;
+            synchronized (m_lock) {
+                m_length = length;
+                m_completed = resumed ? completed : new boolean[nrChunks];
+                advanceContiguous();
+            }
+            if (!resumed) {
+                channel.truncate(0);
+                writeStateHeader(stateFile, stateHeader);
+            } else {
+                LOGGER.debug("Resuming download into \"" + m_target.getAbsolutePath() + "\"");
+            }
+            m_stateWriter = Files.newBufferedWriter(stateFile.toPath(), StandardCharsets.UTF_8,
+                StandardOpenOption.APPEND);
+
+            if (m_completedBytesConsumer != null) {
+                consumerThread = new Thread(() -> {
+                    try (InputStream in = new CompletedBytesInputStream(channel)) {
+                        m_completedBytesConsumer.accept(in);
+                    } catch (IOException e) {
+                        consumerFailure[0] = e;
+                    }
+                }, "KNIME Chunked Download-Consumer");
+                consumerThread.setDaemon(true);
+                consumerThread.start();
+            }
+
+            final List<Future<?>> futures = new ArrayList<>();
+            // once a chunk failed the download fails, so no further chunks are started
+            final AtomicBoolean failed = new AtomicBoolean();
+            long alreadyDownloaded = 0;
+            for (int i = 0; i < nrChunks; i++) {
+                if (m_completed[i]) {
+                    alreadyDownloaded += chunkEnd(i, length) - chunkStart(i);
+                } else {
+                    final int chunk = i;
+                    futures.add(pool.submit(() -> {
+                        if (!failed.get()) {
+                            try {
+                                downloadChunk(channel, chunk);
+                            } catch (IOException | RuntimeException e) {
+                                failed.set(true);
+                                throw e;
+                            }
+                        }
+                        return null;
+                    }));
+                }
+            }
+            m_downloaded.set(alreadyDownloaded);
+            waitFor(futures, monitor);
+            channel.force(false);
+            synchronized (m_lock) {
+                m_finished = true;
+                m_lock.notifyAll();
+            }
+            closeStateWriter();
+            joinConsumer(consumerThread);
+            consumerThread = null;
+            if (consumerFailure[0] != null) {
+                throw consumerFailure[0];
+            }
+            Files.deleteIfExists(stateFile.toPath());
+        } catch (IOException | RuntimeException e) {
+            synchronized (m_lock) {
+                if (!m_finished) {
+                    m_failure = e instanceof IOException ? (IOException)e : new IOException(e.getMessage(), e);
+                }
+                m_lock.notifyAll();
+            }
+            throw e;
+        } finally {
+            pool.shutdownNow();
+            closeStateWriter();
+            joinConsumer(consumerThread);
+        }
+    }
+
+    /**
+     * Deletes the target file of a download and the state recorded next to it, e.g. once the download was canceled.
+     * Must not be called while the download is running.
+     *
+     * @param target the target file of the download
+     */
+    public static void delete(final File target) {
+        for (File f : new File[]{target, new File(target.getPath() + STATE_FILE_SUFFIX)}) {
+            try {
+                Files.deleteIfExists(f.toPath());
+            } catch (IOException e) {
+                LOGGER.debug("Unable to delete \"" + f.getAbsolutePath() + "\": " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Deletes the downloads in a directory that haven't been continued for longer than the given age, together with
+     * their state. Downloads that are running (i.e. whose target file is locked) are kept.
+     *
+     * @param dir the directory containing the target files of the downloads
+     * @param maxAgeMillis the time in milliseconds after which an unfinished download is deleted
+     */
+    public static void deleteStale(final File dir, final long maxAgeMillis) {
+        final File[] files = dir.listFiles((d, name) -> !name.endsWith(STATE_FILE_SUFFIX));
+        if (files == null) {
+            return;
+        }
+        final long limit = System.currentTimeMillis() - maxAgeMillis;
+        for (File target : files) {
+            if (!target.isFile() || target.lastModified() >= limit) {
+                continue;
+            }
+            try (FileChannel channel = FileChannel.open(target.toPath(), StandardOpenOption.WRITE);
+                    FileLock lock = channel.tryLock()) {
+                if (lock == null) {
+                    continue;
+                }
+            } catch (OverlappingFileLockException e) { // NOSONAR being downloaded by this process
+                continue;
+            } catch (IOException e) {
+                LOGGER.debug("Unable to check \"" + target.getAbsolutePath() + "\": " + e.getMessage(), e);
+                continue;
+            }
+            LOGGER.debug("Deleting stale download \"" + target.getAbsolutePath() + "\"");
+            delete(target);
+        }
+    }
+
+    /** Locks the target so that no other download (of this or another process) writes into it at the same time. */
+    private FileLock lock(final FileChannel channel) throws IOException {
+        FileLock lock = null;
+        try {
+            lock = channel.tryLock();
+        } catch (OverlappingFileLockException e) { // NOSONAR locked by another download of this process
+        }
+        if (lock == null) {
+            throw new IOException("\"" + m_target.getAbsolutePath() + "\" is being downloaded already");
+        }
+        return lock;
+    }
+
+    private void waitFor(final List<Future<?>> futures, final IProgressMonitor monitor) throws IOException {
+        for (Future<?> f : futures) {
+            while (true) {
+                if (monitor.isCanceled()) {
+                    throw new OperationCanceledException();
+                }
+                try {
+                    f.get(200, TimeUnit.MILLISECONDS);
+                    break;
+                } catch (TimeoutException e) { // NOSONAR just report progress
+                    reportProgress();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Download interrupted");
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof IOException) {
+                        throw (IOException)e.getCause();
+                    }
+                    throw new IOException(e.getCause().getMessage(), e.getCause());
+                }
+            }
+            reportProgress();
+        }
+    }
+
+    private void reportProgress() {
+        if (m_progressListener != null) {
+            m_progressListener.accept(m_downloaded.get());
+        }
+    }
+
+    private long chunkStart(final int chunk) {
+        return chunk * m_chunkSize;
+    }
+
+    private long chunkEnd(final int chunk, final long length) {
+        return Math.min(length, (chunk + 1) * m_chunkSize);
+    }
+
+    /** Fetches one chunk, continuing at the last byte received if the connection drops. Runs on a worker thread. */
+    private void downloadChunk(final FileChannel channel, final int chunk) throws IOException {
+        final long end = chunkEnd(chunk, m_length);
+        long pos = chunkStart(chunk);
+        final Backoff backoff = new Backoff(m_initialRetryDelay, 30_000);
+        final byte[] buf = new byte[BUFFSIZE];
+        int failures = 0;
+        while (pos < end) {
+            try (InputStream in = m_source.openRange(pos, end)) {
+                int read;
+                while (pos < end && (read = in.read(buf, 0, (int)Math.min(buf.length, end - pos))) >= 0) {
+                    if (Thread.currentThread().isInterrupted()) {
+                        throw new InterruptedIOException("Download canceled");
+                    }
+                    final ByteBuffer bb = ByteBuffer.wrap(buf, 0, read);
+                    while (bb.hasRemaining()) {
+                        pos += channel.write(bb, pos);
+                    }
+                    m_downloaded.addAndGet(read);
+                    if (read > 0) {
+                        failures = 0;
+                        backoff.reset();
+                    }
+                }
+                if (pos < end) {
+                    throw new EOFException("Connection closed " + (end - pos) + " bytes before the end of the range");
+                }
+            } catch (InterruptedIOException e) {
+                throw e;
+            } catch (IOException e) {
+                if (++failures > m_maxRetries) {
+                    throw e;
+                }
+                LOGGER.debug("Download of bytes " + pos + "-" + end + " failed, retrying: " + e.getMessage(), e);
+                try {
+                    backoff.sleep();
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Download canceled");
+                }
+            }
+        }
+        markCompleted(chunk);
+    }
+
+    private void markCompleted(final int chunk) throws IOException {
+        synchronized (m_lock) {
+            m_completed[chunk] = true;
+            if (m_stateWriter != null) {
+                m_stateWriter.write(chunk + "\n");
+                m_stateWriter.flush();
+            }
+            advanceContiguous();
+            m_lock.notifyAll();
+        }
+    }
+
+    /** Must hold m_lock. */
+    private void advanceContiguous() {
+        int next = (int)(m_contiguous / m_chunkSize);
+        while (next < m_completed.length && m_completed[next]) {
+            m_contiguous = chunkEnd(next, m_length);
+            next++;
+        }
+    }
+
+    private void closeStateWriter() {
+        synchronized (m_lock) {
+            if (m_stateWriter != null) {
+                try {
+                    m_stateWriter.close();
+                } catch (IOException e) {
+                    LOGGER.debug("Unable to close download state: " + e.getMessage(), e);
+                }
+                m_stateWriter = null;
+            }
+        }
+    }
+
+    private static void joinConsumer(final Thread consumerThread) {
+        if (consumerThread != null) {
+            try {
+                consumerThread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static void writeStateHeader(final File stateFile, final String header) throws IOException {
+        Files.write(stateFile.toPath(), Collections.singletonList(header), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return the completed chunks of an earlier download of the same artifact, or null if there is none
+     */
+    private boolean[] readState(final File stateFile, final String header, final int nrChunks) {
+        if (!stateFile.isFile() || !m_target.isFile()) {
+            return null;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(stateFile.toPath(), StandardCharsets.UTF_8)) {
+            if (!header.equals(reader.readLine())) {
+                return null;
+            }
+            final boolean[] completed = new boolean[nrChunks];
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty()) {
+                    completed[Integer.parseInt(line.trim())] = true;
+                }
+            }
+            return completed;
+        } catch (IOException | RuntimeException e) { // NOSONAR broken state, download everything
+            LOGGER.debug("Ignoring download state \"" + stateFile.getAbsolutePath() + "\": " + e.getMessage(), e);
+            return null;
+        }
+    }
+
+    /** Reads the target file up to the end of the contiguous completed chunks, blocks until further chunks complete. */
+    private final class CompletedBytesInputStream extends InputStream {
+
+        private final FileChannel m_channel;
+
+        private long m_pos;
+
+        CompletedBytesInputStream(final FileChannel channel) {
+            m_channel = channel;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final byte[] b = new byte[1];
+            return read(b, 0, 1) < 0 ? -1 : (b[0] & 0xFF);
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            final int n;
+            synchronized (m_lock) {
+                while (m_pos >= m_contiguous && !m_finished && m_failure == null) {
+                    try {
+                        m_lock.wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException("Download canceled");
+                    }
+                }
+                if (m_failure != null) {
+                    throw new IOException("Download failed: " + m_failure.getMessage(), m_failure);
+                }
+                if (m_pos >= m_contiguous) {
+                    return -1;
+                }
+                n = (int)Math.min(len, m_contiguous - m_pos);
+            }
+            final ByteBuffer bb = ByteBuffer.wrap(b, off, n);
+            while (bb.hasRemaining()) {
+                final int read = m_channel.read(bb, m_pos + bb.position() - off);
+                if (read < 0) {
+                    throw new EOFException("Downloaded file is shorter than expected");
+                }
+            }
+            m_pos += n;
+            return n;
+        }
+    }
+
+    /**
+     * A range source for a resource on an HTTP server that supports range requests ("Accept-Ranges: bytes").
+     *
+     * @param url the resource's URL
+     * @param headers additional request headers, e.g. for authentication
+     * @return the range source
+     */
+    public static RangeSource forHttp(final URL url, final Map<String, String> headers) {
+        return new HttpRangeSource(url, headers);
+    }
+
+    private static final class HttpRangeSource implements RangeSource {
+
+        private static final int TIMEOUT = 30_000;
+
+        private final URL m_url;
+
+        private final Map<String, String> m_headers;
+
+        private String m_version;
+
+        HttpRangeSource(final URL url, final Map<String, String> headers) {
+            m_url = Objects.requireNonNull(url);
+            m_headers = headers == null ? Collections.emptyMap() : headers;
+        }
+
+        private HttpURLConnection open(final String method) throws IOException {
+            final HttpURLConnection conn = (HttpURLConnection)m_url.openConnection();
+            conn.setRequestMethod(method);
+            conn.setConnectTimeout(TIMEOUT);
+            conn.setReadTimeout(TIMEOUT);
+            m_headers.forEach(conn::setRequestProperty);
+            return conn;
+        }
+
+        @Override
+        public long length() throws IOException {
+            final HttpURLConnection conn = open("HEAD");
+            try {
+                final int code = conn.getResponseCode();
+                if (code != HttpURLConnection.HTTP_OK) {
+                    throw new IOException("Unable to access " + m_url + " (HTTP " + code + ")");
+                }
+                if (!"bytes".equalsIgnoreCase(conn.getHeaderField("Accept-Ranges"))) {
+                    throw new IOException("Server does not support range requests for " + m_url);
+                }
+                final long length = conn.getContentLengthLong();
+                if (length < 0) {
+                    throw new IOException("Server did not send the length of " + m_url);
+                }
+                final String etag = conn.getHeaderField("ETag");
+                m_version = etag != null ? etag : conn.getHeaderField("Last-Modified");
+                return length;
+            } finally {
+                conn.disconnect();
+            }
+        }
+
+        @Override
+        public String getVersion() {
+            return m_version;
+        }
+
+        @Override
+        public InputStream openRange(final long start, final long end) throws IOException {
+            final HttpURLConnection conn = open("GET");
+            conn.setRequestProperty("Range", "bytes=" + start + "-" + (end - 1));
+            if (m_version != null) {
+                // the server sends the entire (changed) resource if the version doesn't match anymore
+                conn.setRequestProperty("If-Range", m_version);
+            }
+            final int code = conn.getResponseCode();
+            if (code != HttpURLConnection.HTTP_PARTIAL) {
+                conn.disconnect();
+                throw new IOException("Server did not send the requested range of " + m_url + " (HTTP " + code + ")");
+            }
+            return conn.getInputStream();
+        }
+    }
+}
@@ -49,13 +49,23 @@
 
 import java.io.File;
 import java.net.URI;
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.core.filesystem.EFS;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.MultiStatus;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.ui.IEditorInput;
 import org.eclipse.ui.IEditorPart;
@@ -106,15 +116,68 @@ public static void lockWorkflows(
             final List<LocalExplorerFileStore> lockedWF) {
         assert unlockableWF.size() == 0; // the result lists should be empty
         assert lockedWF.size() == 0;
-        // open workflows can be locked multiple times in one instance
-        for (LocalExplorerFileStore wf : workflowsToLock) {
-            boolean locked = lockWorkflow(wf);
-            if (locked) {
-                lockedWF.add(wf);
-            } else {
-                unlockableWF.add(wf);
+        LockResult result = lockWorkflows(workflowsToLock);
+        unlockableWF.addAll(result.getUnlockable());
+        lockedWF.addAll(result.getLocked());
+    }
+
+    /**
+     * Tries to lock all workflows passed as argument. The workflows are locked in parallel; workflows that can't be
+     * locked don't stop the others from being locked. Use {@link LockResult#unlock()} to release the acquired locks.
+     *
+     * @param workflowsToLock the workflows to be locked
+     * @return the locked and the unlockable workflows, each in the order of the argument list
+     * @since 8.7
+     */
+    public static LockResult lockWorkflows(final List<? extends LocalExplorerFileStore> workflowsToLock) {
+        final int size = workflowsToLock.size();
+        final boolean[] locked = new boolean[size];
+        if (size < 2) {
+            for (int i = 0; i < size; i++) {
+                locked[i] = tryLock(workflowsToLock.get(i));
+            }
+        } else {
+            final AtomicInteger count = new AtomicInteger();
+            final ExecutorService pool = Executors.newFixedThreadPool(
+                Math.min(size, Math.min(4, Runtime.getRuntime().availableProcessors())), r -> {
+                    final Thread t = new Thread(r, "KNIME Workflow Locker-" + count.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+            try {
+                final List<Future<Boolean>> futures = new ArrayList<>(size);
+                for (LocalExplorerFileStore wf : workflowsToLock) {
+                    futures.add(pool.submit(() -> tryLock(wf)));
+                }
+                // wait for all of them even if interrupted, otherwise acquired locks would never be released
+                boolean interrupted = false;
+                for (int i = 0; i < size; i++) {
+                    while (true) {
+                        try {
+                            locked[i] = futures.get(i).get();
+                            break;
+                        } catch (InterruptedException e) {
+                            interrupted = true;
+                        } catch (ExecutionException e) {
+                            LOGGER.debug("Unable to lock " + workflowsToLock.get(i).getMountIDWithFullPath() + ": "
+                                + e.getCause().getMessage(), e.getCause());
+                            break;
+                        }
+                    }
+                }
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            } finally {
+                pool.shutdown();
             }
         }
+        final List<LocalExplorerFileStore> lockedWF = new ArrayList<>();
+        final List<LocalExplorerFileStore> unlockableWF = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            (locked[i] ? lockedWF : unlockableWF).add(workflowsToLock.get(i));
+        }
+        return new LockResult(lockedWF, unlockableWF);
     }
 
     /**
@@ -125,16 +188,19 @@ public static void lockWorkflows(
      */
     public static boolean lockWorkflow(final LocalExplorerFileStore workflow) {
         assert AbstractExplorerFileStore.isWorkflow(workflow);
-        File loc;
+        return tryLock(workflow);
+    }
+
+    private static boolean tryLock(final LocalExplorerFileStore workflow) {
+        File loc = toLocalFileOrNull(workflow);
+        return loc != null && VMFileLocker.lockForVM(loc);
+    }
+
+    private static File toLocalFileOrNull(final AbstractExplorerFileStore fileStore) {
         try {
-            loc = workflow.toLocalFile(EFS.NONE, null);
+            return fileStore.toLocalFile(EFS.NONE, null);
         } catch (CoreException e) {
-            loc = null;
-        }
-        if (loc != null && VMFileLocker.lockForVM(loc)) {
-            return true;
-        } else {
-            return false;
+            return null;
         }
     }
 
@@ -243,37 +309,40 @@ public static void closeOpenReports(
             }
 
             for (IEditorReference editRef : page.getEditorReferences()) {
-
-                // Check if we have an actual BIRT editor.
-                // Note: instead of checking of type IReportEditor, we check the ID so that this even works if
-                // editor is null (report is open, but KNIME just has been started up and another editor is open.
-                if (editRef.getId().startsWith("org.eclipse.birt")) {
-                    try {
-                        final IEditorInput input = editRef.getEditorInput();
-
-                        String reportLocation = "";
-                        if (input instanceof IFileEditorInput) {
-                            reportLocation = ((IFileEditorInput)input).getFile().getLocation().toString();
-                        } else {
-                            reportLocation = input.getToolTipText();
-                        }
-
-                        final int idx = reportLocation.lastIndexOf('/');
-
-                        reportLocation = idx > -1 ? reportLocation.substring(0, idx) : reportLocation;
-
-                        // Compare the path of the workflow with the path of the IEditorInput, which points to a
-                        // .rptdesign file in the workflow folder.
-                        if (localFile.toString().equals(reportLocation)) {
-                            // Restore editor in case it hasn't been done yet as otherwise the editor is null.
-                            page.closeEditor(editRef.getEditor(true), false);
-                        }
-                    } catch (PartInitException e) {
-                        // do nothing.
-                    }
+                if (localFile.toString().equals(getReportWorkflowLocation(editRef))) {
+                    // Restore editor in case it hasn't been done yet as otherwise the editor is null.
+                    page.closeEditor(editRef.getEditor(true), false);
                 }
+            }
+        }
+    }
 
+    /**
+     * @return the location of the workflow whose report is shown by the given editor, or <code>null</code> if it is
+     *         no report editor
+     */
+    private static String getReportWorkflowLocation(final IEditorReference editRef) {
+        // Check if we have an actual BIRT editor.
+        // Note: instead of checking of type IReportEditor, we check the ID so that this even works if
+        // editor is null (report is open, but KNIME just has been started up and another editor is open.
+        if (!editRef.getId().startsWith("org.eclipse.birt")) {
+            return null;
+        }
+        try {
+            final IEditorInput input = editRef.getEditorInput();
+
+            String reportLocation = "";
+            if (input instanceof IFileEditorInput) {
+                reportLocation = ((IFileEditorInput)input).getFile().getLocation().toString();
+            } else {
+                reportLocation = input.getToolTipText();
             }
+
+            // The IEditorInput points to a .rptdesign file in the workflow folder.
+            final int idx = reportLocation.lastIndexOf('/');
+            return idx > -1 ? reportLocation.substring(0, idx) : reportLocation;
+        } catch (PartInitException e) {
+            return null;
         }
     }
 
@@ -296,53 +365,43 @@ public static boolean hasOpenWorkflows(
      */
     public static boolean hasOpenReports(
             final List<? extends AbstractExplorerFileStore> workflows) {
+        return !getOpenReports(workflows).isEmpty();
+    }
+
+    /**
+     * Determines which of the workflows have a report open in an editor of the active workbench page. The editors
+     * are scanned only once, so this is much cheaper than checking the workflows one by one. Must be called in the UI
+     * thread.
+     *
+     * @param <T> the type of the file stores
+     * @param workflows the workflows to check
+     * @return the workflows with an open report in the order of the argument list, possibly empty
+     * @since 8.7
+     */
+    public static <T extends AbstractExplorerFileStore> List<T> getOpenReports(final List<T> workflows) {
         final IWorkbenchPage page = PlatformUI.getWorkbench().getActiveWorkbenchWindow().getActivePage();
-        for (AbstractExplorerFileStore workflow : workflows) {
+        final Set<String> reportLocations = new HashSet<>();
+        for (IEditorReference editRef : page.getEditorReferences()) {
+            String location = getReportWorkflowLocation(editRef);
+            if (location != null) {
+                reportLocations.add(location);
+            }
+        }
+        if (reportLocations.isEmpty()) {
+            return Collections.emptyList();
+        }
+        final List<T> openReports = new ArrayList<>();
+        for (T workflow : workflows) {
             if (!(workflow instanceof LocalExplorerFileStore)) {
                 // only consider local workflows
                 continue;
             }
-
-            File localFile = null;
-            try {
-                localFile = workflow.toLocalFile();
-            } catch (CoreException e) {
-                continue;
-            }
-
-            for (IEditorReference editRef : page.getEditorReferences()) {
-
-                // Check if we have an actual BIRT editor.
-                // Note: instead of checking of type IReportEditor, we check the ID so that this even works if
-                // editor is null (report is open, but KNIME just has been started up and another editor is open.
-                if (editRef.getId().startsWith("org.eclipse.birt")) {
-                    try {
-                        final IEditorInput input = editRef.getEditorInput();
-
-                        String reportLocation = "";
-                        if (input instanceof IFileEditorInput) {
-                            reportLocation = ((IFileEditorInput)input).getFile().getLocation().toString();
-                        } else {
-                            reportLocation = input.getToolTipText();
-                        }
-
-                        final int idx = reportLocation.lastIndexOf('/');
-
-                        reportLocation = idx > -1 ? reportLocation.substring(0, idx) : reportLocation;
-
-                        // Compare the path of the workflow with the path of the IEditorInput, which points to a
-                        // .rptdesign file in the workflow folder.
-                        if (localFile.toString().equals(reportLocation)) {
-                            return true;
-                        }
-                    } catch (PartInitException e) {
-                        // do nothing.
-                    }
-                }
-
+            File localFile = toLocalFileOrNull(workflow);
+            if (localFile != null && reportLocations.contains(localFile.toString())) {
+                openReports.add(workflow);
             }
         }
-        return false;
+        return openReports;
     }
 
     /**
@@ -355,49 +414,69 @@ public static boolean hasOpenReports(
     private static boolean hasOpenWorkflows(
             final List<? extends AbstractExplorerFileStore> workflows,
             final boolean ignoreSavedFlows) {
-        IWorkbenchPage page =
-                PlatformUI.getWorkbench().getActiveWorkbenchWindow()
-                        .getActivePage();
-        for (AbstractExplorerFileStore wf : workflows) {
-            File loc;
-            try {
-                loc = wf.toLocalFile(EFS.NONE, null);
-            } catch (CoreException e) {
-                loc = null;
-            }
+        return !getOpenWorkflows(workflows, ignoreSavedFlows).isEmpty();
+    }
+
+    /**
+     * Determines which of the workflows are open in an editor of the active workbench page. The editors are scanned
+     * only once, so this is much cheaper than checking the workflows one by one. Must be called in the UI thread.
+     *
+     * @param <T> the type of the file stores
+     * @param workflows the workflows to check
+     * @param ignoreSavedFlows set to true if only dirty open flows shall be reported
+     * @return the open (and dirty) workflows in the order of the argument list, possibly empty
+     * @since 8.7
+     */
+    public static <T extends AbstractExplorerFileStore> List<T> getOpenWorkflows(final List<T> workflows,
+        final boolean ignoreSavedFlows) {
+        final Map<NodeContainer, IEditorPart> editors = getOpenWorkflowEditors();
+        if (editors.isEmpty()) {
+            return Collections.emptyList();
+        }
+        final List<T> openWorkflows = new ArrayList<>();
+        for (T wf : workflows) {
+            File loc = toLocalFileOrNull(wf);
             if (loc == null) {
                 // not a local workflow. Not open.
                 continue;
             }
             NodeContainer wfm = ProjectWorkflowMap.getWorkflow(loc.toURI());
-            if (wfm != null) {
-                for (IEditorReference editRef : page.getEditorReferences()) {
-                    IEditorPart editor = editRef.getEditor(false);
-                    if (editor == null
-                            || (ignoreSavedFlows && !editor.isDirty())) {
-                        // got closed in the mean time or is not dirty
-                        continue;
-                    }
-                    WorkflowEditorAdapter wea =
-                            editor
-                            .getAdapter(WorkflowEditorAdapter.class);
-                    NodeContainer editWFM = null;
-                    if (wea != null) {
-                        editWFM = wea.getWorkflowManager();
-                    }
-                    if (wfm == editWFM) {
-                        return true;
-                    }
-                }
+            IEditorPart editor = wfm == null ? null : editors.get(wfm);
+            if (editor != null && (!ignoreSavedFlows || editor.isDirty())) {
+                openWorkflows.add(wf);
+            }
+        }
+        return openWorkflows;
+    }
 
+    /**
+     * @return the workflow managers of all workflow editors of the active page, mapped to their editor (the dirty
+     *         one, if a workflow is open in several editors)
+     */
+    private static Map<NodeContainer, IEditorPart> getOpenWorkflowEditors() {
+        IWorkbenchPage page =
+                PlatformUI.getWorkbench().getActiveWorkbenchWindow()
+                        .getActivePage();
+        final Map<NodeContainer, IEditorPart> editors = new IdentityHashMap<>();
+        for (IEditorReference editRef : page.getEditorReferences()) {
+            IEditorPart editor = editRef.getEditor(false);
+            if (editor == null) {
+                // got closed in the mean time
+                continue;
+            }
+            WorkflowEditorAdapter wea = editor.getAdapter(WorkflowEditorAdapter.class);
+            NodeContainer editWFM = wea == null ? null : wea.getWorkflowManager();
+            if (editWFM != null) {
+                editors.merge(editWFM, editor, (a, b) -> a.isDirty() ? a : b);
             }
         }
-        return false;
+        return editors;
     }
 
     /**
      * Checks whether the file stores are lockable. Therefore all contained
-     * workflows must be closed and not used by any other instance.
+     * workflows must be closed and not used by any other instance. Unless only
+     * dirty workflows are reported, their reports must be closed too.
      *
      * @param fileStores the file stores to check
      * @param ignoreSavedFlows set to true if only dirty open flows shall
@@ -420,15 +499,17 @@ public static String isLockable(
             LOGGER.warn(msg);
             return msg;
         }
+        if (!ignoreSavedFlows && !getOpenReports(affectedFlows).isEmpty()) {
+            String msg = "At least one of the workflows affected by the "
+                + "operation has a report open in the editor, which has to be closed first.";
+            LOGGER.warn(msg);
+            return msg;
+        }
         // check for unlockable flows
-        List<LocalExplorerFileStore> lockedFlows =
-                new LinkedList<LocalExplorerFileStore>();
-        LinkedList<LocalExplorerFileStore> unlockableFlows =
-                new LinkedList<LocalExplorerFileStore>();
-        ExplorerFileSystemUtils.lockWorkflows(affectedFlows, unlockableFlows,
-                lockedFlows);
+        LockResult lockResult = lockWorkflows(affectedFlows);
         // unlock flows locked in here
-        ExplorerFileSystemUtils.unlockWorkflows(lockedFlows);
+        lockResult.unlock();
+        List<LocalExplorerFileStore> unlockableFlows = lockResult.getUnlockable();
         if (!unlockableFlows.isEmpty()) {
             StringBuilder sb =
                     new StringBuilder(
@@ -460,68 +541,109 @@ public static String isLockable(
      **/
     public static boolean deleteLockedWorkflows(final List<? extends AbstractExplorerFileStore> toDelWFs,
         final Map<AbstractContentProvider, DeletionConfirmationResult> confirmationResults) {
-        boolean success = true;
+        List<IStatus> failures = new ArrayList<>();
         for (AbstractExplorerFileStore wf : toDelWFs) {
-            assert AbstractExplorerFileStore.isWorkflow(wf)
-                    || AbstractExplorerFileStore.isWorkflowTemplate(wf);
-            try {
-                File loc = wf.toLocalFile(EFS.NONE, null);
-                if (loc == null) {
-                    // can't do any locking or fancy deletion
-                    wf.delete(confirmationResults.get(wf.getContentProvider()), null);
-                    continue;
-                }
-                assert VMFileLocker.isLockedForVM(loc);
-
-                // delete the workflow file first
-                File[] children = loc.listFiles();
-                if (children == null) {
-                    throw new CoreException(
-                            new Status(IStatus.ERROR,
-                                    ExplorerActivator.PLUGIN_ID,
-                                    "Can't read location."));
-                }
+            deleteLockedWorkflow(wf, confirmationResults, failures);
+        }
+        return failures.isEmpty();
+    }
 
-                // delete workflow file first
-                File wfFile = new File(loc, WorkflowPersistor.WORKFLOW_FILE);
-                if (wfFile.exists()) {
-                    success &= wfFile.delete();
-                } else {
-                    File tempFile =
-                            new File(loc, WorkflowPersistor.TEMPLATE_FILE);
-                    success &= tempFile.delete();
-                }
+    /**
+     * Deletes the locked workflows (see {@link #deleteLockedWorkflows(List, Map)}) and then the remaining files (see
+     * {@link #deleteTheRest(List, Map)}). Failures don't stop the deletion of the other items.
+     *
+     * @param toDelWFs the locked workflows to delete first
+     * @param toDel the files to delete afterwards
+     * @param confirmationResults the result returned from the corresponding confirmation dialogs, can be empty, must
+     *            not be null
+     * @return {@link Status#OK_STATUS} if all items are deleted, otherwise an error with one child per item that
+     *         couldn't be deleted
+     * @since 8.7
+     */
+    public static IStatus delete(final List<? extends AbstractExplorerFileStore> toDelWFs,
+        final List<? extends AbstractExplorerFileStore> toDel,
+        final Map<AbstractContentProvider, DeletionConfirmationResult> confirmationResults) {
+        List<IStatus> failures = new ArrayList<>();
+        for (AbstractExplorerFileStore wf : toDelWFs) {
+            deleteLockedWorkflow(wf, confirmationResults, failures);
+        }
+        for (AbstractExplorerFileStore f : toDel) {
+            deleteFile(f, confirmationResults, failures);
+        }
+        if (failures.isEmpty()) {
+            return Status.OK_STATUS;
+        }
+        return new MultiStatus(ExplorerActivator.PLUGIN_ID, IStatus.ERROR, failures.toArray(new IStatus[0]),
+            "Unable to delete " + failures.size() + " of " + (toDelWFs.size() + toDel.size()) + " items.", null);
+    }
 
-                children = loc.listFiles(); // get a list w/o workflow file
-                for (File child : children) {
-                    if (VMFileLocker.LOCK_FILE.equals(child.getName())) {
-                        // delete the lock file last
-                        continue;
-                    }
-                    boolean deletedIt = FileUtil.deleteRecursively(child);
-                    success &= deletedIt;
-                    if (!deletedIt) {
-                        LOGGER.error("Unable to delete " + child.toString());
-                    }
-                }
+    private static void deleteLockedWorkflow(final AbstractExplorerFileStore wf,
+        final Map<AbstractContentProvider, DeletionConfirmationResult> confirmationResults,
+        final List<IStatus> failures) {
+        assert AbstractExplorerFileStore.isWorkflow(wf)
+                || AbstractExplorerFileStore.isWorkflowTemplate(wf);
+        boolean success = true;
+        try {
+            File loc = wf.toLocalFile(EFS.NONE, null);
+            if (loc == null) {
+                // can't do any locking or fancy deletion
+                wf.delete(confirmationResults.get(wf.getContentProvider()), null);
+                return;
+            }
+            assert VMFileLocker.isLockedForVM(loc);
+
+            // delete the workflow file first
+            File[] children = loc.listFiles();
+            if (children == null) {
+                throw new CoreException(
+                        new Status(IStatus.ERROR,
+                                ExplorerActivator.PLUGIN_ID,
+                                "Can't read location."));
+            }
+
+            // delete workflow file first
+            File wfFile = new File(loc, WorkflowPersistor.WORKFLOW_FILE);
+            if (wfFile.exists()) {
+                success &= wfFile.delete();
+            } else {
+                File tempFile =
+                        new File(loc, WorkflowPersistor.TEMPLATE_FILE);
+                success &= tempFile.delete();
+            }
 
-                // release lock in order to delete lock file
-                VMFileLocker.unlockForVM(loc);
-                // lock file resource may not exist
-                File lockFile = new File(loc, VMFileLocker.LOCK_FILE);
-                if (lockFile.exists()) {
-                    success &= lockFile.delete();
+            children = loc.listFiles(); // get a list w/o workflow file
+            for (File child : children) {
+                if (VMFileLocker.LOCK_FILE.equals(child.getName())) {
+                    // delete the lock file last
+                    continue;
+                }
+                boolean deletedIt = FileUtil.deleteRecursively(child);
+                success &= deletedIt;
+                if (!deletedIt) {
+                    LOGGER.error("Unable to delete " + child.toString());
                 }
-                // delete the workflow directory itself
-                success &= FileUtil.deleteRecursively(loc);
-            } catch (CoreException e) {
-                success = false;
-                LOGGER.error("Error while deleting workflow " + wf.toString()
-                        + ": " + e.getMessage(), e);
-                // continue with next workflow...
             }
+
+            // release lock in order to delete lock file
+            VMFileLocker.unlockForVM(loc);
+            // lock file resource may not exist
+            File lockFile = new File(loc, VMFileLocker.LOCK_FILE);
+            if (lockFile.exists()) {
+                success &= lockFile.delete();
+            }
+            // delete the workflow directory itself
+            success &= FileUtil.deleteRecursively(loc);
+        } catch (CoreException e) {
+            LOGGER.error("Error while deleting workflow " + wf.toString()
+                    + ": " + e.getMessage(), e);
+            failures.add(new Status(IStatus.ERROR, ExplorerActivator.PLUGIN_ID,
+                "Error while deleting workflow " + wf.getMountIDWithFullPath() + ": " + e.getMessage(), e));
+            return;
+        }
+        if (!success) {
+            failures.add(new Status(IStatus.ERROR, ExplorerActivator.PLUGIN_ID,
+                "Unable to delete workflow " + wf.getMountIDWithFullPath() + " completely."));
         }
-        return success;
     }
 
     /**
@@ -535,34 +657,78 @@ public static boolean deleteLockedWorkflows(final List<? extends AbstractExplore
      */
     public static boolean deleteTheRest(final List<? extends AbstractExplorerFileStore> toDel,
         final Map<AbstractContentProvider, DeletionConfirmationResult> delConfs) {
-        boolean success = true;
+        List<IStatus> failures = new ArrayList<>();
         for (AbstractExplorerFileStore f : toDel) {
-            // go by the local file. (Does EFS.delete() delete recursively??)
-            try {
-                if (f.getName().equals("/")) {
-                    // the root is represented by the mount point. Can't del it!
-                    LOGGER.info("Can't delete the root of a mounted space. "
-                            + "(Skipping " + f.getMountIDWithFullPath() + ")");
-                    continue;
-                }
-                if (f.fetchInfo().exists()) {
-                    File loc = f.toLocalFile(EFS.NONE, null);
-                    if (loc == null) {
-                        f.delete(delConfs.get(f.getContentProvider()), null);
-                    } else {
-                        // if it is a workflow it would be gone already
-                        if (loc.exists()) {
-                            success &= FileUtil.deleteRecursively(loc);
-                        }
+            deleteFile(f, delConfs, failures);
+        }
+        return failures.isEmpty();
+    }
+
+    private static void deleteFile(final AbstractExplorerFileStore f,
+        final Map<AbstractContentProvider, DeletionConfirmationResult> delConfs, final List<IStatus> failures) {
+        // go by the local file. (Does EFS.delete() delete recursively??)
+        try {
+            if (f.getName().equals("/")) {
+                // the root is represented by the mount point. Can't del it!
+                LOGGER.info("Can't delete the root of a mounted space. "
+                        + "(Skipping " + f.getMountIDWithFullPath() + ")");
+                return;
+            }
+            if (f.fetchInfo().exists()) {
+                File loc = f.toLocalFile(EFS.NONE, null);
+                if (loc == null) {
+                    f.delete(delConfs.get(f.getContentProvider()), null);
+                } else {
+                    // if it is a workflow it would be gone already
+                    if (loc.exists() && !FileUtil.deleteRecursively(loc)) {
+                        failures.add(new Status(IStatus.ERROR, ExplorerActivator.PLUGIN_ID,
+                            "Unable to delete " + f.getMountIDWithFullPath() + " completely."));
                     }
                 }
-            } catch (CoreException e) {
-                success = false;
-                LOGGER.error("Error while deleting file " + f.toString() + ": "
-                        + e.getMessage(), e);
             }
+        } catch (CoreException e) {
+            LOGGER.error("Error while deleting file " + f.toString() + ": "
+                    + e.getMessage(), e);
+            failures.add(new Status(IStatus.ERROR, ExplorerActivator.PLUGIN_ID,
+                "Error while deleting " + f.getMountIDWithFullPath() + ": " + e.getMessage(), e));
+        }
+    }
+
+    /**
+     * Result of {@link ExplorerFileSystemUtils#lockWorkflows(List)}.
+     *
+     * @since 8.7
+     */
+    public static final class LockResult {
+
+        private final List<LocalExplorerFileStore> m_locked;
+
+        private final List<LocalExplorerFileStore> m_unlockable;
+
+        private LockResult(final List<LocalExplorerFileStore> locked, final List<LocalExplorerFileStore> unlockable) {
+            m_locked = Collections.unmodifiableList(locked);
+            m_unlockable = Collections.unmodifiableList(unlockable);
+        }
+
+        /** @return the workflows that could be locked, not null */
+        public List<LocalExplorerFileStore> getLocked() {
+            return m_locked;
+        }
+
+        /** @return the workflows that could not be locked, not null */
+        public List<LocalExplorerFileStore> getUnlockable() {
+            return m_unlockable;
+        }
+
+        /** @return true if all workflows could be locked */
+        public boolean isAllLocked() {
+            return m_unlockable.isEmpty();
+        }
+
+        /** Releases the locks acquired for the locked workflows. */
+        public void unlock() {
+            unlockWorkflows(m_locked);
         }
-        return success;
     }
 
 }
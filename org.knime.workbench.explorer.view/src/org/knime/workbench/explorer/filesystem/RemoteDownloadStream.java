@@ -76,4 +76,14 @@ public abstract class RemoteDownloadStream extends InputStream {
      */
     public abstract List<String> getMessages();
 
+    /**
+     * @return a source to fetch the prepared download in byte ranges (e.g. through HTTP range requests) once
+     *         {@link #readyForDownload()} returned true, or <code>null</code> if ranges are not supported and the
+     *         content has to be read from this stream. The default implementation returns <code>null</code>.
+     * @since 8.7
+     */
+    public ChunkedDownload.RangeSource getRangeSource() {
+        return null;
+    }
+
 }
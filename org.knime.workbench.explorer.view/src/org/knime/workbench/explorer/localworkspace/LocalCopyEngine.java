@@ -0,0 +1,378 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.workbench.explorer.localworkspace;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.core.filesystem.EFS;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.MultiStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.knime.core.node.NodeLogger;
+import org.knime.core.util.PathUtils;
+import org.knime.workbench.explorer.ExplorerActivator;
+import org.knime.workbench.explorer.filesystem.AbstractExplorerFileInfo;
+import org.knime.workbench.explorer.filesystem.LocalExplorerFileStore;
+
+/**
+ * Copies or moves a batch of items within the local workspace. A move is a single atomic rename if the file system
+ * supports it; otherwise (and for copies) the directory tree is walked once and the files are transferred in parallel
+ * with {@link FileChannel#transferTo(long, long, java.nio.channels.WritableByteChannel)}, which lets the operating
+ * system copy the bytes without passing them through the Java heap. The whole batch reports to a single progress
+ * monitor and the affected folders are refreshed once at the end, not after every item.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ * @since 8.7
+ */
+public final class LocalCopyEngine {
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(LocalCopyEngine.class);
+
+    private final boolean m_move;
+
+    private final Map<LocalWorkspaceFileStore, Transfer> m_transfers = new LinkedHashMap<>();
+
+    private int m_threads = Math.min(4, Runtime.getRuntime().availableProcessors());
+
+    private ExecutorService m_pool;
+
+    /**
+     * @param move <code>true</code> to move the items, <code>false</code> to copy them
+     */
+    public LocalCopyEngine(final boolean move) {
+        m_move = move;
+    }
+
+    /**
+     * @param threads number of threads copying files in parallel, 1 to copy one file after the other
+     * @return this
+     */
+    public LocalCopyEngine setThreads(final int threads) {
+        m_threads = Math.max(1, threads);
+        return this;
+    }
+
+    /**
+     * Adds an item to the batch.
+     *
+     * @param source the file or folder to copy or move
+     * @param destination the new location of the item (not its parent folder)
+     * @param options bit-wise or of option flag constants ({@link EFS#OVERWRITE})
+     * @return this
+     */
+    public LocalCopyEngine add(final LocalWorkspaceFileStore source, final LocalWorkspaceFileStore destination,
+        final int options) {
+        m_transfers.put(source, new Transfer(destination, options));
+        return this;
+    }
+
+    /** @return <code>true</code> if no item has been added yet */
+    public boolean isEmpty() {
+        return m_transfers.isEmpty();
+    }
+
+    /**
+     * Copies or moves all added items, one after the other. A failing item doesn't stop the batch. Once all items are
+     * processed (or the user canceled) the parent folders of the destinations and, for a move, of the sources are
+     * refreshed.
+     *
+     * @param mon to report progress and check for cancellation (can be null)
+     * @return {@link Status#OK_STATUS} if all items were processed, the error of the failed item otherwise (a
+     *         {@link MultiStatus} if there are several)
+     * @throws OperationCanceledException if the user canceled
+     */
+    public IStatus run(final IProgressMonitor mon) {
+        final IProgressMonitor monitor = mon == null ? new NullProgressMonitor() : mon;
+        final String cmd = m_move ? "Move" : "Copy";
+        final List<IStatus> failures = new ArrayList<>();
+        final Set<LocalExplorerFileStore> toRefresh = new LinkedHashSet<>();
+        monitor.beginTask(cmd + " " + m_transfers.size() + " items", m_transfers.size());
+        try {
+            for (Map.Entry<LocalWorkspaceFileStore, Transfer> e : m_transfers.entrySet()) {
+                if (monitor.isCanceled()) {
+                    throw new OperationCanceledException();
+                }
+                final LocalWorkspaceFileStore source = e.getKey();
+                final LocalWorkspaceFileStore destination = e.getValue().m_destination;
+                monitor.subTask(cmd + " " + source.getMountIDWithFullPath() + " to " + destination.getFullName());
+                toRefresh.add(destination.getParent());
+                if (m_move) {
+                    toRefresh.add(source.getParent());
+                }
+                try {
+                    transfer(source, destination, e.getValue().m_options, monitor);
+                } catch (CoreException ex) {
+                    LOGGER.debug(cmd + " failed: " + ex.getStatus().getMessage(), ex);
+                    failures.add(ex.getStatus());
+                }
+                monitor.worked(1);
+            }
+        } finally {
+            shutdown();
+            refresh(toRefresh);
+            monitor.done();
+        }
+        if (failures.isEmpty()) {
+            return Status.OK_STATUS;
+        } else if (failures.size() == 1) {
+            return failures.get(0);
+        }
+        return new MultiStatus(ExplorerActivator.PLUGIN_ID, IStatus.ERROR, failures.toArray(new IStatus[0]),
+            cmd + " of " + failures.size() + " items failed.", null);
+    }
+
+    private void transfer(final LocalWorkspaceFileStore source, final LocalWorkspaceFileStore destination,
+        final int options, final IProgressMonitor monitor) throws CoreException {
+        final File srcFile = source.toLocalFile();
+        final File dstFile = destination.toLocalFile();
+        if (srcFile.equals(dstFile)) {
+            throw newCoreException("Unable to " + (m_move ? "move" : "copy") + " file. \"" + srcFile.getAbsolutePath()
+                + "\" and \"" + dstFile.getAbsolutePath() + "\" are the same file.", null);
+        }
+        if (dstFile.exists() && ((options & EFS.OVERWRITE) == 0)) {
+            throw newCoreException("A file of the same name already exists at the " + (m_move ? "move" : "copy")
+                + " destination \"" + dstFile.getAbsolutePath() + "\".", null);
+        }
+        try {
+            // same as AbstractExplorerFileStore#cleanupDestination, but without the refresh of delete(...)
+            final AbstractExplorerFileInfo info = destination.fetchInfo();
+            if (info.exists() && (info.isWorkflow() || info.isWorkflowTemplate())) {
+                delete(dstFile.toPath());
+            }
+            if (m_move) {
+                moveTree(srcFile.toPath(), dstFile.toPath(), monitor);
+            } else {
+                copyTree(srcFile.toPath(), dstFile.toPath(), monitor);
+            }
+        } catch (IOException | SecurityException e) {
+            throw newCoreException("Could not " + (m_move ? "move" : "copy") + " \"" + srcFile.getAbsolutePath()
+                + "\" to \"" + dstFile.getAbsolutePath() + "\": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Moves a file or directory tree. Tries an atomic rename first and falls back to copy and delete, e.g. if the
+     * destination is on another file store or already exists (in which case the trees are merged).
+     */
+    void moveTree(final Path source, final Path destination, final IProgressMonitor monitor) throws IOException {
+        if (!Files.exists(destination, LinkOption.NOFOLLOW_LINKS)) {
+            try {
+                Files.move(source, destination, StandardCopyOption.ATOMIC_MOVE);
+                return;
+            } catch (AtomicMoveNotSupportedException e) {
+                LOGGER.debug("Cannot rename \"" + source + "\" to \"" + destination + "\", copying it instead.");
+            } catch (IOException e) {
+                LOGGER.debug("Renaming \"" + source + "\" to \"" + destination + "\" failed (" + e.getMessage()
+                    + "), copying it instead.", e);
+            }
+        }
+        copyTree(source, destination, monitor);
+        delete(source);
+    }
+
+    /**
+     * Copies a file or directory tree. Directories are created while walking the tree, the files are copied by the
+     * worker threads; existing files are overwritten. Last modification times are preserved.
+     */
+    void copyTree(final Path source, final Path destination, final IProgressMonitor monitor) throws IOException {
+        if (!Files.isDirectory(source)) {
+            copyFile(source, destination, Files.getLastModifiedTime(source));
+            return;
+        }
+        final ExecutorService pool = getPool();
+        final List<Future<?>> futures = new ArrayList<>();
+        final Map<Path, FileTime> dirTimes = new LinkedHashMap<>();
+        try {
+            Files.walkFileTree(source, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult preVisitDirectory(final Path dir, final BasicFileAttributes attrs)
+                    throws IOException {
+                    if (monitor.isCanceled()) {
+                        throw new OperationCanceledException();
+                    }
+                    final Path target = destination.resolve(source.relativize(dir));
+                    Files.createDirectories(target);
+                    dirTimes.put(target, attrs.lastModifiedTime());
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs) {
+                    final Path target = destination.resolve(source.relativize(file));
+                    futures.add(pool.submit(() -> {
+                        copyFile(file, target, attrs.lastModifiedTime());
+                        return null;
+                    }));
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+            // cancellation is checked on the calling thread only
+            for (Future<?> f : futures) {
+                if (monitor.isCanceled()) {
+                    throw new OperationCanceledException();
+                }
+                try {
+                    f.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new OperationCanceledException();
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof IOException) {
+                        throw (IOException)e.getCause();
+                    }
+                    throw new IOException(e.getCause().getMessage(), e.getCause());
+                }
+            }
+        } finally {
+            futures.forEach(f -> f.cancel(true));
+        }
+        // only now, creating the children changes the modification time of a directory
+        for (Map.Entry<Path, FileTime> e : dirTimes.entrySet()) {
+            Files.setLastModifiedTime(e.getKey(), e.getValue());
+        }
+    }
+
+    private static void copyFile(final Path source, final Path destination, final FileTime lastModified)
+        throws IOException {
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+                FileChannel out = FileChannel.open(destination, StandardOpenOption.WRITE,
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            final long size = in.size();
+            long position = 0;
+            while (position < size) {
+                final long transferred = in.transferTo(position, size - position, out);
+                if (transferred <= 0) {
+                    // the file was truncated while being copied
+                    break;
+                }
+                position += transferred;
+            }
+        }
+        Files.setLastModifiedTime(destination, lastModified);
+    }
+
+    private static void delete(final Path path) throws IOException {
+        if (Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+            PathUtils.deleteDirectoryIfExists(path);
+        } else {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    /** Refreshes the given folders, skipping those contained in another one of them. */
+    private static void refresh(final Set<LocalExplorerFileStore> folders) {
+        for (LocalExplorerFileStore folder : folders) {
+            final boolean covered = folders.stream()
+                .anyMatch(f -> !f.equals(folder) && new org.eclipse.core.runtime.Path(f.getFullName())
+                    .isPrefixOf(new org.eclipse.core.runtime.Path(folder.getFullName())));
+            if (!covered) {
+                LocalWorkspaceFileStore.refreshResource(folder);
+            }
+        }
+    }
+
+    private synchronized ExecutorService getPool() {
+        if (m_pool == null) {
+            final AtomicInteger count = new AtomicInteger();
+            m_pool = Executors.newFixedThreadPool(m_threads, r -> {
+                final Thread t = new Thread(r, "KNIME Local Copy-" + count.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        return m_pool;
+    }
+
+    /** Stops the worker threads, if any. They are started again if needed. */
+    synchronized void shutdown() {
+        if (m_pool != null) {
+            m_pool.shutdownNow();
+            m_pool = null;
+        }
+    }
+
+    private static CoreException newCoreException(final String message, final Throwable cause) {
+        return new CoreException(new Status(IStatus.ERROR, ExplorerActivator.PLUGIN_ID, message, cause));
+    }
+
+    private static final class Transfer {
+        private final LocalWorkspaceFileStore m_destination;
+
+        private final int m_options;
+
+        Transfer(final LocalWorkspaceFileStore destination, final int options) {
+            m_destination = destination;
+            m_options = options;
+        }
+    }
+}
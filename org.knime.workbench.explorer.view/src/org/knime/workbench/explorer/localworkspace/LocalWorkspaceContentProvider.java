@@ -45,6 +45,8 @@
 package org.knime.workbench.explorer.localworkspace;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -94,6 +96,11 @@
 public class LocalWorkspaceContentProvider extends AbstractContentProvider {
     private static final NodeLogger LOGGER = NodeLogger.getLogger(LocalWorkspaceContentProvider.class);
 
+    /** Observes the shown directories for changes made outside of the explorer, created lazily. */
+    private LocalWorkspaceWatcher m_watcher;
+
+    private boolean m_watcherUnavailable;
+
     /**
      * @param factory the factory that created us.
      * @param id mount id
@@ -151,7 +158,9 @@ public AbstractExplorerFileStore[] getChildren(final Object parentElement) {
             return AbstractContentProvider.getWorkflowChildren(parent);
         }
         if (AbstractExplorerFileStore.isWorkflowGroup(parent)) {
-            return getWorkflowgroupChildren(parent);
+            AbstractExplorerFileStore[] children = getWorkflowgroupChildren(parent);
+            watch(parent, children);
+            return children;
         }
         if (AbstractExplorerFileStore.isWorkflowTemplate(parent)) {
             return getWorkflowTemplateChildren(parent);
@@ -178,6 +187,62 @@ public AbstractExplorerFileStore[] getChildren(final Object parentElement) {
         }
     }
 
+    /**
+     * Registers the given (shown) group and its sub groups with the watcher so that changes made outside of the
+     * explorer show up without a manual refresh. Workflows are not registered, their content is not shown as part of
+     * the group.
+     */
+    private synchronized void watch(final LocalExplorerFileStore group, final AbstractExplorerFileStore[] children) {
+        if (m_watcherUnavailable) {
+            return;
+        }
+        if (m_watcher == null) {
+            try {
+                m_watcher = new LocalWorkspaceWatcher(this::refreshChanged);
+            } catch (IOException | UnsupportedOperationException e) {
+                LOGGER.debug("Changes in the local workspace can't be tracked: " + e.getMessage(), e);
+                m_watcherUnavailable = true;
+                return;
+            }
+        }
+        try {
+            m_watcher.watch(group.toLocalFile().toPath());
+            for (AbstractExplorerFileStore c : children) {
+                if ((c instanceof LocalExplorerFileStore) && AbstractExplorerFileStore.isWorkflowGroup(c)) {
+                    m_watcher.watch(((LocalExplorerFileStore)c).toLocalFile().toPath());
+                }
+            }
+        } catch (CoreException e) {
+            LOGGER.debug("Unable to watch \"" + group + "\": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * The collapsed group and everything below it are no longer watched.
+     */
+    @Override
+    public synchronized void childrenHidden(final AbstractExplorerFileStore store) {
+        if ((m_watcher != null) && (store instanceof LocalExplorerFileStore)) {
+            try {
+                m_watcher.unwatch(((LocalExplorerFileStore)store).toLocalFile().toPath());
+            } catch (CoreException e) {
+                LOGGER.debug("Unable to stop watching \"" + store + "\": " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /** Called by the watcher with the directories that have changed on disk, refreshes only their tree items. */
+    private void refreshChanged(final Set<Path> dirs) {
+        for (Path dir : dirs) {
+            LocalExplorerFileStore store = fromLocalFile(dir.toFile());
+            if (store != null) {
+                refresh(store);
+            }
+        }
+    }
+
     /**
      * Returns children of a workflowgroup.
      *
@@ -314,7 +379,13 @@ public String toString() {
      * {@inheritDoc}
      */
     @Override
-    public void dispose() {
+    public synchronized void dispose() {
+        if (m_watcher != null) {
+            m_watcher.close();
+            m_watcher = null;
+        }
+        // don't start watching again if this provider is still asked for children
+        m_watcherUnavailable = true;
     }
 
     /**
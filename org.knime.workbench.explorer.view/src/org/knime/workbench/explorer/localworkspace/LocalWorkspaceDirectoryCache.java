@@ -0,0 +1,207 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.workbench.explorer.localworkspace;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.NotDirectoryException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.knime.core.node.NodeLogger;
+
+/**
+ * Caches directory listings of the local workspace so that classifying an item (workflow, group, metanode, ...)
+ * doesn't need a separate file system round trip for every marker file that is checked. A directory is read with a
+ * single {@link DirectoryStream}, the attributes of its entries are read lazily (on platforms where the stream
+ * already provides them this is free) and remembered together with the listing.
+ *
+ * <p>
+ * Listings are dropped when the corresponding store is refreshed or modified through the explorer, when
+ * {@link #invalidate(Path)} is called for a file system event, or after {@link #MAX_AGE_NANOS} at the latest, which
+ * bounds staleness for changes made outside of the explorer (e.g. saving a workflow).
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class LocalWorkspaceDirectoryCache {
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(LocalWorkspaceDirectoryCache.class);
+
+    /** Listings older than this are read again. */
+    private static final long MAX_AGE_NANOS = TimeUnit.SECONDS.toNanos(5);
+
+    /** Maximum number of directory listings kept, least recently used ones are dropped first. */
+    private static final int MAX_SIZE = 5000;
+
+    @SuppressWarnings("serial")
+    private static final Map<Path, Listing> LISTINGS =
+        Collections.synchronizedMap(new LinkedHashMap<Path, Listing>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Path, Listing> eldest) {
+                return size() > MAX_SIZE;
+            }
+        });
+
+    private LocalWorkspaceDirectoryCache() {
+        // utility class
+    }
+
+    /**
+     * Returns the attributes of the given file as seen by the (cached) listing of its parent directory.
+     *
+     * @param file the file in question
+     * @return its attributes or an empty optional if the file doesn't exist
+     */
+    static Optional<BasicFileAttributes> getAttributes(final Path file) {
+        final Path parent = file.getParent();
+        final Path name = file.getFileName();
+        if (parent == null || name == null) {
+            try {
+                return Optional.of(Files.readAttributes(file, BasicFileAttributes.class));
+            } catch (IOException e) {
+                return Optional.empty();
+            }
+        }
+        return getListing(parent).getAttributes(name.toString());
+    }
+
+    /**
+     * @param dir a directory
+     * @param name the name of a child
+     * @return whether the (cached) listing of the directory contains an entry with the given name, <code>false</code>
+     *         if the directory doesn't exist or isn't a directory
+     */
+    static boolean hasChild(final Path dir, final String name) {
+        return getListing(dir).contains(name);
+    }
+
+    /**
+     * Drops the listings that are affected by a change of the given file or directory, i.e. the listing of the file
+     * itself, of all its descendants, and of its parent (which holds the attributes of the file).
+     *
+     * @param path the changed file or directory
+     */
+    static void invalidate(final Path path) {
+        synchronized (LISTINGS) {
+            LISTINGS.keySet().removeIf(p -> p.startsWith(path));
+            final Path parent = path.getParent();
+            if (parent != null) {
+                LISTINGS.remove(parent);
+            }
+        }
+    }
+
+    /** Drops all cached listings. */
+    static void invalidateAll() {
+        LISTINGS.clear();
+    }
+
+    private static Listing getListing(final Path dir) {
+        final Listing cached = LISTINGS.get(dir);
+        if (cached != null && System.nanoTime() - cached.m_created < MAX_AGE_NANOS) {
+            return cached;
+        }
+        // concurrent readers of the same directory may both list it, the last one wins; that's cheaper than locking
+        final Listing listing = Listing.read(dir);
+        LISTINGS.put(dir, listing);
+        return listing;
+    }
+
+    /** Snapshot of the entries of one directory. */
+    private static final class Listing {
+
+        private final long m_created = System.nanoTime();
+
+        private final Map<String, Path> m_entries;
+
+        private final Map<String, Optional<BasicFileAttributes>> m_attributes = new ConcurrentHashMap<>();
+
+        private Listing(final Map<String, Path> entries) {
+            m_entries = entries;
+        }
+
+        static Listing read(final Path dir) {
+            final Map<String, Path> entries = new HashMap<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+                for (Path p : stream) {
+                    entries.put(p.getFileName().toString(), p);
+                }
+            } catch (NoSuchFileException | NotDirectoryException e) {
+                // not a directory (anymore) - no children
+            } catch (IOException | SecurityException e) {
+                LOGGER.debug("Unable to list \"" + dir + "\": " + e.getMessage(), e);
+            }
+            return new Listing(entries);
+        }
+
+        boolean contains(final String name) {
+            return m_entries.containsKey(name);
+        }
+
+        Optional<BasicFileAttributes> getAttributes(final String name) {
+            final Path p = m_entries.get(name);
+            if (p == null) {
+                return Optional.empty();
+            }
+            // paths returned by the directory stream may carry their attributes already (e.g. on Windows)
+            return m_attributes.computeIfAbsent(name, n -> {
+                try {
+                    return Optional.of(Files.readAttributes(p, BasicFileAttributes.class));
+                } catch (IOException | SecurityException e) {
+                    return Optional.empty();
+                }
+            });
+        }
+    }
+}
@@ -48,9 +48,9 @@
 import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
 
 import org.eclipse.core.filesystem.EFS;
-import org.eclipse.core.filesystem.IFileInfo;
 import org.eclipse.core.filesystem.IFileStore;
 import org.eclipse.core.runtime.CoreException;
 import org.knime.core.node.NodeLogger;
@@ -66,6 +66,9 @@ public class LocalWorkspaceFileInfo extends AbstractExplorerFileInfo {
 
     private final IFileStore m_file;
 
+    // local path of m_file, used to look up the cached directory listings; null if not available
+    private final Path m_path;
+
     //caches the isComponent flag
     private Boolean m_isComponent = null;
 
@@ -75,6 +78,17 @@ public class LocalWorkspaceFileInfo extends AbstractExplorerFileInfo {
     LocalWorkspaceFileInfo(final IFileStore file) {
         super(file.getName());
         m_file = file;
+        m_path = toPath(file);
+    }
+
+    private static Path toPath(final IFileStore file) {
+        try {
+            final File localFile = file.toLocalFile(EFS.NONE, null);
+            return localFile == null ? null : localFile.toPath();
+        } catch (CoreException ex) {
+            LOGGER.debug("Unable to resolve local file for \"" + file + "\": " + ex.getMessage(), ex);
+            return null;
+        }
     }
 
     /**
@@ -130,7 +144,7 @@ public final void setAttribute(final int attribute, final boolean value) {
      */
     @Override
     public boolean isWorkflow() {
-        return exists() && isWorkflow(m_file);
+        return isWorkflow(m_path);
     }
 
     /**
@@ -138,7 +152,7 @@ public boolean isWorkflow() {
      */
     @Override
     public boolean isWorkflowGroup() {
-        return exists() && isWorkflowGroup(m_file);
+        return isWorkflowGroup(m_path);
     }
 
     /**
@@ -146,7 +160,7 @@ public boolean isWorkflowGroup() {
      */
     @Override
     public boolean isWorkflowTemplate() {
-        return exists() && isWorkflowTemplate(m_file);
+        return isWorkflowTemplate(m_path);
     }
 
     /**
@@ -154,7 +168,7 @@ public boolean isWorkflowTemplate() {
      */
     @Override
     public boolean isComponentTemplate() {
-        return exists() && isWorkflowTemplate() && isComponentTemplate(m_file);
+        return isWorkflowTemplate() && isComponentTemplate(m_file);
     }
 
     /**
@@ -162,7 +176,7 @@ public boolean isComponentTemplate() {
      */
     @Override
     public boolean isMetaNodeTemplate() {
-        return exists() && isWorkflowTemplate() && !isComponentTemplate(m_file);
+        return isWorkflowTemplate() && !isComponentTemplate(m_file);
     }
 
     /**
@@ -170,7 +184,7 @@ public boolean isMetaNodeTemplate() {
      */
     @Override
     public boolean isNode() {
-        return exists() && isNode(m_file);
+        return isNode(m_path);
     }
 
     /**
@@ -178,7 +192,7 @@ public boolean isNode() {
      */
     @Override
     public boolean isFile() {
-        return exists() && isDataFile(m_file);
+        return isDataFile(m_path);
     }
 
     /**
@@ -194,47 +208,50 @@ public boolean isReservedSystemItem() {
      */
     @Override
     public boolean isMetaNode() {
-        return exists() && isMetaNode(m_file);
+        return isMetaNode(m_path);
+    }
+
+    /* The classification is answered from cached directory listings: an item is typed by the marker files in its
+     * own directory and in its parent's directory, which would otherwise be one stat call per marker and level. */
+
+    private static boolean exists(final Path file) {
+        return file != null && LocalWorkspaceDirectoryCache.getAttributes(file).isPresent();
+    }
+
+    private static boolean isDirectory(final Path file) {
+        return file != null
+            && LocalWorkspaceDirectoryCache.getAttributes(file).map(BasicFileAttributes::isDirectory).orElse(false);
     }
 
-    private static boolean isWorkflow(final IFileStore file) {
-        if (file == null || !file.fetchInfo().exists()) {
+    private static boolean hasChild(final Path dir, final String name) {
+        return LocalWorkspaceDirectoryCache.hasChild(dir, name);
+    }
+
+    private static boolean isWorkflow(final Path file) {
+        if (!isDirectory(file)) {
             return false;
         }
-        IFileStore tmplateFile = file.getChild(WorkflowPersistor.TEMPLATE_FILE); // metanode, no workflow
-        if (tmplateFile.fetchInfo().exists()) {
+        if (hasChild(file, WorkflowPersistor.TEMPLATE_FILE)) { // metanode, no workflow
             return false;
         }
-
-        IFileStore wfFile = file.getChild(WorkflowPersistor.WORKFLOW_FILE); // no workflow at all
-        if (!wfFile.fetchInfo().exists()) {
+        if (!hasChild(file, WorkflowPersistor.WORKFLOW_FILE)) { // no workflow at all
             return false;
         }
-
-        IFileStore parentFile = file.getParent();
+        Path parentFile = file.getParent();
         if (parentFile == null) {
             return false;
         }
-        IFileStore parentWfFile = parentFile.getChild(WorkflowPersistor.WORKFLOW_FILE); // metanode inside a workflow
-        return !parentWfFile.fetchInfo().exists();
+        return !hasChild(parentFile, WorkflowPersistor.WORKFLOW_FILE); // metanode inside a workflow
     }
 
-    private static boolean isWorkflowGroup(final IFileStore file) {
-        if (file == null || !file.fetchInfo().exists()) {
-            return false;
-        }
-        return file.fetchInfo().isDirectory() && !isWorkflow(file)
+    private static boolean isWorkflowGroup(final Path file) {
+        return isDirectory(file) && !isWorkflow(file)
                 && !isMetaNode(file) && !isNode(file)
                 && !isWorkflowTemplate(file);
     }
 
-    private static boolean isWorkflowTemplate(final IFileStore file) {
-        if (file == null || !file.fetchInfo().exists()) {
-            return false;
-        }
-        IFileStore templateFile = file.getChild(
-                WorkflowPersistor.TEMPLATE_FILE);
-        return templateFile.fetchInfo().exists();
+    private static boolean isWorkflowTemplate(final Path file) {
+        return isDirectory(file) && hasChild(file, WorkflowPersistor.TEMPLATE_FILE);
     }
 
     private boolean isComponentTemplate(final IFileStore file) {
@@ -256,36 +273,28 @@ private boolean isComponentTemplate(final IFileStore file) {
         return m_isComponent;
     }
 
-    private static boolean isMetaNode(final IFileStore file) {
-        if (file == null || !file.fetchInfo().exists()) {
+    private static boolean isMetaNode(final Path file) {
+        if (!isDirectory(file)) {
             return false;
         }
-        IFileStore wfFile = file.getChild(WorkflowPersistor.WORKFLOW_FILE);
-        IFileStore parentFile = file.getParent();
+        Path parentFile = file.getParent();
         if (parentFile == null) {
             return false;
         }
-        IFileStore parentWfFile = parentFile.getChild(
-                WorkflowPersistor.WORKFLOW_FILE);
-        return wfFile.fetchInfo().exists() && parentWfFile.fetchInfo().exists();
+        return hasChild(file, WorkflowPersistor.WORKFLOW_FILE)
+            && hasChild(parentFile, WorkflowPersistor.WORKFLOW_FILE);
     }
 
-    private static boolean isNode(final IFileStore file) {
-        if (file == null || !file.fetchInfo().exists() || isMetaNode(file)) {
+    private static boolean isNode(final Path file) {
+        if (!isDirectory(file) || isMetaNode(file)) {
             return false;
         }
-        IFileStore containerFile = file.getChild(
-                FileSingleNodeContainerPersistor.SETTINGS_FILE_NAME);
-        return containerFile.fetchInfo().exists()
+        return hasChild(file, FileSingleNodeContainerPersistor.SETTINGS_FILE_NAME)
                 && isWorkflow(file.getParent());
     }
 
-    private static boolean isDataFile(final IFileStore file) {
-        if (file == null) {
-            return false;
-        }
-        final IFileInfo fileInfo = file.fetchInfo();
-        return fileInfo.exists() && !fileInfo.isDirectory();
+    private static boolean isDataFile(final Path file) {
+        return exists(file) && !isDirectory(file);
     }
 
     /**
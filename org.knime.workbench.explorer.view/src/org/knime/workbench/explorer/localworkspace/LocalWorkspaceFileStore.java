@@ -129,7 +129,11 @@ public boolean equals(final Object obj) {
     @Override
     public void copy(final IFileStore destination, final int options,
             final IProgressMonitor monitor) throws CoreException {
-        super.copy(destination, options, monitor);
+        if (destination instanceof LocalWorkspaceFileStore) {
+            transfer((LocalWorkspaceFileStore)destination, options, false, monitor);
+        } else {
+            super.copy(destination, options, monitor);
+        }
     }
 
     /**
@@ -237,7 +241,13 @@ public void refresh(final IProgressMonitor monitor) {
         refreshResource(this);
     }
 
-    private static void refreshResource(final LocalExplorerFileStore fileStore) {
+    static void refreshResource(final LocalExplorerFileStore fileStore) {
+        try {
+            // the store or something below it has changed, forget what is known about its contents
+            LocalWorkspaceDirectoryCache.invalidate(fileStore.toLocalFile().toPath());
+        } catch (CoreException ex) {
+            LocalWorkspaceDirectoryCache.invalidateAll();
+        }
         fileStore.getContentProvider().refresh(fileStore);
     }
 
@@ -287,6 +297,10 @@ public OutputStream openOutputStream(final int options,
     @Override
     public void move(final IFileStore destination, final int options,
             final IProgressMonitor monitor) throws CoreException {
+        if (destination instanceof LocalWorkspaceFileStore) {
+            transfer((LocalWorkspaceFileStore)destination, options, true, monitor);
+            return;
+        }
         File srcFile = toLocalFile(options, monitor);
         File dstFile = destination.toLocalFile(options, monitor);
 
@@ -322,6 +336,14 @@ public void move(final IFileStore destination, final int options,
         }
     }
 
+    private void transfer(final LocalWorkspaceFileStore destination, final int options, final boolean move,
+        final IProgressMonitor monitor) throws CoreException {
+        IStatus status = new LocalCopyEngine(move).add(this, destination, options).run(monitor);
+        if (!status.isOK()) {
+            throw new CoreException(status);
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
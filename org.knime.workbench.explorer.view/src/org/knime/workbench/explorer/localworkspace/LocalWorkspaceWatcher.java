@@ -0,0 +1,249 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.workbench.explorer.localworkspace;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.knime.core.node.NodeLogger;
+import org.knime.core.node.workflow.WorkflowPersistor;
+
+/**
+ * Watches the directories of the local workspace that are currently shown in the explorer and reports which of them
+ * have changed on disk, e.g. because a batch executor wrote a workflow or a git checkout replaced a workflow group.
+ *
+ * <p>
+ * Only directories that were {@link #watch(Path) registered} are observed (the watch service isn't recursive), which
+ * are the expanded workflow groups and their sub groups. Workflows and templates are never observed, so that locking
+ * and saving a workflow doesn't cause refreshes. If a <tt>workflow.knime</tt> or <tt>template.knime</tt> appears in
+ * an observed group, the group has turned into a workflow (or template): it is no longer observed and its parent is
+ * reported instead. Directories are {@link #unwatch(Path) released} when they are collapsed or deleted, so that the
+ * limit of observed directories is only reached by the groups that are actually shown.
+ *
+ * <p>
+ * Events are coalesced until the file system has been quiet for {@link #QUIET_PERIOD_MS} (at most
+ * {@link #MAX_DELAY_MS}); the cached listings of the changed entries are invalidated and the set of changed
+ * directories (without those that are contained in another changed directory) is passed to the listener.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class LocalWorkspaceWatcher {
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(LocalWorkspaceWatcher.class);
+
+    private static final long QUIET_PERIOD_MS = 300;
+
+    private static final long MAX_DELAY_MS = 2000;
+
+    /** Upper bound of watched directories, keeps us well below the default inotify limit. */
+    private static final int MAX_WATCHED_DIRECTORIES = 4096;
+
+    private final WatchService m_watchService;
+
+    private final Map<Path, WatchKey> m_keys = new ConcurrentHashMap<>();
+
+    private final Consumer<Set<Path>> m_listener;
+
+    private final Thread m_thread;
+
+    private volatile boolean m_closed;
+
+    /**
+     * Creates and starts a new watcher.
+     *
+     * @param listener called (from the watcher thread) with the directories whose content has changed
+     * @throws IOException if the watch service can't be created
+     */
+    LocalWorkspaceWatcher(final Consumer<Set<Path>> listener) throws IOException {
+        m_listener = listener;
+        m_watchService = FileSystems.getDefault().newWatchService();
+        m_thread = new Thread(this::run, "KNIME Local Workspace Watcher");
+        m_thread.setDaemon(true);
+        m_thread.start();
+    }
+
+    /**
+     * Starts observing the given workflow group if it isn't observed already. Cheap if it is. Workflows and templates
+     * are not observed.
+     *
+     * @param dir the directory of the workflow group
+     */
+    void watch(final Path dir) {
+        if (m_closed || m_keys.containsKey(dir) || (m_keys.size() >= MAX_WATCHED_DIRECTORIES)
+            || isWorkflowOrTemplate(dir)) {
+            return;
+        }
+        try {
+            m_keys.put(dir, dir.register(m_watchService, ENTRY_CREATE, ENTRY_DELETE));
+        } catch (IOException | ClosedWatchServiceException | UnsupportedOperationException e) {
+            LOGGER.debug("Unable to watch \"" + dir + "\": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Stops observing the given directory and all directories below it, e.g. because it has been collapsed.
+     *
+     * @param dir the directory
+     */
+    void unwatch(final Path dir) {
+        m_keys.entrySet().removeIf(e -> {
+            if (e.getKey().startsWith(dir)) {
+                e.getValue().cancel();
+                return true;
+            }
+            return false;
+        });
+    }
+
+    /**
+     * @param dir a directory
+     * @return whether the directory is currently observed
+     */
+    boolean isWatched(final Path dir) {
+        return m_keys.containsKey(dir);
+    }
+
+    private static boolean isWorkflowOrTemplate(final Path dir) {
+        return Files.exists(dir.resolve(WorkflowPersistor.WORKFLOW_FILE))
+            || Files.exists(dir.resolve(WorkflowPersistor.TEMPLATE_FILE));
+    }
+
+    /** Stops the watcher thread and releases the watch service. */
+    void close() {
+        m_closed = true;
+        try {
+            m_watchService.close();
+        } catch (IOException e) {
+            LOGGER.debug("Unable to close watch service: " + e.getMessage(), e);
+        }
+        m_keys.clear();
+    }
+
+    private void run() {
+        try {
+            while (!m_closed) {
+                WatchKey key = m_watchService.take();
+                final Set<Path> changed = new LinkedHashSet<>();
+                final long deadline = System.currentTimeMillis() + MAX_DELAY_MS;
+                do {
+                    collect(key, changed);
+                    key = m_watchService.poll(QUIET_PERIOD_MS, TimeUnit.MILLISECONDS);
+                } while (key != null && System.currentTimeMillis() < deadline);
+                if (key != null) {
+                    collect(key, changed);
+                }
+                if (!changed.isEmpty()) {
+                    m_listener.accept(outermost(changed));
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // closed
+        } catch (RuntimeException e) {
+            LOGGER.error("Local workspace watcher stopped unexpectedly: " + e.getMessage(), e);
+        }
+    }
+
+    private void collect(final WatchKey key, final Set<Path> changed) {
+        final Path dir = (Path)key.watchable();
+        if (key.isValid() && isWorkflowOrTemplate(dir)) {
+            // the group has turned into a workflow, its content isn't shown anymore but the parent's icon changes
+            key.pollEvents();
+            unwatch(dir);
+            LocalWorkspaceDirectoryCache.invalidate(dir);
+            if (dir.getParent() != null) {
+                changed.add(dir.getParent());
+            }
+            return;
+        }
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == OVERFLOW) {
+                // events got lost, everything below this directory may have changed
+                LocalWorkspaceDirectoryCache.invalidate(dir);
+            } else {
+                final Path child = dir.resolve((Path)event.context());
+                LocalWorkspaceDirectoryCache.invalidate(child);
+                if (event.kind() == ENTRY_DELETE) {
+                    unwatch(child);
+                }
+            }
+            changed.add(dir);
+        }
+        if (!key.reset()) {
+            // directory is gone (or not accessible anymore)
+            m_keys.remove(dir, key);
+            LocalWorkspaceDirectoryCache.invalidate(dir);
+            if (dir.getParent() != null) {
+                changed.add(dir.getParent());
+            }
+        }
+    }
+
+    /** Removes all directories that are contained in another one of the set, refreshing those covers them. */
+    private static Set<Path> outermost(final Set<Path> dirs) {
+        final Set<Path> result = new LinkedHashSet<>();
+        for (Path p : dirs) {
+            if (dirs.stream().noneMatch(o -> !o.equals(p) && p.startsWith(o))) {
+                result.add(p);
+            }
+        }
+        return result;
+    }
+}
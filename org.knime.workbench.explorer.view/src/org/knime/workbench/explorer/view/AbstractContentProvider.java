@@ -239,6 +239,17 @@ public final void refresh(final AbstractExplorerFileStore changedChild) {
                 changedChild));
     }
 
+    /**
+     * Called when the children of the given store are no longer shown, e.g. because its tree item has been collapsed.
+     * Providers may release resources they hold for the children. The default implementation does nothing.
+     *
+     * @param store the store whose children are hidden
+     * @since 8.7
+     */
+    public void childrenHidden(final AbstractExplorerFileStore store) {
+        // nothing to release
+    }
+
     /**
      * Save state and parameters.
      *
@@ -80,6 +80,7 @@
 import org.knime.workbench.explorer.ExplorerMountTable;
 import org.knime.workbench.explorer.MountPoint;
 import org.knime.workbench.explorer.filesystem.AbstractExplorerFileStore;
+import org.knime.workbench.explorer.filesystem.MessageFileStore;
 import org.knime.workbench.explorer.view.preferences.ExplorerPreferenceInitializer;
 import org.knime.workbench.explorer.view.preferences.MountSettings;
 import org.knime.workbench.ui.KNIMEUIPlugin;
@@ -125,6 +126,9 @@ public class ContentDelegator extends LabelProvider
 
     private final boolean m_updateProvSettings;
 
+    /** Fetches children in the background if deferred loading is enabled, <code>null</code> otherwise. */
+    private DeferredChildrenLoader m_deferredLoader;
+
     /**
      * Creates a new content delegator and registers it for property changes of
      * the explorer mount table. None of the mounted content is visible through
@@ -149,6 +153,53 @@ public ContentDelegator(final boolean updateProvSettings) {
         ExplorerMountTable.addPropertyChangeListener(this);
     }
 
+    /**
+     * Enables or disables deferred loading of children. If enabled, the children of mount points and workflow
+     * groups are fetched in a background job: a placeholder is shown until they are known, and listeners are
+     * notified with a {@link #CONTENT_CHANGED} event for the parent once they are. Known children are reused until
+     * the responsible content provider reports a change.
+     *
+     * @param deferred <code>true</code> to fetch children in the background, <code>false</code> to fetch them
+     *            synchronously (the default)
+     * @since 8.7
+     */
+    public void setDeferredLoading(final boolean deferred) {
+        if (deferred && m_deferredLoader == null) {
+            m_deferredLoader = new DeferredChildrenLoader(this::fetchChildren, this::childrenLoaded);
+        } else if (!deferred && m_deferredLoader != null) {
+            m_deferredLoader.dispose();
+            m_deferredLoader = null;
+        }
+    }
+
+    /**
+     * @return <code>true</code> if children are currently being fetched in the background
+     * @since 8.7
+     */
+    public boolean isLoadingChildren() {
+        final DeferredChildrenLoader loader = m_deferredLoader;
+        return loader != null && loader.isLoading();
+    }
+
+    /**
+     * Called by the view when the children of the given tree element are no longer shown (its item has been
+     * collapsed). The children fetched in the background for the elements below it are forgotten and the responsible
+     * content provider is {@link AbstractContentProvider#childrenHidden(AbstractExplorerFileStore) notified}.
+     *
+     * @param element the collapsed tree element
+     * @since 8.7
+     */
+    public void collapsed(final Object element) {
+        final DeferredChildrenLoader loader = m_deferredLoader;
+        if (loader != null) {
+            loader.release(element);
+        }
+        final AbstractExplorerFileStore store = getFileStore(element);
+        if (store != null) {
+            getProvider(element).childrenHidden(store);
+        }
+    }
+
     /**
      * Adds the specified content provider to the explorer.
      *
@@ -197,6 +248,7 @@ public void dispose() {
         }
         removeAllMountPoints();
         ExplorerMountTable.removePropertyChangeListener(this);
+        setDeferredLoading(false);
         super.dispose();
     }
 
@@ -241,6 +293,51 @@ public Object[] getChildren(final Object parentElement) {
         if (parentElement == this) {
             return getVisibleContentProvider().toArray();
         }
+        final DeferredChildrenLoader loader = m_deferredLoader;
+        if (loader != null && isLoadedDeferred(parentElement)) {
+            return loader.getChildren(parentElement, createPlaceholder(parentElement));
+        }
+        return fetchChildren(parentElement);
+    }
+
+    /**
+     * Mount points and workflow groups can have arbitrarily many children (and may be remote), the children of
+     * everything else (e.g. the nodes of an open workflow) are computed synchronously. This is called on the UI thread
+     * and must not ask a server: all items of remote mount points are loaded in the background (remote workflows may
+     * have children too, e.g. jobs), local items are classified from the file system (the local workspace caches its
+     * directory listings).
+     */
+    private static boolean isLoadedDeferred(final Object element) {
+        if (element instanceof AbstractContentProvider) {
+            return true;
+        }
+        if (!(element instanceof ContentObject)) {
+            return false;
+        }
+        final ContentObject co = (ContentObject)element;
+        if (co.getObject() instanceof MessageFileStore) {
+            return false;
+        }
+        return co.getProvider().isRemote() || AbstractExplorerFileStore.isWorkflowGroup(co.getObject());
+    }
+
+    private static AbstractContentProvider getProvider(final Object element) {
+        return element instanceof ContentObject ? ((ContentObject)element).getProvider()
+            : (AbstractContentProvider)element;
+    }
+
+    private static ContentObject createPlaceholder(final Object parentElement) {
+        final AbstractContentProvider provider = getProvider(parentElement);
+        return new ContentObject(provider,
+            new MessageFileStore(provider.getMountID(), "Loading\u2026", getFileStore(parentElement)));
+    }
+
+    private void childrenLoaded(final Object parentElement) {
+        notifyListeners(new PropertyChangeEvent(getProvider(parentElement), CONTENT_CHANGED, null,
+            getFileStore(parentElement)));
+    }
+
+    private Object[] fetchChildren(final Object parentElement) {
         if (parentElement instanceof AbstractContentProvider) {
             AbstractContentProvider prov =
                     (AbstractContentProvider)parentElement;
@@ -325,6 +422,12 @@ public boolean hasChildren(final Object element) {
             // content providers are the first level children
             return !m_provider.isEmpty();
         }
+        final DeferredChildrenLoader loader = m_deferredLoader;
+        if (loader != null && isLoadedDeferred(element)) {
+            // don't fetch the children just to decide whether to show an expand arrow
+            final Boolean hasChildren = loader.hasChildren(element);
+            return hasChildren == null || hasChildren.booleanValue();
+        }
         if (element instanceof AbstractContentProvider) {
             // content providers are the first level children
             AbstractContentProvider prov = (AbstractContentProvider)element;
@@ -464,6 +567,9 @@ public Image getImage(final Object obj) {
             return null;
         }
         ContentObject c = (ContentObject)obj;
+        if (c.getObject() instanceof MessageFileStore) {
+            return ((MessageFileStore)c.getObject()).getImage();
+        }
         return c.getProvider().getImage(c.getObject());
     }
 
@@ -486,6 +592,9 @@ public String getText(final Object element) {
             return null;
         }
         ContentObject c = (ContentObject)element;
+        if (c.getObject() instanceof MessageFileStore) {
+            return c.getObject().getName();
+        }
         return c.getProvider().getText(c.getObject());
     }
 
@@ -673,6 +782,11 @@ public void labelProviderChanged(final LabelProviderChangedEvent event) {
             AbstractContentProvider source =
                     (AbstractContentProvider)event.getSource();
             Object refresh = event.getElement();
+            final DeferredChildrenLoader loader = m_deferredLoader;
+            if (loader != null) {
+                loader.invalidate(refresh instanceof AbstractExplorerFileStore
+                    ? getTreeObjectFor((AbstractExplorerFileStore)refresh) : source);
+            }
             if (refresh instanceof AbstractExplorerFileStore) {
                 notifyListeners(new PropertyChangeEvent(source,
                         CONTENT_CHANGED, null, refresh));
@@ -0,0 +1,248 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.workbench.explorer.view;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.knime.core.node.NodeLogger;
+import org.knime.workbench.explorer.filesystem.AbstractExplorerFileStore;
+
+/**
+ * Fetches the children of tree elements in background jobs so that expanding a large workflow group (or one on a
+ * slow server) never blocks the UI thread. Until the children of an element are known a placeholder is returned;
+ * once they are, the callback is notified so that the element gets refreshed in the viewer. Known children are kept
+ * until the element is {@link #invalidate(Object) invalidated}, after which the old children are still returned
+ * while the new ones are being fetched (no placeholder flicker on refresh). The children of elements that are no longer
+ * shown are forgotten: those below a {@link #release(Object) collapsed} element and those of elements that disappeared
+ * when their parent was fetched again.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class DeferredChildrenLoader {
+
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(DeferredChildrenLoader.class);
+
+    private static final class Entry {
+        private volatile Object[] m_children;
+
+        private volatile boolean m_stale;
+
+        private volatile boolean m_loading;
+    }
+
+    private final Map<Object, Entry> m_entries = new ConcurrentHashMap<>();
+
+    private final Function<Object, Object[]> m_fetcher;
+
+    private final Consumer<Object> m_loadedCallback;
+
+    private volatile boolean m_disposed;
+
+    /**
+     * @param fetcher computes the children of an element, called from a background job
+     * @param loadedCallback called (from the background job) with an element whose children have been fetched
+     */
+    DeferredChildrenLoader(final Function<Object, Object[]> fetcher, final Consumer<Object> loadedCallback) {
+        m_fetcher = fetcher;
+        m_loadedCallback = loadedCallback;
+    }
+
+    /**
+     * Returns the known children of the element and starts fetching them if they are unknown or outdated.
+     *
+     * @param parent the tree element
+     * @param placeholder returned if the children aren't known yet
+     * @return the known children or the placeholder
+     */
+    Object[] getChildren(final Object parent, final Object placeholder) {
+        final Entry entry = m_entries.computeIfAbsent(parent, p -> new Entry());
+        final Object[] children = entry.m_children;
+        if (children == null || entry.m_stale) {
+            load(parent, entry);
+        }
+        return children == null ? new Object[]{placeholder} : children;
+    }
+
+    /**
+     * @param parent the tree element
+     * @return whether the element has children, or <code>null</code> if that isn't known yet
+     */
+    Boolean hasChildren(final Object parent) {
+        final Entry entry = m_entries.get(parent);
+        final Object[] children = entry == null ? null : entry.m_children;
+        return children == null ? null : Boolean.valueOf(children.length > 0);
+    }
+
+    /**
+     * Marks the children of the given element and of all elements below it as outdated. They are fetched again the
+     * next time they are requested.
+     *
+     * @param root a content provider, a content object, or <code>null</code> for all elements
+     */
+    void invalidate(final Object root) {
+        m_entries.forEach((element, entry) -> {
+            if (isSameOrBelow(element, root)) {
+                entry.m_stale = true;
+            }
+        });
+    }
+
+    /**
+     * Forgets the children of all elements below the given one and marks the children of the element itself as
+     * outdated, e.g. because it has been collapsed. Its (old) children are kept to answer {@link #hasChildren(Object)}.
+     *
+     * @param root a content provider or a content object
+     */
+    void release(final Object root) {
+        m_entries.keySet().removeIf(element -> !root.equals(element) && isSameOrBelow(element, root));
+        final Entry entry = m_entries.get(root);
+        if (entry != null) {
+            entry.m_stale = true;
+        }
+    }
+
+    /**
+     * @return the number of elements whose children are known or being fetched
+     */
+    int size() {
+        return m_entries.size();
+    }
+
+    /**
+     * @return <code>true</code> if children are currently being fetched in the background
+     */
+    boolean isLoading() {
+        return m_entries.values().stream().anyMatch(e -> e.m_loading);
+    }
+
+    /** Cancels pending fetches and forgets all known children. */
+    void dispose() {
+        m_disposed = true;
+        Job.getJobManager().cancel(this);
+        m_entries.clear();
+    }
+
+    private static boolean isSameOrBelow(final Object element, final Object root) {
+        if (root == null || root.equals(element)) {
+            return true;
+        }
+        if (!(element instanceof ContentObject)) {
+            return false;
+        }
+        final ContentObject co = (ContentObject)element;
+        if (root instanceof AbstractContentProvider) {
+            return co.getProvider() == root;
+        }
+        if (root instanceof ContentObject && ((ContentObject)root).getProvider() == co.getProvider()) {
+            final String rootPath = ((ContentObject)root).getObject().getFullName();
+            final String path = co.getObject().getFullName();
+            return path.startsWith(rootPath.endsWith("/") ? rootPath : rootPath + "/");
+        }
+        return false;
+    }
+
+    /** Forgets the children of the previous children (and everything below them) that are gone. */
+    private void forgetRemoved(final Object[] previous, final Object[] current) {
+        final Set<Object> remaining = new HashSet<>(Arrays.asList(current));
+        for (Object child : previous) {
+            if (!remaining.contains(child)) {
+                m_entries.keySet().removeIf(element -> isSameOrBelow(element, child));
+            }
+        }
+    }
+
+    private void load(final Object parent, final Entry entry) {
+        synchronized (entry) {
+            if (entry.m_loading || m_disposed) {
+                return;
+            }
+            entry.m_loading = true;
+            entry.m_stale = false;
+        }
+        final AbstractExplorerFileStore store = ContentDelegator.getFileStore(parent);
+        final Job job = new Job("Loading content of " + (store == null ? parent : store.getFullName())) {
+            @Override
+            protected IStatus run(final IProgressMonitor monitor) {
+                try {
+                    final Object[] children = m_fetcher.apply(parent);
+                    if (monitor.isCanceled() || m_disposed) {
+                        return Status.CANCEL_STATUS;
+                    }
+                    final Object[] previous = entry.m_children;
+                    entry.m_children = children;
+                    if (previous != null) {
+                        forgetRemoved(previous, children);
+                    }
+                } catch (RuntimeException e) {
+                    LOGGER.warn("Unable to fetch content of " + parent + ": " + e.getMessage(), e);
+                    if (entry.m_children == null) {
+                        entry.m_children = new Object[0];
+                    }
+                } finally {
+                    entry.m_loading = false;
+                }
+                m_loadedCallback.accept(parent);
+                return Status.OK_STATUS;
+            }
+
+            @Override
+            public boolean belongsTo(final Object family) {
+                return family == DeferredChildrenLoader.this;
+            }
+        };
+        job.setSystem(true);
+        job.schedule();
+    }
+}
@@ -203,8 +203,7 @@ public T getAndCheckDestinationFlow(final S source,
                     } else {
                         boolean isModifiable = resultInfo.isModifiable()
                             && ExplorerFileSystemUtils
-                                .isLockable((List<AbstractExplorerFileStore>)Arrays.asList(result), false) == null
-                            && !ExplorerFileSystemUtils.hasOpenReports(Arrays.asList(result));
+                                .isLockable((List<AbstractExplorerFileStore>)Arrays.asList(result), false) == null;
                         /* Make sure that a workflow group is not overwritten by
                          * a workflow, a template or a file or vice versa */
                         final boolean overwriteOk = isSameType(srcInfo, resultInfo) && m_isOverwriteEnabled;
@@ -77,8 +77,10 @@
 import org.eclipse.jface.viewers.IDoubleClickListener;
 import org.eclipse.jface.viewers.ISelectionChangedListener;
 import org.eclipse.jface.viewers.IStructuredSelection;
+import org.eclipse.jface.viewers.ITreeViewerListener;
 import org.eclipse.jface.viewers.SelectionChangedEvent;
 import org.eclipse.jface.viewers.StructuredSelection;
+import org.eclipse.jface.viewers.TreeExpansionEvent;
 import org.eclipse.jface.viewers.TreeSelection;
 import org.eclipse.jface.viewers.TreeViewer;
 import org.eclipse.jface.viewers.ViewerFilter;
@@ -451,9 +453,13 @@ private boolean onDoubleClickInTreeViewerInSWT() {
 
     private void createTreeViewer(final Composite parent,
             final ContentDelegator provider) {
-        m_viewer = new TreeViewer(parent, SWT.MULTI | SWT.H_SCROLL | SWT.V_SCROLL);
+        // virtual: items (and their labels) are only materialized when they become visible
+        m_viewer = new TreeViewer(parent, SWT.MULTI | SWT.H_SCROLL | SWT.V_SCROLL | SWT.VIRTUAL);
         m_viewer.getTree().setLayoutData(new GridData(GridData.FILL_BOTH));
+        m_viewer.setUseHashlookup(true);
         m_viewer.setComparator(new ExplorerViewComparator());
+        // children of mount points and workflow groups are fetched in the background
+        provider.setDeferredLoading(true);
         m_viewer.setContentProvider(provider);
         m_viewer.setLabelProvider(provider);
         m_viewer.setInput(provider); // the provider is also the root!
@@ -486,6 +492,18 @@ public void run() {
                 });
             }
         });
+        m_viewer.addTreeListener(new ITreeViewerListener() {
+            @Override
+            public void treeExpanded(final TreeExpansionEvent event) {
+                // children are requested by the viewer
+            }
+
+            @Override
+            public void treeCollapsed(final TreeExpansionEvent event) {
+                // lets providers release what they hold for the hidden children (e.g. file system watches)
+                provider.collapsed(event.getElement());
+            }
+        });
         m_viewer.addSelectionChangedListener(this);
         // this allows other plugins to see our selection.
         getSite().setSelectionProvider(m_viewer);
@@ -600,6 +618,11 @@ public void run() {
                         List<Object> sel = ContentDelegator.getTreeObjectList(fs);
                         m_viewer.setSelection(new StructuredSelection(sel),
                                 true);
+                        if (((IStructuredSelection)m_viewer.getSelection()).size() < sel.size()
+                            && m_contentDelegator.isLoadingChildren()) {
+                            // not all of them are in the tree yet, try again after the next refresh
+                            m_nextSelection.compareAndSet(null, fs);
+                        }
                     }
 
                     for (ViewerFilter vf : m_viewer.getFilters()) {
@@ -46,7 +46,6 @@
 
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
@@ -76,6 +75,7 @@
 import org.knime.workbench.explorer.filesystem.AbstractExplorerFileInfo;
 import org.knime.workbench.explorer.filesystem.AbstractExplorerFileStore;
 import org.knime.workbench.explorer.filesystem.ExplorerFileSystemUtils;
+import org.knime.workbench.explorer.filesystem.ExplorerFileSystemUtils.LockResult;
 import org.knime.workbench.explorer.filesystem.LocalExplorerFileStore;
 import org.knime.workbench.explorer.filesystem.MessageFileStore;
 import org.knime.workbench.explorer.filesystem.RemoteExplorerFileStore;
@@ -303,23 +303,14 @@ protected boolean copyOrMove(final List<AbstractExplorerFileStore>
         final List<LocalExplorerFileStore> lockedDest = new ArrayList<LocalExplorerFileStore>();
         HashMap<AbstractContentProvider, List<AbstractExplorerFileStore>> overWrittenFlows =
             new HashMap<AbstractContentProvider, List<AbstractExplorerFileStore>>();
+        final List<LocalExplorerFileStore> localOverwrittenFlows = new ArrayList<LocalExplorerFileStore>();
         for (AbstractExplorerFileStore aefs : destChecker.getOverwriteFS()) {
             AbstractExplorerFileInfo info = aefs.fetchInfo();
             if (!info.isWorkflow()) {
                 continue;
             }
             if (aefs instanceof LocalExplorerFileStore) {
-                LocalExplorerFileStore lfs = (LocalExplorerFileStore)aefs;
-                if (ExplorerFileSystemUtils.lockWorkflow(lfs)) {
-                    lockedDest.add(lfs);
-                    // Flows opened in an editor cannot be overwritten
-                    if (ExplorerFileSystemUtils.hasOpenWorkflows(Arrays.asList(lfs))
-                        || ExplorerFileSystemUtils.hasOpenReports(Arrays.asList(lfs))) {
-                        notOverwritableDest.add(lfs);
-                    }
-                } else {
-                    notOverwritableDest.add(lfs);
-                }
+                localOverwrittenFlows.add((LocalExplorerFileStore)aefs);
             }
             // collect all overwritten flows for each content provider
             AbstractContentProvider acp = aefs.getContentProvider();
@@ -330,6 +321,13 @@ protected boolean copyOrMove(final List<AbstractExplorerFileStore>
             }
             flowList.add(aefs);
         }
+        // lock all local destinations at once and check the open editors only once
+        final LockResult lockResult = ExplorerFileSystemUtils.lockWorkflows(localOverwrittenFlows);
+        lockedDest.addAll(lockResult.getLocked());
+        notOverwritableDest.addAll(lockResult.getUnlockable());
+        // Flows opened in an editor (or their reports) cannot be overwritten
+        notOverwritableDest.addAll(ExplorerFileSystemUtils.getOpenWorkflows(lockResult.getLocked(), false));
+        notOverwritableDest.addAll(ExplorerFileSystemUtils.getOpenReports(lockResult.getLocked()));
         // confirm overwrite with each content provider (server is currently only one that pops up a dialog)
         for (AbstractContentProvider prov : overWrittenFlows.keySet()) {
             // TODO: how can we avoid that multiple confirm dialogs pop up?
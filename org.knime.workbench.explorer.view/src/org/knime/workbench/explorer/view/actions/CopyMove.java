@@ -68,6 +68,8 @@
 import org.knime.workbench.explorer.filesystem.LocalExplorerFileStore;
 import org.knime.workbench.explorer.filesystem.RemoteExplorerFileInfo;
 import org.knime.workbench.explorer.filesystem.RemoteExplorerFileStore;
+import org.knime.workbench.explorer.localworkspace.LocalCopyEngine;
+import org.knime.workbench.explorer.localworkspace.LocalWorkspaceFileStore;
 import org.knime.workbench.explorer.view.AbstractContentProvider.AfterRunCallback;
 import org.knime.workbench.explorer.view.DestinationChecker;
 import org.knime.workbench.explorer.view.ExplorerJob;
@@ -150,6 +152,9 @@ public CopyMoveResult run(final IProgressMonitor monitor) {
         monitor.beginTask(cmd + " " + numFiles + " files to " + m_target.getFullName(), numFiles);
         int iterationCount = processedTargets.size();
         List<ExplorerJob> moveJobs = new ArrayList<>();
+        // items within the local workspace are processed together by a single job
+        LocalCopyEngine localBatch = new LocalCopyEngine(m_performMove);
+        AfterRunCallback localBatchCallback = null;
         boolean uploadWarningShown = false;
         for (final Map.Entry<AbstractExplorerFileStore, AbstractExplorerFileStore> entry : destCheckerMappings
             .entrySet()) {
@@ -230,6 +235,13 @@ public CopyMoveResult run(final IProgressMonitor monitor) {
                     CheckUtils.checkState(!m_excludeDataInWorkflows, "Download 'without data' not implemented");
                     destFS.getContentProvider().performDownloadAsync((RemoteExplorerFileStore)srcFS,
                         (LocalExplorerFileStore)destFS, m_performMove, callback);
+                } else if (srcFS instanceof LocalWorkspaceFileStore && destFS instanceof LocalWorkspaceFileStore) {
+                    CheckUtils.checkState(!m_excludeDataInWorkflows, "Copy/Move 'without data' not implement");
+                    localBatch.add((LocalWorkspaceFileStore)srcFS, (LocalWorkspaceFileStore)destFS, options);
+                    if (callback != null) {
+                        // the batch refreshes the affected folders itself
+                        localBatchCallback = t -> m_view.setNextSelection(processedTargets);
+                    }
                 } else { // regular copy
                     CheckUtils.checkState(!m_excludeDataInWorkflows, "Copy/Move 'without data' not implement");
                     final boolean keepHistory = m_destChecker.getOverwriteAndMergeInfos().get(destFS) != null
@@ -260,6 +272,12 @@ public CopyMoveResult run(final IProgressMonitor monitor) {
             }
             monitor.worked(1);
         }
+        if (!localBatch.isEmpty()) {
+            final ExplorerJob batchJob = scheduleLocalBatch(localBatch, localBatchCallback);
+            if (m_performMove) {
+                moveJobs.add(batchJob);
+            }
+        }
         if (m_performMove && !m_srcFileStores.isEmpty()) {
             scheduleDeletionOfRemainingWorkflowGroups(destCheckerMappings, moveJobs);
         }
@@ -364,6 +382,21 @@ protected IStatus run(final IProgressMonitor monitor) {
         return job;
     }
 
+    private ExplorerJob scheduleLocalBatch(final LocalCopyEngine batch, final AfterRunCallback callback) {
+        ExplorerJob job = new ExplorerJob(cmdAsTextual() + " in the local workspace") {
+
+            @Override
+            protected IStatus run(final IProgressMonitor monitor) {
+                IStatus status = batch.run(monitor);
+                AfterRunCallback.callCallbackInDisplayThread(callback,
+                    status.isOK() ? null : new CoreException(status));
+                return status;
+            }
+        };
+        job.schedule();
+        return job;
+    }
+
     /**
      * Sets the source file stores that are going to be moved/copied.
      *
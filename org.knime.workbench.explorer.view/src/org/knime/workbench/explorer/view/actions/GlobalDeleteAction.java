@@ -55,6 +55,7 @@
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
+import org.eclipse.jface.dialogs.ErrorDialog;
 import org.eclipse.jface.resource.ImageDescriptor;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.widgets.Display;
@@ -64,6 +65,7 @@
 import org.knime.core.node.NodeLogger;
 import org.knime.workbench.explorer.filesystem.AbstractExplorerFileStore;
 import org.knime.workbench.explorer.filesystem.ExplorerFileSystemUtils;
+import org.knime.workbench.explorer.filesystem.ExplorerFileSystemUtils.LockResult;
 import org.knime.workbench.explorer.filesystem.LocalExplorerFileStore;
 import org.knime.workbench.explorer.view.AbstractContentProvider;
 import org.knime.workbench.explorer.view.ContentDelegator;
@@ -132,20 +134,14 @@ public void run() {
         List<AbstractExplorerFileStore> toDelJobs =
                 getAllContainedJobs(allFiles);
         // try locking all local workflows for deletion
-        LinkedList<LocalExplorerFileStore> lockedWFs =
-                new LinkedList<LocalExplorerFileStore>();
-        if (toDelLocalFlows.size() > 0) {
-            LinkedList<LocalExplorerFileStore> unlockableWFs =
-                    new LinkedList<LocalExplorerFileStore>();
-            ExplorerFileSystemUtils.lockWorkflows(toDelLocalFlows,
-                    unlockableWFs, lockedWFs);
-            if (unlockableWFs.size() > 0) {
-                // release locks acquired for deletion
-                ExplorerFileSystemUtils.unlockWorkflows(lockedWFs);
-                showCantDeleteMessage();
-                return;
-            }
+        final LockResult lockResult = ExplorerFileSystemUtils.lockWorkflows(toDelLocalFlows);
+        if (!lockResult.isAllLocked()) {
+            // release locks acquired for deletion
+            lockResult.unlock();
+            showCantDeleteMessage();
+            return;
         }
+        final List<LocalExplorerFileStore> lockedWFs = lockResult.getLocked();
 
         assert lockedWFs.size() == toDelLocalFlows.size();
         // ask all affected providers if it is OK to delete
@@ -186,11 +182,13 @@ public void run() {
             @Override
             protected IStatus run(final IProgressMonitor monitor) {
                 // delete Workflows first (unlocks them too)
-                boolean success = ExplorerFileSystemUtils.deleteLockedWorkflows(lockedWFs, confResults);
-                success &= ExplorerFileSystemUtils.deleteTheRest(allFiles, confResults);
+                IStatus deleteStatus = ExplorerFileSystemUtils.delete(lockedWFs, allFiles, confResults);
 
-                if (!success) {
-                    Display.getDefault().syncExec(() -> showUnsuccessfulMessage());
+                if (!deleteStatus.isOK()) {
+                    for (IStatus failure : deleteStatus.getChildren()) {
+                        LOGGER.warn(failure.getMessage(), failure.getException());
+                    }
+                    Display.getDefault().syncExec(() -> showUnsuccessfulMessage(deleteStatus));
                 }
 
                 Display.getDefault().syncExec(() -> {
@@ -301,13 +299,10 @@ private void showCantDeleteMessage() {
         mb.open();
     }
 
-    private void showUnsuccessfulMessage() {
-        MessageBox mb =
-                new MessageBox(getParentShell(), SWT.ICON_ERROR | SWT.OK);
-        mb.setText("Can't Delete All Selected Items");
-        mb.setMessage("At least one item could not be deleted.\n"
-                + "Some might have been successfully deleted.");
-        mb.open();
+    /** Shows the items that couldn't be deleted, the reasons are in the details. */
+    private void showUnsuccessfulMessage(final IStatus status) {
+        ErrorDialog.openError(getParentShell(), "Can't Delete All Selected Items",
+            "At least one item could not be deleted.\nSome might have been successfully deleted.", status);
     }
 
     /**
@@ -49,26 +49,18 @@
 package org.knime.workbench.explorer.view.actions;
 
 import java.io.File;
-import java.io.IOException;
-import java.util.Iterator;
-import java.util.List;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipException;
 import java.util.zip.ZipFile;
 
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
-import org.eclipse.ui.internal.wizards.datatransfer.ILeveledImportStructureProvider;
-import org.eclipse.ui.internal.wizards.datatransfer.ZipLeveledStructureProvider;
+import org.eclipse.core.runtime.Path;
 import org.knime.core.node.NodeLogger;
 import org.knime.workbench.explorer.filesystem.LocalExplorerFileStore;
 import org.knime.workbench.explorer.filesystem.RemoteExplorerFileStore;
 import org.knime.workbench.explorer.view.AbstractContentProvider;
 import org.knime.workbench.explorer.view.AbstractContentProvider.AfterRunCallback;
-import org.knime.workbench.explorer.view.actions.imports.IWorkflowImportElement;
-import org.knime.workbench.explorer.view.actions.imports.WorkflowImportElementFromArchive;
-import org.knime.workbench.explorer.view.actions.imports.WorkflowImportOperation;
-import org.knime.workbench.ui.navigator.ZipLeveledStructProvider;
+import org.knime.workbench.explorer.view.actions.imports.ZipArchiveExtractor;
 
 /**
  * An action to temporary extract a workflow archive file into a directory.
@@ -195,7 +187,8 @@ protected void refreshTarget() {
     }
 
     /**
-     * Retrieves the Workflows from the archive and extracts them into the destination
+     * Retrieves the Workflows from the archive and extracts them into the destination. The entries are written
+     * straight to the target directory, no import element tree or intermediate copy is created.
      *
      * @throws Exception
      */
@@ -207,85 +200,15 @@ protected void unpackWorkflowIntoLocalDir() throws Exception {
         }
 
         LocalExplorerFileStore destWorkflowDir = m_targetDir.getParent();
-
-        ZipFile zFile = new ZipFile(m_source);
-        ZipLeveledStructProvider importStructureProvider = new ZipLeveledStructProvider(zFile);
-        importStructureProvider.setStrip(1);
-
-        ZipEntry rootEntry = (ZipEntry)importStructureProvider.getRoot();
-        // method return type changed from "List<ZipEntry>" (org.eclipse.ui.ide_3.13.1)
-        // to "List<?>" (org.eclipse.ui.ide_3.17.0), though the implementation itself is still type to the former
-        List<ZipEntry> rootChild = (List<ZipEntry>)importStructureProvider.getChildren(rootEntry);
-        if (rootChild.size() == 1) {
-            // the zipped workflow normally contains only one dir
-            rootEntry = rootChild.get(0);
-        }
-        WorkflowImportElementFromArchive root = collectWorkflowsFromZipFile(m_source);
-        IWorkflowImportElement element = null;
-        if (root.getChildren().size() == 1) {
-            element = root.getChildren().iterator().next();
-        } else {
-            element = root;
-        }
-        // rename the import element
-        element.setName(getTargetDir().getName());
-        LOGGER.debug("Unpacking workflow \"" + element.getName() + "\" into destination: "
-            + destWorkflowDir.getMountIDWithFullPath());
-        final WorkflowImportOperation importOp = new WorkflowImportOperation(element, destWorkflowDir);
-
-        try {
-            importOp.run(m_monitor);
-        } finally {
-            importStructureProvider.closeArchive();
-        }
-    }
-
-    private WorkflowImportElementFromArchive collectWorkflowsFromZipFile(final File zipFile)
-        throws ZipException, IOException {
-        ILeveledImportStructureProvider provider = null;
-        ZipFile sourceFile = new ZipFile(zipFile);
-        provider = new ZipLeveledStructureProvider(sourceFile);
-        // TODO: store only the workflows (dirs are created automatically)
-        Object child = provider.getRoot();
-        WorkflowImportElementFromArchive root = new WorkflowImportElementFromArchive(provider, child, 0);
-        collectWorkflowsFromProvider(root);
-        return root;
-    }
-
-    /**
-     *
-     * @param parent the archive element to collect the workflows from
-     * @param monitor progress monitor
-     */
-    private void collectWorkflowsFromProvider(final WorkflowImportElementFromArchive parent) {
-        ILeveledImportStructureProvider provider = parent.getProvider();
-        Object entry = parent.getEntry();
-        if (parent.isWorkflow() || parent.isTemplate()) {
-            // abort recursion
-            return;
-        }
-        List children = provider.getChildren(entry);
-        if (children == null) {
-            return;
-        }
-        Iterator childrenEnum = children.iterator();
-        while (childrenEnum.hasNext()) {
-            Object child = childrenEnum.next();
-            if (provider.isFolder(child)) {
-                WorkflowImportElementFromArchive childElement =
-                    new WorkflowImportElementFromArchive(provider, child, parent.getLevel() + 1);
-                collectWorkflowsFromProvider(childElement);
-                // either it's a workflow
-                if (childElement.isWorkflow()
-                    // or it is a workflow group
-                    || childElement.isWorkflowGroup()
-                    // or it is a workflow template
-                    || childElement.isTemplate()) {
-                    /* because only workflows, templates and workflow groups are
-                     * added */
-                    parent.addChild(childElement);
-                }
-            }
+        File destDir = destWorkflowDir.toLocalFile();
+
+        try (ZipFile zFile = new ZipFile(m_source)) {
+            // the zipped workflow normally contains only one dir, its content goes into the target
+            IPath root = ZipArchiveExtractor.getSingleRootFolder(zFile);
+            LOGGER.debug("Unpacking workflow \"" + (root == null ? m_source.getName() : root.toString())
+                + "\" into destination: " + destWorkflowDir.getMountIDWithFullPath());
+            new ZipArchiveExtractor(zFile, destDir,
+                ZipArchiveExtractor.relocate(root, new Path(getTargetDir().getName()))).extract(m_monitor);
         }
     }
 
@@ -48,22 +48,36 @@
 import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+import java.util.zip.ZipFile;
 
 import org.apache.commons.io.FileUtils;
 import org.eclipse.core.filesystem.EFS;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.MultiStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.Status;
 import org.knime.core.node.NodeLogger;
 import org.knime.workbench.explorer.ExplorerActivator;
 import org.knime.workbench.explorer.filesystem.AbstractExplorerFileInfo;
 import org.knime.workbench.explorer.filesystem.AbstractExplorerFileStore;
+import org.knime.workbench.explorer.filesystem.ChunkedDownload;
 import org.knime.workbench.explorer.filesystem.LocalExplorerFileStore;
 import org.knime.workbench.explorer.filesystem.RemoteDownloadStream;
 import org.knime.workbench.explorer.filesystem.RemoteExplorerFileInfo;
@@ -71,6 +85,7 @@
 import org.knime.workbench.explorer.view.AbstractContentProvider;
 import org.knime.workbench.explorer.view.AbstractContentProvider.AfterRunCallback;
 import org.knime.workbench.explorer.view.ExplorerJob;
+import org.knime.workbench.explorer.view.actions.imports.ZipArchiveExtractor;
 
 /**
  *
@@ -81,6 +96,9 @@ public class WorkflowDownload extends TempExtractArchive {
 
     private static final NodeLogger LOGGER = NodeLogger.getLogger(WorkflowDownload.class);
 
+    /** Unfinished downloads that haven't been continued for a week are deleted before the next download. */
+    private static final long STALE_DOWNLOAD_AGE = TimeUnit.DAYS.toMillis(7);
+
     private final RemoteExplorerFileStore m_source;
 
     /**
@@ -144,6 +162,21 @@ protected boolean isSourceSupported() {
      */
     protected void extractDownloadToTarget(final File downloadedFile)
             throws Exception {
+        AbstractExplorerFileInfo info = getDownloadInfo();
+
+        if (info.isFile()) {
+            FileUtils.copyFile(downloadedFile, getTargetDir().toLocalFile());
+        } else if (info.isWorkflow() || info.isWorkflowTemplate() || info.isWorkflowGroup()) {
+            setSourceArchiveFile(downloadedFile);
+            unpackWorkflowIntoLocalDir();
+        } else {
+            throw new IllegalArgumentException("Downloaded item '" + getSourceFile().getMountIDWithFullPath() + "'"
+                    + " is neither a file nor a workflow or template.");
+        }
+    }
+
+    /** @return the info of the downloaded item (of the workflow for snapshots) */
+    private AbstractExplorerFileInfo getDownloadInfo() {
         AbstractExplorerFileStore source = getSourceFile();
 
         AbstractExplorerFileInfo info = source.fetchInfo();
@@ -151,18 +184,112 @@ protected void extractDownloadToTarget(final File downloadedFile)
             source = source.getParent();
             info = source.fetchInfo();
         }
+        return info;
+    }
 
+    /**
+     * Moves the content that was extracted while downloading into the target.
+     *
+     * @param downloadedFile the complete download
+     * @param staged the file or the directory with the extracted archive
+     */
+    private void moveStagedDownloadToTarget(final File downloadedFile, final File staged) throws Exception {
+        AbstractExplorerFileInfo info = getDownloadInfo();
+        Path target = getTargetDir().toLocalFile().toPath();
         if (info.isFile()) {
-            FileUtils.copyFile(downloadedFile, getTargetDir().toLocalFile());
+            Files.move(staged.toPath(), target, StandardCopyOption.REPLACE_EXISTING);
         } else if (info.isWorkflow() || info.isWorkflowTemplate() || info.isWorkflowGroup()) {
-            setSourceArchiveFile(downloadedFile);
-            unpackWorkflowIntoLocalDir();
+            IPath root;
+            try (ZipFile zipFile = new ZipFile(downloadedFile)) {
+                root = ZipArchiveExtractor.getSingleRootFolder(zipFile);
+            }
+            moveInto(root == null ? staged.toPath() : staged.toPath().resolve(root.toString()), target);
         } else {
             throw new IllegalArgumentException("Downloaded item '" + getSourceFile().getMountIDWithFullPath() + "'"
                     + " is neither a file nor a workflow or template.");
         }
     }
 
+    /**
+     * Renames the source to the destination, merges directories if the destination exists already. Directories that
+     * can't be renamed (e.g. because the destination is on another file system) are moved file by file.
+     */
+    private static void moveInto(final Path source, final Path dest) throws IOException {
+        if (!Files.exists(dest)) {
+            try {
+                Files.move(source, dest);
+            } catch (IOException e) {
+                if (!Files.isDirectory(source)) {
+                    throw e;
+                }
+                Files.createDirectory(dest);
+                moveInto(source, dest);
+            }
+        } else if (Files.isDirectory(source) && Files.isDirectory(dest)) {
+            try (Stream<Path> children = Files.list(source)) {
+                for (Path child : (Iterable<Path>)children::iterator) {
+                    moveInto(child, dest.resolve(child.getFileName().toString()));
+                }
+            }
+        } else {
+            Files.move(source, dest, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * @return a consumer that extracts (or copies) the download next to the target while it is running, the passed
+     *         flag is set once that succeeded
+     */
+    private ChunkedDownload.CompletedBytesConsumer createStagingConsumer(final File staging,
+        final AtomicBoolean staged) {
+        final boolean isFile = getDownloadInfo().isFile();
+        return in -> {
+            try {
+                if (isFile) {
+                    Files.copy(in, staging.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                } else {
+                    ZipArchiveExtractor.extractStream(in, staging, p -> p);
+                }
+                staged.set(true);
+            } catch (IOException e) {
+                // the complete download is extracted afterwards
+                LOGGER.debug("Unable to extract download while downloading: " + e.getMessage(), e);
+                FileUtils.deleteQuietly(staging);
+            }
+        };
+    }
+
+    /**
+     * A file in the plug-in's state location (which is owned by this KNIME instance) that belongs to the download of
+     * the source. It is named after the SHA-256 of the source's URI, so that different items never share a file.
+     * Downloads that haven't been continued for a while are deleted first.
+     */
+    private static File getDownloadFile(final RemoteExplorerFileStore source, final String suffix)
+        throws IOException {
+        final File dir = ExplorerActivator.getDefault().getStateLocation().append("downloads").toFile();
+        Files.createDirectories(dir.toPath());
+        ChunkedDownload.deleteStale(dir, STALE_DOWNLOAD_AGE);
+        // archives extracted while downloading are deleted afterwards, unless KNIME was terminated
+        final File[] stagingDirs = dir.listFiles(File::isDirectory);
+        if (stagingDirs != null) {
+            for (File d : stagingDirs) {
+                if (d.lastModified() < System.currentTimeMillis() - STALE_DOWNLOAD_AGE) {
+                    FileUtils.deleteQuietly(d);
+                }
+            }
+        }
+        final StringBuilder name = new StringBuilder("KNIMEServerDownload-");
+        try {
+            for (byte b : MessageDigest.getInstance("SHA-256")
+                .digest(source.toURI().toString().getBytes(StandardCharsets.UTF_8))) {
+                name.append(String.format("%02x", b));
+            }
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+        return new File(dir, name.append(suffix).toString());
+    }
+
     /**
      * @since 7.3
      */
@@ -177,8 +304,18 @@ protected void runSyncInternal(final IProgressMonitor monitor) throws CoreExcept
         LOGGER.debug("Downloading '" + srcIdentifier
                 + "' into local destination '" + getTargetIdentifier() + "'");
 
+        // downloads that support ranges are extracted into the download directory while they are running
+        final File staging;
+        try {
+            staging = getDownloadFile(getSourceFile(), ".staging");
+        } catch (IOException e) {
+            throw new CoreException(new Status(IStatus.ERROR, ExplorerActivator.PLUGIN_ID,
+                "Unable to prepare the download: " + e.getMessage(), e));
+        }
+        FileUtils.deleteQuietly(staging);
+        final AtomicBoolean staged = new AtomicBoolean();
         final DownloadRunnable dwnLoader = new DownloadRunnable(
-                getSourceFile());
+                getSourceFile(), createStagingConsumer(staging, staged));
         dwnLoader.run(monitor);
 
         // now wait for the download to finish
@@ -200,6 +337,7 @@ protected void runSyncInternal(final IProgressMonitor monitor) throws CoreExcept
                 msg += " Download interrupted.";
                 LOGGER.warn(msg);
             }
+            FileUtils.deleteQuietly(staging);
             if (getTargetDir().fetchInfo().exists()) {
                 LOGGER.info("Existing destination not modified ("
                         + getTargetIdentifier() + ") ");
@@ -210,12 +348,17 @@ protected void runSyncInternal(final IProgressMonitor monitor) throws CoreExcept
         prepareTarget();
 
         try {
-            extractDownloadToTarget(tmpLoc);
+            if (staged.get()) {
+                moveStagedDownloadToTarget(tmpLoc, staging);
+            } else {
+                extractDownloadToTarget(tmpLoc);
+            }
         } catch (Exception e) {
             LOGGER.error("Unable to extract the download. ", e);
             success = false;
         } finally {
             tmpLoc.delete();
+            FileUtils.deleteQuietly(staging);
         }
         refreshTarget();
         Status status = dwnLoader.getStatus();
@@ -271,6 +414,8 @@ protected static class DownloadRunnable implements Runnable {
 
         private MultiStatus m_status = null;
 
+        private final ChunkedDownload.CompletedBytesConsumer m_pipe;
+
         /**
          * Returns the collected status of the download operation. If some
          * items could not be downloaded, e.g. due to missing permissions,
@@ -288,10 +433,22 @@ public Status getStatus() {
          *
          */
         public DownloadRunnable(final RemoteExplorerFileStore source) {
+            this(source, null);
+        }
+
+        /**
+         * @param source the file store to download
+         * @param pipe gets the downloaded bytes while the download is running, only used if the server supports
+         *            range requests (see {@link RemoteDownloadStream#getRangeSource()}), may be null
+         * @since 8.7
+         */
+        public DownloadRunnable(final RemoteExplorerFileStore source,
+            final ChunkedDownload.CompletedBytesConsumer pipe) {
             if (source == null) {
                 throw new NullPointerException("Download source can't be null");
             }
             m_source = source;
+            m_pipe = pipe;
         }
 
         /**
@@ -320,7 +477,8 @@ public void run(final IProgressMonitor monitor) {
                 }
                 RemoteDownloadStream in =
                         m_source.openDownloadStream();
-                // wait for the server to finish zipping
+                // wait for the server to finish zipping, small archives are ready quickly
+                final ChunkedDownload.Backoff backoff = new ChunkedDownload.Backoff(100, 5000);
                 while (!in.readyForDownload()) {
                     if (monitor != null && monitor.isCanceled()) {
                         m_cancel.set(true);
@@ -332,12 +490,11 @@ public void run(final IProgressMonitor monitor) {
                         in.close();
                         return;
                     }
-                   Thread.sleep(1000);
+                    backoff.sleep();
                 }
 
                 String size = " / <unknown>";
                 final String taskMessage = "Downloading " + m_source.getFullName()+ ": ";
-                long downloaded = 0;
                 boolean useKB = false;
                 boolean useGB = false;
 
@@ -359,34 +516,23 @@ public void run(final IProgressMonitor monitor) {
                     }
                     monitor.beginTask(taskMessage + (useKB ? "0 kB" : useGB ? "0 GB" : "0 MB") + size, kbyte);
                 }
-                m_tmpFile = File.createTempFile("KNIMEServerDownload", ".tmp");
-                LOGGER.debug("Received server download stream for '" + m_source
+                final ChunkedDownload.RangeSource ranges = in.getRangeSource();
+                final boolean completed;
+                if (ranges != null) {
+                    // a stable name, so that a failed download of the same item is continued next time
+                    m_tmpFile = getDownloadFile(m_source, ".tmp");
+                    LOGGER.debug("Downloading '" + m_source + "' in chunks into '" + m_tmpFile.getAbsolutePath()
+                        + "'");
+                    completed = downloadRanges(ranges, monitor, taskMessage, size, useKB, useGB);
+                } else {
+                    m_tmpFile = File.createTempFile("KNIMEServerDownload", ".tmp");
+                    LOGGER.debug("Received server download stream for '" + m_source
                         + "', storing it '"
                         + m_tmpFile.getAbsolutePath() + "'");
-
-                try (BufferedInputStream inStream = new BufferedInputStream(in, 1024 * 1024);
-                        FileOutputStream outStream = new FileOutputStream(m_tmpFile)) {
-                    int b;
-                    byte[] buffer = new byte[1024 * 1024];
-                    while ((b = inStream.read(buffer)) >= 0) {
-                        outStream.write(buffer, 0, b);
-                        if (monitor != null) {
-                            monitor.worked(b >> 10);
-                            downloaded += b;
-                            monitor.setTaskName(taskMessage
-                                + (useKB ? (downloaded >> 10) + " kB" : getDecimalSize(downloaded >> 10, useGB))
-                                + size);
-                            if (monitor.isCanceled()) {
-                                m_cancel.set(true);
-                            }
-                        }
-                        if (m_cancel.get()) {
-                            m_tmpFile.delete();
-                            m_tmpFile = null;
-                            m_errorMsg = "Canceled.";
-                            return;
-                        }
-                    }
+                    completed = downloadStream(in, monitor, taskMessage, size, useKB, useGB);
+                }
+                if (!completed) {
+                    return;
                 }
                 m_errorMsg = null;
                 List<String> messages = null;
@@ -417,6 +563,80 @@ public void run(final IProgressMonitor monitor) {
             }
         }
 
+        /**
+         * Copies the download stream into the temp file.
+         *
+         * @return false if canceled
+         */
+        private boolean downloadStream(final RemoteDownloadStream in, final IProgressMonitor monitor,
+            final String taskMessage, final String size, final boolean useKB, final boolean useGB)
+            throws IOException {
+            long downloaded = 0;
+            try (BufferedInputStream inStream = new BufferedInputStream(in, 1024 * 1024);
+                    FileOutputStream outStream = new FileOutputStream(m_tmpFile)) {
+                int b;
+                byte[] buffer = new byte[1024 * 1024];
+                while ((b = inStream.read(buffer)) >= 0) {
+                    outStream.write(buffer, 0, b);
+                    if (monitor != null) {
+                        monitor.worked(b >> 10);
+                        downloaded += b;
+                        monitor.setTaskName(taskMessage
+                            + (useKB ? (downloaded >> 10) + " kB" : getDecimalSize(downloaded >> 10, useGB))
+                            + size);
+                        if (monitor.isCanceled()) {
+                            m_cancel.set(true);
+                        }
+                    }
+                    if (m_cancel.get()) {
+                        m_tmpFile.delete();
+                        m_tmpFile = null;
+                        m_errorMsg = "Canceled.";
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Downloads the prepared archive in parallel chunks into the temp file. If that fails the temp file is kept,
+         * the next download of the same item continues it.
+         *
+         * @return false if canceled
+         */
+        private boolean downloadRanges(final ChunkedDownload.RangeSource ranges, final IProgressMonitor monitor,
+            final String taskMessage, final String size, final boolean useKB, final boolean useGB)
+            throws IOException {
+            final ChunkedDownload download = new ChunkedDownload(ranges, m_tmpFile).setCompletedBytesConsumer(m_pipe);
+            if (monitor != null) {
+                final long[] reportedKB = new long[1];
+                download.setProgressListener(downloaded -> {
+                    monitor.worked((int)((downloaded >> 10) - reportedKB[0]));
+                    reportedKB[0] = downloaded >> 10;
+                    monitor.setTaskName(taskMessage
+                        + (useKB ? (downloaded >> 10) + " kB" : getDecimalSize(downloaded >> 10, useGB)) + size);
+                });
+            }
+            try {
+                download.run(new NullProgressMonitor() {
+                    @Override
+                    public boolean isCanceled() {
+                        if (monitor != null && monitor.isCanceled()) {
+                            m_cancel.set(true);
+                        }
+                        return m_cancel.get();
+                    }
+                });
+            } catch (OperationCanceledException e) { // NOSONAR canceled by the user
+                ChunkedDownload.delete(m_tmpFile);
+                m_tmpFile = null;
+                m_errorMsg = "Canceled.";
+                return false;
+            }
+            return true;
+        }
+
         /**
          * Gets the size of the file with the first decimal digit.
          *
@@ -69,6 +69,7 @@
 import org.eclipse.swt.layout.GridData;
 import org.eclipse.swt.layout.GridLayout;
 import org.eclipse.swt.widgets.Button;
+import org.eclipse.swt.widgets.Combo;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.FileDialog;
 import org.eclipse.swt.widgets.Group;
@@ -99,6 +100,8 @@ public class WorkflowExportPage extends WizardPage {
 
     private Button m_excludeData;
 
+    private Combo m_compression;
+
     private AbstractExplorerFileStore m_selection;
 
     private ExplorerFileStoreProvider m_provider;
@@ -212,6 +215,15 @@ public void widgetSelected(final SelectionEvent e) {
         m_excludeData.setSelection(true);
         m_excludeData.setText("Reset Workflow(s) before export");
 
+        final Composite compressionComp = new Composite(group, SWT.NONE);
+        compressionComp.setLayout(new GridLayout(2, false));
+        new Label(compressionComp, SWT.NULL).setText("Compression:");
+        m_compression = new Combo(compressionComp, SWT.DROP_DOWN | SWT.READ_ONLY);
+        for (Zipper.CompressionPreset p : Zipper.CompressionPreset.values()) {
+            m_compression.add(p.getLabel());
+        }
+        m_compression.select(Zipper.CompressionPreset.BEST.ordinal());
+
         createTreeViewer(container);
 
         initialize();
@@ -288,6 +300,13 @@ private void initialize() {
             if (lastSelected != null && !lastSelected.isEmpty()) {
                 lastSelectedTargetLocation = lastSelected;
             }
+            String compression = settings.get(KEY_COMPRESSION);
+            if (compression != null) {
+                try {
+                    m_compression.select(Zipper.CompressionPreset.valueOf(compression).ordinal());
+                } catch (IllegalArgumentException e) { // NOSONAR unknown preset from an older version, keep default
+                }
+            }
         }
         if (sel != null) {
             m_containerText.setText(sel.getMountIDWithFullPath());
@@ -391,6 +410,13 @@ boolean excludeData() {
         return m_excludeData.getSelection();
     }
 
+    /**
+     * @return the compression preset selected by the user
+     */
+    Zipper.CompressionPreset getCompressionPreset() {
+        return Zipper.CompressionPreset.values()[Math.max(0, m_compression.getSelectionIndex())];
+    }
+
     /**
      * Uses the standard file selection dialog to choose the export file name.
      */
@@ -553,8 +579,10 @@ public String getFileName() {
 
     private static final String KEY_LOC = "destination-location";
 
+    private static final String KEY_COMPRESSION = "compression-preset";
+
     /**
-     * Saves the last selected location (the parent of the last export file).
+     * Saves the last selected location (the parent of the last export file) and the compression preset.
      *
      * @see WorkflowExportWizard#performFinish()
      */
@@ -563,6 +591,7 @@ public void saveDialogSettings() {
         IDialogSettings settings = getDialogSettings();
         if (settings != null) {
             settings.put(KEY_LOC, lastSelectedTargetLocation);
+            settings.put(KEY_COMPRESSION, getCompressionPreset().name());
         }
     }
 
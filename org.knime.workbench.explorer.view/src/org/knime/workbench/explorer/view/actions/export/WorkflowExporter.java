@@ -88,6 +88,10 @@ public final class WorkflowExporter {
 
     private final File m_exportFile;
 
+    private final int m_compressionLevel;
+
+    private final int m_threads;
+
     /**
      * @param exportFile
      * @param commonParent
@@ -96,10 +100,26 @@ public final class WorkflowExporter {
      */
     public WorkflowExporter(final File exportFile, final AbstractExplorerFileStore commonParent,
         final Collection<AbstractExplorerFileStore> elementsToExport, final boolean excludeData) {
+        this(exportFile, commonParent, elementsToExport, excludeData, Zipper.CompressionPreset.BEST, 1);
+    }
+
+    /**
+     * @param exportFile
+     * @param commonParent
+     * @param elementsToExport
+     * @param excludeData
+     * @param compression the compression preset for the archive
+     * @param threads number of threads compressing files in parallel (1 for sequential export)
+     */
+    WorkflowExporter(final File exportFile, final AbstractExplorerFileStore commonParent,
+        final Collection<AbstractExplorerFileStore> elementsToExport, final boolean excludeData,
+        final Zipper.CompressionPreset compression, final int threads) {
         m_commonParent = CheckUtils.checkArgumentNotNull(commonParent);
         m_exportFile = CheckUtils.checkArgumentNotNull(exportFile);
         m_excludeData = CheckUtils.checkArgumentNotNull(excludeData);
         m_elementsToExport = CheckUtils.checkArgumentNotNull(elementsToExport);
+        m_compressionLevel = CheckUtils.checkArgumentNotNull(compression).getLevel();
+        m_threads = Math.max(1, threads);
     }
 
     /**
@@ -133,7 +153,7 @@ public void doFinish(final IProgressMonitor monitor) throws CoreException {
                 // keep the common workflow group (if exists) in the archive
                 stripOff = stripOff - 1;
             }
-            Zipper.zipFiles(resourceList, m_exportFile, stripOff, sub);
+            Zipper.zipFiles(resourceList, m_exportFile, stripOff, m_compressionLevel, m_threads, sub);
 
         } catch (final IOException t) {
             LOGGER.debug("Export of KNIME workflow(s) failed: " + t.getMessage(), t);
@@ -49,15 +49,34 @@
 
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
 import java.util.zip.ZipEntry;
-import java.util.zip.ZipOutputStream;
 
+import org.apache.commons.compress.archivers.zip.Zip64Mode;
+import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveOutputStream;
 import org.apache.commons.lang3.StringUtils;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -65,6 +84,11 @@
 import org.eclipse.core.runtime.Path;
 
 /**
+ * Writes files into a (standard) zip archive. With {@link #zipFiles(Collection, File, int, int, int, IProgressMonitor)}
+ * entries can be deflated in parallel on a pool of worker threads (they are still written to the archive in the order
+ * of the file list) and files that are compressed already (zip archives, which includes KNIME's table data, images,
+ * ...) are stored without compressing them again. The legacy
+ * {@link #zipFiles(Collection, File, int, IProgressMonitor)} deflates every file, sequentially.
  *
  * @author ohl, University of Konstanz
  */
@@ -74,8 +98,49 @@ final class Zipper {
 
     private static final int COMPR_LEVEL = 9;
 
+    /** Entries deflated by a worker up to this size are kept in memory, larger ones go to a temporary file. */
+    private static final long MAX_IN_MEMORY_SIZE = 8L << 20;
+
+    /** Extensions of files whose content doesn't get any smaller by deflating it. */
+    private static final Set<String> COMPRESSED_EXTENSIONS = new HashSet<>(Arrays.asList("zip", "gz", "bz2", "xz",
+        "7z", "jar", "knwf", "knar", "png", "jpg", "jpeg", "gif"));
+
+    /** Compression presets offered to the user, from smallest archive to fastest export. */
+    enum CompressionPreset {
+            /** Smallest archive, slowest. */
+            BEST("Best compression (slow)", COMPR_LEVEL),
+            /** Deflater's default trade-off. */
+            NORMAL("Normal", 6),
+            /** Fastest export, larger archive. */
+            FAST("Fast (larger archive)", 1);
+
+        private final String m_label;
+
+        private final int m_level;
+
+        CompressionPreset(final String label, final int level) {
+            m_label = label;
+            m_level = level;
+        }
+
+        /** @return the text shown to the user */
+        String getLabel() {
+            return m_label;
+        }
+
+        /** @return the deflate level (0-9) */
+        int getLevel() {
+            return m_level;
+        }
+    }
+
+    private Zipper() {
+        // utility class
+    }
+
     /**
-     * Compresses multiple files into one archive. Allows for removing leading path segments of each file's path.
+     * Compresses multiple files into one archive, sequentially and with the highest compression level. Every file is
+     * deflated, also those that are compressed already. Allows for removing leading path segments of each file's path.
      *
      * @param files files to add to the archive. Directories containing the files don't need to be part of this list
      *            unless the directories are empty and empty dirs shoul be part of the archive.
@@ -88,95 +153,320 @@ final class Zipper {
      */
     public static void zipFiles(final Collection<File> files, final File outputFile, final int stripOff,
         final IProgressMonitor mon) throws IOException {
+        zipFiles(files, outputFile, stripOff, COMPR_LEVEL, 1, false, mon);
+    }
+
+    /**
+     * Compresses multiple files into one archive. Files that are compressed already are stored as they are. Allows for
+     * removing leading path segments of each file's path.
+     *
+     * @param files files to add to the archive. Directories containing the files don't need to be part of this list
+     *            unless the directories are empty and empty dirs shoul be part of the archive.
+     * @param outputFile the compressed output archive
+     * @param stripOff number of segments in the path of each file that are stripped off before storing (if zero or
+     *            negative nothing is stripped off). The device is always removed.
+     * @param level the deflate level, 0 (no compression) to 9 (best compression)
+     * @param threads number of threads deflating entries in parallel, 1 to compress on the calling thread only
+     * @param mon to report progress and check for cancellation (can be null)
+     * @throws IOException if an an I/O error occurred, the user canceled, one of the specified didn't exist or anything
+     *             else went wrong. It tries to delete the partially created output file before then.
+     */
+    static void zipFiles(final Collection<File> files, final File outputFile, final int stripOff, final int level,
+        final int threads, final IProgressMonitor mon) throws IOException {
+        zipFiles(files, outputFile, stripOff, level, threads, true, mon);
+    }
+
+    private static void zipFiles(final Collection<File> files, final File outputFile, final int stripOff,
+        final int level, final int threads, final boolean storeCompressed, final IProgressMonitor mon)
+        throws IOException {
 
         IProgressMonitor monitor = mon;
         if (monitor == null) {
             monitor = new NullProgressMonitor();
         }
 
-        byte[] buf = new byte[BUFFSIZE];
         IOException ioException = null;
+        final ExecutorService pool = threads > 1 ? createPool(threads) : null;
+        final List<Future<Deflated>> deflated = new ArrayList<>();
 
-        try (FileOutputStream outStream = new FileOutputStream(outputFile);
-                ZipOutputStream zout = new ZipOutputStream(new BufferedOutputStream(outStream, BUFFSIZE))) {
+        try (ZipArchiveOutputStream zout = new ZipArchiveOutputStream(outputFile)) {
             if (files.size() == 0) {
                 // cleanup done in the finally block
                 return;
             }
 
-            zout.setLevel(COMPR_LEVEL);
-            if (mon != null) {
-                // set the overall progress to the overall megabyte
-                int wrk = 0;
-                int nrFiles = 0;
-                for (File f : files) {
-                    if (!f.isDirectory()) {
-                        int megaBytes = (int)(f.length() >>> 20);
-                        wrk += megaBytes + 1;
-                        nrFiles += 1;
-                    }
-                }
-                monitor.beginTask("Compressing " + nrFiles + " files...", wrk);
-            }
+            zout.setUseZip64(Zip64Mode.AsNeeded);
+            zout.setLevel(level);
+
+            // stat every file only once, the result is used for progress and to decide how to add it
+            final List<Item> items = new ArrayList<>(files.size());
+            int wrk = 0;
+            int nrFiles = 0;
             for (File f : files) {
                 if (f == null) {
                     ioException = new IOException("Illegal file in archive list: <null>!");
                     // cleanup done in the finally block
                     return;
                 }
+                final Item item = new Item(f, stripOff, storeCompressed);
+                items.add(item);
+                if (!item.m_isDirectory) {
+                    wrk += item.getWork();
+                    nrFiles += 1;
+                }
+            }
+            if (mon != null) {
+                // set the overall progress to the overall megabyte
+                monitor.beginTask("Compressing " + nrFiles + " files...", wrk);
+            }
+
+            // workers deflate ahead of the writer, but only a few entries to bound memory and temp space
+            final int ahead = pool == null ? 0 : 2 * threads;
+            int submitted = 0;
+            final byte[] buf = new byte[BUFFSIZE];
+            for (int i = 0; i < items.size(); i++) {
+                for (; pool != null && submitted < items.size() && submitted <= i + ahead; submitted++) {
+                    final Item item = items.get(submitted);
+                    deflated.add(item.isDeflatedByWorker() ? pool.submit(() -> deflate(item, level)) : null);
+                }
                 if (monitor.isCanceled()) {
                     ioException = new IOException("Canceled.");
                     // cleanup done in the finally block
                     return;
                 }
-
-                IPath path = new Path(f.getAbsolutePath()).setDevice(null);
-                if (stripOff > 0 && path.segmentCount() > stripOff) {
-                    path = path.removeFirstSegments(stripOff);
-                }
-                String entryName = path.makeRelative().toString();
-                if (f.isDirectory()) {
-                    // mostly for empty directories (but non-empty dirs are accepted also)
-                    zout.putNextEntry(new ZipEntry(StringUtils.appendIfMissing(entryName, "/")));
-                    zout.closeEntry();
-                } else if (f.length() == 0) {
-                    // this is mainly for the .knimeLock file of open workflows; the file is locked and windows forbids
-                    // mmap-ing locked files but FileInputStream seems to mmap files which leads to exceptions while
-                    // reading the (non-existing) contents of the file
-                    zout.putNextEntry(new ZipEntry(entryName));
-                    zout.closeEntry();
-                } else {
-                    try (InputStream in = new BufferedInputStream(new FileInputStream(f), BUFFSIZE)) {
-                        zout.putNextEntry(new ZipEntry(entryName));
-                        int read;
-                        while ((read = in.read(buf)) >= 0) {
-                            if (monitor.isCanceled()) {
-                                ioException = new IOException("Canceled.");
-                                // cleanup done in the finally block
-                                return;
-                            }
-                            zout.write(buf, 0, read);
-                        }
-                    } catch (IOException ioe) {
-                        ioException = new IOException(String.format("Unable to add file \"%s\" to archive \"%s\": %s",
-                            f.getAbsolutePath(), outputFile.getAbsoluteFile(), ioe.getMessage()), ioe);
-
-                    } finally {
-                        zout.closeEntry();
+                final Item item = items.get(i);
+                try {
+                    if (pool != null && deflated.get(i) != null) {
+                        writeDeflated(zout, item, deflated.set(i, null));
+                    } else if (!addEntry(zout, item, buf, monitor)) {
+                        ioException = new IOException("Canceled.");
+                        // cleanup done in the finally block
+                        return;
                     }
+                } catch (IOException ioe) {
+                    ioException = new IOException(String.format("Unable to add file \"%s\" to archive \"%s\": %s",
+                        item.m_file.getAbsolutePath(), outputFile.getAbsoluteFile(), ioe.getMessage()), ioe);
+                    // cleanup done in the finally block
+                    return;
+                }
+                if (!item.m_isDirectory) {
+                    monitor.worked(item.getWork());
                 }
-                int megaBytes = (int)(f.length() >>> 20);
-                monitor.worked(megaBytes + 1);
             }
         } catch (IOException ioe) {
             ioException = ioe; // catch it to have variable assigned for finally block
         } finally {
+            if (pool != null) {
+                pool.shutdownNow();
+                discard(deflated);
+            }
             monitor.done();
             if (ioException != null) {
                 outputFile.delete();
                 throw ioException;
             }
         }
+    }
+
+    /**
+     * Adds the item on the calling thread (directories, empty and already compressed files are always added here).
+     *
+     * @return false if canceled
+     */
+    private static boolean addEntry(final ZipArchiveOutputStream zout, final Item item, final byte[] buf,
+        final IProgressMonitor monitor) throws IOException {
+        if (item.m_isDirectory) {
+            // mostly for empty directories (but non-empty dirs are accepted also)
+            zout.putArchiveEntry(new ZipArchiveEntry(StringUtils.appendIfMissing(item.m_entryName, "/")));
+            zout.closeArchiveEntry();
+        } else if (item.m_size == 0) {
+            // this is mainly for the .knimeLock file of open workflows; the file is locked and windows forbids
+            // mmap-ing locked files but FileInputStream seems to mmap files which leads to exceptions while
+            // reading the (non-existing) contents of the file
+            zout.putArchiveEntry(new ZipArchiveEntry(item.m_entryName));
+            zout.closeArchiveEntry();
+        } else {
+            final ZipArchiveEntry entry = new ZipArchiveEntry(item.m_entryName);
+            if (item.m_isStored) {
+                // the archive is written to a file, so size and CRC of stored entries are fixed up afterwards
+                entry.setMethod(ZipEntry.STORED);
+            }
+            try (InputStream in = new BufferedInputStream(new FileInputStream(item.m_file), BUFFSIZE)) {
+                zout.putArchiveEntry(entry);
+                int read;
+                while ((read = in.read(buf)) >= 0) {
+                    if (monitor.isCanceled()) {
+                        return false;
+                    }
+                    zout.write(buf, 0, read);
+                }
+            } finally {
+                zout.closeArchiveEntry();
+            }
+        }
+        return true;
+    }
+
+    private static void writeDeflated(final ZipArchiveOutputStream zout, final Item item,
+        final Future<Deflated> future) throws IOException {
+        final Deflated d = get(future);
+        try {
+            final ZipArchiveEntry entry = new ZipArchiveEntry(item.m_entryName);
+            entry.setMethod(ZipEntry.DEFLATED);
+            entry.setCrc(d.m_crc);
+            entry.setSize(d.m_size);
+            entry.setCompressedSize(d.m_compressedSize);
+            try (InputStream in = d.openStream()) {
+                zout.addRawArchiveEntry(entry, in);
+            }
+        } finally {
+            d.dispose();
+        }
+    }
+
+    /** Deflates the file (raw deflate data, as it is stored in a zip entry). Runs on a worker thread. */
+    private static Deflated deflate(final Item item, final int level) throws IOException {
+        final File tmpFile = item.m_size > MAX_IN_MEMORY_SIZE
+            ? Files.createTempFile("knime_export", ".deflated").toFile() : null;
+        final ByteArrayOutputStream memory = tmpFile == null ? new ByteArrayOutputStream((int)item.m_size / 2) : null;
+        final Deflater deflater = new Deflater(level, true);
+        final CRC32 crc = new CRC32();
+        boolean success = false;
+        try {
+            final OutputStream sink = memory != null ? memory
+                : new BufferedOutputStream(Files.newOutputStream(tmpFile.toPath()), 1 << 16);
+            long size = 0;
+            try (InputStream in = new FileInputStream(item.m_file);
+                    DeflaterOutputStream out = new DeflaterOutputStream(sink, deflater, 1 << 16)) {
+                final byte[] buf = new byte[1 << 16];
+                int read;
+                while ((read = in.read(buf)) >= 0) {
+                    if (Thread.currentThread().isInterrupted()) {
+                        throw new IOException("Canceled.");
+                    }
+                    crc.update(buf, 0, read);
+                    out.write(buf, 0, read);
+                    size += read;
+                }
+            }
+            success = true;
+            return new Deflated(crc.getValue(), size, deflater.getBytesWritten(),
+                memory == null ? null : memory.toByteArray(), tmpFile);
+        } finally {
+            deflater.end();
+            if (!success && tmpFile != null) {
+                tmpFile.delete();
+            }
+        }
+    }
+
+    private static Deflated get(final Future<Deflated> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Canceled.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException)e.getCause();
+            }
+            throw new IOException(e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    /** Releases the results (temp files) of entries that were deflated but not written. */
+    private static void discard(final List<Future<Deflated>> deflated) {
+        for (Future<Deflated> f : deflated) {
+            if (f != null && !f.cancel(true)) {
+                try {
+                    f.get().dispose();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (ExecutionException e) { // NOSONAR failed anyway
+                    // nothing to clean up
+                }
+            }
+        }
+    }
+
+    private static ExecutorService createPool(final int threads) {
+        final AtomicInteger count = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, r -> {
+            final Thread t = new Thread(r, "KNIME Archive Compressor-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /** A file to add along with everything needed to add it, the file is only stat-ed once. */
+    private static final class Item {
+        private final File m_file;
+
+        private final String m_entryName;
+
+        private final boolean m_isDirectory;
+
+        private final long m_size;
+
+        /** Whether the file is compressed already and added without deflating it again. */
+        private final boolean m_isStored;
+
+        Item(final File file, final int stripOff, final boolean storeCompressed) {
+            m_file = file;
+            IPath path = new Path(file.getAbsolutePath()).setDevice(null);
+            if (stripOff > 0 && path.segmentCount() > stripOff) {
+                path = path.removeFirstSegments(stripOff);
+            }
+            m_entryName = path.makeRelative().toString();
+            m_isDirectory = file.isDirectory();
+            m_size = m_isDirectory ? 0 : file.length();
+            m_isStored = storeCompressed && !m_isDirectory && isCompressed(file);
+        }
+
+        int getWork() {
+            return (int)(m_size >>> 20) + 1;
+        }
+
+        private static boolean isCompressed(final File file) {
+            final String ext = StringUtils.substringAfterLast(file.getName(), ".").toLowerCase(Locale.ROOT);
+            return COMPRESSED_EXTENSIONS.contains(ext);
+        }
 
+        boolean isDeflatedByWorker() {
+            return !m_isDirectory && m_size > 0 && !m_isStored;
+        }
+    }
+
+    /** Result of deflating one file, either in memory or in a temporary file. */
+    private static final class Deflated {
+        private final long m_crc;
+
+        private final long m_size;
+
+        private final long m_compressedSize;
+
+        private final byte[] m_data;
+
+        private final File m_tmpFile;
+
+        Deflated(final long crc, final long size, final long compressedSize, final byte[] data, final File tmpFile) {
+            m_crc = crc;
+            m_size = size;
+            m_compressedSize = compressedSize;
+            m_data = data;
+            m_tmpFile = tmpFile;
+        }
+
+        InputStream openStream() throws IOException {
+            return m_data != null ? new ByteArrayInputStream(m_data)
+                : new BufferedInputStream(new FileInputStream(m_tmpFile), BUFFSIZE);
+        }
+
+        void dispose() {
+            if (m_tmpFile != null) {
+                m_tmpFile.delete();
+            }
+        }
     }
 }
@@ -58,6 +58,7 @@
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.zip.ZipFile;
 
 import org.eclipse.core.filesystem.EFS;
 import org.eclipse.core.runtime.CoreException;
@@ -71,6 +72,7 @@
 import org.eclipse.ui.actions.WorkspaceModifyOperation;
 import org.eclipse.ui.internal.wizards.datatransfer.ArchiveFileManipulations;
 import org.eclipse.ui.internal.wizards.datatransfer.ILeveledImportStructureProvider;
+import org.eclipse.ui.internal.wizards.datatransfer.ZipLeveledStructureProvider;
 import org.knime.core.node.workflow.WorkflowPersistor;
 import org.knime.core.util.FileUtil;
 import org.knime.workbench.explorer.ExplorerMountTable;
@@ -144,6 +146,16 @@ public WorkflowImportOperation(final IWorkflowImportElement rootElement,
     protected void execute(final IProgressMonitor monitor) throws InvocationTargetException, InterruptedException {
         ILeveledImportStructureProvider provider = null;
         try {
+            final File localTarget = getLocalTarget();
+            provider = getZipProvider();
+            if (localTarget != null && provider != null) {
+                // the archive is extracted straight into the workspace in one pass
+                final ZipFile zipFile = ((ZipLeveledStructureProvider)provider).getZipFile();
+                new ZipArchiveExtractor(zipFile, localTarget,
+                    ZipArchiveExtractor.forImportElements(m_workflows, m_uncheckedWorkflows)).extract(monitor);
+                m_targetPath.refresh();
+                return;
+            }
             monitor.beginTask("", m_workflows.size());
             for (IWorkflowImportElement wf : m_workflows) {
                 if (monitor.isCanceled()) {
@@ -167,6 +179,35 @@ protected void execute(final IProgressMonitor monitor) throws InvocationTargetEx
         }
     }
 
+    /** @return the local directory of the target or null if it isn't local */
+    private File getLocalTarget() {
+        if (m_targetPath instanceof RemoteExplorerFileStore) {
+            return null;
+        }
+        try {
+            return m_targetPath.toLocalFile();
+        } catch (CoreException e) { // NOSONAR not a local target, use the generic import
+            return null;
+        }
+    }
+
+    /** @return the zip structure provider shared by all import elements or null if they don't share one */
+    @SuppressWarnings("restriction")
+    private ILeveledImportStructureProvider getZipProvider() {
+        ILeveledImportStructureProvider provider = null;
+        for (IWorkflowImportElement wf : m_workflows) {
+            if (!(wf instanceof WorkflowImportElementFromArchive)) {
+                return null;
+            }
+            ILeveledImportStructureProvider p = ((WorkflowImportElementFromArchive)wf).getProvider();
+            if (!(p instanceof ZipLeveledStructureProvider) || (provider != null && provider != p)) {
+                return null;
+            }
+            provider = p;
+        }
+        return provider;
+    }
+
     @SuppressWarnings("restriction")
     private ILeveledImportStructureProvider handleCopyProject(final IWorkflowImportElement importElement,
         final IProgressMonitor monitor) throws Exception {
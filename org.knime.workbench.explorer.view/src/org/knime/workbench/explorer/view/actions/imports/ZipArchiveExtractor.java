@@ -0,0 +1,360 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.workbench.explorer.view.actions.imports;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Path;
+import org.knime.core.node.workflow.FileSingleNodeContainerPersistor;
+import org.knime.core.node.workflow.WorkflowPersistor;
+
+/**
+ * Extracts the entries of a zip archive straight to their final location in the local file system. The central
+ * directory is read once; each entry's path is passed through a path mapping that applies renames (or excludes the
+ * entry by returning <code>null</code>), so no temporary copy and no import element tree is needed. Files are
+ * extracted in parallel, each worker reads its entries through the random access of {@link ZipFile}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ * @since 8.7
+ */
+public final class ZipArchiveExtractor {
+
+    private static final int BUFFSIZE = 1 << 16;
+
+    private final ZipFile m_zipFile;
+
+    private final File m_destination;
+
+    private final Function<IPath, IPath> m_pathMapping;
+
+    private int m_threads = Math.min(4, Runtime.getRuntime().availableProcessors());
+
+    /**
+     * @param zipFile the archive to extract, not closed by this class
+     * @param destination the local directory the mapped paths are resolved against
+     * @param pathMapping maps the path of an archive entry (relative, without trailing separator) to its path relative
+     *            to the destination, returns <code>null</code> if the entry is not to be extracted
+     */
+    public ZipArchiveExtractor(final ZipFile zipFile, final File destination,
+        final Function<IPath, IPath> pathMapping) {
+        m_zipFile = zipFile;
+        m_destination = destination;
+        m_pathMapping = pathMapping;
+    }
+
+    /**
+     * @param threads number of threads extracting files in parallel, 1 to extract on the calling thread only
+     * @return this
+     */
+    public ZipArchiveExtractor setThreads(final int threads) {
+        m_threads = Math.max(1, threads);
+        return this;
+    }
+
+    /**
+     * Extracts all entries accepted by the path mapping. Existing files are overwritten, missing directories created.
+     *
+     * @param mon to report progress and check for cancellation (can be null)
+     * @return the mapped paths of all extracted files and directories
+     * @throws IOException if an entry can't be extracted or an entry would be extracted outside the destination
+     * @throws OperationCanceledException if the user canceled
+     */
+    public Set<IPath> extract(final IProgressMonitor mon) throws IOException {
+        final IProgressMonitor monitor = mon == null ? new NullProgressMonitor() : mon;
+        final java.nio.file.Path root = m_destination.toPath().toAbsolutePath().normalize();
+
+        // a single pass over the central directory
+        final Set<java.nio.file.Path> dirs = new TreeSet<>();
+        final List<ZipEntry> files = new ArrayList<>();
+        final List<java.nio.file.Path> fileTargets = new ArrayList<>();
+        final Set<IPath> extracted = new HashSet<>();
+        int work = 0;
+        for (Enumeration<? extends ZipEntry> en = m_zipFile.entries(); en.hasMoreElements();) {
+            final ZipEntry entry = en.nextElement();
+            final IPath mapped = m_pathMapping.apply(new Path(entry.getName()).makeRelative().removeTrailingSeparator());
+            if (mapped == null) {
+                continue;
+            }
+            final java.nio.file.Path target = resolve(root, mapped, entry);
+            extracted.add(mapped);
+            if (entry.isDirectory()) {
+                dirs.add(target);
+            } else {
+                dirs.add(target.getParent());
+                files.add(entry);
+                fileTargets.add(target);
+                work += (int)(Math.max(0, entry.getSize()) >>> 20) + 1;
+            }
+        }
+
+        monitor.beginTask("Extracting " + files.size() + " files...", work + 1);
+        try {
+            for (java.nio.file.Path dir : dirs) {
+                Files.createDirectories(dir);
+            }
+            monitor.worked(1);
+            if (m_threads > 1 && files.size() > 1) {
+                extractParallel(files, fileTargets, monitor);
+            } else {
+                final byte[] buf = new byte[BUFFSIZE];
+                for (int i = 0; i < files.size(); i++) {
+                    if (monitor.isCanceled()) {
+                        throw new OperationCanceledException();
+                    }
+                    extractEntry(files.get(i), fileTargets.get(i), buf);
+                    monitor.worked((int)(Math.max(0, files.get(i).getSize()) >>> 20) + 1);
+                }
+            }
+        } finally {
+            monitor.done();
+        }
+        return extracted;
+    }
+
+    /**
+     * Extracts the entries accepted by the path mapping from a zip stream, e.g. while the archive is still being
+     * downloaded. Entries are extracted one after the other in the order they appear in the stream.
+     *
+     * @param in the zip stream, not closed by this method
+     * @param destination the local directory the mapped paths are resolved against
+     * @param pathMapping see {@link #ZipArchiveExtractor(ZipFile, File, Function)}
+     * @throws IOException if an entry can't be extracted or an entry would be extracted outside the destination
+     */
+    public static void extractStream(final InputStream in, final File destination,
+        final Function<IPath, IPath> pathMapping) throws IOException {
+        final java.nio.file.Path root = destination.toPath().toAbsolutePath().normalize();
+        final ZipInputStream zin = new ZipInputStream(in);
+        final byte[] buf = new byte[BUFFSIZE];
+        ZipEntry entry;
+        while ((entry = zin.getNextEntry()) != null) {
+            final IPath mapped = pathMapping.apply(new Path(entry.getName()).makeRelative().removeTrailingSeparator());
+            if (mapped == null) {
+                continue;
+            }
+            final java.nio.file.Path target = resolve(root, mapped, entry);
+            if (entry.isDirectory()) {
+                Files.createDirectories(target);
+            } else {
+                Files.createDirectories(target.getParent());
+                try (OutputStream out = Files.newOutputStream(target)) {
+                    int read;
+                    while ((read = zin.read(buf)) >= 0) {
+                        out.write(buf, 0, read);
+                    }
+                }
+            }
+        }
+    }
+
+    private static java.nio.file.Path resolve(final java.nio.file.Path root, final IPath mapped,
+        final ZipEntry entry) throws IOException {
+        final java.nio.file.Path target = root.resolve(mapped.makeRelative().toString()).normalize();
+        if (!target.startsWith(root) || target.equals(root) && !entry.isDirectory()) {
+            throw new IOException("Archive entry \"" + entry.getName() + "\" points outside of the destination");
+        }
+        return target;
+    }
+
+    private void extractParallel(final List<ZipEntry> files, final List<java.nio.file.Path> targets,
+        final IProgressMonitor monitor) throws IOException {
+        final AtomicInteger count = new AtomicInteger();
+        final ExecutorService pool = Executors.newFixedThreadPool(Math.min(m_threads, files.size()), r -> {
+            final Thread t = new Thread(r, "KNIME Archive Extractor-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        try {
+            final List<Future<?>> futures = new ArrayList<>(files.size());
+            for (int i = 0; i < files.size(); i++) {
+                final ZipEntry entry = files.get(i);
+                final java.nio.file.Path target = targets.get(i);
+                futures.add(pool.submit(() -> {
+                    extractEntry(entry, target, new byte[BUFFSIZE]);
+                    return null;
+                }));
+            }
+            // progress is reported (and cancellation checked) on the calling thread only
+            for (int i = 0; i < futures.size(); i++) {
+                if (monitor.isCanceled()) {
+                    throw new OperationCanceledException();
+                }
+                try {
+                    futures.get(i).get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new OperationCanceledException();
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof IOException) {
+                        throw (IOException)e.getCause();
+                    }
+                    throw new IOException(e.getCause().getMessage(), e.getCause());
+                }
+                monitor.worked((int)(Math.max(0, files.get(i).getSize()) >>> 20) + 1);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private void extractEntry(final ZipEntry entry, final java.nio.file.Path target, final byte[] buf)
+        throws IOException {
+        try (InputStream in = m_zipFile.getInputStream(entry); OutputStream out = Files.newOutputStream(target)) {
+            int read;
+            while ((read = in.read(buf)) >= 0) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new IOException("Canceled.");
+                }
+                out.write(buf, 0, read);
+            }
+        } catch (IOException e) {
+            throw new IOException(String.format("Unable to extract \"%s\" to \"%s\": %s", entry.getName(), target,
+                e.getMessage()), e);
+        }
+    }
+
+    /**
+     * Determines the single top-level folder of the archive that holds a workflow, workflow template or workflow
+     * group, as the import element tree would (other top-level folders and files are ignored).
+     *
+     * @param zipFile the archive
+     * @return the path of that folder or <code>null</code> if there is none or more than one
+     */
+    public static IPath getSingleRootFolder(final ZipFile zipFile) {
+        final Set<String> names = new HashSet<>();
+        final Set<String> topLevelFolders = new TreeSet<>();
+        for (Enumeration<? extends ZipEntry> en = zipFile.entries(); en.hasMoreElements();) {
+            final IPath path = new Path(en.nextElement().getName()).makeRelative().removeTrailingSeparator();
+            names.add(path.toString());
+            if (path.segmentCount() > 1) {
+                topLevelFolders.add(path.segment(0));
+            }
+        }
+        final List<String> roots = new ArrayList<>();
+        for (String folder : topLevelFolders) {
+            final boolean isFlowOrTemplate = names.contains(folder + "/" + WorkflowPersistor.WORKFLOW_FILE)
+                || names.contains(folder + "/" + WorkflowPersistor.TEMPLATE_FILE);
+            final boolean isNodeFolder =
+                names.contains(folder + "/" + FileSingleNodeContainerPersistor.SETTINGS_FILE_NAME)
+                    && !names.contains(folder + "/" + WorkflowPersistor.METAINFO_FILE);
+            if (isFlowOrTemplate || !isNodeFolder) {
+                roots.add(folder);
+            }
+        }
+        return roots.size() == 1 ? new Path(roots.get(0)) : null;
+    }
+
+    /**
+     * A path mapping that moves the content of <code>sourceFolder</code> (or the entire archive if it is
+     * <code>null</code>) into <code>targetFolder</code>; everything else is excluded.
+     *
+     * @param sourceFolder the folder in the archive, or <code>null</code> for the archive root
+     * @param targetFolder the path relative to the extractor's destination
+     * @return the path mapping
+     */
+    public static Function<IPath, IPath> relocate(final IPath sourceFolder, final IPath targetFolder) {
+        if (sourceFolder == null || sourceFolder.segmentCount() == 0) {
+            return p -> targetFolder.append(p);
+        }
+        final int n = sourceFolder.segmentCount();
+        return p -> sourceFolder.isPrefixOf(p) ? targetFolder.append(p.removeFirstSegments(n)) : null;
+    }
+
+    /**
+     * A path mapping for the elements selected in the import wizard. An archive entry is mapped according to the
+     * closest enclosing selected or unselected element: it is excluded if that element is unselected, otherwise it is
+     * moved into the element's renamed path. Entries outside of all elements are excluded.
+     *
+     * @param selected the elements to import, possibly renamed
+     * @param unselected the elements explicitly deselected by the user
+     * @return the path mapping
+     */
+    public static Function<IPath, IPath> forImportElements(final Iterable<IWorkflowImportElement> selected,
+        final Iterable<IWorkflowImportElement> unselected) {
+        final Map<IPath, IPath> renames = new HashMap<>();
+        for (IWorkflowImportElement e : unselected) {
+            renames.put(e.getOriginalPath(), null);
+        }
+        for (IWorkflowImportElement e : selected) {
+            renames.put(e.getOriginalPath(), e.getRenamedPath());
+        }
+        return p -> {
+            for (IPath prefix = p; ; prefix = prefix.removeLastSegments(1)) {
+                if (renames.containsKey(prefix)) {
+                    final IPath renamed = renames.get(prefix);
+                    return renamed == null ? null : renamed.append(p.removeFirstSegments(prefix.segmentCount()));
+                }
+                if (prefix.segmentCount() == 0) {
+                    return null;
+                }
+            }
+        };
+    }
+}
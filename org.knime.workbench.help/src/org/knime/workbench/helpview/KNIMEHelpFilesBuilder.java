@@ -61,6 +61,7 @@
 import org.knime.core.util.PathUtils;
 import org.knime.workbench.helpview.wizard.KNIMEHelpFilesWizard;
 import org.knime.workbench.helpview.wizard.NodeDescriptionConverter;
+import org.knime.workbench.repository.util.DocumentationManifest;
 
 /**
  * Scans for the node description XML files of all installed KNIME nodes, and
@@ -80,6 +81,10 @@ public class KNIMEHelpFilesBuilder implements IApplication {
 
     private static final String DESTINATION_ARG = "-destination";
 
+    private static final String THREADS_ARG = "-threads";
+
+    private static final String INCREMENTAL_ARG = "-incremental";
+
     private static void printUsage() {
         System.err.println("Usage: KNIMEHelpFilesBuilder options");
         System.err.println("Allowed options are:");
@@ -90,6 +95,12 @@ private static void printUsage() {
         System.err.println("\t-destination dir : directory where "
                 + "the result should be written to; if missing, files"
                 + "are directly written into the plug-in");
+        System.err.println("\t-threads n : number of threads rendering "
+                + "the node descriptions in parallel; if missing, the "
+                + "number of available processors is used");
+        System.err.println("\t-incremental : only re-generate node "
+                + "descriptions whose description, plug-in version or "
+                + "stylesheets have changed since the last run");
     }
 
     /**
@@ -103,6 +114,8 @@ public Object start(final IApplicationContext context) throws Exception {
 
         Pattern pluginPattern = null;
         File destinationDir = null;
+        int threads = DocumentationManifest.DEFAULT_THREADS;
+        boolean incremental = false;
         if ((o != null) && (o instanceof String[])) {
             String[] args = (String[])o;
             for (int i = 0; i < args.length; i++) {
@@ -110,6 +123,10 @@ public Object start(final IApplicationContext context) throws Exception {
                     pluginPattern = Pattern.compile(args[i + 1]);
                 } else if (args[i].equals(DESTINATION_ARG)) {
                     destinationDir = new File(args[i + 1]);
+                } else if (args[i].equals(THREADS_ARG)) {
+                    threads = Integer.parseInt(args[i + 1]);
+                } else if (args[i].equals(INCREMENTAL_ARG)) {
+                    incremental = true;
                 } else if (args[i].equals("-help")) {
                     printUsage();
                     return EXIT_OK;
@@ -119,6 +136,8 @@ public Object start(final IApplicationContext context) throws Exception {
         }
 
         if (pluginPattern != null) {
+            NodeDescriptionConverter.instance().setThreads(threads);
+            NodeDescriptionConverter.instance().setIncremental(incremental);
             NodeDescriptionConverter.instance().buildDocumentationFor(
                     pluginPattern, destinationDir);
         } else {
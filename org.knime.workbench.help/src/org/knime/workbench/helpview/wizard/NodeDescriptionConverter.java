@@ -54,6 +54,7 @@
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
+import java.io.StringWriter;
 import java.io.Writer;
 import java.lang.reflect.InvocationTargetException;
 import java.net.URL;
@@ -63,6 +64,12 @@
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.jar.Attributes;
 import java.util.jar.Manifest;
 import java.util.regex.Pattern;
@@ -88,13 +95,16 @@
 import org.eclipse.jface.operation.IRunnableWithProgress;
 import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.Shell;
+import org.knime.core.node.NodeFactory;
 import org.knime.core.node.NodeLogger;
+import org.knime.core.node.NodeModel;
 import org.knime.workbench.repository.RepositoryManager;
 import org.knime.workbench.repository.model.Category;
 import org.knime.workbench.repository.model.IRepositoryObject;
 import org.knime.workbench.repository.model.MetaNodeTemplate;
 import org.knime.workbench.repository.model.NodeTemplate;
 import org.knime.workbench.repository.model.Root;
+import org.knime.workbench.repository.util.DocumentationManifest;
 import org.knime.workbench.repository.util.DynamicNodeDescriptionCreator;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
@@ -154,6 +164,16 @@ public final class NodeDescriptionConverter {
 
     private boolean m_canceled = false;
 
+    private int m_threads = 1;
+
+    private boolean m_incremental;
+
+    private DocumentationManifest m_manifest;
+
+    private ExecutorService m_executor;
+
+    private final List<Future<?>> m_pendingPages = new ArrayList<>();
+
     private NodeDescriptionConverter() {
     }
 
@@ -264,6 +284,29 @@ public void run(final IProgressMonitor monitor)
         }
     }
 
+    /**
+     * Sets the number of threads that render node description pages in parallel. The default is one thread, so that
+     * the wizard doesn't compete with the workbench; the command line builder passes its own value.
+     *
+     * @param threads the number of threads, values smaller than one are treated as one
+     * @since 4.4
+     */
+    public synchronized void setThreads(final int threads) {
+        m_threads = Math.max(1, threads);
+    }
+
+    /**
+     * Sets whether only node description pages should be rendered whose description, plug-in version or stylesheets
+     * have changed since the last run into the same destination. The default is <code>false</code>, i.e. all pages
+     * are rendered again.
+     *
+     * @param incremental <code>true</code> for incremental runs, <code>false</code> otherwise
+     * @since 4.4
+     */
+    public synchronized void setIncremental(final boolean incremental) {
+        m_incremental = incremental;
+    }
+
     /**
      *
      * @return singleton instance of this class
@@ -345,24 +388,72 @@ public void run() {
         if (m_dialog != null) {
             m_dialog.setCancelable(false);
         }
-        // processing
-        processAll(root.getChildren(), null);
+        // processing, the node pages are rendered by the worker pool
+        // the manifest is only kept by incremental runs, other runs remove an outdated one
+        if (m_incremental) {
+            m_manifest = DocumentationManifest.load(m_destinationDir);
+        } else {
+            DocumentationManifest.delete(m_destinationDir);
+        }
+        m_executor = Executors.newFixedThreadPool(m_threads, new ThreadFactory() {
+            private final AtomicInteger m_threadCreateCounter = new AtomicInteger();
+
+            @Override
+            public Thread newThread(final Runnable r) {
+                Thread t = new Thread(r, "Help Files Builder-" + m_threadCreateCounter.getAndIncrement());
+                t.setDaemon(true);
+                return t;
+            }
+        });
+        try {
+            processAll(root.getChildren(), null);
+            waitForPendingPages();
+        } finally {
+            m_executor.shutdownNow();
+            m_pendingPages.clear();
+        }
+        if (m_incremental) {
+            m_manifest.save();
+        }
 
         // at the end -> persist plugin.xml
-        Document doc = m_pluginXML;
+        writeXMLFile(m_pluginXML, new File(m_destinationDir, m_isFragment ? "fragment.xml" : "plugin.xml"));
+
+        // at the end add the two dependencies to the manifest file
+        // org.eclipse.help, org.eclipse.help.ui
+        updateManifest();
+
+    }
+
+    /*
+     * Waits until all node pages have been written and rethrows the first failure.
+     */
+    private void waitForPendingPages() throws Exception {
+        for (Future<?> f : m_pendingPages) {
+            try {
+                f.get();
+            } catch (ExecutionException ex) {
+                if (ex.getCause() instanceof Exception) {
+                    throw (Exception)ex.getCause();
+                }
+                throw ex;
+            }
+        }
+    }
+
+    /*
+     * Serializes the document and writes it into the file, unless the file already has the same content.
+     */
+    private static void writeXMLFile(final Document doc, final File f) throws IOException, TransformerException {
         Source src = new DOMSource(doc);
-        File f = new File(m_destinationDir, m_isFragment ? "fragment.xml" : "plugin.xml");
-        Result streamResult = new StreamResult(f);
+        StringWriter content = new StringWriter();
+        Result streamResult = new StreamResult(content);
         TransformerFactory tf = TransformerFactory.newInstance();
         Transformer serializer = tf.newTransformer();
         serializer.setOutputProperty(OutputKeys.ENCODING, "UTF-8");
         serializer.setOutputProperty(OutputKeys.INDENT, "yes");
         serializer.transform(src, streamResult);
-
-        // at the end add the two dependencies to the manifest file
-        // org.eclipse.help, org.eclipse.help.ui
-        updateManifest();
-
+        DocumentationManifest.writeIfChanged(f, content.toString());
     }
 
     private void updateManifest() throws Exception {
@@ -522,17 +613,10 @@ private boolean alreadyExist(final Node node, final Element document) {
 
     private void writeNodeTocFile(final Document root, final String fileName)
             throws IOException, TransformerException {
-        Document doc = root;
-        Source src = new DOMSource(doc);
         File f =
                 new File(m_destinationDir, TOC_DIR + File.separator + fileName
                         + ".xml");
-        Result streamResult = new StreamResult(f);
-        TransformerFactory tf = TransformerFactory.newInstance();
-        Transformer serializer = tf.newTransformer();
-        serializer.setOutputProperty(OutputKeys.ENCODING, "UTF-8");
-        serializer.setOutputProperty(OutputKeys.INDENT, "yes");
-        serializer.transform(src, streamResult);
+        writeXMLFile(root, f);
     }
 
     private Document createNodeTocFile(final Category c)
@@ -604,11 +688,6 @@ private boolean processNode(final NodeTemplate node, final Document nodeToc)
             throws Exception {
         assert nodeToc != null;
         if (node.getContributingPlugin().equals(m_pluginID)) {
-            // create HTML file
-            StringBuilder builder = new StringBuilder();
-            DynamicNodeDescriptionCreator.instance().addDescription(node,
-                    false, builder);
-
             String nodeID = node.getID();
             int index = nodeID.lastIndexOf('.');
             if (index >= 0) {
@@ -618,10 +697,12 @@ private boolean processNode(final NodeTemplate node, final Document nodeToc)
             String relativePath =
                     HTML_DIR + "/" + NODES_DIR + "/" + fileName(nodeID)
                             + ".html";
+            // create HTML file
             File nodeDescription = new File(m_destinationDir, relativePath);
-            Writer writer = new OutputStreamWriter(new FileOutputStream(nodeDescription), "UTF-8");
-            writer.write(builder.toString());
-            writer.close();
+            m_pendingPages.add(m_executor.submit(() -> {
+                writeNodePage(node, relativePath, nodeDescription);
+                return null;
+            }));
             // append topic
             Element topic = nodeToc.createElement("topic");
             topic.setAttribute("label", htmlString(node.getName()));
@@ -633,6 +714,31 @@ private boolean processNode(final NodeTemplate node, final Document nodeToc)
         return false;
     }
 
+    /*
+     * Renders the description page of a single node unless it is unchanged since the last incremental run. Called
+     * by the worker pool.
+     */
+    private void writeNodePage(final NodeTemplate node, final String relativePath, final File nodeDescription)
+        throws Exception {
+        NodeFactory<? extends NodeModel> factory = node.createFactoryInstance();
+        String hash = null;
+        if (m_incremental) {
+            hash = DocumentationManifest.computeHash(factory.getXMLDescription(), node.getContributingPlugin());
+            if (m_manifest.isUpToDate(relativePath, hash)) {
+                return;
+            }
+        }
+        StringBuilder builder = new StringBuilder();
+        DynamicNodeDescriptionCreator.instance().addDescription(node, factory,
+                false, builder);
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(nodeDescription), "UTF-8")) {
+            writer.write(builder.toString());
+        }
+        if (hash != null) {
+            m_manifest.put(relativePath, hash);
+        }
+    }
+
     /**
      * Returns the file object of the current plugin.
      *
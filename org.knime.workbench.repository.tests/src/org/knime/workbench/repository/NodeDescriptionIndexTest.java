@@ -0,0 +1,135 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.workbench.repository;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.junit.Test;
+import org.w3c.dom.Element;
+
+/**
+ * Tests {@link NodeDescriptionIndex}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class NodeDescriptionIndexTest {
+    private static Element parse(final String xml) throws Exception {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        return factory.newDocumentBuilder().parse(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)))
+            .getDocumentElement();
+    }
+
+    private static NodeDescriptionIndex createIndex() throws Exception {
+        NodeDescriptionIndex.Builder builder = new NodeDescriptionIndex.Builder();
+        builder.add("test.CSVReaderNodeFactory", "CSV Reader",
+            parse("<knimeNode xmlns=\"http://knime.org/node/v4.1\"><name>CSV Reader</name>"
+                + "<shortDescription>Reads CSV files</shortDescription>"
+                + "<fullDescription><option name=\"Column delimiter\">...</option></fullDescription>"
+                + "<ports><outPort index=\"0\" name=\"File Table\">...</outPort></ports>"
+                + "<keywords><keyword>comma separated</keyword></keywords></knimeNode>"));
+        builder.add("test.RowFilterNodeFactory", "Row Filter",
+            parse("<knimeNode xmlns=\"http://knime.org/node/v4.1\"><name>Row Filter</name>"
+                + "<shortDescription>Filters rows of a table</shortDescription>"
+                + "<ports><inPort index=\"0\" name=\"Input table\">...</inPort></ports></knimeNode>"));
+        builder.add("test.JoinerNodeFactory", "Joiner", null);
+        return builder.build();
+    }
+
+    /**
+     * Checks that nodes are found by the different parts of their description.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testSearch() throws Exception {
+        NodeDescriptionIndex index = createIndex();
+        assertThat("Wrong number of nodes", index.size(), is(3));
+        assertThat("Option not found", index.search("delimiter", 10),
+            is(Collections.singletonList("test.CSVReaderNodeFactory")));
+        assertThat("Keyword not found", index.search("Comma", 10),
+            is(Collections.singletonList("test.CSVReaderNodeFactory")));
+        assertThat("Prefix of last term not found", index.search("csv fil", 10),
+            is(Collections.singletonList("test.CSVReaderNodeFactory")));
+        assertThat("Unexpected match", index.search("csv rows", 10), is(Collections.emptyList()));
+        assertThat("Unexpected match", index.search("  ", 10), is(Collections.emptyList()));
+        // the row filter has "table" in its short description and in a port name
+        assertThat("Wrong ranking", index.search("table", 10),
+            is(Arrays.asList("test.RowFilterNodeFactory", "test.CSVReaderNodeFactory")));
+        assertThat("Result not limited", index.search("table", 1),
+            is(Collections.singletonList("test.RowFilterNodeFactory")));
+    }
+
+    /**
+     * Checks that a written and read index returns the same results.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testWriteRead() throws Exception {
+        NodeDescriptionIndex index = createIndex();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            index.write(out);
+        }
+        NodeDescriptionIndex copy =
+            NodeDescriptionIndex.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        assertThat("Wrong number of nodes", copy.size(), is(index.size()));
+        for (String query : new String[]{"table", "csv", "join", "filter rows"}) {
+            assertThat("Different result for '" + query + "'", copy.search(query, 10), is(index.search(query, 10)));
+        }
+    }
+}
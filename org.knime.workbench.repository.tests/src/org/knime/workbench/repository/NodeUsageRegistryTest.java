@@ -0,0 +1,171 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.workbench.repository;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.knime.core.node.NodeFactory.NodeType;
+import org.knime.workbench.repository.model.DefaultNodeTemplate;
+import org.knime.workbench.repository.model.NodeTemplate;
+
+/**
+ * Tests the most frequent nodes of {@link NodeUsageRegistry}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class NodeUsageRegistryTest {
+    private static final NodeTemplate NODE_A = createTemplate("A");
+
+    private static final NodeTemplate NODE_B = createTemplate("B");
+
+    private static final NodeTemplate NODE_C = createTemplate("C");
+
+    private static NodeTemplate createTemplate(final String name) {
+        return new DefaultNodeTemplate("test." + name + "NodeFactory", name, "test", "/", NodeType.Manipulator);
+    }
+
+    /**
+     * Starts with an empty history.
+     */
+    @Before
+    public void clearHistory() {
+        NodeUsageRegistry.clearHistory();
+        NodeUsageRegistry.setMaxFrequentSize(2);
+    }
+
+    /**
+     * Restores the default size.
+     */
+    @After
+    public void restoreSize() {
+        NodeUsageRegistry.clearHistory();
+        NodeUsageRegistry.setMaxFrequentSize(10);
+    }
+
+    /**
+     * Registers the usages and waits until the listeners have been notified.
+     */
+    private static void addNodes(final NodeTemplate... nodes) throws InterruptedException {
+        CountDownLatch notified = new CountDownLatch(1);
+        NodeUsageListener listener = new NodeUsageListener() {
+            @Override
+            public void nodeAdded() {
+                notified.countDown();
+            }
+
+            @Override
+            public void usedHistoryChanged() {
+            }
+
+            @Override
+            public void frequentHistoryChanged() {
+            }
+        };
+        NodeUsageRegistry.addNodeUsageListener(listener);
+        try {
+            for (NodeTemplate node : nodes) {
+                NodeUsageRegistry.addNode(node);
+            }
+            assertThat("Listeners notified", notified.await(10, TimeUnit.SECONDS), is(true));
+        } finally {
+            NodeUsageRegistry.removeNodeUsageListener(listener);
+        }
+    }
+
+    /**
+     * Checks that the most frequent nodes are ordered by their frequency, limited to the maximum size and updated
+     * when the frequency of a node overtakes the others.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testMostFrequentNodes() throws Exception {
+        addNodes(NODE_A, NODE_A, NODE_B);
+        assertThat("Most frequent nodes", NodeUsageRegistry.getMostFrequentNodes(),
+            is(Arrays.asList(NODE_A, NODE_B)));
+
+        addNodes(NODE_C, NODE_C, NODE_C);
+        assertThat("Most frequent nodes after C overtook the others", NodeUsageRegistry.getMostFrequentNodes(),
+            is(Arrays.asList(NODE_C, NODE_A)));
+
+        addNodes(NODE_B, NODE_B, NODE_B, NODE_B);
+        assertThat("Most frequent nodes after B overtook the others", NodeUsageRegistry.getMostFrequentNodes(),
+            is(Arrays.asList(NODE_B, NODE_C)));
+    }
+
+    /**
+     * Checks that changing the maximum size rebuilds the most frequent nodes from all counted usages.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testChangeMaxSize() throws Exception {
+        addNodes(NODE_A, NODE_A, NODE_A, NODE_B, NODE_B, NODE_C);
+        assertThat("Most frequent nodes", NodeUsageRegistry.getMostFrequentNodes(),
+            is(Arrays.asList(NODE_A, NODE_B)));
+
+        NodeUsageRegistry.setMaxFrequentSize(3);
+        assertThat("Most frequent nodes after increasing the size", NodeUsageRegistry.getMostFrequentNodes(),
+            is(Arrays.asList(NODE_A, NODE_B, NODE_C)));
+
+        NodeUsageRegistry.setMaxFrequentSize(1);
+        assertThat("Most frequent nodes after decreasing the size", NodeUsageRegistry.getMostFrequentNodes(),
+            is(Collections.singletonList(NODE_A)));
+
+        NodeUsageRegistry.clearHistory();
+        assertThat("Most frequent nodes after clearing the history", NodeUsageRegistry.getMostFrequentNodes(),
+            is(Collections.emptyList()));
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.workbench.repository.nodalizer;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests {@link NodalizerCheckpoint}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class NodalizerCheckpointTest {
+    /** Temporary output directory. */
+    @Rule
+    public TemporaryFolder m_tempFolder = new TemporaryFolder();
+
+    /**
+     * Checks that recorded nodes and their extensions are known when resuming, but not when starting from scratch.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testResume() throws Exception {
+        File dir = m_tempFolder.getRoot();
+        try (NodalizerCheckpoint checkpoint = NodalizerCheckpoint.open(dir, false, false)) {
+            checkpoint.markDone("node1", "org.knime.features.base");
+            checkpoint.markDone("node2", null);
+        }
+
+        try (NodalizerCheckpoint checkpoint = NodalizerCheckpoint.open(dir, true, false)) {
+            assertThat("node1 recorded", checkpoint.isDone("node1"), is(true));
+            assertThat("node2 recorded", checkpoint.isDone("node2"), is(true));
+            assertThat("node3 not recorded", checkpoint.isDone("node3"), is(false));
+            assertThat("Extensions with nodes", new HashSet<>(checkpoint.getExtensionsWithNodes()),
+                is(Collections.singleton("org.knime.features.base")));
+            checkpoint.markDone("node3", null);
+        }
+
+        try (NodalizerCheckpoint checkpoint = NodalizerCheckpoint.open(dir, true, false)) {
+            assertThat("node1 recorded after second resume", checkpoint.isDone("node1"), is(true));
+            assertThat("node3 recorded after second resume", checkpoint.isDone("node3"), is(true));
+        }
+
+        try (NodalizerCheckpoint checkpoint = NodalizerCheckpoint.open(dir, false, false)) {
+            assertThat("node1 recorded after restart", checkpoint.isDone("node1"), is(false));
+        }
+    }
+
+    /**
+     * Checks that a line that has only been written partially by a killed run is discarded.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testIncompleteLineIsDiscarded() throws Exception {
+        File dir = m_tempFolder.getRoot();
+        try (NodalizerCheckpoint checkpoint = NodalizerCheckpoint.open(dir, false, false)) {
+            checkpoint.markDone("node1", "");
+        }
+        Path file = new File(dir, NodalizerCheckpoint.FILE_NAME).toPath();
+        Files.write(file, "node2".getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+
+        try (NodalizerCheckpoint checkpoint = NodalizerCheckpoint.open(dir, true, false)) {
+            assertThat("node1 recorded", checkpoint.isDone("node1"), is(true));
+            assertThat("Incomplete node2 recorded", checkpoint.isDone("node2"), is(false));
+            checkpoint.markDone("node3", "");
+        }
+        assertThat("Checkpoint content", Files.readAllLines(file, StandardCharsets.UTF_8),
+            is(Arrays.asList("#layout\tfiles", "node1\t\t-1", "node3\t\t-1")));
+    }
+
+    /**
+     * Checks that a run writing one file per node cannot be resumed with a single NDJSON file and vice versa.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testResumeWithOtherLayoutFails() throws Exception {
+        File dir = m_tempFolder.getRoot();
+        try (NodalizerCheckpoint checkpoint = NodalizerCheckpoint.open(dir, false, false)) {
+            checkpoint.markDone("node1", "");
+        }
+        try {
+            NodalizerCheckpoint.open(dir, true, true).close();
+            fail("Resuming a per-file run with NDJSON output succeeded");
+        } catch (IOException e) {
+            assertThat("Message names the flag", e.getMessage().contains("-ndjson"), is(true));
+        }
+
+        try (NodalizerCheckpoint checkpoint = NodalizerCheckpoint.open(dir, false, true)) {
+            checkpoint.markDone("node1", "");
+        }
+        try {
+            NodalizerCheckpoint.open(dir, true, false).close();
+            fail("Resuming an NDJSON run with per-file output succeeded");
+        } catch (IOException e) {
+            assertThat("Message names the output", e.getMessage().contains("one file per node"), is(true));
+        }
+    }
+
+    /**
+     * Checks that nodes written to the NDJSON file but not recorded in the checkpoint by a killed run are discarded
+     * when resuming, so that they are not contained twice once they are written again.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testUnrecordedNdjsonNodesAreDiscarded() throws Exception {
+        File dir = m_tempFolder.getRoot();
+        try (NodalizerCheckpoint checkpoint = NodalizerCheckpoint.open(dir, false, true);
+                NodalizerOutput output = NodalizerOutput.ndjson(dir, checkpoint)) {
+            checkpoint.writeAndMarkDone("node1", "org.knime.features.base", output, "node1", node("Node 1"));
+            checkpoint.markDone("node2", null);
+            // killed after writing node3, but before recording it
+            output.write("node3", node("Node 3"));
+        }
+        Path file = new File(dir, NodalizerOutput.NDJSON_FILE_NAME).toPath();
+        assertThat("Lines before resuming", Files.readAllLines(file, StandardCharsets.UTF_8).size(), is(2));
+
+        try (NodalizerCheckpoint checkpoint = NodalizerCheckpoint.open(dir, true, true);
+                NodalizerOutput output = NodalizerOutput.ndjson(dir, checkpoint)) {
+            assertThat("node3 recorded", checkpoint.isDone("node3"), is(false));
+            checkpoint.writeAndMarkDone("node3", "org.knime.features.base", output, "node3", node("Node 3"));
+        }
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        assertThat("Number of lines after resuming", lines.size(), is(2));
+        assertThat("First node", lines.get(0).contains("Node 1"), is(true));
+        assertThat("Second node", lines.get(1).contains("Node 3"), is(true));
+    }
+
+    /**
+     * Checks that an NDJSON file without any recorded node is started from scratch when resuming.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testNdjsonWithoutRecordedNodesIsReset() throws Exception {
+        File dir = m_tempFolder.getRoot();
+        Path file = new File(dir, NodalizerOutput.NDJSON_FILE_NAME).toPath();
+        Files.write(file, "{\"title\":\"Node 1\"}\n{\"tit".getBytes(StandardCharsets.UTF_8));
+
+        try (NodalizerCheckpoint checkpoint = NodalizerCheckpoint.open(dir, true, true);
+                NodalizerOutput output = NodalizerOutput.ndjson(dir, checkpoint)) {
+            checkpoint.writeAndMarkDone("node2", null, output, "node2", node("Node 2"));
+        }
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        assertThat("Number of lines", lines.size(), is(1));
+        assertThat("Node", lines.get(0).contains("Node 2"), is(true));
+    }
+
+    private static NodeInfo node(final String title) {
+        NodeInfo node = new NodeInfo();
+        node.setTitle(title);
+        return node;
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.workbench.repository.view;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * Tests {@link TanimotoBiGramIndex}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class TanimotoBiGramIndexTest {
+    private static final List<String> NAMES = Arrays.asList("Column Filter", "Row Filter", "Joiner", "CSV Reader",
+        "File Reader", "GroupBy", "Pivoting", "A", "", "aaaa", "Column Rename (Regex)");
+
+    private static final List<String> QUERIES =
+        Arrays.asList("filter", "colum filt", "reader", "j", "aa", "xyz", "ROW", "rename regex");
+
+    /**
+     * Checks that the distances computed via the index are the same as the ones from the plain bi-gram set
+     * computation.
+     */
+    @Test
+    public void testDistancesMatchDirectComputation() {
+        TanimotoBiGramIndex index = new TanimotoBiGramIndex(NAMES);
+        for (String q : QUERIES) {
+            TanimotoBiGramIndex.Query query = index.query(q.toUpperCase());
+            for (String name : NAMES) {
+                double expected = referenceDistance(name, q);
+                assertEquals("Distance of '" + name + "' to '" + q + "'", expected, query.distance(name), 1e-9);
+                assertEquals("Direct distance of '" + name + "' to '" + q + "'", expected,
+                    TanimotoBiGramIndex.distance(q, name), 1e-9);
+            }
+        }
+    }
+
+    /**
+     * Checks matching by containment and by distance.
+     */
+    @Test
+    public void testMatches() {
+        TanimotoBiGramIndex index = new TanimotoBiGramIndex(NAMES);
+        TanimotoBiGramIndex.Query query = index.query("FILTER");
+        assertThat(query.matches("Row Filter", 0.0), is(Boolean.TRUE));
+        assertThat(query.matches("Joiner", 0.85), is(Boolean.FALSE));
+        assertThat(query.matches("Unknown node", 0.85), is(nullValue()));
+
+        query = index.query("J");
+        assertThat(query.matches("Joiner", 0.0), is(Boolean.TRUE));
+        assertThat(query.matches("GroupBy", 0.85), is(Boolean.FALSE));
+
+        query = index.query("COLUM FILT");
+        assertThat(query.matches("Column Filter", 0.85), is(Boolean.TRUE));
+    }
+
+    /** The original implementation based on sets of strings. */
+    private static double referenceDistance(final String textA, final String textB) {
+        Set<String> gramsA = split(textA.toUpperCase());
+        Set<String> gramsB = split(textB.toUpperCase());
+        int intersection = 0;
+        for (String gram : gramsA) {
+            if (gramsB.contains(gram)) {
+                intersection++;
+            }
+        }
+        double denominator = gramsA.size() + gramsB.size() - intersection;
+        return denominator > 0 ? 1.0 - intersection / denominator : 1.0;
+    }
+
+    private static Set<String> split(final String a) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i < a.length() - 1; i++) {
+            grams.add(a.substring(i, i + 2));
+        }
+        return grams;
+    }
+}
@@ -0,0 +1,400 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.workbench.repository;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.knime.workbench.repository.util.NodeFactoryHTMLCreator;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+/**
+ * Full-text index over the node descriptions in the repository. For every node the name, the short description, the
+ * keywords, the port names and the option and tab labels are extracted from the XML description while the factories
+ * are created anyway (i.e. when the repository is read from the extensions). The index is persisted together with the
+ * repository snapshot, so searching neither instantiates node factories nor parses XML.
+ *
+ * <p>
+ * Queries are split into terms, all of which must occur in a node's description (the last term may be a prefix).
+ * Matching nodes are ranked using Okapi BM25 with field-weighted term frequencies.
+ * </p>
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ * @since 4.4
+ */
+public final class NodeDescriptionIndex {
+    private static final double K1 = 1.2;
+
+    private static final double B = 0.75;
+
+    /** Minimum length of the last query term to be used as a prefix. */
+    private static final int MIN_PREFIX_LENGTH = 3;
+
+    private static final float WEIGHT_NAME = 3f;
+
+    private static final float WEIGHT_KEYWORD = 2f;
+
+    private static final float WEIGHT_SHORT_DESCRIPTION = 1.5f;
+
+    private static final float WEIGHT_PORT = 1f;
+
+    private static final float WEIGHT_OPTION = 1f;
+
+    private static final Set<String> STOP_WORDS = new HashSet<>(Arrays.asList("a", "an", "and", "are", "as", "at",
+        "be", "by", "for", "from", "if", "in", "is", "it", "of", "on", "or", "the", "this", "to", "with"));
+
+    private final String[] m_nodeIds;
+
+    private final float[] m_lengths;
+
+    private final float m_averageLength;
+
+    /** all terms in ascending order */
+    private final String[] m_terms;
+
+    /** for each term the indices of the nodes containing it, in ascending order */
+    private final int[][] m_postingNodes;
+
+    /** for each term the weighted term frequencies, parallel to {@link #m_postingNodes} */
+    private final float[][] m_postingFrequencies;
+
+    private NodeDescriptionIndex(final String[] nodeIds, final float[] lengths, final String[] terms,
+        final int[][] postingNodes, final float[][] postingFrequencies) {
+        m_nodeIds = nodeIds;
+        m_lengths = lengths;
+        m_terms = terms;
+        m_postingNodes = postingNodes;
+        m_postingFrequencies = postingFrequencies;
+        double sum = 0;
+        for (float l : lengths) {
+            sum += l;
+        }
+        m_averageLength = (lengths.length == 0) ? 1f : (float)Math.max(sum / lengths.length, 1);
+    }
+
+    /**
+     * Returns the number of indexed nodes.
+     *
+     * @return the number of nodes
+     */
+    public int size() {
+        return m_nodeIds.length;
+    }
+
+    /**
+     * Searches the node descriptions.
+     *
+     * @param query the query as entered by the user
+     * @param maxResults the maximum number of results
+     * @return the IDs of the matching node templates, the best match first; never <code>null</code>
+     */
+    public List<String> search(final String query, final int maxResults) {
+        List<String> queryTerms = new ArrayList<>(tokenize(query));
+        if (queryTerms.isEmpty() || (maxResults <= 0)) {
+            return Collections.emptyList();
+        }
+
+        double[] scores = new double[m_nodeIds.length];
+        int[] matchedTerms = new int[m_nodeIds.length];
+        double[] termScores = new double[m_nodeIds.length];
+        for (int q = 0; q < queryTerms.size(); q++) {
+            String term = queryTerms.get(q);
+            int from = Arrays.binarySearch(m_terms, term);
+            int to;
+            if ((q == queryTerms.size() - 1) && (term.length() >= MIN_PREFIX_LENGTH)) {
+                // the last term is probably still being typed, also use all terms it is a prefix of
+                from = (from < 0) ? -from - 1 : from;
+                to = from;
+                while ((to < m_terms.length) && m_terms[to].startsWith(term)) {
+                    to++;
+                }
+            } else if (from < 0) {
+                return Collections.emptyList();
+            } else {
+                to = from + 1;
+            }
+
+            // if several terms match a prefix, a node only gets the score of the best one
+            Arrays.fill(termScores, 0);
+            for (int t = from; t < to; t++) {
+                int[] nodes = m_postingNodes[t];
+                float[] frequencies = m_postingFrequencies[t];
+                double idf = Math.log(1 + (m_nodeIds.length - nodes.length + 0.5) / (nodes.length + 0.5));
+                for (int i = 0; i < nodes.length; i++) {
+                    int n = nodes[i];
+                    double tf = frequencies[i];
+                    double score =
+                        idf * tf * (K1 + 1) / (tf + K1 * (1 - B + B * m_lengths[n] / m_averageLength));
+                    termScores[n] = Math.max(termScores[n], score);
+                }
+            }
+            for (int n = 0; n < termScores.length; n++) {
+                if (termScores[n] > 0) {
+                    scores[n] += termScores[n];
+                    matchedTerms[n]++;
+                }
+            }
+        }
+
+        List<Integer> hits = new ArrayList<>();
+        for (int n = 0; n < scores.length; n++) {
+            if (matchedTerms[n] == queryTerms.size()) {
+                hits.add(n);
+            }
+        }
+        hits.sort((a, b) -> {
+            int c = Double.compare(scores[b], scores[a]);
+            return (c != 0) ? c : m_nodeIds[a].compareTo(m_nodeIds[b]);
+        });
+        List<String> result = new ArrayList<>(Math.min(hits.size(), maxResults));
+        for (int i = 0; (i < hits.size()) && (i < maxResults); i++) {
+            result.add(m_nodeIds[hits.get(i)]);
+        }
+        return result;
+    }
+
+    /**
+     * Splits the text into lower-case terms of letters and digits, ignoring very common English words.
+     *
+     * @param text any text, may be <code>null</code>
+     * @return the terms in the order of their first occurrence, without duplicates
+     */
+    static Set<String> tokenize(final String text) {
+        return new LinkedHashSet<>(split(text));
+    }
+
+    private static List<String> split(final String text) {
+        List<String> terms = new ArrayList<>();
+        if (text != null) {
+            for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+                if (!token.isEmpty() && !STOP_WORDS.contains(token)) {
+                    terms.add(token);
+                }
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * Writes the index, the counterpart of {@link #read(DataInputStream)}.
+     *
+     * @param out the stream to write to
+     * @throws IOException if writing fails
+     */
+    void write(final DataOutputStream out) throws IOException {
+        out.writeInt(m_nodeIds.length);
+        for (int n = 0; n < m_nodeIds.length; n++) {
+            writeString(out, m_nodeIds[n]);
+            out.writeFloat(m_lengths[n]);
+        }
+        out.writeInt(m_terms.length);
+        for (int t = 0; t < m_terms.length; t++) {
+            writeString(out, m_terms[t]);
+            out.writeInt(m_postingNodes[t].length);
+            for (int i = 0; i < m_postingNodes[t].length; i++) {
+                out.writeInt(m_postingNodes[t][i]);
+                out.writeFloat(m_postingFrequencies[t][i]);
+            }
+        }
+    }
+
+    /**
+     * Reads an index written by {@link #write(DataOutputStream)}.
+     *
+     * @param in the stream to read from
+     * @return the index
+     * @throws IOException if reading fails or the data is corrupt
+     */
+    static NodeDescriptionIndex read(final DataInputStream in) throws IOException {
+        int nodeCount = in.readInt();
+        String[] nodeIds = new String[nodeCount];
+        float[] lengths = new float[nodeCount];
+        for (int n = 0; n < nodeCount; n++) {
+            nodeIds[n] = readString(in);
+            lengths[n] = in.readFloat();
+        }
+        int termCount = in.readInt();
+        String[] terms = new String[termCount];
+        int[][] postingNodes = new int[termCount][];
+        float[][] postingFrequencies = new float[termCount][];
+        for (int t = 0; t < termCount; t++) {
+            terms[t] = readString(in);
+            int postingCount = in.readInt();
+            postingNodes[t] = new int[postingCount];
+            postingFrequencies[t] = new float[postingCount];
+            for (int i = 0; i < postingCount; i++) {
+                postingNodes[t][i] = in.readInt();
+                if ((postingNodes[t][i] < 0) || (postingNodes[t][i] >= nodeCount)) {
+                    throw new IOException("Invalid node index " + postingNodes[t][i] + " for term '" + terms[t] + "'");
+                }
+                postingFrequencies[t][i] = in.readFloat();
+            }
+        }
+        return new NodeDescriptionIndex(nodeIds, lengths, terms, postingNodes, postingFrequencies);
+    }
+
+    private static void writeString(final DataOutputStream out, final String s) throws IOException {
+        byte[] bytes = s.getBytes(UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(final DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    /**
+     * Collects the descriptions of the nodes while the repository is read. Nodes may be added concurrently.
+     */
+    static final class Builder {
+        private final Map<String, Map<String, Float>> m_documents = new HashMap<>();
+
+        /**
+         * Adds a node to the index. If a node with the same ID has already been added, it is replaced.
+         *
+         * @param nodeId the node template's ID
+         * @param name the node's name
+         * @param description the node's XML description, may be <code>null</code>
+         */
+        void add(final String nodeId, final String name, final Element description) {
+            Map<String, Float> document = new HashMap<>();
+            addTerms(document, name, WEIGHT_NAME);
+            if (description != null) {
+                NodeFactoryHTMLCreator htmlCreator = NodeFactoryHTMLCreator.instance;
+                if (htmlCreator != null) {
+                    addTerms(document, htmlCreator.readShortDescriptionFromXML(description),
+                        WEIGHT_SHORT_DESCRIPTION);
+                }
+                addElementTexts(document, description, "keyword", WEIGHT_KEYWORD);
+                for (String port : new String[]{"inPort", "outPort", "dynInPort", "dynOutPort"}) {
+                    addAttributes(document, description, port, "name", WEIGHT_PORT);
+                    addAttributes(document, description, port, "group-identifier", WEIGHT_PORT);
+                }
+                addAttributes(document, description, "option", "name", WEIGHT_OPTION);
+                addAttributes(document, description, "tab", "name", WEIGHT_OPTION);
+            }
+            synchronized (m_documents) {
+                m_documents.put(nodeId, document);
+            }
+        }
+
+        private static void addElementTexts(final Map<String, Float> document, final Element description,
+            final String tag, final float weight) {
+            NodeList elements = description.getElementsByTagName(tag);
+            for (int i = 0; i < elements.getLength(); i++) {
+                addTerms(document, elements.item(i).getTextContent(), weight);
+            }
+        }
+
+        private static void addAttributes(final Map<String, Float> document, final Element description,
+            final String tag, final String attribute, final float weight) {
+            NodeList elements = description.getElementsByTagName(tag);
+            for (int i = 0; i < elements.getLength(); i++) {
+                addTerms(document, ((Element)elements.item(i)).getAttribute(attribute), weight);
+            }
+        }
+
+        private static void addTerms(final Map<String, Float> document, final String text, final float weight) {
+            for (String term : split(text)) {
+                document.merge(term, weight, Float::sum);
+            }
+        }
+
+        /**
+         * Creates the immutable index over all nodes added so far. The result does not depend on the order in which
+         * the nodes have been added.
+         *
+         * @return a new index
+         */
+        NodeDescriptionIndex build() {
+            synchronized (m_documents) {
+                String[] nodeIds = m_documents.keySet().toArray(new String[0]);
+                Arrays.sort(nodeIds);
+                float[] lengths = new float[nodeIds.length];
+                TreeMap<String, List<Integer>> postings = new TreeMap<>();
+                Map<String, List<Float>> frequencies = new HashMap<>();
+                for (int n = 0; n < nodeIds.length; n++) {
+                    for (Map.Entry<String, Float> e : m_documents.get(nodeIds[n]).entrySet()) {
+                        lengths[n] += e.getValue();
+                        postings.computeIfAbsent(e.getKey(), k -> new ArrayList<>()).add(n);
+                        frequencies.computeIfAbsent(e.getKey(), k -> new ArrayList<>()).add(e.getValue());
+                    }
+                }
+
+                String[] terms = postings.keySet().toArray(new String[0]);
+                int[][] postingNodes = new int[terms.length][];
+                float[][] postingFrequencies = new float[terms.length][];
+                for (int t = 0; t < terms.length; t++) {
+                    List<Integer> nodes = postings.get(terms[t]);
+                    List<Float> tfs = frequencies.get(terms[t]);
+                    postingNodes[t] = new int[nodes.size()];
+                    postingFrequencies[t] = new float[nodes.size()];
+                    for (int i = 0; i < nodes.size(); i++) {
+                        postingNodes[t][i] = nodes.get(i);
+                        postingFrequencies[t][i] = tfs.get(i);
+                    }
+                }
+                return new NodeDescriptionIndex(nodeIds, lengths, terms, postingNodes, postingFrequencies);
+            }
+        }
+    }
+}
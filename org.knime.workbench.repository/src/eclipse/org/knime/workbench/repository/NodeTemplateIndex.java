@@ -0,0 +1,155 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.workbench.repository;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.knime.workbench.repository.model.DynamicNodeTemplate;
+import org.knime.workbench.repository.model.NodeTemplate;
+
+/**
+ * Immutable lookup index over all node templates of the repository. The index is built once after the repository
+ * has been read and can then be shared between threads without any synchronization.
+ *
+ * <p>
+ * Besides the template ID, templates can be looked up by the name of their node factory class and by the combination
+ * <code>&#60;node-factory class name&#62;#&#60;node name&#62;</code>, which is the ID of dynamic nodes and is also
+ * used for node factories that are registered as node sets without being dynamic node factories.
+ * </p>
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class NodeTemplateIndex {
+    private static final char NODE_NAME_SEP = '#';
+
+    private final Map<String, NodeTemplate> m_byId;
+
+    private final Map<String, NodeTemplate> m_byFactoryAndName;
+
+    private final Map<String, List<NodeTemplate>> m_byFactory;
+
+    /**
+     * Creates a new index over the given templates. The map is copied.
+     *
+     * @param nodesById all node templates by their ID
+     */
+    NodeTemplateIndex(final Map<String, NodeTemplate> nodesById) {
+        Map<String, NodeTemplate> byFactoryAndName = new HashMap<>(nodesById.size() * 2);
+        Map<String, List<NodeTemplate>> byFactory = new HashMap<>(nodesById.size() * 2);
+        for (NodeTemplate node : nodesById.values()) {
+            String factoryClassName = getFactoryClassName(node);
+            byFactoryAndName.putIfAbsent(factoryClassName + NODE_NAME_SEP + node.getName(), node);
+            byFactory.computeIfAbsent(factoryClassName, k -> new ArrayList<>(1)).add(node);
+        }
+        for (Map.Entry<String, List<NodeTemplate>> e : byFactory.entrySet()) {
+            e.setValue(Collections.unmodifiableList(e.getValue()));
+        }
+
+        m_byId = Collections.unmodifiableMap(new HashMap<>(nodesById));
+        m_byFactoryAndName = Collections.unmodifiableMap(byFactoryAndName);
+        m_byFactory = Collections.unmodifiableMap(byFactory);
+    }
+
+    /**
+     * Returns the name of the template's factory class without loading the class.
+     */
+    private static String getFactoryClassName(final NodeTemplate node) {
+        String id = node.getID();
+        if (node instanceof DynamicNodeTemplate) {
+            int sepIndex = id.indexOf(NODE_NAME_SEP);
+            return (sepIndex < 0) ? id : id.substring(0, sepIndex);
+        }
+        return id;
+    }
+
+    /**
+     * Returns the template with the given ID.
+     *
+     * @param id a template ID
+     * @return the template or <code>null</code>
+     */
+    NodeTemplate get(final String id) {
+        return m_byId.get(id);
+    }
+
+    /**
+     * Returns the template for the given node factory and node name. Templates are first looked up by the factory
+     * class name and then by <code>&#60;node-factory class name&#62;#&#60;node name&#62;</code>.
+     *
+     * @param factoryClassName the node factory's class name
+     * @param nodeName the node's name
+     * @return the template or <code>null</code>
+     */
+    NodeTemplate get(final String factoryClassName, final String nodeName) {
+        NodeTemplate node = m_byId.get(factoryClassName);
+        if (node == null) {
+            node = m_byFactoryAndName.get(factoryClassName + NODE_NAME_SEP + nodeName);
+        }
+        return node;
+    }
+
+    /**
+     * Returns all templates whose nodes are created by the given factory class.
+     *
+     * @param factoryClassName the node factory's class name
+     * @return an unmodifiable, possibly empty list of templates
+     */
+    List<NodeTemplate> getByFactory(final String factoryClassName) {
+        return m_byFactory.getOrDefault(factoryClassName, Collections.emptyList());
+    }
+
+    /**
+     * Returns the number of templates in the index.
+     *
+     * @return the number of templates
+     */
+    int size() {
+        return m_byId.size();
+    }
+}
@@ -49,12 +49,17 @@
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
@@ -71,22 +76,71 @@
  * Let one register nodes in order to track their usage (last use, most frequent use) that is, e.g., displayed in the
  * favorites view.
  *
+ * <p>
+ * Registering a node usage is cheap and thread-safe: frequencies are counted with striped counters, the last used
+ * nodes are kept in a bounded LRU map and the most frequent nodes in a small sorted set that is updated in logarithmic
+ * time with each usage. The list returned by {@link #getMostFrequentNodes()} and the listeners are updated once per
+ * burst of registered usages.
+ *
  * @author Fabian Dill, University of Konstanz
  */
 public final class NodeUsageRegistry {
 
+    /** The delay (in ms) after which listeners are notified about newly registered node usages. */
+    private static final long NOTIFICATION_DELAY = 200;
+
     private static int maxMostFrequent = 10;
 
     private static int maxLastUsed = 10;
 
-    private static final Map<NodeTemplateFrequency, NodeTemplateFrequency> FREQUENCIES =
-            new HashMap<NodeTemplateFrequency, NodeTemplateFrequency>();
+    private static final Map<NodeTemplate, LongAdder> FREQUENCIES = new ConcurrentHashMap<>();
+
+    /**
+     * The most frequently used nodes, the least frequent one first. The frequencies are the ones at the time the nodes
+     * have been added or updated. Guarded by itself, as is {@link #MOST_FREQUENT_ENTRIES}.
+     */
+    private static final TreeSet<NodeTemplateFrequency> MOST_FREQUENT =
+        new TreeSet<>(Comparator.<NodeTemplateFrequency> comparingInt(f -> f.m_frequency)
+            .thenComparing(f -> f.getNode().getID())
+            .thenComparingInt(f -> System.identityHashCode(f.getNode())));
 
-    private static final LinkedList<NodeTemplate> LAST_USED = new LinkedList<NodeTemplate>();
+    /** The entries in {@link #MOST_FREQUENT} by their node. Guarded by {@link #MOST_FREQUENT}. */
+    private static final Map<NodeTemplate, NodeTemplateFrequency> MOST_FREQUENT_ENTRIES = new HashMap<>();
+
+    /** The last used nodes, the least recently used one first. Guarded by itself. */
+    private static final Map<NodeTemplate, Boolean> LAST_USED =
+        new LinkedHashMap<NodeTemplate, Boolean>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<NodeTemplate, Boolean> eldest) {
+                return size() > maxLastUsed;
+            }
+        };
 
     private static final Set<NodeUsageListener> LISTENERS = new LinkedHashSet<>();
 
-    private static List<NodeTemplate> cachedFrequent;
+    private static volatile List<NodeTemplate> cachedFrequent = Collections.emptyList();
+
+    private static final AtomicBoolean NODES_ADDED = new AtomicBoolean();
+
+    private static final Job NODE_USAGE_NOTIFIER =
+        new KNIMEJob("Favorite Node Adder", FrameworkUtil.getBundle(NodeUsageRegistry.class)) {
+            @Override
+            protected IStatus run(final IProgressMonitor monitor) {
+                if (NODES_ADDED.getAndSet(false)) {
+                    synchronized (MOST_FREQUENT) {
+                        cacheMostFrequentNodes();
+                    }
+                    notifyListener();
+                }
+                return Status.OK_STATUS;
+            }
+        };
+
+    static {
+        NODE_USAGE_NOTIFIER.setSystem(true);
+    }
 
     private NodeUsageRegistry() { }
 
@@ -140,8 +194,11 @@ private static void notifyFrequencyHistoryListener() {
      * @param newMaxSize the new max size for the most frequent nodes
      */
     public static void setMaxFrequentSize(final int newMaxSize) {
-        cachedFrequent = null;
-        maxMostFrequent = newMaxSize;
+        Map<NodeTemplate, Integer> frequencies = snapshotFrequencies();
+        synchronized (MOST_FREQUENT) {
+            maxMostFrequent = newMaxSize;
+            rebuildMostFrequentNodes(frequencies);
+        }
         notifyFrequencyHistoryListener();
     }
 
@@ -153,7 +210,7 @@ public static void setMaxLastUsedSize(final int newMaxSize) {
         synchronized (LAST_USED) {
             maxLastUsed = newMaxSize;
             while (LAST_USED.size() > maxLastUsed) {
-                LAST_USED.removeLast();
+                LAST_USED.remove(LAST_USED.keySet().iterator().next());
             }
         }
         notifyLastHistoryListener();
@@ -173,7 +230,8 @@ public static void addNode(final NodeFactory<?> nodeFactory) {
     }
 
     /**
-     * Registers another node usage to be tracked.
+     * Registers another node usage to be tracked. The most frequent nodes and the listeners are updated
+     * asynchronously, once for all usages that are registered in short succession.
      *
      * @param node the last used node (is added to last used nodes and the frequency is counted)
      */
@@ -181,57 +239,85 @@ public static void addNode(final NodeTemplate node) {
         if (node == null) { // see AP-16950
             return;
         }
-        NodeTemplateFrequency nodeFreq = new NodeTemplateFrequency(node);
-        NodeTemplateFrequency existing = FREQUENCIES.get(nodeFreq);
-        if (existing == null) {
-            FREQUENCIES.put(nodeFreq, nodeFreq);
-            existing = nodeFreq;
-        }
-        cachedFrequent = null;
-        existing.increment();
+        LongAdder counter = FREQUENCIES.computeIfAbsent(node, n -> new LongAdder());
+        counter.increment();
+        updateMostFrequentNodes(node, counter.intValue());
         addToLastUsedNodes(node);
-        Job favNodeAdder = new KNIMEJob("Favorite Node Adder", FrameworkUtil.getBundle(NodeUsageRegistry.class)) {
-            @Override
-            protected IStatus run(final IProgressMonitor monitor) {
-                notifyListener();
-                return Status.OK_STATUS;
-            }
-        };
-        favNodeAdder.setSystem(true);
-        favNodeAdder.schedule();
+        NODES_ADDED.set(true);
+        NODE_USAGE_NOTIFIER.schedule(NOTIFICATION_DELAY);
     }
 
     private static void addToLastUsedNodes(final NodeTemplate node) {
-        synchronized(LAST_USED) {
-            LAST_USED.remove(node);
-            LAST_USED.addFirst(node);
-            // check size of list
-            // if larger 10 (TODO: adjustable via preferences)
-            if (LAST_USED.size() > maxLastUsed) {
-                // remove first node
-                LAST_USED.removeLast();
+        synchronized (LAST_USED) {
+            // re-inserting moves the node to the end, the eldest node is removed if the map gets too large
+            LAST_USED.put(node, Boolean.TRUE);
+        }
+    }
+
+    /**
+     * Updates the most frequent nodes after the frequency of the given node has increased.
+     */
+    private static void updateMostFrequentNodes(final NodeTemplate node, final int frequency) {
+        synchronized (MOST_FREQUENT) {
+            NodeTemplateFrequency existing = MOST_FREQUENT_ENTRIES.get(node);
+            if (existing == null) {
+                offerMostFrequentNode(node, frequency);
+            } else if (existing.m_frequency < frequency) {
+                // another thread may have added a more recent frequency already, then there is nothing to do
+                MOST_FREQUENT.remove(existing);
+                existing.m_frequency = frequency;
+                MOST_FREQUENT.add(existing);
+            }
+        }
+    }
+
+    /** Must be called while holding the lock on {@link #MOST_FREQUENT}. */
+    private static void offerMostFrequentNode(final NodeTemplate node, final int frequency) {
+        if (maxMostFrequent <= 0) {
+            return;
+        }
+        if ((MOST_FREQUENT.size() < maxMostFrequent) || (MOST_FREQUENT.first().m_frequency < frequency)) {
+            NodeTemplateFrequency nodeFreq = new NodeTemplateFrequency(node, frequency);
+            MOST_FREQUENT.add(nodeFreq);
+            MOST_FREQUENT_ENTRIES.put(node, nodeFreq);
+            while (MOST_FREQUENT.size() > maxMostFrequent) {
+                MOST_FREQUENT_ENTRIES.remove(MOST_FREQUENT.pollFirst().getNode());
             }
         }
     }
 
+    /**
+     * Reads the current frequencies, which should be done before acquiring the lock on {@link #MOST_FREQUENT}.
+     */
+    private static Map<NodeTemplate, Integer> snapshotFrequencies() {
+        Map<NodeTemplate, Integer> frequencies = new HashMap<>();
+        FREQUENCIES.forEach((node, counter) -> frequencies.put(node, counter.intValue()));
+        return frequencies;
+    }
+
+    /** Must be called while holding the lock on {@link #MOST_FREQUENT}. */
+    private static void rebuildMostFrequentNodes(final Map<NodeTemplate, Integer> frequencies) {
+        MOST_FREQUENT.clear();
+        MOST_FREQUENT_ENTRIES.clear();
+        frequencies.forEach(NodeUsageRegistry::offerMostFrequentNode);
+        cacheMostFrequentNodes();
+    }
+
+    /** Must be called while holding the lock on {@link #MOST_FREQUENT}. */
+    private static void cacheMostFrequentNodes() {
+        List<NodeTemplate> temp = new ArrayList<NodeTemplate>(MOST_FREQUENT.size());
+        for (NodeTemplateFrequency f : MOST_FREQUENT.descendingSet()) {
+            temp.add(f.getNode());
+        }
+        cachedFrequent = Collections.unmodifiableList(temp);
+    }
+
     /**
      *
      * @return the n (defined by max size) most frequently used nodes
      */
     public static List<NodeTemplate> getMostFrequentNodes() {
-        if (cachedFrequent != null) {
-            return cachedFrequent;
-        }
-        List<NodeTemplateFrequency> mostFrequent =
-                new ArrayList<NodeTemplateFrequency>(FREQUENCIES.values());
-        Collections.sort(mostFrequent);
-        List<NodeTemplate> temp = new ArrayList<NodeTemplate>();
-
-        int max = Math.min(maxMostFrequent, mostFrequent.size());
-        for (int i = 0; i < max; i++) {
-            temp.add(mostFrequent.get(i).getNode());
-        }
-        return (cachedFrequent = temp);
+        return cachedFrequent;
     }
 
     /**
@@ -240,7 +326,12 @@ public static List<NodeTemplate> getMostFrequentNodes() {
      *         defined by the max size parameter
      */
     public static List<NodeTemplate> getLastUsedNodes() {
-        return LAST_USED;
+        List<NodeTemplate> lastUsed;
+        synchronized (LAST_USED) {
+            lastUsed = new ArrayList<>(LAST_USED.keySet());
+        }
+        Collections.reverse(lastUsed);
+        return lastUsed;
     }
 
     /**
@@ -253,16 +344,20 @@ public static void clearHistory() {
     }
 
     private static void clearFrequencyHistory() {
-        cachedFrequent = null;
-        FREQUENCIES.clear();
+        synchronized (MOST_FREQUENT) {
+            FREQUENCIES.clear();
+            rebuildMostFrequentNodes(Collections.emptyMap());
+        }
     }
 
     private static void clearLastUsedHistory() {
-        LAST_USED.clear();
+        synchronized (LAST_USED) {
+            LAST_USED.clear();
+        }
     }
 
-    private static class NodeTemplateFrequency implements
-            Comparable<NodeTemplateFrequency> {
+    /** An entry in {@link #MOST_FREQUENT}, which orders the entries by their frequency. */
+    private static class NodeTemplateFrequency {
 
         private final NodeTemplate m_node;
 
@@ -271,18 +366,12 @@ private static class NodeTemplateFrequency implements
         /**
          *
          * @param node creates a new node template frequency for the given
-         *            {@link NodeTemplate} with frequency 0
+         *            {@link NodeTemplate}
+         * @param frequency the node's frequency
          */
-        public NodeTemplateFrequency(final NodeTemplate node) {
+        public NodeTemplateFrequency(final NodeTemplate node, final int frequency) {
             m_node = node;
-            m_frequency = 0;
-        }
-
-        /**
-         * Incremetns the freqeuncy of the node template.
-         */
-        public void increment() {
-            m_frequency++;
+            m_frequency = frequency;
         }
 
         /**
@@ -331,15 +420,6 @@ public boolean equals(final Object obj) {
             return true;
         }
 
-        /**
-         *
-         * {@inheritDoc}
-         */
-        @Override
-        public int compareTo(final NodeTemplateFrequency o) {
-            return o.m_frequency - m_frequency;
-        }
-
         /**
          *
          * {@inheritDoc}
@@ -364,11 +444,11 @@ public String toString() {
      * @param freqNodes XML memento to save most frequently used nodes to
      */
     public static void saveFrequentNodes(final IMemento freqNodes) {
-        for (NodeTemplateFrequency nodeFreq : FREQUENCIES.values()) {
+        FREQUENCIES.forEach((node, counter) -> {
             IMemento item = freqNodes.createChild(TAG_FAVORITE);
-            item.putString(TAG_NODE_ID, nodeFreq.getNode().getID());
-            item.putInteger(TAG_FREQUENCY, nodeFreq.m_frequency);
-        }
+            item.putString(TAG_NODE_ID, node.getID());
+            item.putInteger(TAG_FREQUENCY, counter.intValue());
+        });
     }
 
     /**
@@ -379,7 +459,7 @@ public static void saveFrequentNodes(final IMemento freqNodes) {
      * @param lastUsedNodes XML memento to save last used nodes to
      */
     public static void saveLastUsedNodes(final IMemento lastUsedNodes) {
-        for (NodeTemplate node : LAST_USED) {
+        for (NodeTemplate node : getLastUsedNodes()) {
             IMemento item = lastUsedNodes.createChild(TAG_FAVORITE);
             item.putString(TAG_NODE_ID, node.getID());
         }
@@ -399,12 +479,14 @@ public static void loadFrequentNodes(final IMemento freqNodes) {
             int frequency = freqNode.getInteger(TAG_FREQUENCY);
             NodeTemplate node = RepositoryManager.INSTANCE.getNodeTemplate(id);
             if (node != null) {
-                NodeTemplateFrequency nodeFreq =
-                        new NodeTemplateFrequency(node);
-                nodeFreq.m_frequency = frequency;
-                FREQUENCIES.put(nodeFreq, nodeFreq);
+                // usages may have been registered while the history was being loaded, they must not be lost
+                FREQUENCIES.computeIfAbsent(node, n -> new LongAdder()).add(frequency);
             }
         }
+        Map<NodeTemplate, Integer> frequencies = snapshotFrequencies();
+        synchronized (MOST_FREQUENT) {
+            rebuildMostFrequentNodes(frequencies);
+        }
     }
 
     /**
@@ -0,0 +1,189 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.workbench.repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates node factories and templates for the node repository, either on the calling thread or on a bounded thread
+ * pool. The results are always handed out in the order of the inputs so that the repository tree and the load
+ * listener callbacks do not depend on the loading mode.
+ *
+ * <p>
+ * Parallel loading is enabled by setting the system property {@value #PROPERTY_PARALLEL_LOADING} to
+ * <code>true</code>. The number of threads defaults to the number of available processors and can be changed with
+ * the system property {@value #PROPERTY_LOADING_THREADS}.
+ * </p>
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class ParallelFactoryLoader implements AutoCloseable {
+    /** System property that enables parallel creation of node factories. */
+    static final String PROPERTY_PARALLEL_LOADING = "knime.repository.parallelLoading";
+
+    /** System property with the number of threads used for parallel loading. */
+    static final String PROPERTY_LOADING_THREADS = "knime.repository.parallelLoading.threads";
+
+    /**
+     * Loads a single object.
+     *
+     * @param <T> the input type
+     * @param <R> the result type
+     */
+    @FunctionalInterface
+    interface Loader<T, R> {
+        /**
+         * Loads the object for the given input.
+         *
+         * @param input the input
+         * @return the result
+         * @throws Exception if loading fails
+         */
+        R load(T input) throws Exception;
+    }
+
+    /**
+     * The (possibly still pending) result of a single load operation.
+     *
+     * @param <R> the result type
+     */
+    interface Result<R> {
+        /**
+         * Returns the result, waiting for it if necessary. In sequential mode the object is loaded during this call.
+         *
+         * @return the result
+         * @throws Exception the exception thrown by the loader
+         */
+        R get() throws Exception;
+    }
+
+    private final ExecutorService m_executor;
+
+    /**
+     * Creates a new loader. If parallel loading is enabled, a thread pool is created that lives until
+     * {@link #close()} is called.
+     */
+    ParallelFactoryLoader() {
+        if (Boolean.getBoolean(PROPERTY_PARALLEL_LOADING)) {
+            int threads = Math.max(1,
+                Integer.getInteger(PROPERTY_LOADING_THREADS, Runtime.getRuntime().availableProcessors()));
+            m_executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+                private final AtomicInteger m_threadCreateCounter = new AtomicInteger();
+
+                @Override
+                public Thread newThread(final Runnable r) {
+                    Thread t = new Thread(r, "Node Repository Loader-" + m_threadCreateCounter.getAndIncrement());
+                    t.setDaemon(true);
+                    return t;
+                }
+            });
+        } else {
+            m_executor = null;
+        }
+    }
+
+    /**
+     * Returns whether objects are loaded in parallel.
+     *
+     * @return <code>true</code> if a thread pool is used, <code>false</code> if objects are loaded on the calling
+     *         thread
+     */
+    boolean isParallel() {
+        return m_executor != null;
+    }
+
+    /**
+     * Loads objects for all inputs. In parallel mode all load operations are submitted immediately, otherwise each
+     * object is loaded when its result is requested.
+     *
+     * @param inputs the inputs
+     * @param loader the loader for a single input
+     * @return the results in the same order as the inputs
+     */
+    <T, R> List<Result<R>> loadAll(final Collection<T> inputs, final Loader<T, R> loader) {
+        List<Result<R>> results = new ArrayList<>(inputs.size());
+        for (T input : inputs) {
+            if (m_executor == null) {
+                results.add(() -> loader.load(input));
+            } else {
+                Future<R> future = m_executor.submit((Callable<R>)() -> loader.load(input));
+                results.add(() -> {
+                    try {
+                        return future.get();
+                    } catch (ExecutionException ex) {
+                        Throwable cause = ex.getCause();
+                        if (cause instanceof Exception) {
+                            throw (Exception)cause;
+                        } else if (cause instanceof Error) {
+                            throw (Error)cause;
+                        } else {
+                            throw ex;
+                        }
+                    }
+                });
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Shuts down the thread pool, if any. Pending load operations are cancelled.
+     */
+    @Override
+    public void close() {
+        if (m_executor != null) {
+            m_executor.shutdownNow();
+        }
+    }
+}
@@ -85,6 +85,7 @@
 import org.knime.workbench.repository.model.IContainerObject;
 import org.knime.workbench.repository.model.IRepositoryObject;
 import org.knime.workbench.repository.model.MetaNodeTemplate;
+import org.knime.workbench.repository.model.NodeTemplate;
 import org.knime.workbench.repository.model.Root;
 import org.osgi.framework.Bundle;
 
@@ -103,16 +104,18 @@ private RepositoryFactory() {
 
 
     /**
-     * Creates a new node repository object. Throws an exception, if this fails
+     * Creates a new node repository object and adds the node's description to the given description index builder.
+     * Throws an exception, if this fails
      *
      * @param nodeFactoryExtension from {@link NodeFactoryExtensionManager}.
+     * @param descriptions the builder for the description index, may be <code>null</code>
      * @return NodeTemplate object to be used within the repository.
      * @throws InvalidNodeFactoryExtensionException if the element is not compatible (e.g.
      *             wrong attributes, or factory class not found)
      */
     @SuppressWarnings("unchecked")
-    static Pair<DefaultNodeTemplate, Boolean> createNode(final NodeFactoryExtension nodeFactoryExtension)
-        throws InvalidNodeFactoryExtensionException {
+    static Pair<DefaultNodeTemplate, Boolean> createNode(final NodeFactoryExtension nodeFactoryExtension,
+        final NodeDescriptionIndex.Builder descriptions) throws InvalidNodeFactoryExtensionException {
         // Try to load the node factory class...
         NodeFactory<? extends NodeModel> factory = nodeFactoryExtension.createFactory();
         boolean isDeprecated = factory.isDeprecated();
@@ -123,11 +126,8 @@ static Pair<DefaultNodeTemplate, Boolean> createNode(final NodeFactoryExtension
             factory.getNodeName(), pluginID, categoryPath, factory.getType());
         node.setAfterID(nodeFactoryExtension.getAfterID());
 
-        if (!Boolean.getBoolean("java.awt.headless")) {
-            // Load images from declaring plugin
-            Image icon = ImageRepository.getIconImage(factory);
-            node.setIcon(icon);
-        }
+        setIcon(node, factory);
+        addDescription(descriptions, node, factory);
 
         return Pair.create(node, Boolean.valueOf(isDeprecated));
     }
@@ -238,22 +238,8 @@ public static Category createCategory(final Root root,
         cat.setAfterID(str(element.getAttribute("after"), ""));
         String path = str(element.getAttribute("path"), "/");
         cat.setPath(path);
-        if (!Boolean.getBoolean("java.awt.headless")) {
-            String iconPath = element.getAttribute("icon");
-            Image img;
-            if (iconPath == null) {
-                img = ImageRepository.getIconImage(SharedImages.DefaultCategoryIcon);
-
-            } else {
-                img = ImageRepository.getIconImage(pluginID, iconPath);
-                if (img == null) {
-                    LOGGER.coding("Icon '" + element.getAttribute("icon") + "' for category " + cat.getPath() + "/"
-                        + cat.getName() + " does not exist");
-                    img = ImageRepository.getIconImage(SharedImages.DefaultCategoryIcon);
-                }
-            }
-            cat.setIcon(img);
-        }
+        // the icon is loaded from the declaring plugin upon first use
+        cat.setIconPath(element.getAttribute("icon"));
 
         //
         // Insert in proper location, create all categories on the path
@@ -319,8 +305,6 @@ private static String str(final String s, final String defaultString) {
      */
     public static Collection<DynamicNodeTemplate> createNodeSet(
             final NodeSetFactoryExtension set, final Root root, final boolean isIncludeDeprecated) {
-        String iconPath = set.getDefaultCategoryIconPath().orElse(null);
-
         // Try to load the node set factory class...
         NodeSetFactory nodeSet = set.getNodeSetFactory();
         if (nodeSet.isHidden()) {
@@ -331,73 +315,116 @@ public static Collection<DynamicNodeTemplate> createNodeSet(
 
         // for all nodes in the node set
         for (String factoryId : set.getNodeFactoryIds()) {
-            // Try to load the node factory class...
-            Optional<NodeFactory<? extends NodeModel>> factoryOptional = set.createNodeFactory(factoryId);
-            if (!factoryOptional.isPresent()) {
+            Optional<DynamicNodeTemplate> nodeOptional = createNodeSetNode(set, factoryId);
+            if (!nodeOptional.isPresent()) {
                 continue; // error handling done elsewhere
             }
-
-            NodeFactory<? extends NodeModel> factory = factoryOptional.get();
+            DynamicNodeTemplate node = nodeOptional.get();
 
             // DynamicNodeFactory implementations can set deprecation independently from extension
-            if ((set.isDeprecated() || factory.isDeprecated()) && !isIncludeDeprecated ) {
+            if (node.isDeprecated() && !isIncludeDeprecated) {
                 continue;
             }
 
-            String categoryPath = nodeSet.getCategoryPath(factoryId);
-            NodeType nodeType = factory.getType();
-
-            @SuppressWarnings("unchecked")
-            DynamicNodeTemplate node = new DynamicNodeTemplate(set,
-                (Class<? extends NodeFactory<? extends NodeModel>>)factory.getClass(), factoryId,
-                factory.getNodeName(), categoryPath, nodeType);
+            dynamicNodeTemplates.add(node);
 
-            node.setAfterID(nodeSet.getAfterID(factoryId));
+            createNodeSetCategories(set, root, node.getCategoryPath());
+        } // for node sets
 
-            if (!Boolean.getBoolean("java.awt.headless")) {
-                Image icon = ImageRepository.getIconImage(factory);
-                node.setIcon(icon);
-            }
+        return dynamicNodeTemplates;
 
-            dynamicNodeTemplates.add(node);
+    }
 
-            String pluginID = set.getPlugInSymbolicName();
+    /**
+     * Creates the template for a single node of a node set without adding it to any repository. The template's
+     * deprecation flag is set if either the node set extension or the node factory is deprecated.
+     *
+     * @param set the node set factory extension to load the node from
+     * @param factoryId the id of the node factory within the set
+     * @return the node template or an empty optional if the factory could not be created
+     */
+    static Optional<DynamicNodeTemplate> createNodeSetNode(final NodeSetFactoryExtension set,
+        final String factoryId) {
+        return createNodeSetNode(set, factoryId, null);
+    }
 
-            //
-            // Insert in proper location, create all categories on
-            // the path
-            // if not already there
-            //
-            String path = node.getCategoryPath();
-            if (path.startsWith("/")) {
-                path = path.substring(1);
-            }
-            // split the path
-            String[] segments = path.split("/");
-            // start at root
-            IContainerObject container = root;
-            String currentPath = "";
-            for (int i = 0; i < segments.length; i++) {
-                IRepositoryObject obj =
-                        container.getChildByID(segments[i], false);
-                currentPath += segments[i];
-                if (obj == null) {
-                    Category cat =
-                            createCategory(pluginID, segments[i], "",
-                                    segments[i], "", iconPath, currentPath);
-                    // append the newly created category to the container
-                    container.addChild(cat);
-                    obj = cat;
-                }
-                currentPath += "/";
-                // continue at this level
-                container = (IContainerObject)obj;
-            }
+    /**
+     * Creates the template for a single node of a node set without adding it to any repository and adds the node's
+     * description to the given description index builder.
+     *
+     * @param set the node set factory extension to load the node from
+     * @param factoryId the id of the node factory within the set
+     * @param descriptions the builder for the description index, may be <code>null</code>
+     * @return the node template or an empty optional if the factory could not be created
+     */
+    static Optional<DynamicNodeTemplate> createNodeSetNode(final NodeSetFactoryExtension set,
+        final String factoryId, final NodeDescriptionIndex.Builder descriptions) {
+        // Try to load the node factory class...
+        Optional<NodeFactory<? extends NodeModel>> factoryOptional = set.createNodeFactory(factoryId);
+        if (!factoryOptional.isPresent()) {
+            return Optional.empty();
+        }
 
-        } // for node sets
+        NodeFactory<? extends NodeModel> factory = factoryOptional.get();
+        NodeSetFactory nodeSet = set.getNodeSetFactory();
+        String categoryPath = nodeSet.getCategoryPath(factoryId);
+        NodeType nodeType = factory.getType();
+
+        @SuppressWarnings("unchecked")
+        DynamicNodeTemplate node = new DynamicNodeTemplate(set,
+            (Class<? extends NodeFactory<? extends NodeModel>>)factory.getClass(), factoryId,
+            factory.getNodeName(), categoryPath, nodeType);
+
+        node.setAfterID(nodeSet.getAfterID(factoryId));
+        node.setDeprecated(set.isDeprecated() || factory.isDeprecated());
+        setIcon(node, factory);
+        addDescription(descriptions, node, factory);
+        return Optional.of(node);
+    }
 
-        return dynamicNodeTemplates;
+    /**
+     * Creates all categories on the given path that do not exist yet in the root. The categories are attributed to
+     * the node set's plug-in.
+     *
+     * @param set the node set factory extension whose node is located in the path
+     * @param root the root to add the missing categories in
+     * @param categoryPath the category path of a node from the node set
+     */
+    static void createNodeSetCategories(final NodeSetFactoryExtension set, final Root root,
+        final String categoryPath) {
+        String iconPath = set.getDefaultCategoryIconPath().orElse(null);
+        String pluginID = set.getPlugInSymbolicName();
 
+        //
+        // Insert in proper location, create all categories on
+        // the path
+        // if not already there
+        //
+        String path = categoryPath;
+        if (path.startsWith("/")) {
+            path = path.substring(1);
+        }
+        // split the path
+        String[] segments = path.split("/");
+        // start at root
+        IContainerObject container = root;
+        String currentPath = "";
+        for (int i = 0; i < segments.length; i++) {
+            IRepositoryObject obj =
+                    container.getChildByID(segments[i], false);
+            currentPath += segments[i];
+            if (obj == null) {
+                Category cat =
+                        createCategory(pluginID, segments[i], "",
+                                segments[i], "", iconPath, currentPath);
+                // append the newly created category to the container
+                container.addChild(cat);
+                obj = cat;
+            }
+            currentPath += "/";
+            // continue at this level
+            container = (IContainerObject)obj;
+        }
     }
 
     /* Little helper to create a category */
@@ -411,21 +438,24 @@ private static Category createCategory(final String pluginID,
         cat.setAfterID(str(afterID, ""));
         String path = str(categoryPath, "/");
         cat.setPath(path);
-        if (!Boolean.getBoolean("java.awt.headless")) {
-            Image img;
-            if (icon == null) {
-                img = ImageRepository.getIconImage(SharedImages.DefaultCategoryIcon);
-            } else {
-                img = ImageRepository.getIconImage(pluginID, icon);
-                if (img == null) {
-                    LOGGER.coding(
-                        "Icon '" + icon + "' for category " + cat.getPath() + "/" + cat.getName() + " does not exist");
-                    img = ImageRepository.getIconImage(SharedImages.DefaultCategoryIcon);
-                }
-            }
-            cat.setIcon(img);
-        }
+        cat.setIconPath(icon);
 
         return cat;
     }
+
+    /**
+     * Remembers the icon URL of the given factory in the node template. The image itself is only loaded when the
+     * template's icon is requested for the first time.
+     */
+    private static void setIcon(final NodeTemplate node, final NodeFactory<? extends NodeModel> factory) {
+        node.setIconURL(factory.getIcon());
+    }
+
+    private static void addDescription(final NodeDescriptionIndex.Builder descriptions, final NodeTemplate node,
+        final NodeFactory<? extends NodeModel> factory) {
+        if (descriptions != null) {
+            // the description has already been parsed by the factory's constructor
+            descriptions.add(node.getID(), node.getName(), factory.getXMLDescription());
+        }
+    }
 }
@@ -49,12 +49,13 @@
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.eclipse.core.runtime.IConfigurationElement;
@@ -141,6 +142,12 @@ public interface Listener {
     private static final String ID_META_NODE
             = "org.knime.workbench.repository.metanode";
 
+    private static final String SNAPSHOT_DEFAULT = "repository";
+
+    private static final String SNAPSHOT_COMPLETE = "repository-complete";
+
+    private static final String SNAPSHOT_DESCRIPTIONS = "repository-descriptions";
+
     private final List<Listener> m_loadListeners =
             new CopyOnWriteArrayList<Listener>();
 
@@ -151,6 +158,16 @@ public interface Listener {
 
     private final Root m_completeRoot = new Root();
 
+    /** Immutable lookup index, published once the repository has been read completely. */
+    private volatile NodeTemplateIndex m_index;
+
+    private final CompletableFuture<NodeTemplateIndex> m_indexFuture = new CompletableFuture<>();
+
+    /** Index over the templates read before reading the repository was canceled. */
+    private volatile NodeTemplateIndex m_partialIndex;
+
+    private volatile NodeDescriptionIndex m_descriptionIndex;
+
     /**
      * Creates the repository model. This instantiates all contributed
      * category/node extensions found in the global Eclipse PluginRegistry, and
@@ -159,51 +176,182 @@ public interface Listener {
     private RepositoryManager() {
     }
 
-    private void readRepository(final IProgressMonitor monitor) {
-        assert !m_root.hasChildren();
-        readCategories(monitor, m_root);
-        if (monitor.isCanceled()) {
-            return;
+    /**
+     * Reads the default and the complete repository, see {@link #readRepositoriesInternal(IProgressMonitor)}. Pending
+     * {@link #getNodeTemplateAsync(String) asynchronous lookups} are completed even if reading is canceled or fails,
+     * with the templates read so far or with the error, respectively.
+     */
+    private void readRepositories(final IProgressMonitor monitor) {
+        try {
+            readRepositoriesInternal(monitor);
+        } catch (RuntimeException | Error e) {
+            m_indexFuture.completeExceptionally(e);
+            throw e;
         }
-        readNodes(monitor, m_root, false);
-        if (monitor.isCanceled()) {
-            return;
+        if (m_index == null) {
+            // canceled
+            m_partialIndex = new NodeTemplateIndex(m_nodesById);
+            m_indexFuture.complete(m_partialIndex);
         }
-        readNodeSets(monitor, m_root, false);
-        if (monitor.isCanceled()) {
-            return;
+    }
+
+    /**
+     * Reads the default and the complete repository in a single pass. Each node factory is instantiated only once,
+     * the complete repository receives a copy of each template that is also part of the default repository.
+     * Deprecated nodes are only added to the complete repository.
+     */
+    private void readRepositoriesInternal(final IProgressMonitor monitor) {
+        m_root.removeAllChildren();
+        m_completeRoot.removeAllChildren();
+        m_nodesById.clear();
+        m_partialIndex = null;
+
+        monitor.beginTask("Reading node repository", 4);
+        long start = System.currentTimeMillis();
+        long categoryTime = 0;
+        long nodeTime = 0;
+        long nodeSetTime = 0;
+        // the description index belongs to the snapshot, if it is missing everything is read from the extensions
+        NodeDescriptionIndex descriptionIndex = readDescriptionSnapshot();
+        if ((descriptionIndex == null) || !readSnapshot(SNAPSHOT_DEFAULT, m_root)
+            || !readSnapshot(SNAPSHOT_COMPLETE, m_completeRoot)) {
+            m_root.removeAllChildren();
+            m_completeRoot.removeAllChildren();
+            m_nodesById.clear();
+
+            long phaseStart = System.currentTimeMillis();
+            monitor.subTask("Reading categories");
+            readCategories(monitor);
+            if (monitor.isCanceled()) {
+                return;
+            }
+            categoryTime = reportPhase(monitor, "Categories", phaseStart);
+
+            NodeDescriptionIndex.Builder descriptions = new NodeDescriptionIndex.Builder();
+            try (ParallelFactoryLoader loader = new ParallelFactoryLoader()) {
+                phaseStart = System.currentTimeMillis();
+                monitor.subTask("Reading nodes");
+                readNodes(monitor, loader, descriptions);
+                if (monitor.isCanceled()) {
+                    return;
+                }
+                nodeTime = reportPhase(monitor, "Nodes", phaseStart);
+
+                phaseStart = System.currentTimeMillis();
+                monitor.subTask("Reading node sets");
+                readNodeSets(monitor, loader, descriptions);
+                if (monitor.isCanceled()) {
+                    return;
+                }
+                nodeSetTime = reportPhase(monitor, "Node sets", phaseStart);
+                if (loader.isParallel()) {
+                    LOGGER.debug("Node factories have been created in parallel");
+                }
+            }
+
+            descriptionIndex = descriptions.build();
+            writeSnapshot(SNAPSHOT_DEFAULT, m_root);
+            writeSnapshot(SNAPSHOT_COMPLETE, m_completeRoot);
+            writeDescriptionSnapshot(descriptionIndex);
+        } else {
+            monitor.worked(3);
         }
-        readMetanodes(monitor, m_root);
+
+        long phaseStart = System.currentTimeMillis();
+        monitor.subTask("Reading metanodes");
+        readMetanodes(monitor);
         if (monitor.isCanceled()) {
             return;
         }
+        long metanodeTime = reportPhase(monitor, "Metanodes", phaseStart);
+
         removeEmptyCategories(m_root);
+        removeEmptyCategories(m_completeRoot);
         m_loadListeners.clear();
+        publishIndex();
+        m_descriptionIndex = descriptionIndex;
+        monitor.done();
+        LOGGER.debugWithFormat(
+            "Node repository read in %d ms (categories: %d ms, nodes: %d ms, node sets: %d ms, metanodes: %d ms)",
+            System.currentTimeMillis() - start, categoryTime, nodeTime, nodeSetTime, metanodeTime);
     }
 
-    private void readCompleteRepository(final IProgressMonitor monitor) {
-        assert !m_completeRoot.hasChildren();
-        readCategories(monitor, m_completeRoot);
-        if (monitor.isCanceled()) {
-            return;
-        }
-        readNodes(monitor, m_completeRoot, true);
-        if (monitor.isCanceled()) {
-            return;
+    /**
+     * Publishes an immutable index over all node templates so that lookups do not need to synchronize.
+     */
+    private void publishIndex() {
+        NodeTemplateIndex index = new NodeTemplateIndex(m_nodesById);
+        m_index = index;
+        m_indexFuture.complete(index);
+    }
+
+    private static long reportPhase(final IProgressMonitor monitor, final String phase, final long phaseStart) {
+        long duration = System.currentTimeMillis() - phaseStart;
+        monitor.subTask(phase + " read in " + duration + " ms");
+        monitor.worked(1);
+        return duration;
+    }
+
+    /**
+     * Restores categories and nodes from the snapshot with the given name, if it exists and is up-to-date.
+     *
+     * @return <code>true</code> if the snapshot has been restored, <code>false</code> if the extensions must be read
+     */
+    private boolean readSnapshot(final String name, final Root root) {
+        Optional<RepositorySnapshot> snapshot = RepositorySnapshot.forName(name);
+        if (!snapshot.isPresent()) {
+            return false;
         }
-        readNodeSets(monitor, m_completeRoot, true);
-        if (monitor.isCanceled()) {
-            return;
+        long start = System.currentTimeMillis();
+        if (!snapshot.get().read(root)) {
+            return false;
         }
-        readMetanodes(monitor, m_completeRoot);
-        if (monitor.isCanceled()) {
-            return;
+        registerSnapshotObjects(root, root);
+        LOGGER.debugWithFormat("Node repository '%s' restored from snapshot in %d ms", name,
+            System.currentTimeMillis() - start);
+        return true;
+    }
+
+    private void registerSnapshotObjects(final Root root, final IContainerObject container) {
+        for (IRepositoryObject child : container.getChildren()) {
+            if (child instanceof Category) {
+                if (root == m_root) {
+                    for (Listener l : m_loadListeners) {
+                        l.newCategory(root, (Category)child);
+                    }
+                }
+                registerSnapshotObjects(root, (Category)child);
+            } else if (child instanceof NodeTemplate) {
+                NodeTemplate node = (NodeTemplate)child;
+                if (root == m_root) {
+                    for (Listener l : m_loadListeners) {
+                        l.newNode(root, node);
+                    }
+                }
+                m_nodesById.putIfAbsent(node.getID(), node);
+            }
         }
-        removeEmptyCategories(m_completeRoot);
-        m_loadListeners.clear();
     }
 
-    private void readMetanodes(final IProgressMonitor monitor, final Root root) {
+    /**
+     * Reads the node description index from its snapshot.
+     *
+     * @return the index or <code>null</code> if the snapshot does not exist or is not up-to-date
+     */
+    private static NodeDescriptionIndex readDescriptionSnapshot() {
+        return RepositorySnapshot.forName(SNAPSHOT_DESCRIPTIONS)
+            .flatMap(RepositorySnapshot::readDescriptionIndex).orElse(null);
+    }
+
+    private static void writeSnapshot(final String name, final Root root) {
+        RepositorySnapshot.forName(name).ifPresent(s -> s.write(root));
+    }
+
+    private static void writeDescriptionSnapshot(final NodeDescriptionIndex index) {
+        RepositorySnapshot.forName(SNAPSHOT_DESCRIPTIONS).ifPresent(s -> s.write(index));
+    }
+
+    private void readMetanodes(final IProgressMonitor monitor) {
         // iterate over the meta node config elements
         // and create meta node templates
         IExtension[] metanodeExtensions = getExtensions(ID_META_NODE);
@@ -221,24 +369,11 @@ private void readMetanodes(final IProgressMonitor monitor, final Root root) {
                     LOGGER.debug("Found meta node definition '"
                         + metaNode.getID() + "': " + metaNode.getName());
                     for (Listener l : m_loadListeners) {
-                        l.newMetanode(root, metaNode);
+                        l.newMetanode(m_root, metaNode);
                     }
 
-                    IContainerObject parentContainer =
-                            root.findContainer(metaNode.getCategoryPath());
-                    // If parent category is illegal, log an error and
-                    // append the node to the repository root.
-                    if (parentContainer == null) {
-                        LOGGER.warn("Invalid category-path for node "
-                                + "contribution: '"
-                                + metaNode.getCategoryPath()
-                                + "' - adding to root instead");
-                        root.addChild(metaNode);
-                    } else {
-                        // everything is fine, add the node to its parent
-                        // category
-                        parentContainer.addChild(metaNode);
-                    }
+                    addMetanode(m_root, metaNode);
+                    addMetanode(m_completeRoot, (MetaNodeTemplate)metaNode.deepCopy());
                 } catch (Throwable t) {
                     String message =
                             "MetaNode " + mnConfig.getAttribute("id")
@@ -267,7 +402,25 @@ private void readMetanodes(final IProgressMonitor monitor, final Root root) {
         }
     }
 
-    private void readCategories(final IProgressMonitor monitor, final Root root) {
+    private static void addMetanode(final Root root, final MetaNodeTemplate metaNode) {
+        IContainerObject parentContainer =
+                root.findContainer(metaNode.getCategoryPath());
+        // If parent category is illegal, log an error and
+        // append the node to the repository root.
+        if (parentContainer == null) {
+            LOGGER.warn("Invalid category-path for node "
+                    + "contribution: '"
+                    + metaNode.getCategoryPath()
+                    + "' - adding to root instead");
+            root.addChild(metaNode);
+        } else {
+            // everything is fine, add the node to its parent
+            // category
+            parentContainer.addChild(metaNode);
+        }
+    }
+
+    private void readCategories(final IProgressMonitor monitor) {
         //
         // First, process the contributed categories
         //
@@ -324,11 +477,12 @@ public int compare(final IConfigurationElement o1,
                 return;
             }
             try {
-                Category category = RepositoryFactory.createCategory(root, e);
+                Category category = RepositoryFactory.createCategory(m_root, e);
+                RepositoryFactory.createCategory(m_completeRoot, e);
                 LOGGER.debug("Found category extension '" + category.getID()
                         + "' on path '" + category.getPath() + "'");
                 for (Listener l : m_loadListeners) {
-                    l.newCategory(root, category);
+                    l.newCategory(m_root, category);
                 }
             } catch (Exception ex) {
                 String message =
@@ -345,32 +499,36 @@ public int compare(final IConfigurationElement o1,
     }
 
 
-    private void readNodes(final IProgressMonitor monitor, final Root root, final boolean isIncludeDeprecated) {
-        IContainerObject uncategorized = root.findContainer("/uncategorized");
-        if (uncategorized == null) {
-            // this should never happen, but who knows...
-            uncategorized = root;
-        }
+    private void readNodes(final IProgressMonitor monitor, final ParallelFactoryLoader loader,
+        final NodeDescriptionIndex.Builder descriptions) {
+        IContainerObject uncategorized = getUncategorized(m_root);
+        IContainerObject completeUncategorized = getUncategorized(m_completeRoot);
 
+        List<NodeFactoryExtension> nodeFactoryExtensions = new ArrayList<>();
         for (NodeFactoryExtension nodeFactoryExtension : NodeFactoryExtensionManager.getInstance()
             .getNodeFactoryExtensions()) {
+            if (!nodeFactoryExtension.isHidden()) {
+                nodeFactoryExtensions.add(nodeFactoryExtension);
+            }
+        }
+        // the factories may be created concurrently, but the nodes are added in the original order
+        List<ParallelFactoryLoader.Result<Pair<DefaultNodeTemplate, Boolean>>> nodePairs =
+            loader.loadAll(nodeFactoryExtensions, e -> RepositoryFactory.createNode(e, descriptions));
+
+        for (int i = 0; i < nodeFactoryExtensions.size(); i++) {
             if (monitor.isCanceled()) {
                 return;
             }
+            NodeFactoryExtension nodeFactoryExtension = nodeFactoryExtensions.get(i);
 
             try {
-                if (nodeFactoryExtension.isDeprecated() && !isIncludeDeprecated) { // deprecate nodes are hidden
-                    continue;
-                }
-                if (nodeFactoryExtension.isHidden()) {
-                    continue;
-                }
-
-                Pair<DefaultNodeTemplate, Boolean> nodePair = RepositoryFactory.createNode(nodeFactoryExtension);
+                Pair<DefaultNodeTemplate, Boolean> nodePair = nodePairs.get(i).get();
                 DefaultNodeTemplate node = nodePair.getFirst();
                 node.setDeprecated(nodeFactoryExtension.isDeprecated());
                 Boolean isDeprecatedInNode = nodePair.getSecond();
 
+                // deprecate nodes are hidden in the default repository
+                boolean isInDefaultRepository = !nodeFactoryExtension.isDeprecated();
                 // nodeFactoryExtension.isDeprecated() - reads the flag from the plugin.xml
                 // isDeprecatedInNode -- reads FooNodeFactory.xml header _AND_ plugin.xml
                 //                                                             (injected via NodeFactoryExtension)
@@ -381,98 +539,145 @@ private void readNodes(final IProgressMonitor monitor, final Root root, final bo
                             + "the extension point contribution (plug-in \"%s\")",
                         NodeFactory.class.getSimpleName(), nodeFactoryExtension.getFactoryClassName(),
                         nodeFactoryExtension.getPlugInSymbolicName());
-                    if (!isIncludeDeprecated) {
-                        continue;
-                    }
+                    isInDefaultRepository = false;
                 }
 
                 LOGGER.debugWithFormat("Found node extension '%s': %s", node.getID(), node.getName());
-                for (Listener l : m_loadListeners) {
-                    l.newNode(root, node);
-                }
-
-                m_nodesById.put(node.getID(), node);
-                String nodeName = node.getID();
-                nodeName = nodeName.substring(nodeName.lastIndexOf('.') + 1);
-
-                // Ask the root to lookup the category-container located at
-                // the given path
-                IContainerObject parentContainer =
-                        root.findContainer(node.getCategoryPath());
-
-                // If parent category is illegal, log an error and append
-                // the node to the repository root.
-                if (parentContainer == null) {
-                    LOGGER.coding("Unknown category for node " + node.getID() + " (plugin: "
-                            + node.getContributingPlugin() + "): " + node.getCategoryPath()
-                            + ". Node will be added to 'Uncategorized' instead");
-                    uncategorized.addChild(node);
-                } else {
-                    String nodePluginId = nodeFactoryExtension.getPlugInSymbolicName();
-                    String categoryPluginId = parentContainer.getContributingPlugin();
-                    if (categoryPluginId == null) {
-                        categoryPluginId = "";
-                    }
-                    int secondDotIndex = nodePluginId.indexOf('.', nodePluginId.indexOf('.') + 1);
-                    if (secondDotIndex == -1) {
-                        secondDotIndex = 0;
-                    }
-
-                    if (!parentContainer.isLocked() ||
-                            nodePluginId.equals(categoryPluginId) ||
-                            nodePluginId.startsWith("org.knime.") ||
-                            nodePluginId.startsWith("com.knime.") ||
-                            nodePluginId.regionMatches(0, categoryPluginId, 0, secondDotIndex)) {
-                        // container not locked, or node and category from same plug-in
-                        // or the vendor is the same (comparing the first two parts of the plug-in ids)
-                        parentContainer.addChild(node);
-                    } else {
-                        LOGGER.coding("Locked category for node " + node.getID() + ": " + node.getCategoryPath()
-                                    + ". Node will be added to 'Uncategorized' instead");
-                        uncategorized.addChild(node);
+                String nodePluginId = nodeFactoryExtension.getPlugInSymbolicName();
+                if (isInDefaultRepository) {
+                    for (Listener l : m_loadListeners) {
+                        l.newNode(m_root, node);
                     }
+                    addNode(m_root, uncategorized, node, nodePluginId);
+                    addNode(m_completeRoot, completeUncategorized, (NodeTemplate)node.deepCopy(), nodePluginId);
+                } else {
+                    addNode(m_completeRoot, completeUncategorized, node, nodePluginId);
                 }
-
-            } catch (InvalidNodeFactoryExtensionException t) {
+                m_nodesById.put(node.getID(), node);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception t) {
                 LOGGER.error(t.getMessage(), t);
             }
 
         } // for configuration elements
     }
 
+    private static IContainerObject getUncategorized(final Root root) {
+        IContainerObject uncategorized = root.findContainer("/uncategorized");
+        if (uncategorized == null) {
+            // this should never happen, but who knows...
+            uncategorized = root;
+        }
+        return uncategorized;
+    }
 
-    private void readNodeSets(final IProgressMonitor monitor, final Root root, final boolean isIncludeDeprecated) {
-        for (NodeSetFactoryExtension set : NodeFactoryExtensionManager.getInstance().getNodeSetFactoryExtensions()) {
-            Collection<DynamicNodeTemplate> dynamicNodeTemplates =
-                    RepositoryFactory.createNodeSet(set, root, isIncludeDeprecated);
-
-            for (DynamicNodeTemplate node : dynamicNodeTemplates) {
-                if (monitor.isCanceled()) {
-                    return;
-                }
-                for (Listener l : m_loadListeners) {
-                    l.newNode(root, node);
-                }
+    private static void addNode(final Root root, final IContainerObject uncategorized, final NodeTemplate node,
+        final String nodePluginId) {
+        // Ask the root to lookup the category-container located at
+        // the given path
+        IContainerObject parentContainer =
+                root.findContainer(node.getCategoryPath());
+
+        // If parent category is illegal, log an error and append
+        // the node to the repository root.
+        if (parentContainer == null) {
+            LOGGER.coding("Unknown category for node " + node.getID() + " (plugin: "
+                    + node.getContributingPlugin() + "): " + node.getCategoryPath()
+                    + ". Node will be added to 'Uncategorized' instead");
+            uncategorized.addChild(node);
+        } else {
+            String categoryPluginId = parentContainer.getContributingPlugin();
+            if (categoryPluginId == null) {
+                categoryPluginId = "";
+            }
+            int secondDotIndex = nodePluginId.indexOf('.', nodePluginId.indexOf('.') + 1);
+            if (secondDotIndex == -1) {
+                secondDotIndex = 0;
+            }
 
-                m_nodesById.put(node.getID(), node);
-                String nodeName = node.getID();
-                nodeName = nodeName.substring(nodeName.lastIndexOf('.') + 1);
+            if (!parentContainer.isLocked() ||
+                    nodePluginId.equals(categoryPluginId) ||
+                    nodePluginId.startsWith("org.knime.") ||
+                    nodePluginId.startsWith("com.knime.") ||
+                    nodePluginId.regionMatches(0, categoryPluginId, 0, secondDotIndex)) {
+                // container not locked, or node and category from same plug-in
+                // or the vendor is the same (comparing the first two parts of the plug-in ids)
+                parentContainer.addChild(node);
+            } else {
+                LOGGER.coding("Locked category for node " + node.getID() + ": " + node.getCategoryPath()
+                            + ". Node will be added to 'Uncategorized' instead");
+                uncategorized.addChild(node);
+            }
+        }
+    }
 
-                // Ask the root to lookup the category-container located at the given path
-                IContainerObject parentContainer = root.findContainer(node.getCategoryPath());
 
-                // If parent category is illegal, log an error and append the node to the repository root.
-                if (parentContainer == null) {
-                    LOGGER.warnWithFormat("Invalid category-path for node contribution: '%s' - adding to root instead",
-                        node.getCategoryPath());
-                    root.addChild(node);
-                } else {
-                    // everything is fine, add the node to its parent
-                    // category
-                    parentContainer.addChild(node);
+    private void readNodeSets(final IProgressMonitor monitor, final ParallelFactoryLoader loader,
+        final NodeDescriptionIndex.Builder descriptions) {
+        List<Pair<NodeSetFactoryExtension, String>> nodeSetNodes = new ArrayList<>();
+        for (NodeSetFactoryExtension set : NodeFactoryExtensionManager.getInstance().getNodeSetFactoryExtensions()) {
+            if (!set.getNodeSetFactory().isHidden()) {
+                for (String factoryId : set.getNodeFactoryIds()) {
+                    nodeSetNodes.add(Pair.create(set, factoryId));
                 }
+            }
+        }
+        // the factories may be created concurrently, but the nodes are added in the original order
+        List<ParallelFactoryLoader.Result<Optional<DynamicNodeTemplate>>> dynamicNodeTemplates = loader
+            .loadAll(nodeSetNodes, p -> RepositoryFactory.createNodeSetNode(p.getFirst(), p.getSecond(), descriptions));
+
+        for (int i = 0; i < nodeSetNodes.size(); i++) {
+            if (monitor.isCanceled()) {
+                return;
+            }
+            NodeSetFactoryExtension set = nodeSetNodes.get(i).getFirst();
+            Optional<DynamicNodeTemplate> nodeOptional;
+            try {
+                nodeOptional = dynamicNodeTemplates.get(i).get();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception ex) {
+                LOGGER.error("Node '" + nodeSetNodes.get(i).getSecond() + "' from plug-in '"
+                    + set.getPlugInSymbolicName() + "' could not be created: " + ex.getMessage(), ex);
+                continue;
+            }
+            if (!nodeOptional.isPresent()) {
+                continue; // error handling done elsewhere
+            }
+            DynamicNodeTemplate node = nodeOptional.get();
 
+            // the complete repository gets all nodes, the default repository only the non-deprecated ones
+            RepositoryFactory.createNodeSetCategories(set, m_completeRoot, node.getCategoryPath());
+            if (node.isDeprecated()) {
+                addNodeSetNode(m_completeRoot, node);
+            } else {
+                for (Listener l : m_loadListeners) {
+                    l.newNode(m_root, node);
+                }
+                RepositoryFactory.createNodeSetCategories(set, m_root, node.getCategoryPath());
+                addNodeSetNode(m_root, node);
+                addNodeSetNode(m_completeRoot, (DynamicNodeTemplate)node.deepCopy());
             }
+            m_nodesById.put(node.getID(), node);
+        }
+    }
+
+    private static void addNodeSetNode(final Root root, final DynamicNodeTemplate node) {
+        // Ask the root to lookup the category-container located at the given path
+        IContainerObject parentContainer = root.findContainer(node.getCategoryPath());
+
+        // If parent category is illegal, log an error and append the node to the repository root.
+        if (parentContainer == null) {
+            LOGGER.warnWithFormat("Invalid category-path for node contribution: '%s' - adding to root instead",
+                node.getCategoryPath());
+            root.addChild(node);
+        } else {
+            // everything is fine, add the node to its parent
+            // category
+            parentContainer.addChild(node);
         }
     }
 
@@ -571,7 +776,7 @@ private static void removeEmptyCategories(
      */
     public synchronized Root getRoot(final IProgressMonitor monitor) {
         if (!m_root.hasChildren()) {
-            readRepository(monitor);
+            readRepositories(monitor);
         }
         return m_root;
     }
@@ -602,7 +807,7 @@ public synchronized Root getRoot() {
      */
     public synchronized Root getCompleteRoot(final IProgressMonitor monitor) {
         if (!m_completeRoot.hasChildren()) {
-            readCompleteRepository(monitor);
+            readRepositories(monitor);
         }
         return m_completeRoot;
     }
@@ -642,11 +847,92 @@ public void addLoadListener(final Listener listener) {
      * @return a node template or <code>null</code>
      * @since 2.4
      */
-    public synchronized NodeTemplate getNodeTemplate(final String id) {
-        if (!m_root.hasChildren() && !m_completeRoot.hasChildren()) {
-            readRepository(new NullProgressMonitor());
+    public NodeTemplate getNodeTemplate(final String id) {
+        return getIndex().get(id);
+    }
+
+    /**
+     * Returns the node template for the given node factory and node name, or <code>null</code> if no such node
+     * exists. The template is first looked up by the factory's class name and then, for dynamic nodes and nodes
+     * registered via node sets, by <code>&#60;node-factory class name&#62;#&#60;node name&#62;</code>.
+     *
+     * @param factoryClassName the fully qualified name of the node factory class
+     * @param nodeName the node's name
+     * @return a node template or <code>null</code>
+     * @since 4.4
+     */
+    public NodeTemplate getNodeTemplate(final String factoryClassName, final String nodeName) {
+        return getIndex().get(factoryClassName, nodeName);
+    }
+
+    /**
+     * Returns all node templates whose nodes are created by the given node factory class. This is a single template
+     * for ordinary nodes and possibly several templates for dynamic nodes.
+     *
+     * @param factoryClassName the fully qualified name of the node factory class
+     * @return an unmodifiable, possibly empty list of templates
+     * @since 4.4
+     */
+    public List<NodeTemplate> getNodeTemplates(final String factoryClassName) {
+        return getIndex().getByFactory(factoryClassName);
+    }
+
+    /**
+     * Returns the node template with the given id once the repository has been read. Unlike
+     * {@link #getNodeTemplate(String)} this method never blocks and does not trigger reading the repository.
+     *
+     * @param id the node's id, see {@link #getNodeTemplate(String)}
+     * @return a future that is completed with the node template, or <code>null</code> if no such node exists, as soon
+     *         as the repository has been read; if reading is canceled, the future is completed with the templates
+     *         read until then, and if reading fails, it is completed exceptionally
+     * @since 4.4
+     */
+    public CompletableFuture<NodeTemplate> getNodeTemplateAsync(final String id) {
+        return m_indexFuture.thenApply(index -> index.get(id));
+    }
+
+    /**
+     * Returns whether the repository has been read completely and templates can be looked up without blocking.
+     *
+     * @return <code>true</code> if the node template index is available, <code>false</code> otherwise
+     * @since 4.4
+     */
+    public boolean isNodeTemplateIndexReady() {
+        return m_index != null;
+    }
+
+    /**
+     * Returns the full-text index over the descriptions of all nodes in the repository. The index is only available
+     * once the repository has been read; this method never blocks and does not trigger reading the repository.
+     *
+     * @return the description index or an empty optional if the repository has not been read yet
+     * @since 4.4
+     */
+    public Optional<NodeDescriptionIndex> getNodeDescriptionIndex() {
+        return Optional.ofNullable(m_descriptionIndex);
+    }
+
+    /**
+     * Returns the published template index. If the repository has not been read yet, it is read now.
+     */
+    private NodeTemplateIndex getIndex() {
+        NodeTemplateIndex index = m_index;
+        if (index != null) {
+            return index;
+        }
+        synchronized (this) {
+            if (!m_root.hasChildren()) {
+                readRepositories(new NullProgressMonitor());
+            }
+            if (m_index != null) {
+                return m_index;
+            }
+            // the index is missing if reading has been canceled, so fall back to what has been read so far
+            if (m_partialIndex == null) {
+                m_partialIndex = new NodeTemplateIndex(m_nodesById);
+            }
+            return m_partialIndex;
         }
-        return m_nodesById.get(id);
     }
 
     /**
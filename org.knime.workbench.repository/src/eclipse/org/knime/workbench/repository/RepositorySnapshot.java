@@ -0,0 +1,550 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.workbench.repository;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.eclipse.core.runtime.Platform;
+import org.knime.core.node.NodeFactory.NodeType;
+import org.knime.core.node.NodeLogger;
+import org.knime.core.node.NodeSetFactory;
+import org.knime.core.node.extension.NodeFactoryExtensionManager;
+import org.knime.core.node.extension.NodeSetFactoryExtension;
+import org.knime.workbench.repository.model.AbstractContainerObject;
+import org.knime.workbench.repository.model.AbstractRepositoryObject;
+import org.knime.workbench.repository.model.Category;
+import org.knime.workbench.repository.model.DefaultNodeTemplate;
+import org.knime.workbench.repository.model.DynamicNodeTemplate;
+import org.knime.workbench.repository.model.IRepositoryObject;
+import org.knime.workbench.repository.model.NodeTemplate;
+import org.knime.workbench.repository.model.Root;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.FrameworkUtil;
+
+/**
+ * Binary snapshot of the category and node part of a repository tree. The snapshot is stored in the plug-in's state
+ * location and is keyed by the symbolic names and versions of all installed bundles and by the nodes that the node set
+ * factories provide, since node sets may change without any change of the installation (e.g. if they are generated
+ * from files). As long as neither changes, the repository can be restored from the snapshot without instantiating any
+ * node factory or loading any icon; both are loaded lazily by the restored templates upon first use. Metanode templates are not part of the
+ * snapshot. A snapshot holds either a repository tree or a {@link NodeDescriptionIndex}.
+ *
+ * <p>
+ * Snapshots can be disabled by setting the system property {@value #PROPERTY_DISABLE_SNAPSHOT} to <code>true</code>.
+ * They are also not used if the platform runs in development mode.
+ * </p>
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class RepositorySnapshot {
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(RepositorySnapshot.class);
+
+    /** System property that disables reading and writing of repository snapshots. */
+    static final String PROPERTY_DISABLE_SNAPSHOT = "knime.repository.snapshot.disabled";
+
+    private static final int MAGIC = 0x4B4E5253;
+
+    private static final int FORMAT_VERSION = 1;
+
+    private static final byte TYPE_CATEGORY = 1;
+
+    private static final byte TYPE_NODE = 2;
+
+    private static final byte TYPE_DYNAMIC_NODE = 3;
+
+    private static final byte ICON_NONE = 0;
+
+    private static final byte ICON_BUNDLE_RESOURCE = 1;
+
+    private static final byte ICON_URL = 2;
+
+    private static byte[] installationKey;
+
+    private final File m_file;
+
+    private Map<String, NodeSetFactoryExtension> m_nodeSetsByClassName;
+
+    private RepositorySnapshot(final File file) {
+        m_file = file;
+    }
+
+    /**
+     * Returns the snapshot with the given name, unless snapshots are disabled or there is no state location to store
+     * them in.
+     *
+     * @param name the snapshot's name, e.g. "repository"
+     * @return the snapshot or an empty optional
+     */
+    static Optional<RepositorySnapshot> forName(final String name) {
+        if (Boolean.getBoolean(PROPERTY_DISABLE_SNAPSHOT) || Platform.inDevelopmentMode()) {
+            return Optional.empty();
+        }
+        KNIMERepositoryPlugin plugin = KNIMERepositoryPlugin.getDefault();
+        if (plugin == null) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(new RepositorySnapshot(plugin.getStateLocation().append(name + ".snapshot").toFile()));
+        } catch (IllegalStateException ex) {
+            LOGGER.debug("No state location for node repository snapshots available: " + ex.getMessage(), ex);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Restores the snapshot into the given (empty) root. If the snapshot does not exist, was written for a different
+     * installation, or cannot be read, the root is left empty and <code>false</code> is returned.
+     *
+     * @param root an empty repository root
+     * @return <code>true</code> if the snapshot has been restored, <code>false</code> otherwise
+     */
+    boolean read(final Root root) {
+        if (!m_file.isFile()) {
+            return false;
+        }
+        try (DataInputStream in =
+            new DataInputStream(new BufferedInputStream(new FileInputStream(m_file), 1 << 16))) {
+            if (!readHeader(in)) {
+                return false;
+            }
+            readChildren(in, root);
+            return true;
+        } catch (IOException | RuntimeException ex) {
+            LOGGER.info("Could not read node repository snapshot " + m_file + ", reading extensions instead: "
+                + ex.getMessage(), ex);
+            root.removeAllChildren();
+            return false;
+        }
+    }
+
+    /**
+     * Reads the node description index stored in this snapshot. If the snapshot does not exist, was written for a
+     * different installation, or cannot be read, an empty optional is returned.
+     *
+     * @return the description index or an empty optional
+     */
+    Optional<NodeDescriptionIndex> readDescriptionIndex() {
+        if (!m_file.isFile()) {
+            return Optional.empty();
+        }
+        try (DataInputStream in =
+            new DataInputStream(new BufferedInputStream(new FileInputStream(m_file), 1 << 16))) {
+            if (!readHeader(in)) {
+                return Optional.empty();
+            }
+            return Optional.of(NodeDescriptionIndex.read(in));
+        } catch (IOException | RuntimeException ex) {
+            LOGGER.info("Could not read node description snapshot " + m_file + ", reading extensions instead: "
+                + ex.getMessage(), ex);
+            return Optional.empty();
+        }
+    }
+
+    private boolean readHeader(final DataInputStream in) throws IOException {
+        if ((in.readInt() != MAGIC) || (in.readInt() != FORMAT_VERSION)) {
+            LOGGER.debug("Node repository snapshot " + m_file + " has an unsupported format, ignoring it");
+            return false;
+        }
+        byte[] key = new byte[in.readInt()];
+        in.readFully(key);
+        if (!Arrays.equals(key, getInstallationKey())) {
+            LOGGER.debug("Installation has changed since node repository snapshot " + m_file
+                + " was written, ignoring it");
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Writes the categories and nodes of the given root into the snapshot. Failures are logged but otherwise
+     * ignored.
+     *
+     * @param root a fully read repository root
+     */
+    void write(final Root root) {
+        write(out -> writeChildren(out, root));
+    }
+
+    /**
+     * Writes the given node description index into the snapshot. Failures are logged but otherwise ignored.
+     *
+     * @param index the description index
+     */
+    void write(final NodeDescriptionIndex index) {
+        write(index::write);
+    }
+
+    private void write(final ContentWriter contentWriter) {
+        File tempFile = new File(m_file.getParentFile(), m_file.getName() + ".tmp");
+        try {
+            try (DataOutputStream out =
+                new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile), 1 << 16))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                byte[] key = getInstallationKey();
+                out.writeInt(key.length);
+                out.write(key);
+                contentWriter.write(out);
+            }
+            Files.move(tempFile.toPath(), m_file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException ex) {
+            LOGGER.info("Could not write node repository snapshot " + m_file + ": " + ex.getMessage(), ex);
+            tempFile.delete();
+        }
+    }
+
+    /** Writes the part of a snapshot following the header. */
+    @FunctionalInterface
+    private interface ContentWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private void readChildren(final DataInputStream in, final AbstractContainerObject parent) throws IOException {
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            byte type = in.readByte();
+            switch (type) {
+                case TYPE_CATEGORY:
+                    Category category = readCategory(in);
+                    parent.addChild(category);
+                    readChildren(in, category);
+                    break;
+                case TYPE_NODE:
+                    parent.addChild(readNode(in));
+                    break;
+                case TYPE_DYNAMIC_NODE:
+                    parent.addChild(readDynamicNode(in));
+                    break;
+                default:
+                    throw new IOException("Unknown repository object type " + type);
+            }
+        }
+    }
+
+    private static Category readCategory(final DataInputStream in) throws IOException {
+        String id = readString(in);
+        String name = readString(in);
+        String contributingPlugin = readString(in);
+        boolean locked = in.readBoolean();
+        Category category = new Category(id, name, contributingPlugin, locked);
+        category.setDescription(readString(in));
+        category.setAfterID(readString(in));
+        category.setPath(readString(in));
+        category.setIconPath(readString(in));
+        readAdditionalInfo(in, category);
+        return category;
+    }
+
+    private static DefaultNodeTemplate readNode(final DataInputStream in) throws IOException {
+        String factoryClassName = readString(in);
+        String name = readString(in);
+        String contributingPlugin = readString(in);
+        String categoryPath = readString(in);
+        NodeType nodeType = readNodeType(in);
+        DefaultNodeTemplate node =
+            new DefaultNodeTemplate(factoryClassName, name, contributingPlugin, categoryPath, nodeType);
+        readNodeProperties(in, node);
+        return node;
+    }
+
+    private DynamicNodeTemplate readDynamicNode(final DataInputStream in) throws IOException {
+        String nodeSetClassName = readString(in);
+        String id = readString(in);
+        String factoryId = readString(in);
+        String name = readString(in);
+        String categoryPath = readString(in);
+        NodeType nodeType = readNodeType(in);
+        NodeSetFactoryExtension nodeSet = getNodeSetsByClassName().get(nodeSetClassName);
+        if (nodeSet == null) {
+            throw new IOException("Node set factory '" + nodeSetClassName + "' does not exist any more");
+        }
+        DynamicNodeTemplate node = new DynamicNodeTemplate(nodeSet, id, factoryId, name, categoryPath, nodeType);
+        readNodeProperties(in, node);
+        return node;
+    }
+
+    private static void readNodeProperties(final DataInputStream in, final NodeTemplate node) throws IOException {
+        node.setAfterID(readString(in));
+        node.setDeprecated(in.readBoolean());
+        node.setIconURL(readIconURL(in));
+        readAdditionalInfo(in, node);
+    }
+
+    private static NodeType readNodeType(final DataInputStream in) throws IOException {
+        String type = readString(in);
+        return (type == null) ? null : NodeType.valueOf(type);
+    }
+
+    private static void readAdditionalInfo(final DataInputStream in, final AbstractRepositoryObject object)
+        throws IOException {
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            object.addAdditionalInfo(readString(in), readString(in));
+        }
+    }
+
+    private static URL readIconURL(final DataInputStream in) throws IOException {
+        byte kind = in.readByte();
+        if (kind == ICON_BUNDLE_RESOURCE) {
+            String symbolicName = readString(in);
+            String protocol = readString(in);
+            String path = readString(in);
+            Bundle bundle = Platform.getBundle(symbolicName);
+            if (bundle == null) {
+                return null;
+            }
+            return "bundleentry".equals(protocol) ? bundle.getEntry(path) : bundle.getResource(path);
+        } else if (kind == ICON_URL) {
+            return new URL(readString(in));
+        } else {
+            return null;
+        }
+    }
+
+    private Map<String, NodeSetFactoryExtension> getNodeSetsByClassName() {
+        if (m_nodeSetsByClassName == null) {
+            m_nodeSetsByClassName = new HashMap<>();
+            for (NodeSetFactoryExtension set : NodeFactoryExtensionManager.getInstance()
+                .getNodeSetFactoryExtensions()) {
+                m_nodeSetsByClassName.put(set.getNodeSetFactory().getClass().getName(), set);
+            }
+        }
+        return m_nodeSetsByClassName;
+    }
+
+    private static void writeChildren(final DataOutputStream out, final AbstractContainerObject parent)
+        throws IOException {
+        List<IRepositoryObject> children = new ArrayList<>();
+        for (IRepositoryObject child : parent.getChildren()) {
+            // metanode templates are not part of the snapshot
+            if ((child instanceof Category) || (child instanceof DefaultNodeTemplate)
+                || (child instanceof DynamicNodeTemplate)) {
+                children.add(child);
+            }
+        }
+
+        out.writeInt(children.size());
+        for (IRepositoryObject child : children) {
+            if (child instanceof Category) {
+                Category category = (Category)child;
+                out.writeByte(TYPE_CATEGORY);
+                writeString(out, category.getID());
+                writeString(out, category.getName());
+                writeString(out, category.getContributingPlugin());
+                out.writeBoolean(category.isLocked());
+                writeString(out, category.getDescription());
+                writeString(out, category.getAfterID());
+                writeString(out, category.getPath());
+                writeString(out, category.getIconPath());
+                writeAdditionalInfo(out, category);
+                writeChildren(out, category);
+            } else if (child instanceof DynamicNodeTemplate) {
+                DynamicNodeTemplate node = (DynamicNodeTemplate)child;
+                out.writeByte(TYPE_DYNAMIC_NODE);
+                writeString(out, node.getNodeSetFactoryExtension().getNodeSetFactory().getClass().getName());
+                writeString(out, node.getID());
+                writeString(out, node.getFactoryId());
+                writeString(out, node.getName());
+                writeString(out, node.getCategoryPath());
+                writeString(out, (node.getType() == null) ? null : node.getType().name());
+                writeNodeProperties(out, node);
+            } else {
+                DefaultNodeTemplate node = (DefaultNodeTemplate)child;
+                out.writeByte(TYPE_NODE);
+                writeString(out, node.getID());
+                writeString(out, node.getName());
+                writeString(out, node.getContributingPlugin());
+                writeString(out, node.getCategoryPath());
+                writeString(out, (node.getType() == null) ? null : node.getType().name());
+                writeNodeProperties(out, node);
+            }
+        }
+    }
+
+    private static void writeNodeProperties(final DataOutputStream out, final NodeTemplate node) throws IOException {
+        writeString(out, node.getAfterID());
+        out.writeBoolean(node.isDeprecated());
+        writeIconURL(out, node.getIconURL());
+        writeAdditionalInfo(out, node);
+    }
+
+    private static void writeAdditionalInfo(final DataOutputStream out, final AbstractRepositoryObject object)
+        throws IOException {
+        Map<String, String> infos = object.getAllAdditionalInfo();
+        out.writeInt(infos.size());
+        for (Map.Entry<String, String> e : infos.entrySet()) {
+            writeString(out, e.getKey());
+            writeString(out, e.getValue());
+        }
+    }
+
+    private static void writeIconURL(final DataOutputStream out, final URL iconURL) throws IOException {
+        if (iconURL == null) {
+            out.writeByte(ICON_NONE);
+            return;
+        }
+        // bundle URLs contain the bundle's runtime ID and the framework's identity, both of which are not stable
+        // between sessions, therefore the icon is referenced by the bundle's symbolic name instead
+        String protocol = iconURL.getProtocol();
+        if ("bundleresource".equals(protocol) || "bundleentry".equals(protocol)) {
+            Bundle bundle = getBundle(iconURL.getHost());
+            if (bundle != null) {
+                out.writeByte(ICON_BUNDLE_RESOURCE);
+                writeString(out, bundle.getSymbolicName());
+                writeString(out, protocol);
+                writeString(out, iconURL.getPath());
+                return;
+            }
+        }
+        out.writeByte(ICON_URL);
+        writeString(out, iconURL.toExternalForm());
+    }
+
+    private static Bundle getBundle(final String bundleUrlHost) {
+        int dotIndex = bundleUrlHost.indexOf('.');
+        try {
+            long bundleId = Long.parseLong((dotIndex < 0) ? bundleUrlHost : bundleUrlHost.substring(0, dotIndex));
+            return FrameworkUtil.getBundle(RepositorySnapshot.class).getBundleContext().getBundle(bundleId);
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+
+    private static void writeString(final DataOutputStream out, final String s) throws IOException {
+        if (s == null) {
+            out.writeInt(-1);
+        } else {
+            byte[] bytes = s.getBytes(UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private static String readString(final DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    /**
+     * Computes a digest over the symbolic names and versions of all installed bundles and over the nodes provided by
+     * all node set factories.
+     */
+    private static synchronized byte[] getInstallationKey() {
+        if (installationKey == null) {
+            Bundle[] bundles = FrameworkUtil.getBundle(RepositorySnapshot.class).getBundleContext().getBundles();
+            String[] ids = new String[bundles.length];
+            for (int i = 0; i < bundles.length; i++) {
+                ids[i] = bundles[i].getSymbolicName() + "_" + bundles[i].getVersion();
+            }
+            Arrays.sort(ids);
+            try {
+                MessageDigest digest = MessageDigest.getInstance("SHA-256");
+                for (String id : ids) {
+                    digest.update(id.getBytes(UTF_8));
+                    digest.update((byte)'\n');
+                }
+                for (String nodeSet : getNodeSetFingerprints()) {
+                    digest.update(nodeSet.getBytes(UTF_8));
+                    digest.update((byte)'\n');
+                }
+                installationKey = digest.digest();
+            } catch (NoSuchAlgorithmException ex) {
+                // every Java platform is required to support SHA-256
+                throw new IllegalStateException(ex.getMessage(), ex);
+            }
+        }
+        return installationKey;
+    }
+
+    /**
+     * Describes the nodes of each node set as provided by its factory, without creating any node factory.
+     *
+     * @return one description per node set, sorted
+     */
+    private static List<String> getNodeSetFingerprints() {
+        List<String> fingerprints = new ArrayList<>();
+        for (NodeSetFactoryExtension set : NodeFactoryExtensionManager.getInstance().getNodeSetFactoryExtensions()) {
+            NodeSetFactory nodeSet = set.getNodeSetFactory();
+            StringBuilder fingerprint = new StringBuilder(nodeSet.getClass().getName());
+            fingerprint.append('\t').append(nodeSet.isHidden());
+            for (String factoryId : set.getNodeFactoryIds()) {
+                // the additional settings determine the node that the dynamic factory creates
+                fingerprint.append('\t').append(factoryId).append('\t').append(nodeSet.getCategoryPath(factoryId))
+                    .append('\t').append(nodeSet.getAfterID(factoryId)).append('\t')
+                    .append(nodeSet.getAdditionalSettings(factoryId));
+            }
+            fingerprints.add(fingerprint.toString().replace('\n', ' '));
+        }
+        Collections.sort(fingerprints);
+        return fingerprints;
+    }
+}
@@ -47,7 +47,11 @@
  */
 package org.knime.workbench.repository.model;
 
+import java.net.URL;
+
 import org.eclipse.swt.graphics.Image;
+import org.knime.workbench.core.util.ImageRepository;
+import org.knime.workbench.core.util.ImageRepository.SharedImages;
 
 /**
  * Abstract base class of "leaf" objects (that is, objects without children).
@@ -60,6 +64,11 @@ public abstract class AbstractNodeTemplate extends AbstractRepositoryObject {
 
     private Image m_icon;
 
+    private URL m_iconURL;
+
+    /** Set if the icon couldn't be loaded from its URL, so that this isn't tried again on every paint. */
+    private boolean m_iconLoadFailed;
+
     /**
      * Creates a new abstract node template.
      *
@@ -82,17 +91,51 @@ protected AbstractNodeTemplate(final String id, final String name, final String
     protected AbstractNodeTemplate(final AbstractNodeTemplate copy) {
         super(copy);
         this.m_icon = copy.m_icon;
+        this.m_iconURL = copy.m_iconURL;
+        this.m_iconLoadFailed = copy.m_iconLoadFailed;
         this.m_categoryPath = copy.m_categoryPath;
     }
 
 
     /**
+     * Returns the icon. If only an icon URL has been set, the image is loaded upon the first call to this method. If it
+     * can't be loaded, the default node icon is returned from then on.
+     *
      * @return Returns the icon.
      */
     public Image getIcon() {
+        if ((m_icon == null) && (m_iconURL != null) && !m_iconLoadFailed
+            && !Boolean.getBoolean("java.awt.headless")) {
+            m_icon = ImageRepository.getIconImage(m_iconURL);
+            if (m_icon == null) {
+                m_iconLoadFailed = true;
+                m_icon = ImageRepository.getIconImage(SharedImages.DefaultNodeIcon);
+            }
+        }
         return m_icon;
     }
 
+    /**
+     * Sets the URL of the icon. The image itself is only loaded when it is requested via {@link #getIcon()}.
+     *
+     * @param iconURL the icon's URL, may be <code>null</code>
+     * @since 4.4
+     */
+    public void setIconURL(final URL iconURL) {
+        m_iconURL = iconURL;
+        m_iconLoadFailed = false;
+    }
+
+    /**
+     * Returns the URL of the icon, if it is known.
+     *
+     * @return the icon's URL or <code>null</code>
+     * @since 4.4
+     */
+    public URL getIconURL() {
+        return m_iconURL;
+    }
+
     /**
      * @param icon The icon to set.
      */
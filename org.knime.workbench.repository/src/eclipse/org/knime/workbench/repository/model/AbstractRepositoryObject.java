@@ -49,6 +49,7 @@
 
 import static org.knime.core.node.util.CheckUtils.checkArgumentNotNull;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
@@ -231,6 +232,16 @@ public String getAdditionalInfo(final String key) {
         return m_additionalInfo.get(key);
     }
 
+    /**
+     * Returns all additional infos of this repository object.
+     *
+     * @return an unmodifiable map from info keys to infos, never <code>null</code>
+     * @since 4.4
+     */
+    public Map<String, String> getAllAdditionalInfo() {
+        return Collections.unmodifiableMap(m_additionalInfo);
+    }
+
     /**
      * Compares two repository objects lexicographically according to their
      * name. If the names equal the ID breaks the tie.
@@ -54,6 +54,9 @@
 import java.util.regex.Pattern;
 
 import org.eclipse.swt.graphics.Image;
+import org.knime.core.node.NodeLogger;
+import org.knime.workbench.core.util.ImageRepository;
+import org.knime.workbench.core.util.ImageRepository.SharedImages;
 
 /**
  * Implementation of a repository category. (usually contributed by extension
@@ -62,12 +65,18 @@
  * @author Florian Georg, University of Konstanz
  */
 public class Category extends AbstractContainerObject {
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(Category.class);
+
     private String m_description;
 
     private String m_path;
 
     private Image m_icon;
 
+    private String m_iconPath;
+
+    private boolean m_iconResolved;
+
     /**
      * Creates a new category that is a copy of the given category.
      *
@@ -78,6 +87,8 @@ protected Category(final Category copy) {
         this.m_description = copy.m_description;
         this.m_path = copy.m_path;
         this.m_icon = copy.m_icon;
+        this.m_iconPath = copy.m_iconPath;
+        this.m_iconResolved = copy.m_iconResolved;
     }
 
     /**
@@ -142,14 +153,49 @@ public void setPath(final String path) {
     }
 
     /**
-     * Returns the category's icon.
+     * Returns the category's icon. If no icon has been set explicitly, the icon is loaded from the
+     * {@link #getIconPath() icon path} in the contributing plug-in upon the first call.
      *
      * @return an icon
      */
     public Image getIcon() {
+        if ((m_icon == null) && !m_iconResolved && !Boolean.getBoolean("java.awt.headless")) {
+            m_iconResolved = true;
+            if (m_iconPath == null) {
+                m_icon = ImageRepository.getIconImage(SharedImages.DefaultCategoryIcon);
+            } else {
+                m_icon = ImageRepository.getIconImage(getContributingPlugin(), m_iconPath);
+                if (m_icon == null) {
+                    LOGGER.coding("Icon '" + m_iconPath + "' for category " + getPath() + "/" + getName()
+                        + " does not exist");
+                    m_icon = ImageRepository.getIconImage(SharedImages.DefaultCategoryIcon);
+                }
+            }
+        }
         return m_icon;
     }
 
+    /**
+     * Returns the path of the icon relative to the contributing plug-in.
+     *
+     * @return the icon path or <code>null</code> if the default category icon is used
+     * @since 4.4
+     */
+    public String getIconPath() {
+        return m_iconPath;
+    }
+
+    /**
+     * Sets the path of the icon relative to the contributing plug-in. The icon is loaded lazily when it is first
+     * requested via {@link #getIcon()}.
+     *
+     * @param iconPath the icon path, <code>null</code> for the default category icon
+     * @since 4.4
+     */
+    public void setIconPath(final String iconPath) {
+        m_iconPath = iconPath;
+    }
+
     /**
      * Sets the category's icon.
      *
@@ -50,6 +50,7 @@
 import org.knime.core.node.NodeFactory;
 import org.knime.core.node.NodeFactory.NodeType;
 import org.knime.core.node.NodeModel;
+import org.knime.core.node.workflow.FileNativeNodeContainerPersistor;
 
 /**
  * Class that realizes a (contributed) node in the repository tree. This is used
@@ -65,7 +66,9 @@
  */
 public class DefaultNodeTemplate extends NodeTemplate {
 
-    private final Class<? extends NodeFactory<? extends NodeModel>> m_factory;
+    private final String m_factoryClassName;
+
+    private Class<? extends NodeFactory<? extends NodeModel>> m_factory;
 
     /**
      * Creates a copy of the given node template.
@@ -74,6 +77,7 @@ public class DefaultNodeTemplate extends NodeTemplate {
      */
     protected DefaultNodeTemplate(final DefaultNodeTemplate copy) {
         super(copy);
+        this.m_factoryClassName = copy.m_factoryClassName;
         this.m_factory = copy.m_factory;
     }
 
@@ -89,11 +93,44 @@ protected DefaultNodeTemplate(final DefaultNodeTemplate copy) {
     public DefaultNodeTemplate(final Class<NodeFactory<? extends NodeModel>> factoryClass, final String name,
         final String contributingPlugin, final String categoryPath, final NodeType nodeType) {
         super(factoryClass.getName(), name, contributingPlugin, categoryPath, nodeType);
+        m_factoryClassName = factoryClass.getName();
         m_factory = factoryClass;
     }
 
+    /**
+     * Constructs a new node template whose factory class is only loaded when it is first needed, e.g. when the
+     * template has been restored from a repository snapshot.
+     *
+     * @param factoryClassName the fully qualified name of the factory class
+     * @param name a human-readable name for this node
+     * @param contributingPlugin the contributing plug-in's ID
+     * @param categoryPath category path as per ext point.
+     * @param nodeType Node's type.
+     * @since 4.4
+     */
+    public DefaultNodeTemplate(final String factoryClassName, final String name, final String contributingPlugin,
+        final String categoryPath, final NodeType nodeType) {
+        super(factoryClassName, name, contributingPlugin, categoryPath, nodeType);
+        m_factoryClassName = factoryClassName;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IllegalStateException if the factory class is loaded lazily and cannot be loaded
+     */
+    @SuppressWarnings("unchecked")
     @Override
-    public Class<? extends NodeFactory<? extends NodeModel>> getFactory() {
+    public synchronized Class<? extends NodeFactory<? extends NodeModel>> getFactory() {
+        if (m_factory == null) {
+            try {
+                m_factory = (Class<? extends NodeFactory<? extends NodeModel>>)FileNativeNodeContainerPersistor
+                    .loadNodeFactory(m_factoryClassName).getClass();
+            } catch (Exception ex) {
+                throw new IllegalStateException(
+                    "Could not load node factory '" + m_factoryClassName + "': " + ex.getMessage(), ex);
+            }
+        }
         return m_factory;
     }
 
@@ -104,13 +141,13 @@ public Class<? extends NodeFactory<? extends NodeModel>> getFactory() {
     @Override
     public NodeFactory<? extends NodeModel> createFactoryInstance()
             throws Exception {
-        return m_factory.newInstance();
+        return getFactory().newInstance();
     }
 
     @Override
     public int hashCode() {
         // see equals method for comment on this
-        return m_factory.getCanonicalName().hashCode();
+        return m_factoryClassName.hashCode();
     }
 
     @Override
@@ -128,7 +165,7 @@ public boolean equals(final Object obj) {
         // to be sure only check for the full class name
         // seems that different built versions of the class have led to
         // duplicates
-        return m_factory.getCanonicalName().equals(((NodeTemplate)obj).getFactory().getCanonicalName());
+        return m_factoryClassName.equals(((DefaultNodeTemplate)obj).m_factoryClassName);
     }
 
     /**
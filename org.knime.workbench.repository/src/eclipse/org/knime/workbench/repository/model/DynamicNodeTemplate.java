@@ -72,7 +72,7 @@ public class DynamicNodeTemplate extends NodeTemplate {
 
     private final NodeSetFactoryExtension m_nodeSetFactoryExtension;
 
-    private final Class<? extends NodeFactory<? extends NodeModel>> m_factoryClass;
+    private Class<? extends NodeFactory<? extends NodeModel>> m_factoryClass;
 
     private final String m_factoryId;
 
@@ -97,6 +97,25 @@ public DynamicNodeTemplate(final NodeSetFactoryExtension nodeSetFactoryExtension
         m_nodeSetFactoryExtension = nodeSetFactoryExtension;
     }
 
+    /**
+     * Constructs a new DynamicNodeTemplate whose node factory is only created when it is first needed, e.g. when the
+     * template has been restored from a repository snapshot.
+     *
+     * @param nodeSetFactoryExtension the node set factory extension that provides the node
+     * @param id the template's id, i.e. <code>&#60;node-factory class name&#62;#&#60;node name&#62;</code>
+     * @param factoryId The id of the NodeFactory, must not be <code>null</code>
+     * @param name the name of this repository entry, must not be <code>null</code>
+     * @param categoryPath category path as per {@link NodeSetFactory#getCategoryPath(String)}
+     * @param nodeType type as per node's (runtime generated) factory xml descriptin.
+     * @since 4.4
+     */
+    public DynamicNodeTemplate(final NodeSetFactoryExtension nodeSetFactoryExtension, final String id,
+        final String factoryId, final String name, final String categoryPath, final NodeType nodeType) {
+        super(id, name, nodeSetFactoryExtension.getPlugInSymbolicName(), categoryPath, nodeType);
+        m_factoryId = factoryId;
+        m_nodeSetFactoryExtension = nodeSetFactoryExtension;
+    }
+
     /**
      * Creates a copy of the given object.
      *
@@ -109,11 +128,44 @@ protected DynamicNodeTemplate(final DynamicNodeTemplate copy) {
         m_factoryId = copy.m_factoryId;
     }
 
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IllegalStateException if the factory is created lazily and its creation fails
+     */
+    @SuppressWarnings("unchecked")
     @Override
-    public Class<? extends NodeFactory<? extends NodeModel>> getFactory() {
+    public synchronized Class<? extends NodeFactory<? extends NodeModel>> getFactory() {
+        if (m_factoryClass == null) {
+            try {
+                m_factoryClass = (Class<? extends NodeFactory<? extends NodeModel>>)createFactoryInstance().getClass();
+            } catch (Exception ex) {
+                throw new IllegalStateException(ex.getMessage(), ex);
+            }
+        }
         return m_factoryClass;
     }
 
+    /**
+     * Returns the node set factory extension that provides this node.
+     *
+     * @return the node set factory extension
+     * @since 4.4
+     */
+    public NodeSetFactoryExtension getNodeSetFactoryExtension() {
+        return m_nodeSetFactoryExtension;
+    }
+
+    /**
+     * Returns the id of the node factory within its node set.
+     *
+     * @return the factory id
+     * @since 4.4
+     */
+    public String getFactoryId() {
+        return m_factoryId;
+    }
+
     @Override
     public NodeFactory<? extends NodeModel> createFactoryInstance() throws Exception {
         // exception is unexpected here as the constructor was called with a concrete instance already
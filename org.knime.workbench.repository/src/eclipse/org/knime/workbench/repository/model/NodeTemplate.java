@@ -49,9 +49,12 @@
 
 import java.util.Objects;
 
+import org.eclipse.swt.graphics.Image;
 import org.knime.core.node.NodeFactory;
 import org.knime.core.node.NodeFactory.NodeType;
 import org.knime.core.node.NodeModel;
+import org.knime.workbench.core.util.ImageRepository;
+import org.knime.workbench.core.util.ImageRepository.SharedImages;
 
 /**
  * Class that realizes a (contributed) node in the repository tree. This is used
@@ -109,6 +112,21 @@ protected NodeTemplate(final NodeTemplate copy) {
      */
     public abstract NodeFactory<? extends NodeModel> createFactoryInstance() throws Exception;
 
+    /**
+     * {@inheritDoc}
+     *
+     * If the node factory does not provide an icon, the default node icon is returned.
+     */
+    @Override
+    public Image getIcon() {
+        Image icon = super.getIcon();
+        if ((icon == null) && (getIconURL() == null) && !Boolean.getBoolean("java.awt.headless")) {
+            icon = ImageRepository.getIconImage(SharedImages.DefaultNodeIcon);
+            setIcon(icon);
+        }
+        return icon;
+    }
+
     /**
      * @return Returns the type.
      */
@@ -61,10 +61,19 @@
 import java.util.Base64;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 import org.apache.commons.io.IOUtils;
@@ -141,6 +150,26 @@ public class Nodalizer implements IApplication {
     private static final String DEFAULT_OWNER = "-defaultOwner";
     private static final String FEATURES = "-features";
     private static final String BLACKLIST = "-blacklist";
+    private static final String THREADS = "-threads";
+    private static final String NDJSON = "-ndjson";
+    private static final String RESUME = "-resume";
+
+    private NodalizerOutput m_output;
+
+    private NodalizerCheckpoint m_checkpoint;
+
+    private ExecutorService m_executor;
+
+    private final List<Future<?>> m_pendingNodes = new ArrayList<>();
+
+    /** The extensions with nodes found by the threads reading nodes, one set per thread. */
+    private final List<Set<ExtensionInfo>> m_workerExtensions = Collections.synchronizedList(new ArrayList<>());
+
+    private final ThreadLocal<Set<ExtensionInfo>> m_extensionsWithNodes = ThreadLocal.withInitial(() -> {
+        final Set<ExtensionInfo> set = new HashSet<>();
+        m_workerExtensions.add(set);
+        return set;
+    });
 
     /**
      * {@inheritDoc}
@@ -165,6 +194,13 @@ public class Nodalizer implements IApplication {
      * <li>-blacklist &lt;path-to-blacklist-file&gt;, a file in which each line contains a <b>regex rule</b> for an
      * extension which should be "blacklisted" (not parsed). Also if a blacklist file is provided it may be written to
      * if an extension is found which does not have a category path AND contains no nodes</li>
+     * <li>-threads &lt;number-of-threads&gt;, the number of threads reading nodes in parallel. If not provided, all
+     * nodes are read one after the other.</li>
+     * <li>-ndjson, if provided all nodes are written into a single file "nodes.ndjson" (one JSON object per line)
+     * instead of one JSON file per node</li>
+     * <li>-resume, if provided nodes that have been written completely by a previous, interrupted run into the same
+     * output directory are skipped. Progress is recorded in the file ".nodalizer-checkpoint" in the output
+     * directory. The previous run must have been started with the same "-ndjson" setting.</li>
      * </ul>
      */
     @Override
@@ -183,6 +219,9 @@ public Object start(final IApplicationContext context) throws Exception {
         List<String> features = null;
         Path blacklistFile = null;
         List<String> blacklist = null;
+        int threads = 1;
+        boolean ndjson = false;
+        boolean resume = false;
         if (args instanceof String[]) {
             final String[] params = (String[])args;
             for (int i = 0; i < params.length; i++) {
@@ -231,6 +270,15 @@ public Object start(final IApplicationContext context) throws Exception {
                 if (params[i].equalsIgnoreCase(FEATURES) && (params.length > (i + 1))) {
                     features = Arrays.asList(params[i + 1].split(","));
                 }
+                if (params[i].equalsIgnoreCase(THREADS) && (params.length > (i + 1))) {
+                    threads = Math.max(1, Integer.parseInt(params[i + 1]));
+                }
+                if (params[i].equalsIgnoreCase(NDJSON)) {
+                    ndjson = true;
+                }
+                if (params[i].equalsIgnoreCase(RESUME)) {
+                    resume = true;
+                }
                 if (params[i].equalsIgnoreCase(BLACKLIST) && (params.length > (i + 1))) {
                     blacklistFile = Paths.get(params[i + 1]);
                     if (Files.exists(blacklistFile) && !Files.isDirectory(blacklistFile)) {
@@ -316,11 +364,58 @@ public Object start(final IApplicationContext context) throws Exception {
             System.setProperty("java.awt.headless", "true");
         }
         final Root root = RepositoryManager.INSTANCE.getCompleteRoot();
-        List<String> previouslyReadFactories = new ArrayList<>();
+        final Set<String> previouslyReadFactories = ConcurrentHashMap.newKeySet();
 
-        parseNodesInRoot(root, null, nodeDir, extensions, bundles, previouslyReadFactories);
-        if (factoryList != null) {
-            parseDeprecatedNodeList(factoryList, nodeDir, extensions, bundles, previouslyReadFactories);
+        // the checkpoint is opened first, it determines where the output of an interrupted run is continued
+        try (NodalizerCheckpoint checkpoint = NodalizerCheckpoint.open(outputDir, resume, ndjson);
+                NodalizerOutput output = ndjson ? NodalizerOutput.ndjson(nodeDir, checkpoint)
+                    : NodalizerOutput.perFile(nodeDir)) {
+            // nodes written by a previous run are skipped, but their extensions still have nodes
+            for (final String symbolicName : checkpoint.getExtensionsWithNodes()) {
+                final ExtensionInfo ext = extensions.get(symbolicName);
+                if (ext != null) {
+                    ext.setHasNodes(true);
+                }
+            }
+            m_output = output;
+            m_checkpoint = checkpoint;
+            if (threads > 1) {
+                m_executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+                    private final AtomicInteger m_threadCreateCounter = new AtomicInteger();
+
+                    @Override
+                    public Thread newThread(final Runnable r) {
+                        final Thread t = new Thread(r, "Nodalizer-" + m_threadCreateCounter.getAndIncrement());
+                        t.setDaemon(true);
+                        return t;
+                    }
+                });
+            }
+            try {
+                parseNodesInRoot(root, null, extensions, bundles, previouslyReadFactories);
+                // the deprecated nodes must only be read after all nodes in the repository are known
+                waitForPendingNodes();
+                if (factoryList != null) {
+                    parseDeprecatedNodeList(factoryList, extensions, bundles, previouslyReadFactories);
+                    waitForPendingNodes();
+                }
+                // the extensions are only modified by this thread after all nodes have been read
+                synchronized (m_workerExtensions) {
+                    for (final Set<ExtensionInfo> workerExtensions : m_workerExtensions) {
+                        workerExtensions.forEach(ext -> ext.setHasNodes(true));
+                    }
+                }
+            } finally {
+                if (m_executor != null) {
+                    m_executor.shutdownNow();
+                    m_executor = null;
+                }
+                m_pendingNodes.clear();
+                m_workerExtensions.clear();
+                m_extensionsWithNodes.remove();
+                m_output = null;
+                m_checkpoint = null;
+            }
         }
 
         // Write extensions
@@ -374,37 +469,61 @@ public void stop() {
 
     // -- Parse nodes --
 
-    private void parseNodesInRoot(final IRepositoryObject object, final List<String> path, final File directory,
-        final Map<String, ExtensionInfo> extensions, final List<String> bundles, final List<String> readFactories) {
+    /**
+     * Runs the task on the thread pool if nodes are read in parallel, otherwise on the calling thread.
+     */
+    private void submit(final Runnable task) {
+        if (m_executor == null) {
+            task.run();
+        } else {
+            m_pendingNodes.add(m_executor.submit(task));
+        }
+    }
+
+    private void waitForPendingNodes() throws InterruptedException, ExecutionException {
+        for (final Future<?> f : m_pendingNodes) {
+            f.get();
+        }
+        m_pendingNodes.clear();
+    }
+
+    private void parseNodesInRoot(final IRepositoryObject object, final List<String> path,
+        final Map<String, ExtensionInfo> extensions, final List<String> bundles, final Set<String> readFactories) {
         if (object instanceof NodeTemplate) {
-            try {
-                final NodeTemplate template = (NodeTemplate)object;
-                final NodeFactory<? extends NodeModel> fac = template.createFactoryInstance();
-                final NodeAndBundleInformation nodeAndBundleInfo = NodeAndBundleInformationPersistor.create(fac);
-                parseNodeAndPrint(fac, fac.getClass().getName(), path, template.getCategoryPath(), template.getName(),
-                    nodeAndBundleInfo, template.isDeprecated(), directory, extensions, bundles);
-                readFactories.add(fac.getClass().toString());
-            } catch (final Throwable e) {
-                LOGGER.error("Failed to read node: " + object.getName() + ".", e);
+            final NodeTemplate template = (NodeTemplate)object;
+            if (m_checkpoint.isDone(template.getID())) {
+                return;
             }
+            submit(() -> {
+                try {
+                    final NodeFactory<? extends NodeModel> fac = template.createFactoryInstance();
+                    final NodeAndBundleInformation nodeAndBundleInfo = NodeAndBundleInformationPersistor.create(fac);
+                    parseNodeAndPrint(fac, fac.getClass().getName(), path, template.getCategoryPath(),
+                        template.getName(), nodeAndBundleInfo, template.isDeprecated(), m_output, m_checkpoint,
+                        template.getID(), extensions, bundles, m_extensionsWithNodes.get());
+                    readFactories.add(fac.getClass().toString());
+                } catch (final Throwable e) {
+                    LOGGER.error("Failed to read node: " + object.getName() + ".", e);
+                }
+            });
         } else if (object instanceof Root) {
             for (final IRepositoryObject child : ((Root)object).getChildren()) {
-                parseNodesInRoot(child, new ArrayList<>(), directory, extensions, bundles, readFactories);
+                parseNodesInRoot(child, new ArrayList<>(), extensions, bundles, readFactories);
             }
         } else if (object instanceof Category) {
             for (final IRepositoryObject child : ((Category)object).getChildren()) {
                 final Category c = (Category)object;
                 final List<String> p = new ArrayList<>(path);
                 p.add(c.getName());
-                parseNodesInRoot(child, p, directory, extensions, bundles, readFactories);
+                parseNodesInRoot(child, p, extensions, bundles, readFactories);
             }
         } else {
             return;
         }
     }
 
-    private static void parseDeprecatedNodeList(final Path factoryListFile, final File directory,
-        final Map<String, ExtensionInfo> extensions, final List<String> bundles, final List<String> previouslyReadFactories) {
+    private void parseDeprecatedNodeList(final Path factoryListFile, final Map<String, ExtensionInfo> extensions,
+        final List<String> bundles, final Set<String> previouslyReadFactories) {
         if (factoryListFile == null) {
             return;
         }
@@ -417,61 +536,76 @@ private static void parseDeprecatedNodeList(final Path factoryListFile, final Fi
         }
 
         for (final String factory : factories) {
-            if (previouslyReadFactories.stream().anyMatch(f -> f.equals(factory))) {
+            if (previouslyReadFactories.contains(factory)) {
                 LOGGER.info("Skipping previously read factory: " + factory);
                 continue;
             }
-            try {
-                final String[] parts = factory.split("#");
-                final NodeFactory<? extends NodeModel> fac = RepositoryManager.loadNodeFactory(parts[0]);
-
-                // Dynamic nodes require additional information to load the factory
-                if ((fac instanceof DynamicNodeFactory) && (parts.length > 1)) {
-                    final String s = parts[1];
-                    final NodeSettingsRO ns =
-                        NodeSettings.loadFromXML(new ByteArrayInputStream(s.getBytes(StandardCharsets.UTF_8)));
-                    fac.loadAdditionalFactorySettings(ns);
-                }
-
-                final NodeAndBundleInformationPersistor b = NodeAndBundleInformationPersistor.create(fac);
-                final String categoryPath = "/uncategorized";
-                final List<String> path = Collections.singletonList("Uncategorized");
-
-                fac.init(); // Some factories must be initialized or name/description throws NPE
-                if (b.getBundleName().isPresent() && b.getBundleVersion().isPresent()
-                    && b.getBundleSymbolicName().isPresent()) {
-                    // always pass true for isDeprecated, even though the factory may not say it is deprecated
-                    // pass the factory name in the file, not the name of the loaded class - due to factory class
-                    // mapping these may not match
-                    parseNodeAndPrint(fac, parts[0], path, categoryPath, fac.getNodeName(), b, true, directory,
-                        extensions, bundles);
-                } else {
-                    if (!b.getBundleName().isPresent()) {
-                        LOGGER.warn("Bundle name is missing! " + factory);
-                    }
-                    if (!b.getBundleVersion().isPresent()) {
-                        LOGGER.warn("Bundle version is missing! " + factory);
-                    }
-                    if (!b.getBundleSymbolicName().isPresent()) {
-                        LOGGER.warn("Bundle symbolic name is missing! " + factory);
-                    }
-                    throw new IllegalArgumentException("Bundle information is missing!");
+            if (m_checkpoint.isDone(factory)) {
+                continue;
+            }
+            submit(() -> parseDeprecatedNode(factory, extensions, bundles));
+        }
+    }
+
+    private void parseDeprecatedNode(final String factory, final Map<String, ExtensionInfo> extensions,
+        final List<String> bundles) {
+        try {
+            final String[] parts = factory.split("#");
+            final NodeFactory<? extends NodeModel> fac = RepositoryManager.loadNodeFactory(parts[0]);
+
+            // Dynamic nodes require additional information to load the factory
+            if ((fac instanceof DynamicNodeFactory) && (parts.length > 1)) {
+                final String s = parts[1];
+                final NodeSettingsRO ns =
+                    NodeSettings.loadFromXML(new ByteArrayInputStream(s.getBytes(StandardCharsets.UTF_8)));
+                fac.loadAdditionalFactorySettings(ns);
+            }
+
+            final NodeAndBundleInformationPersistor b = NodeAndBundleInformationPersistor.create(fac);
+            final String categoryPath = "/uncategorized";
+            final List<String> path = Collections.singletonList("Uncategorized");
+
+            fac.init(); // Some factories must be initialized or name/description throws NPE
+            if (b.getBundleName().isPresent() && b.getBundleVersion().isPresent()
+                && b.getBundleSymbolicName().isPresent()) {
+                // always pass true for isDeprecated, even though the factory may not say it is deprecated
+                // pass the factory name in the file, not the name of the loaded class - due to factory class
+                // mapping these may not match
+                parseNodeAndPrint(fac, parts[0], path, categoryPath, fac.getNodeName(), b, true, m_output,
+                    m_checkpoint, factory, extensions, bundles, m_extensionsWithNodes.get());
+            } else {
+                if (!b.getBundleName().isPresent()) {
+                    LOGGER.warn("Bundle name is missing! " + factory);
+                }
+                if (!b.getBundleVersion().isPresent()) {
+                    LOGGER.warn("Bundle version is missing! " + factory);
                 }
-            } catch (final Throwable e) {
-                LOGGER.warn("Failed to read factory from list: " + factory + ". ", e);
+                if (!b.getBundleSymbolicName().isPresent()) {
+                    LOGGER.warn("Bundle symbolic name is missing! " + factory);
+                }
+                throw new IllegalArgumentException("Bundle information is missing!");
             }
+        } catch (final Throwable e) {
+            LOGGER.warn("Failed to read factory from list: " + factory + ". ", e);
         }
     }
 
-    private static void parseNodeAndPrint(final NodeFactory<?> fac, final String factoryString, final List<String> path,
-        final String categoryPath, final String name, final NodeAndBundleInformation nodeAndBundleInfo,
-        final boolean isDeprecated, final File directory, final Map<String, ExtensionInfo> extensions,
-        final List<String> bundles) throws Exception {
+    /**
+     * Reads the node's metadata, writes it to the output and records the node in the checkpoint. Nodes that are not
+     * part of the parsed extensions are recorded without being written. The extension a node belongs to is added to
+     * the given set, which must only be used by the calling thread.
+     */
+    private static void parseNodeAndPrint(final NodeFactory<?> fac, final String factoryString,
+        final List<String> path, final String categoryPath, final String name,
+        final NodeAndBundleInformation nodeAndBundleInfo, final boolean isDeprecated, final NodalizerOutput output,
+        final NodalizerCheckpoint checkpoint, final String checkpointKey, final Map<String, ExtensionInfo> extensions,
+        final List<String> bundles, final Set<ExtensionInfo> extensionsWithNodes) throws Exception {
         // Read update site info
         // Do this early to prevent instantiating unnecessary nodes.
         String extensionId = null;
         SiteInfo updateSite = null;
         String owner = null;
+        String extensionSymbolicName = null;
         NodeAndBundleInformation nabi = nodeAndBundleInfo;
         if (extensions != null && bundles != null) {
             // TODO: Check symbolic name and version once we support reading multiple extension versions
@@ -485,7 +619,8 @@ private static void parseNodeAndPrint(final NodeFactory<?> fac, final String fac
                 } else {
                     e = extensions.get(cleanedSymbolicName);
                 }
-                e.setHasNodes(true);
+                extensionsWithNodes.add(e);
+                extensionSymbolicName = e.getSymbolicName();
                 updateSite = e.getUpdateSite();
                 extensionId = e.getId();
                 owner = e.getOwner();
@@ -498,11 +633,13 @@ private static void parseNodeAndPrint(final NodeFactory<?> fac, final String fac
             } else if (!nabi.getFeatureSymbolicName().isPresent()
                 && bundles.contains(nabi.getBundleSymbolicName().orElse(null))) {
                 LOGGER.warn(fac.getClass() + " does not contain extension information, skipping ...");
+                checkpoint.markDone(checkpointKey, null);
                 return;
             } else {
                 // Node doesn't belong to this update site, so skip. With any KNIME installation there will be
                 // around 500 nodes installed. So it is not worth printing all the nodes that don't belong
                 // to the update site being read.
+                checkpoint.markDone(checkpointKey, null);
                 return;
             }
         }
@@ -543,6 +680,8 @@ private static void parseNodeAndPrint(final NodeFactory<?> fac, final String fac
         Document nodeHTML = null;
         if (nodeXML == null) {
             LOGGER.warn("Node factory XML not found for " + fac.getClass() + ". Skipping ...");
+            // the node belongs to the extension, but will never be written
+            checkpoint.markDone(checkpointKey, extensionSymbolicName);
             return;
         }
         final String s = NodeFactoryHTMLCreator.instance.readFullDescription(nodeXML);
@@ -633,7 +772,8 @@ private static void parseNodeAndPrint(final NodeFactory<?> fac, final String fac
         }
 
         // Write to file
-        NodalizerUtil.writeFile(directory, categoryPath + "/" + name + "_" + nInfo.getId().substring(1), nInfo);
+        checkpoint.writeAndMarkDone(checkpointKey, extensionSymbolicName, output,
+            categoryPath + "/" + name + "_" + nInfo.getId().substring(1), nInfo);
     }
 
     private static List<DynamicPortGroup> parseDynamicPorts(final Element nodeXML, final String xmlTag,
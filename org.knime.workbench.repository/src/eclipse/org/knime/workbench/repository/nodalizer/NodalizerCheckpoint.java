@@ -0,0 +1,264 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.workbench.repository.nodalizer;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Checkpoint of a {@link Nodalizer} run. Every node that has been processed completely is appended to a file in the
+ * output directory, together with the extension it belongs to and the length of the single output file after the
+ * node has been written. If a run is interrupted, the next run with the "-resume" flag skips all recorded nodes and
+ * continues the output file after the last recorded node, so that nodes written but not recorded are not contained
+ * twice. Nodes that failed are not recorded and are therefore retried. The first line of the file records whether the
+ * nodes have been written into a single file or into one file each; a run cannot be resumed with the other layout.
+ * Instances are thread-safe.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class NodalizerCheckpoint implements Closeable {
+
+    /** Name of the checkpoint file in the output directory. */
+    static final String FILE_NAME = ".nodalizer-checkpoint";
+
+    private static final char SEPARATOR = '\t';
+
+    /** Prefix of the first line, which is followed by the output layout. */
+    private static final String LAYOUT_PREFIX = "#layout" + SEPARATOR;
+
+    private static final String LAYOUT_NDJSON = "ndjson";
+
+    private static final String LAYOUT_PER_FILE = "files";
+
+    private final Map<String, String> m_done = new ConcurrentHashMap<>();
+
+    private final Writer m_writer;
+
+    private final boolean m_resumed;
+
+    private long m_outputLength = -1;
+
+    private NodalizerCheckpoint(final Path file, final boolean resume, final boolean ndjson) throws IOException {
+        m_resumed = resume;
+        final String layout = ndjson ? LAYOUT_NDJSON : LAYOUT_PER_FILE;
+        if (resume && Files.exists(file)) {
+            truncateIncompleteLine(file);
+            final List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+            if (!lines.isEmpty() && !lines.get(0).equals(LAYOUT_PREFIX + layout)) {
+                throw new IOException("The checkpoint " + file + " has not been written with the "
+                    + (ndjson ? "\"-ndjson\" flag" : "output of one file per node") + ". Resume the run with the"
+                    + " same output or start a new run without \"-resume\".");
+            }
+            for (final String line : lines) {
+                // the key may contain the separator, hence the line is split from the end
+                final int lengthIndex = line.lastIndexOf(SEPARATOR);
+                final int extensionIndex = (lengthIndex > 0) ? line.lastIndexOf(SEPARATOR, lengthIndex - 1) : -1;
+                if (extensionIndex >= 0) {
+                    m_done.put(line.substring(0, extensionIndex), line.substring(extensionIndex + 1, lengthIndex));
+                    m_outputLength = Math.max(m_outputLength, Long.parseLong(line.substring(lengthIndex + 1)));
+                }
+            }
+            m_writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+            if (lines.isEmpty()) {
+                writeLayout(layout);
+            }
+        } else {
+            m_writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+            writeLayout(layout);
+        }
+    }
+
+    private void writeLayout(final String layout) throws IOException {
+        m_writer.write(LAYOUT_PREFIX);
+        m_writer.write(layout);
+        m_writer.write('\n');
+        m_writer.flush();
+    }
+
+    /**
+     * Opens the checkpoint in the given directory.
+     *
+     * @param directory the output directory
+     * @param resume <code>true</code> if the nodes recorded by a previous run should be skipped, <code>false</code>
+     *            if the checkpoint should be started from scratch
+     * @param ndjson <code>true</code> if all nodes are written into a single file, <code>false</code> if every node
+     *            is written into its own file
+     * @return the checkpoint
+     * @throws IOException if the checkpoint file cannot be read or written, or if the previous run has written its
+     *             nodes with the other layout
+     */
+    static NodalizerCheckpoint open(final File directory, final boolean resume, final boolean ndjson)
+        throws IOException {
+        return new NodalizerCheckpoint(new File(directory, FILE_NAME).toPath(), resume, ndjson);
+    }
+
+    /**
+     * Returns whether the node has already been processed by a previous run.
+     *
+     * @param key a key identifying the node, e.g. the template id
+     * @return <code>true</code> if the node has been processed, <code>false</code> otherwise
+     */
+    boolean isDone(final String key) {
+        return m_done.containsKey(key);
+    }
+
+    /**
+     * Returns whether the checkpoint continues a previous run.
+     *
+     * @return <code>true</code> if the checkpoint has been opened for resuming, <code>false</code> otherwise
+     */
+    boolean isResumed() {
+        return m_resumed;
+    }
+
+    /**
+     * Returns the length of the single output file after the last node recorded by a previous run. Everything after
+     * this position has been written by nodes that are not recorded and must be discarded.
+     *
+     * @return the length in bytes, <code>-1</code> if no node has been recorded with a length
+     */
+    synchronized long getOutputLength() {
+        return m_outputLength;
+    }
+
+    /**
+     * Returns the symbolic names of all extensions for which at least one node has been recorded.
+     *
+     * @return a collection of symbolic names
+     */
+    Collection<String> getExtensionsWithNodes() {
+        final Set<String> result = new HashSet<>(m_done.values());
+        result.remove("");
+        return result;
+    }
+
+    /**
+     * Records that a node has been processed completely.
+     *
+     * @param key a key identifying the node, e.g. the template id; must not contain line breaks
+     * @param extension the symbolic name of the extension the node has been written for, <code>null</code> if the
+     *            node has not been written or does not belong to an extension
+     * @throws IOException if the checkpoint cannot be written
+     */
+    synchronized void markDone(final String key, final String extension) throws IOException {
+        record(key, extension, -1);
+    }
+
+    /**
+     * Writes a node to the output and records that it has been processed completely. Writing and recording happen
+     * atomically with respect to other nodes, hence every node in the output before the recorded length has been
+     * recorded as well.
+     *
+     * @param key a key identifying the node, e.g. the template id; must not contain line breaks
+     * @param extension the symbolic name of the extension the node belongs to, <code>null</code> if it does not
+     *            belong to an extension
+     * @param output the output the node is written to
+     * @param baseFileName the "base" of the file name, see {@link NodalizerOutput#write(String, NodeInfo)}
+     * @param node the node
+     * @throws IOException if the node or the checkpoint cannot be written
+     */
+    synchronized void writeAndMarkDone(final String key, final String extension, final NodalizerOutput output,
+        final String baseFileName, final NodeInfo node) throws IOException {
+        record(key, extension, output.write(baseFileName, node));
+    }
+
+    private void record(final String key, final String extension, final long outputLength) throws IOException {
+        final String ext = (extension == null) ? "" : extension;
+        m_done.put(key, ext);
+        m_outputLength = Math.max(m_outputLength, outputLength);
+        m_writer.write(key);
+        m_writer.write(SEPARATOR);
+        m_writer.write(ext);
+        m_writer.write(SEPARATOR);
+        m_writer.write(Long.toString(outputLength));
+        m_writer.write('\n');
+        m_writer.flush();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        m_writer.close();
+    }
+
+    /**
+     * Removes a trailing incomplete line from a line-based file, which is left behind if a run is killed while
+     * writing.
+     *
+     * @param file the file
+     * @throws IOException if an I/O error occurs
+     */
+    static void truncateIncompleteLine(final Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            final ByteBuffer buffer = ByteBuffer.allocate(1);
+            long end = channel.size();
+            while (end > 0) {
+                buffer.clear();
+                channel.read(buffer, end - 1);
+                if (buffer.get(0) == '\n') {
+                    break;
+                }
+                end--;
+            }
+            channel.truncate(end);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.workbench.repository.nodalizer;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Destination for the node JSON written by the {@link Nodalizer}. Either every node is written into its own file (the
+ * traditional layout) or all nodes are streamed into a single newline delimited JSON file. Implementations are
+ * thread-safe.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+abstract class NodalizerOutput implements Closeable {
+
+    /** Name of the newline delimited JSON file in the node directory. */
+    static final String NDJSON_FILE_NAME = "nodes.ndjson";
+
+    /**
+     * Writes a single node.
+     *
+     * @param baseFileName the "base" of the file name, only used if every node is written into its own file
+     * @param node the node to write
+     * @return the length of the single output file after the node has been written, <code>-1</code> if every node
+     *         is written into its own file
+     * @throws IOException if an I/O error occurs
+     */
+    abstract long write(String baseFileName, NodeInfo node) throws IOException;
+
+    /**
+     * Creates an output that writes every node into its own file.
+     *
+     * @param directory the output directory
+     * @return a new output
+     */
+    static NodalizerOutput perFile(final File directory) {
+        return new NodalizerOutput() {
+            @Override
+            synchronized long write(final String baseFileName, final NodeInfo node) throws IOException {
+                // synchronized because the name of the file depends on the files that already exist
+                NodalizerUtil.writeFile(directory, baseFileName, node);
+                return -1;
+            }
+
+            @Override
+            public void close() {
+                // nothing to do
+            }
+        };
+    }
+
+    /**
+     * Creates an output that streams all nodes into {@value #NDJSON_FILE_NAME}, one JSON object per line.
+     *
+     * @param directory the output directory
+     * @param checkpoint the checkpoint of the run; if it has been resumed, the existing file is continued after the
+     *            last node recorded in the checkpoint, otherwise the file is replaced
+     * @return a new output
+     * @throws IOException if the file cannot be opened
+     */
+    static NodalizerOutput ndjson(final File directory, final NodalizerCheckpoint checkpoint) throws IOException {
+        return new NdjsonOutput(new File(directory, NDJSON_FILE_NAME).toPath(), checkpoint);
+    }
+
+    private static final class NdjsonOutput extends NodalizerOutput {
+        private final ObjectMapper m_mapper = new ObjectMapper().setSerializationInclusion(Include.NON_ABSENT);
+
+        private final OutputStream m_out;
+
+        private long m_length;
+
+        NdjsonOutput(final Path file, final NodalizerCheckpoint checkpoint) throws IOException {
+            if (checkpoint.isResumed()) {
+                // nodes written after the last checkpointed one are not recorded and will be written again
+                try (FileChannel channel =
+                    FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                    channel.truncate(Math.max(0, checkpoint.getOutputLength()));
+                    m_length = channel.size();
+                }
+                m_out = Files.newOutputStream(file, StandardOpenOption.APPEND);
+            } else {
+                m_out = Files.newOutputStream(file);
+            }
+        }
+
+        @Override
+        long write(final String baseFileName, final NodeInfo node) throws IOException {
+            // the mapper does not indent, hence the JSON does not contain line breaks
+            final byte[] json = (m_mapper.writeValueAsString(node) + '\n').getBytes(StandardCharsets.UTF_8);
+            synchronized (this) {
+                m_out.write(json);
+                // flush so that a node is on disk before it is recorded in the checkpoint
+                m_out.flush();
+                m_length += json.length;
+                return m_length;
+            }
+        }
+
+        @Override
+        public synchronized void close() throws IOException {
+            m_out.close();
+        }
+    }
+}
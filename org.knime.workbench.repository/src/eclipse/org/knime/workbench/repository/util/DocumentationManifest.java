@@ -0,0 +1,262 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.workbench.repository.util;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.core.runtime.Platform;
+import org.knime.core.node.NodeLogger;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.FrameworkUtil;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+/**
+ * Small manifest of content hashes that documentation generators keep in their output directory in order to support
+ * incremental runs. For each generated node page it records a hash over the node's XML description, the version of
+ * the bundle contributing the node and the version of the stylesheets; pages whose hash is unchanged and whose file
+ * still exists do not need to be generated again. All methods may be called concurrently.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ * @since 4.4
+ */
+public final class DocumentationManifest {
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(DocumentationManifest.class);
+
+    /** Name of the manifest file in the output directory. */
+    public static final String FILE_NAME = ".node-documentation.manifest";
+
+    /** Number of threads the command line documentation generators render node pages with by default. */
+    public static final int DEFAULT_THREADS = Runtime.getRuntime().availableProcessors();
+
+    private final File m_directory;
+
+    private final Map<String, String> m_hashes = new ConcurrentHashMap<>();
+
+    private DocumentationManifest(final File directory) {
+        m_directory = directory;
+    }
+
+    /**
+     * Loads the manifest from the given output directory. If there is no manifest yet or it cannot be read, an empty
+     * manifest is returned, i.e. all pages are considered outdated.
+     *
+     * @param directory the output directory
+     * @return the manifest, never <code>null</code>
+     */
+    public static DocumentationManifest load(final File directory) {
+        DocumentationManifest manifest = new DocumentationManifest(directory);
+        File file = new File(directory, FILE_NAME);
+        if (file.isFile()) {
+            Properties props = new Properties();
+            try (InputStream in = Files.newInputStream(file.toPath())) {
+                props.load(in);
+                for (String key : props.stringPropertyNames()) {
+                    manifest.m_hashes.put(key, props.getProperty(key));
+                }
+            } catch (IOException ex) {
+                LOGGER.warn("Could not read documentation manifest " + file + ", regenerating all pages: "
+                    + ex.getMessage(), ex);
+                manifest.m_hashes.clear();
+            }
+        }
+        return manifest;
+    }
+
+    /**
+     * Deletes the manifest from the given output directory, e.g. because a run that doesn't maintain it is about to
+     * change the pages it describes.
+     *
+     * @param directory the output directory
+     * @throws IOException if the manifest exists but cannot be deleted
+     */
+    public static void delete(final File directory) throws IOException {
+        Files.deleteIfExists(new File(directory, FILE_NAME).toPath());
+    }
+
+    /**
+     * Computes the hash of a node page.
+     *
+     * @param description the node's XML description, may be <code>null</code>
+     * @param contributingPlugin the symbolic name of the bundle contributing the node, may be <code>null</code>
+     * @return a hex encoded hash
+     */
+    public static String computeHash(final Element description, final String contributingPlugin) {
+        MessageDigest digest = createDigest();
+        update(digest, getBundleVersion(contributingPlugin));
+        // the stylesheets and the CSS are part of this bundle
+        update(digest, getBundleVersion(FrameworkUtil.getBundle(DocumentationManifest.class)));
+        if (NodeFactoryHTMLCreator.instance != null) {
+            update(digest, NodeFactoryHTMLCreator.instance.getCss());
+        }
+        if (description != null) {
+            update(digest, description);
+        }
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * Checks whether the given page has been generated before with the same hash and still exists.
+     *
+     * @param relativePath the page's path relative to the output directory
+     * @param hash the page's current hash, see {@link #computeHash(Element, String)}
+     * @return <code>true</code> if the page does not need to be generated again, <code>false</code> otherwise
+     */
+    public boolean isUpToDate(final String relativePath, final String hash) {
+        return hash.equals(m_hashes.get(relativePath)) && new File(m_directory, relativePath).isFile();
+    }
+
+    /**
+     * Records the hash of a page that has just been generated.
+     *
+     * @param relativePath the page's path relative to the output directory
+     * @param hash the page's hash
+     */
+    public void put(final String relativePath, final String hash) {
+        m_hashes.put(relativePath, hash);
+    }
+
+    /**
+     * Writes the manifest into the output directory.
+     *
+     * @throws IOException if the manifest cannot be written
+     */
+    public void save() throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (Map.Entry<String, String> e : new TreeMap<>(m_hashes).entrySet()) {
+            content.append(escape(e.getKey())).append('=').append(e.getValue()).append('\n');
+        }
+        File file = new File(m_directory, FILE_NAME);
+        File tempFile = new File(m_directory, FILE_NAME + ".tmp");
+        try (OutputStream out = Files.newOutputStream(tempFile.toPath())) {
+            out.write(content.toString().getBytes(UTF_8));
+        }
+        Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+            StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Writes the content into the given file unless the file already has exactly this content. This keeps the
+     * modification times of unchanged table of contents and index files stable between runs.
+     *
+     * @param file the file to write
+     * @param content the file's content
+     * @return <code>true</code> if the file has been written, <code>false</code> if it was unchanged
+     * @throws IOException if an I/O error occurs
+     */
+    public static boolean writeIfChanged(final File file, final String content) throws IOException {
+        byte[] bytes = content.getBytes(UTF_8);
+        if (file.isFile() && (file.length() == bytes.length)
+            && Arrays.equals(Files.readAllBytes(file.toPath()), bytes)) {
+            return false;
+        }
+        Files.write(file.toPath(), bytes);
+        return true;
+    }
+
+    private static String escape(final String key) {
+        // keys are relative paths; escape the characters that have a meaning in property files
+        return key.replace("\\", "\\\\").replace("=", "\\=").replace(":", "\\:").replace(" ", "\\ ");
+    }
+
+    private static String getBundleVersion(final String symbolicName) {
+        return (symbolicName == null) ? "" : getBundleVersion(Platform.getBundle(symbolicName));
+    }
+
+    private static String getBundleVersion(final Bundle bundle) {
+        return (bundle == null) ? "" : bundle.getSymbolicName() + "_" + bundle.getVersion();
+    }
+
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            // every Java platform is required to support SHA-256
+            throw new IllegalStateException(ex.getMessage(), ex);
+        }
+    }
+
+    private static void update(final MessageDigest digest, final String s) {
+        digest.update(String.valueOf(s).getBytes(UTF_8));
+        digest.update((byte)0);
+    }
+
+    private static void update(final MessageDigest digest, final Node node) {
+        digest.update((byte)node.getNodeType());
+        update(digest, node.getNamespaceURI());
+        update(digest, node.getNodeName());
+        update(digest, node.getNodeValue());
+        NamedNodeMap attributes = node.getAttributes();
+        if (attributes != null) {
+            for (int i = 0; i < attributes.getLength(); i++) {
+                update(digest, attributes.item(i));
+            }
+        }
+        for (Node child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
+            update(digest, child);
+        }
+        // end marker, so that siblings and children cannot be confused
+        digest.update((byte)0xFF);
+    }
+}
@@ -176,9 +176,45 @@ public void addDescription(final Category cat, final StringBuilder bld,
      */
     public void addDescription(final NodeTemplate template,
             final boolean useSingleLine, final StringBuilder bld) {
-        NodeFactory<? extends NodeModel> nf = null;
+        if (!useSingleLine) {
+            // a recently shown description doesn't need the factory at all
+            String html = NodeFactoryHTMLCreator.instance.getCachedFullDescription(template.getID());
+            if (html != null) {
+                bld.append(html);
+                return;
+            }
+        }
+        NodeFactory<? extends NodeModel> nf;
         try {
             nf = template.createFactoryInstance();
+        } catch (Exception e) {
+            addUnavailableDescription(template, useSingleLine, bld);
+            return;
+        }
+        addDescription(template, nf, template.getID(), useSingleLine, bld);
+    }
+
+    /**
+     * Same as {@link #addDescription(NodeTemplate, boolean, StringBuilder)} but with a node factory that has already
+     * been created for the template, so that it isn't created again. This is meant for generating the documentation
+     * of many nodes, therefore the rendered description is not put into the cache of recently shown descriptions.
+     *
+     * @param template of the node to add the descriptions for.
+     * @param nf the node factory created from the template
+     * @param useSingleLine if set the single line description is added,
+     *            otherwise the entire full description is added
+     * @param bld the buffer to add the one line strings to.
+     * @since 4.4
+     */
+    public void addDescription(final NodeTemplate template, final NodeFactory<? extends NodeModel> nf,
+            final boolean useSingleLine, final StringBuilder bld) {
+        addDescription(template, nf, null, useSingleLine, bld);
+    }
+
+    /** @param cacheId the ID to cache the full description under, <code>null</code> to not cache it */
+    private static void addDescription(final NodeTemplate template, final NodeFactory<? extends NodeModel> nf,
+            final String cacheId, final boolean useSingleLine, final StringBuilder bld) {
+        try {
             if (useSingleLine) {
                 bld.append("<dt><b>");
                 bld.append(nf.getNodeName());
@@ -187,23 +223,28 @@ public void addDescription(final NodeTemplate template,
                     .getXMLDescription())));
                 bld.append("</dd>");
             } else {
-                bld.append(NodeFactoryHTMLCreator.instance.readFullDescription(nf.getXMLDescription()));
+                bld.append(NodeFactoryHTMLCreator.instance.readFullDescription(cacheId, nf.getXMLDescription()));
             }
         } catch (Exception e) {
-            if (useSingleLine) {
-                bld.append("<dt>");
-                bld.append(template.getName());
-                bld.append(":</dt>");
-                bld.append("<dd>no description available ");
-                bld.append("(couldn't inst. NodeFactory!)</dd>");
-            } else {
-                bld.append("<html><body><b>");
-                bld.append(template.getName());
-                bld.append("<br><br></b>");
-                bld.append("Full description not available.<br>");
-                bld.append("(Internal error: couldn't instantiate ");
-                bld.append("NodeFactory!)</body></html>");
-            }
+            addUnavailableDescription(template, useSingleLine, bld);
+        }
+    }
+
+    private static void addUnavailableDescription(final NodeTemplate template, final boolean useSingleLine,
+            final StringBuilder bld) {
+        if (useSingleLine) {
+            bld.append("<dt>");
+            bld.append(template.getName());
+            bld.append(":</dt>");
+            bld.append("<dd>no description available ");
+            bld.append("(couldn't inst. NodeFactory!)</dd>");
+        } else {
+            bld.append("<html><body><b>");
+            bld.append(template.getName());
+            bld.append("<br><br></b>");
+            bld.append("Full description not available.<br>");
+            bld.append("(Internal error: couldn't instantiate ");
+            bld.append("NodeFactory!)</body></html>");
         }
     }
 
@@ -62,6 +62,14 @@
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.xml.transform.TransformerException;
 
@@ -74,12 +82,15 @@
 import org.eclipse.swt.graphics.ImageLoader;
 import org.eclipse.swt.widgets.Display;
 import org.knime.core.node.KNIMEConstants;
+import org.knime.core.node.NodeFactory;
+import org.knime.core.node.NodeModel;
 import org.knime.workbench.repository.RepositoryManager;
 import org.knime.workbench.repository.model.Category;
 import org.knime.workbench.repository.model.IContainerObject;
 import org.knime.workbench.repository.model.IRepositoryObject;
 import org.knime.workbench.repository.model.NodeTemplate;
 import org.knime.workbench.repository.model.Root;
+import org.w3c.dom.Element;
 
 /**
  * Creates a summary of the node descriptions of a all available KNIME nodes that can be browsed in a node
@@ -96,6 +107,10 @@ public class NodeDocuGenerator implements IApplication {
 
     private static final String PLUGIN_ARG = "-plugin";
 
+    private static final String THREADS_ARG = "-threads";
+
+    private static final String INCREMENTAL_ARG = "-incremental";
+
     private static void printUsage() {
         System.err.println("Usage: NodeDocuGenerator options");
         System.err.println("Allowed options are:");
@@ -105,6 +120,10 @@ private static void printUsage() {
                 .println("\t-plugin plugin-id : Only nodes of the specified plugin will be considered. If not all available plugins will be processed.\n");
         System.err
                 .println("\t-category category-path (e.g. /community) : Only nodes within the specified category path will be considered. If not specified '/' is used.\n");
+        System.err.println("\t-threads n : number of threads rendering the node pages in parallel. If not specified "
+            + "the number of available processors is used.");
+        System.err.println("\t-incremental : only re-generate node pages whose description, plug-in version or "
+            + "stylesheets have changed since the last run into the same directory.");
 
     }
 
@@ -130,6 +149,16 @@ private static void printUsage() {
 
     private String m_catPath = "/";
 
+    private int m_threads = DocumentationManifest.DEFAULT_THREADS;
+
+    private boolean m_incremental;
+
+    private DocumentationManifest m_manifest;
+
+    private ExecutorService m_executor;
+
+    private final List<Future<?>> m_pendingPages = new ArrayList<>();
+
     /**
      * {@inheritDoc}
      */
@@ -146,6 +175,10 @@ public Object start(final IApplicationContext context) throws Exception {
                     m_catPath = args[i + 1];
                 } else if (args[i].equals(PLUGIN_ARG)) {
                     m_pluginId = args[i + 1];
+                } else if (args[i].equals(THREADS_ARG)) {
+                    m_threads = Math.max(1, Integer.parseInt(args[i + 1]));
+                } else if (args[i].equals(INCREMENTAL_ARG)) {
+                    m_incremental = true;
                 } else if (args[i].equals("-help")) {
                     printUsage();
                     return EXIT_OK;
@@ -193,9 +226,8 @@ private void generate() throws Exception {
         m_nodeRepository.setLength(0);
 
         // write css file
-        Writer css = createDocumentWriter("style.css", m_directory);
-        css.write(NodeFactoryHTMLCreator.instance.getCss());
-        css.close();
+        DocumentationManifest.writeIfChanged(new File(m_directory, "style.css"),
+            NodeFactoryHTMLCreator.instance.getCss());
 
         System.out.println("Reading node repository");
         IRepositoryObject root = RepositoryManager.INSTANCE.getRoot();
@@ -229,24 +261,59 @@ private void generate() throws Exception {
         }
         m_catPath = m_catPath.replaceAll("/", ".");
 
-        // recursively generate the node reference and the node description
-        // pages
-        generate(m_directory, root, null);
+        // the manifest is only kept by incremental runs, other runs remove an outdated one
+        if (m_incremental) {
+            m_manifest = DocumentationManifest.load(m_directory);
+        } else {
+            DocumentationManifest.delete(m_directory);
+        }
+        m_executor = Executors.newFixedThreadPool(m_threads, new ThreadFactory() {
+            private final AtomicInteger m_threadCreateCounter = new AtomicInteger();
+
+            @Override
+            public Thread newThread(final Runnable r) {
+                Thread t = new Thread(r, "Node Documentation Generator-" + m_threadCreateCounter.getAndIncrement());
+                t.setDaemon(true);
+                return t;
+            }
+        });
+        try {
+            // recursively generate the node reference; the node description pages are rendered by the worker pool
+            generate(m_directory, root, null);
+            waitForPendingPages();
+        } finally {
+            m_executor.shutdownNow();
+            m_pendingPages.clear();
+        }
+        if (m_incremental) {
+            m_manifest.save();
+        }
 
         // complete and write repository template
         String nodeRepo = m_nodeRepositoryTemplate.replace("[NODE_REPOSITORY]", m_nodeRepository.toString());
-        Writer out = createDocumentWriter("node_repository.html", m_directory);
-        out.write(nodeRepo);
-        out.close();
+        DocumentationManifest.writeIfChanged(new File(m_directory, "node_repository.html"), nodeRepo);
 
         String header = readFile(HEADER_TEMPLATE);
         header =
                 header.replace("[KNIME_VERSION]", KNIMEConstants.MAJOR + "." + KNIMEConstants.MINOR + "."
                         + KNIMEConstants.REV);
-        out = createDocumentWriter("header.html", m_directory);
-        out.write(header);
-        out.close();
+        DocumentationManifest.writeIfChanged(new File(m_directory, "header.html"), header);
+    }
 
+    /*
+     * Waits until all node pages have been written and rethrows the first failure.
+     */
+    private void waitForPendingPages() throws Exception {
+        for (Future<?> f : m_pendingPages) {
+            try {
+                f.get();
+            } catch (ExecutionException ex) {
+                if (ex.getCause() instanceof Exception) {
+                    throw (Exception)ex.getCause();
+                }
+                throw ex;
+            }
+        }
     }
 
     /**
@@ -297,11 +364,10 @@ private boolean generate(final File directory, final IRepositoryObject current,
 
             String nodeIdentifier = cleanNodeIdForFileName((NodeTemplate)current);//((NodeTemplate)current).getID();
 
-            // write icon to disc
-            URL iconURL = ((NodeTemplate)current).createFactoryInstance().getIcon();
+            NodeFactory<? extends NodeModel> factory = ((NodeTemplate)current).createFactoryInstance();
+            URL iconURL = factory.getIcon();
             String nodeIcon;
             if (iconURL != null) {
-                writeStreamToFile(iconURL.openStream(), nodeIdentifier + ".png");
                 nodeIcon = nodeIdentifier + ".png";
             } else {
                 nodeIcon = "knime_default_icon.png";
@@ -319,18 +385,11 @@ private boolean generate(final File directory, final IRepositoryObject current,
             // create page with node description and return, as no more
             // children
             // are available
-            Writer nodeDoc = createDocumentWriter(cleanNodeIdForFileName((NodeTemplate)current) + ".html", directory);
-            String nodeDescription =
-                    NodeFactoryHTMLCreator.instance.readFullDescription(((NodeTemplate)current).createFactoryInstance()
-                            .getXMLDescription());
-            // extract the body of the node description html-document
-            nodeDescription =
-                    nodeDescription
-                            .substring(nodeDescription.indexOf("<body>") + 6, nodeDescription.indexOf("</body>"));
-            nodeDescription = m_nodeDescriptionTemplate.replace("[NODE_DESCRIPTION]", nodeDescription);
-            nodeDoc.write(nodeDescription);
-            nodeDoc.flush();
-            nodeDoc.close();
+            String contributingPlugin = current.getContributingPlugin();
+            m_pendingPages.add(m_executor.submit(() -> {
+                writeNodePage(directory, nodeIdentifier, contributingPlugin, factory, iconURL);
+                return null;
+            }));
 
             return true;
         } else if (current instanceof Category || current instanceof Root) {
@@ -383,6 +442,42 @@ private boolean generate(final File directory, final IRepositoryObject current,
 
     }
 
+    /*
+     * Writes the icon and the description page of a single node unless they are unchanged since the last
+     * incremental run. Called by the worker pool.
+     */
+    private void writeNodePage(final File directory, final String nodeIdentifier, final String contributingPlugin,
+        final NodeFactory<? extends NodeModel> factory, final URL iconURL) throws Exception {
+        Element xmlDescription = factory.getXMLDescription();
+        String pageName = nodeIdentifier + ".html";
+        String hash = null;
+        if (m_incremental) {
+            hash = DocumentationManifest.computeHash(xmlDescription, contributingPlugin);
+            if (m_manifest.isUpToDate(pageName, hash)
+                && ((iconURL == null) || new File(directory, nodeIdentifier + ".png").isFile())) {
+                return;
+            }
+        }
+
+        // write icon to disc
+        if (iconURL != null) {
+            writeStreamToFile(iconURL.openStream(), nodeIdentifier + ".png");
+        }
+
+        // not cached, the cache is meant for the descriptions shown interactively
+        String nodeDescription = NodeFactoryHTMLCreator.instance.readFullDescription(xmlDescription);
+        // extract the body of the node description html-document
+        nodeDescription =
+                nodeDescription.substring(nodeDescription.indexOf("<body>") + 6, nodeDescription.indexOf("</body>"));
+        nodeDescription = m_nodeDescriptionTemplate.replace("[NODE_DESCRIPTION]", nodeDescription);
+        try (Writer nodeDoc = createDocumentWriter(pageName, directory)) {
+            nodeDoc.write(nodeDescription);
+        }
+        if (hash != null) {
+            m_manifest.put(pageName, hash);
+        }
+    }
+
     /*
      * Helper to compose the category names/identifier of the super-categories
      * and the current one
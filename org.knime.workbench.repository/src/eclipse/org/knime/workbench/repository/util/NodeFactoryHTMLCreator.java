@@ -54,13 +54,18 @@
 import java.io.InputStreamReader;
 import java.io.StringWriter;
 import java.nio.charset.Charset;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Templates;
 import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerConfigurationException;
 import javax.xml.transform.TransformerException;
 import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.dom.DOMSource;
@@ -69,10 +74,13 @@
 
 import org.knime.core.node.NodeLogger;
 import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
 import org.w3c.dom.Node;
 
 /**
  * Loads an transformer and transforms the XML description of a node (which is passed as a DOM element into HTML.
+ * The compiled stylesheets are shared, each thread uses its own transformers, and the most recently rendered
+ * descriptions are cached. All methods may be called concurrently.
  *
  * @author Fabian Dill, University of Konstanz
  */
@@ -83,7 +91,35 @@ public final class NodeFactoryHTMLCreator {
 
     private static final String HOWTO_FILE = "node_description_howto.html";
 
-    private Map<String, Transformer> m_transformers = new HashMap<String, Transformer>();
+    /** Maximum number of rendered descriptions kept in {@link #m_htmlCache}. */
+    private static final int HTML_CACHE_SIZE = 100;
+
+    /** compiled stylesheets by stylesheet file name */
+    private final Map<String, Templates> m_templates = new ConcurrentHashMap<>();
+
+    /** transformers are not thread-safe, therefore each thread gets its own, by stylesheet file name */
+    private final ThreadLocal<Map<String, Transformer>> m_transformers = ThreadLocal.withInitial(HashMap::new);
+
+    /** rendered descriptions by node ID, least recently used first */
+    private final Map<String, CachedDescription> m_htmlCache =
+        Collections.synchronizedMap(new LinkedHashMap<String, CachedDescription>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, CachedDescription> eldest) {
+                return size() > HTML_CACHE_SIZE;
+            }
+        });
+
+    /** A rendered description together with the hash of the XML description it was rendered from. */
+    private static final class CachedDescription {
+        private final long m_hash;
+
+        private final String m_html;
+
+        CachedDescription(final long hash, final String html) {
+            m_hash = hash;
+            m_html = html;
+        }
+    }
 
     private static final Pattern NAMESPACE_PATTERN = Pattern.compile("http://knime.org/(.*)node(?:2012|/v(\\d+\\.\\d+))");
 
@@ -127,47 +163,143 @@ private NodeFactoryHTMLCreator() throws IOException {
      * @throws TransformerException if an error happens during the XML->HTML transformation
      */
     public String readFullDescription(final Element knimeNode) throws FileNotFoundException, TransformerException {
+        return readFullDescription(null, knimeNode);
+    }
+
+    /**
+     * Transforms the description of the given node into HTML. The result is cached by node ID together with a hash of
+     * the description, so showing the description of the same node again does not need another transformation.
+     * Bulk generators should use {@link #readFullDescription(Element)} instead, so that they don't evict the
+     * descriptions shown interactively.
+     *
+     * @param nodeId the ID of the node (e.g. its template's ID), may be <code>null</code> in which case the
+     *            description is transformed without caching it
+     * @param knimeNode DOM tree root of node factory XML description.
+     * @return the full description as HTML
+     *
+     * @throws FileNotFoundException if the stylesheet for the node cannot found found
+     * @throws TransformerException if an error happens during the XML->HTML transformation
+     * @since 4.4
+     */
+    public String readFullDescription(final String nodeId, final Element knimeNode)
+        throws FileNotFoundException, TransformerException {
         if (knimeNode == null) {
             return getXMLDescriptionHowTo();
         }
 
-        String namespaceUri = knimeNode.getNamespaceURI();
-        Transformer transformer = m_transformers.get(namespaceUri);
-        if (transformer == null) {
-            Matcher matcher = NAMESPACE_PATTERN.matcher(namespaceUri);
-            if (!matcher.matches()) {
-                throw new IllegalArgumentException("Unsupported namespace for knime node: " + namespaceUri);
-            }
-            final String version;
-            if (matcher.group(2) != null) {
-                version = matcher.group(2);
-            } else {
-                version = "2.7";
-            }
-            String nodeType = matcher.group(1);
-            if (nodeType != null && nodeType.length() > 0) {
-                nodeType = "_" + nodeType;
-            } else {
-                nodeType = "";
-            }
-            String styleFile = "FullNodeDescription" + nodeType + "_v" + version + ".xslt";
+        if (nodeId == null) {
+            // the hash alone doesn't identify a description reliably enough to share the cache entry
+            return transform(knimeNode);
+        }
+        long hash = hash(knimeNode);
+        CachedDescription cached = m_htmlCache.get(nodeId);
+        if ((cached == null) || (cached.m_hash != hash)) {
+            cached = new CachedDescription(hash, transform(knimeNode));
+            m_htmlCache.put(nodeId, cached);
+        }
+        return cached.m_html;
+    }
 
-            InputStream is = getClass().getResourceAsStream(styleFile);
-            if (is == null) {
-                throw new FileNotFoundException("Could not find stylesheet '" + styleFile + "'");
-            }
-            StreamSource stylesheet = new StreamSource(is);
-            transformer = TransformerFactory.newInstance().newTemplates(stylesheet).newTransformer();
+    /**
+     * Returns the description of the given node as it was last rendered by
+     * {@link #readFullDescription(String, Element)}, without needing the node's XML description (and hence its
+     * factory).
+     *
+     * @param nodeId the ID of the node (e.g. its template's ID)
+     * @return the full description as HTML, or <code>null</code> if it isn't cached
+     * @since 4.4
+     */
+    public String getCachedFullDescription(final String nodeId) {
+        CachedDescription cached = m_htmlCache.get(nodeId);
+        return (cached == null) ? null : cached.m_html;
+    }
+
+    private String transform(final Element knimeNode) throws FileNotFoundException, TransformerException {
+        StreamResult result = new StreamResult(new StringWriter());
+        DOMSource source = new DOMSource(knimeNode);
+        getTransformer(knimeNode.getNamespaceURI()).transform(source, result);
+        return result.getWriter().toString();
+    }
+
+    /**
+     * Returns the calling thread's transformer for descriptions in the given namespace.
+     */
+    private Transformer getTransformer(final String namespaceUri)
+        throws FileNotFoundException, TransformerConfigurationException {
+        String styleFile = getStyleFile(namespaceUri);
+        Map<String, Transformer> transformers = m_transformers.get();
+        Transformer transformer = transformers.get(styleFile);
+        if (transformer == null) {
+            transformer = getTemplates(styleFile).newTransformer();
             transformer.setParameter("css", m_css);
             transformer.setOutputProperty(OutputKeys.METHOD, "xml");
             transformer.setOutputProperty(OutputKeys.INDENT, "yes");
-            m_transformers.put(namespaceUri, transformer);
+            transformers.put(styleFile, transformer);
         }
+        return transformer;
+    }
 
-        StreamResult result = new StreamResult(new StringWriter());
-        DOMSource source = new DOMSource(knimeNode);
-        transformer.transform(source, result);
-        return result.getWriter().toString();
+    private Templates getTemplates(final String styleFile)
+        throws FileNotFoundException, TransformerConfigurationException {
+        Templates templates = m_templates.get(styleFile);
+        if (templates == null) {
+            // compiling the same stylesheet twice in a race is harmless, the result is the same
+            try (InputStream is = getClass().getResourceAsStream(styleFile)) {
+                if (is == null) {
+                    throw new FileNotFoundException("Could not find stylesheet '" + styleFile + "'");
+                }
+                templates = TransformerFactory.newInstance().newTemplates(new StreamSource(is));
+            } catch (FileNotFoundException ex) {
+                throw ex;
+            } catch (IOException ex) {
+                // only thrown when closing the stream, the stylesheet has been compiled already
+                LOGGER.debug("Could not close stylesheet '" + styleFile + "': " + ex.getMessage(), ex);
+            }
+            m_templates.put(styleFile, templates);
+        }
+        return templates;
+    }
+
+    private static String getStyleFile(final String namespaceUri) {
+        Matcher matcher = NAMESPACE_PATTERN.matcher(String.valueOf(namespaceUri));
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Unsupported namespace for knime node: " + namespaceUri);
+        }
+        final String version;
+        if (matcher.group(2) != null) {
+            version = matcher.group(2);
+        } else {
+            version = "2.7";
+        }
+        String nodeType = matcher.group(1);
+        if (nodeType != null && nodeType.length() > 0) {
+            nodeType = "_" + nodeType;
+        } else {
+            nodeType = "";
+        }
+        return "FullNodeDescription" + nodeType + "_v" + version + ".xslt";
+    }
+
+    /**
+     * Computes a hash over the names, attributes and texts of the given DOM subtree. This is considerably cheaper
+     * than serializing the tree.
+     */
+    private static long hash(final Node node) {
+        long h = 1125899906842597L;
+        h = 31 * h + String.valueOf(node.getNamespaceURI()).hashCode();
+        h = 31 * h + node.getNodeType();
+        h = 31 * h + String.valueOf(node.getNodeName()).hashCode();
+        h = 31 * h + String.valueOf(node.getNodeValue()).hashCode();
+        NamedNodeMap attributes = node.getAttributes();
+        if (attributes != null) {
+            for (int i = 0; i < attributes.getLength(); i++) {
+                h = 31 * h + hash(attributes.item(i));
+            }
+        }
+        for (Node child = node.getFirstChild(); child != null; child = child.getNextSibling()) {
+            h = 31 * h + hash(child);
+        }
+        return h;
     }
 
     private String getXMLDescriptionHowTo() {
@@ -173,6 +173,9 @@ public abstract class AbstractRepositoryView extends ViewPart implements Reposit
     /* fuzzy text filter combined with 'additional info' filter (e.g. streaming) */
     private AdditionalInfoViewFilter m_fuzzyTextInfoFilter;
 
+    /* the fuzzy text filter wrapped by m_fuzzyTextInfoFilter, holds the bi-gram index over the repository */
+    private TanimotoTextualViewFilter m_fuzzyFilter;
+
     private Composite m_obscureLayer;
     private Label m_obscureLayerLabel;
     private Color m_partiallyObscuredFill;
@@ -413,6 +416,8 @@ protected void readRepository(final Composite parent, final IProgressMonitor mon
         Root repository = RepositoryManager.INSTANCE.getRoot(monitor);
 
         updateRepositoryView(repository);
+        // build the fuzzy search index here, in the loading job, rather than on the first key stroke
+        m_fuzzyFilter.indexRepository(repository);
 
         Display.getDefault().asyncExec(new Runnable() {
             @Override
@@ -614,6 +619,7 @@ private void initializeFilters() {
 
         //fuzzy text filter
         final TanimotoTextualViewFilter fuzzyFilter = new TanimotoTextualViewFilter();
+        m_fuzzyFilter = fuzzyFilter;
 
         //text filter combined with 'additional info' filter (e.g. streaming)
         m_textInfoFilter = new AdditionalInfoViewFilter(textFilter, KEY_INFO_STREAMABLE);
@@ -622,6 +628,12 @@ private void initializeFilters() {
         m_fuzzyTextInfoFilter = new AdditionalInfoViewFilter(fuzzyFilter, KEY_INFO_STREAMABLE);
     }
 
+    /* discards the visibility the filters have computed for the current repository tree */
+    private void invalidateFilters() {
+        m_textInfoFilter.invalidate();
+        m_fuzzyTextInfoFilter.invalidate();
+    }
+
     /* called whenever the search query changes (no matter in what search mode, i.e. fuzzy or text) */
     private void onSearchQueryChanged() {
         if (m_fuzzySearchButton.isChecked()) {
@@ -748,6 +760,8 @@ protected IStatus run(final IProgressMonitor monitor) {
                         @Override
                         public void run() {
                             if (!m_viewer.getControl().isDisposed()) {
+                                //the nodes' additional infos have changed
+                                invalidateFilters();
                                 //update view
                                 TreeViewerUpdater.update(m_viewer, true, false);
                             }
@@ -857,6 +871,8 @@ public void run() {
                     final String message = "Loading node repository... " + m_nodeCounter + " nodes found";
 
                     m_viewer.getControl().setToolTipText(message);
+                    // the tree has grown, the filters' visibility must be re-evaluated
+                    invalidateFilters();
                     if (m_viewer.getInput() != transformedRepository) {
                         m_viewer.setInput(transformedRepository);
                     } else {
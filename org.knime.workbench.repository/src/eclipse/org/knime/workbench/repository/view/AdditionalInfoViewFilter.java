@@ -67,6 +67,8 @@ class AdditionalInfoViewFilter extends ViewerFilter{
     private boolean m_doFilter;
     private TextualViewFilter m_delegate;
     private String[] m_additionalInfoKeys;
+    private final RepositoryVisibility.Cache m_visibility =
+        new RepositoryVisibility.Cache(this::matchesWithAdditionalInfo, false);
 
     /**
      * @param delegate another filter that is to be used before
@@ -85,6 +87,14 @@ public AdditionalInfoViewFilter(final TextualViewFilter delegate, final String..
     @Override
     public boolean select(final Viewer viewer, final Object parentElement, final Object element) {
         if (m_doFilter) {
+            if ((viewer != null) && (viewer.getInput() instanceof Root)) {
+                RepositoryVisibility visibility =
+                    m_visibility.get((Root)viewer.getInput(), m_delegate.getQueryString());
+                Boolean visible = visibility.select(parentElement, element);
+                if (visible != null) {
+                    return visible;
+                }
+            }
             if (element instanceof AbstractNodeTemplate) {
                 AbstractNodeTemplate nT = (AbstractNodeTemplate)element;
                 for (String key : m_additionalInfoKeys) {
@@ -95,7 +105,7 @@ public boolean select(final Viewer viewer, final Object parentElement, final Obj
 
                 //additional infos are present, check the textual delegate filter
                 if (m_delegate.hasNonEmptyQuery()) {
-                    return m_delegate.match(nT.getName());
+                    return m_delegate.match(nT.getName()) || m_delegate.matchesDescription(nT);
                 } else {
                     return true;
                 }
@@ -125,8 +135,32 @@ public boolean select(final Viewer viewer, final Object parentElement, final Obj
         }
     }
 
+    /* whether a single object is to be shown, not taking its children into account */
+    private boolean matchesWithAdditionalInfo(final IRepositoryObject object) {
+        if (!(object instanceof AbstractNodeTemplate)) {
+            return false;
+        }
+        AbstractNodeTemplate nT = (AbstractNodeTemplate)object;
+        for (String key : m_additionalInfoKeys) {
+            if (nT.getAdditionalInfo(key) == null) {
+                return false;
+            }
+        }
+        return !m_delegate.hasNonEmptyQuery() || m_delegate.match(nT.getName()) || m_delegate.matchesDescription(nT);
+    }
+
     public void setDoFilter(final boolean doFilter) {
         m_doFilter = doFilter;
+        m_visibility.invalidate();
+    }
+
+    /**
+     * Discards the visibility computed for the current tree (of this filter and its delegate), needs to be called
+     * whenever the tree or the additional information of its nodes has changed.
+     */
+    void invalidate() {
+        m_visibility.invalidate();
+        m_delegate.invalidate();
     }
 
     /**
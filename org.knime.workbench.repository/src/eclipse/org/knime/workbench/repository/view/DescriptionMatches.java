@@ -0,0 +1,141 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.workbench.repository.view;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.knime.workbench.repository.NodeDescriptionIndex;
+import org.knime.workbench.repository.RepositoryManager;
+import org.knime.workbench.repository.model.IRepositoryObject;
+import org.knime.workbench.repository.model.NodeTemplate;
+
+/**
+ * The nodes whose descriptions match a search query, as found by the repository's {@link NodeDescriptionIndex}. Used
+ * by the repository view filters to show nodes that do not match the query by name but by their description, port
+ * names, option labels or keywords.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class DescriptionMatches {
+    /** No matches at all, e.g. because the repository has not been read yet. */
+    static final DescriptionMatches NONE = new DescriptionMatches(null, null, Collections.emptyList());
+
+    /** Upper bound for the number of description matches per query. */
+    private static final int MAX_MATCHES = 200;
+
+    /**
+     * The result of the last search. The filters search again whenever the tree changes, which mostly happens with an
+     * unchanged query and index.
+     */
+    private static volatile DescriptionMatches lastMatches = NONE;
+
+    private final String m_query;
+
+    private final NodeDescriptionIndex m_index;
+
+    private final Map<String, Integer> m_ranksById = new HashMap<>();
+
+    private final Map<String, Integer> m_ranksByName = new HashMap<>();
+
+    private DescriptionMatches(final String query, final NodeDescriptionIndex index, final List<String> nodeIds) {
+        m_query = query;
+        m_index = index;
+        for (int i = 0; i < nodeIds.size(); i++) {
+            m_ranksById.put(nodeIds.get(i), i);
+        }
+    }
+
+    /**
+     * Searches the node descriptions for the given query. Returns {@link #NONE} if the query is empty or the
+     * description index is not available (yet). The result of the previous call is returned again if neither the
+     * query nor the index have changed since.
+     *
+     * @param query the search query
+     * @return the matches, never <code>null</code>
+     */
+    static DescriptionMatches forQuery(final String query) {
+        if ((query == null) || query.trim().isEmpty()) {
+            return NONE;
+        }
+        RepositoryManager manager = RepositoryManager.INSTANCE;
+        return manager.getNodeDescriptionIndex().map(index -> {
+            DescriptionMatches last = lastMatches;
+            if ((last.m_index == index) && query.equals(last.m_query)) {
+                return last;
+            }
+            DescriptionMatches matches = new DescriptionMatches(query, index, index.search(query, MAX_MATCHES));
+            // the index is only available after the templates are, hence this lookup does not block
+            matches.m_ranksById.forEach((id, rank) -> {
+                NodeTemplate template = manager.getNodeTemplate(id);
+                if (template != null) {
+                    matches.m_ranksByName.merge(template.getName(), rank, Math::min);
+                }
+            });
+            lastMatches = matches;
+            return matches;
+        }).orElse(NONE);
+    }
+
+    /**
+     * @param object any repository object
+     * @return <code>true</code> if the object is a node whose description matches, <code>false</code> otherwise
+     */
+    boolean contains(final IRepositoryObject object) {
+        return (object instanceof NodeTemplate) && m_ranksById.containsKey(((NodeTemplate)object).getID());
+    }
+
+    /**
+     * Returns the rank of the best matching node with the given name.
+     *
+     * @param name a node name
+     * @return the rank, the best match has rank 0; {@link Integer#MAX_VALUE} if there is no such node
+     */
+    int getRank(final String name) {
+        return m_ranksByName.getOrDefault(name, Integer.MAX_VALUE);
+    }
+}
@@ -59,7 +59,6 @@
  * @author Florian Georg, University of Konstanz
  */
 public class RepositoryViewFilter extends TextualViewFilter {
-
     /**
      *  An element is selected if itself, a parent or a
      * child contains the query string in its name.
@@ -0,0 +1,197 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.workbench.repository.view;
+
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+import org.knime.workbench.repository.model.AbstractNodeTemplate;
+import org.knime.workbench.repository.model.Category;
+import org.knime.workbench.repository.model.IContainerObject;
+import org.knime.workbench.repository.model.IRepositoryObject;
+import org.knime.workbench.repository.model.MetaNodeTemplate;
+import org.knime.workbench.repository.model.Root;
+
+/**
+ * Visibility of all objects in a repository tree for a given filter, computed in a single pass over the tree. Viewer
+ * filters ask JFace's <code>select</code> for each element separately; evaluating the filter recursively in there
+ * visits every subtree once per category and every path to the root once per node. Instead the filters evaluate the
+ * whole tree once per query and then only look up the pre-computed bits.
+ *
+ * <p>
+ * An object is visible if it matches itself, or, for nodes, if one of its ancestor categories matches (if enabled),
+ * or, for categories, if any of its children is visible.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class RepositoryVisibility {
+    private final Map<Object, Integer> m_ids = new IdentityHashMap<>();
+
+    private final BitSet m_matches = new BitSet();
+
+    private final BitSet m_visible = new BitSet();
+
+    private RepositoryVisibility(final Root root, final Predicate<IRepositoryObject> matcher,
+        final boolean inheritFromAncestors) {
+        for (IRepositoryObject child : root.getChildren()) {
+            evaluate(child, matcher, inheritFromAncestors, false);
+        }
+    }
+
+    private boolean evaluate(final IRepositoryObject object, final Predicate<IRepositoryObject> matcher,
+        final boolean inheritFromAncestors, final boolean ancestorMatches) {
+        int id = m_ids.size();
+        m_ids.put(object, id);
+        boolean matches = matcher.test(object);
+        boolean visible = matches;
+        if (object instanceof IContainerObject) {
+            boolean childAncestorMatches = ancestorMatches || matches;
+            for (IRepositoryObject child : ((IContainerObject)object).getChildren()) {
+                // no short-cut, all children need to be evaluated
+                visible |= evaluate(child, matcher, inheritFromAncestors, childAncestorMatches);
+            }
+        } else {
+            visible |= inheritFromAncestors && ancestorMatches;
+        }
+        m_matches.set(id, matches);
+        m_visible.set(id, visible);
+        return visible;
+    }
+
+    /**
+     * Looks up whether the given element is to be shown.
+     *
+     * @param parentElement the parent element as passed by the viewer
+     * @param element the element in question
+     * @return <code>true</code> or <code>false</code>, or <code>null</code> if the element was not part of the
+     *         evaluated tree (e.g. because it has been added afterwards)
+     */
+    Boolean select(final Object parentElement, final Object element) {
+        Integer id = m_ids.get(element);
+        if (id == null) {
+            return null;
+        }
+        if ((parentElement instanceof Root) && !(element instanceof IContainerObject)) {
+            // top-level node or flat list of nodes, ancestor categories must not be taken into account
+            return m_matches.get(id);
+        }
+        return m_visible.get(id);
+    }
+
+    /**
+     * Checks the name of the given object (node, metanode or category) with the given string matcher.
+     *
+     * @param object any repository object
+     * @param nameMatcher the matcher for names
+     * @return <code>true</code> if the object's name matches, <code>false</code> otherwise
+     */
+    static boolean matchesName(final IRepositoryObject object, final Predicate<String> nameMatcher) {
+        if (object instanceof AbstractNodeTemplate) {
+            boolean matches = nameMatcher.test(((AbstractNodeTemplate)object).getName());
+            if (object instanceof MetaNodeTemplate) {
+                // with meta nodes also check the name of the workflow manager
+                matches |= nameMatcher.test(((MetaNodeTemplate)object).getManager().getName());
+            }
+            return matches;
+        } else if (object instanceof Category) {
+            return nameMatcher.test(((Category)object).getName());
+        } else {
+            return false;
+        }
+    }
+
+    /**
+     * Keeps the visibility for the most recent root and query and re-evaluates it only if one of them changes or if
+     * it has been invalidated explicitly.
+     */
+    static final class Cache {
+        private final Predicate<IRepositoryObject> m_matcher;
+
+        private final boolean m_inheritFromAncestors;
+
+        private volatile Root m_root;
+
+        private volatile String m_query;
+
+        private volatile RepositoryVisibility m_visibility;
+
+        /**
+         * @param matcher decides whether an object matches by itself
+         * @param inheritFromAncestors whether nodes are visible if one of their ancestor categories matches
+         */
+        Cache(final Predicate<IRepositoryObject> matcher, final boolean inheritFromAncestors) {
+            m_matcher = matcher;
+            m_inheritFromAncestors = inheritFromAncestors;
+        }
+
+        /**
+         * Returns the visibility of the objects in the given tree, evaluating it if necessary.
+         *
+         * @param root the tree's root
+         * @param query the query the matcher currently uses
+         * @return the visibility, never <code>null</code>
+         */
+        RepositoryVisibility get(final Root root, final String query) {
+            RepositoryVisibility visibility = m_visibility;
+            if ((visibility == null) || (m_root != root) || !Objects.equals(m_query, query)) {
+                visibility = new RepositoryVisibility(root, m_matcher, m_inheritFromAncestors);
+                m_root = root;
+                m_query = query;
+                m_visibility = visibility;
+            }
+            return visibility;
+        }
+
+        /**
+         * Discards the current visibility, e.g. after the tree has changed.
+         */
+        void invalidate() {
+            m_visibility = null;
+        }
+    }
+}
@@ -188,7 +188,7 @@ public void focusGained(final FocusEvent fe) {
             });
         }
 
-        m_text.setToolTipText("Filter contents");
+        m_text.setToolTipText("Filter contents by node name, description, ports, options and keywords");
 
         return m_text;
     }
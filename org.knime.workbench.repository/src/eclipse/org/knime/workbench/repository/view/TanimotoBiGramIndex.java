@@ -0,0 +1,270 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.workbench.repository.view;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Inverted bi-gram index over a fixed set of names (e.g. all node and category names of the repository). Each name is
+ * represented by the sorted set of its upper-case bi-grams, where a bi-gram is encoded into a single <code>int</code>
+ * (first character in the upper, second character in the lower 16 bits). For a query the Tanimoto bi-gram distance to
+ * all names is computed at once by walking the posting lists of the query's bi-grams.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class TanimotoBiGramIndex {
+    private final Map<String, Integer> m_nameIds;
+
+    private final String[] m_upperCaseNames;
+
+    /** number of distinct bi-grams per name */
+    private final int[] m_gramCounts;
+
+    /** all distinct bi-grams in ascending order */
+    private final int[] m_grams;
+
+    /** for each bi-gram in {@link #m_grams}, the IDs of the names containing it */
+    private final int[][] m_postings;
+
+    /**
+     * Creates a new index over the given names. Duplicates and <code>null</code>s are ignored.
+     *
+     * @param names the names to index
+     */
+    TanimotoBiGramIndex(final Collection<String> names) {
+        LinkedHashSet<String> uniqueNames = new LinkedHashSet<>(names);
+        uniqueNames.remove(null);
+
+        m_nameIds = new HashMap<>(uniqueNames.size() * 2);
+        m_upperCaseNames = new String[uniqueNames.size()];
+        m_gramCounts = new int[uniqueNames.size()];
+
+        Map<Integer, List<Integer>> postings = new HashMap<>();
+        int id = 0;
+        for (String name : uniqueNames) {
+            m_nameIds.put(name, id);
+            m_upperCaseNames[id] = name.toUpperCase();
+            int[] grams = biGrams(m_upperCaseNames[id]);
+            m_gramCounts[id] = grams.length;
+            for (int g : grams) {
+                postings.computeIfAbsent(g, k -> new ArrayList<>()).add(id);
+            }
+            id++;
+        }
+
+        m_grams = new int[postings.size()];
+        int i = 0;
+        for (Integer g : postings.keySet()) {
+            m_grams[i++] = g;
+        }
+        Arrays.sort(m_grams);
+        m_postings = new int[m_grams.length][];
+        for (i = 0; i < m_grams.length; i++) {
+            List<Integer> ids = postings.get(m_grams[i]);
+            int[] p = new int[ids.size()];
+            for (int j = 0; j < p.length; j++) {
+                p[j] = ids.get(j);
+            }
+            m_postings[i] = p;
+        }
+    }
+
+    /**
+     * Computes the Tanimoto bi-gram distances of all indexed names to the given query.
+     *
+     * @param upperCaseQuery the query, already in upper case
+     * @return the distances for the query
+     */
+    Query query(final String upperCaseQuery) {
+        int[] queryGrams = biGrams(upperCaseQuery);
+        int[] intersections = new int[m_upperCaseNames.length];
+        for (int g : queryGrams) {
+            int k = Arrays.binarySearch(m_grams, g);
+            if (k >= 0) {
+                for (int nameId : m_postings[k]) {
+                    intersections[nameId]++;
+                }
+            }
+        }
+
+        double[] distances = new double[m_upperCaseNames.length];
+        for (int nameId = 0; nameId < distances.length; nameId++) {
+            distances[nameId] = distance(intersections[nameId], m_gramCounts[nameId], queryGrams.length);
+        }
+        return new Query(upperCaseQuery, queryGrams.length, intersections, distances);
+    }
+
+    /**
+     * Result of a query against the index.
+     */
+    final class Query {
+        private final String m_upperCaseQuery;
+
+        private final int m_queryGramCount;
+
+        private final int[] m_intersections;
+
+        private final double[] m_distances;
+
+        private Query(final String upperCaseQuery, final int queryGramCount, final int[] intersections,
+            final double[] distances) {
+            m_upperCaseQuery = upperCaseQuery;
+            m_queryGramCount = queryGramCount;
+            m_intersections = intersections;
+            m_distances = distances;
+        }
+
+        /**
+         * @return the index this query was evaluated against
+         */
+        TanimotoBiGramIndex getIndex() {
+            return TanimotoBiGramIndex.this;
+        }
+
+        /**
+         * @return the upper-case query string
+         */
+        String getUpperCaseQuery() {
+            return m_upperCaseQuery;
+        }
+
+        /**
+         * Returns the Tanimoto bi-gram distance between the query and the given name.
+         *
+         * @param name any name
+         * @return the distance or {@link Double#NaN} if the name is not indexed
+         */
+        double distance(final String name) {
+            Integer nameId = m_nameIds.get(name);
+            return (nameId == null) ? Double.NaN : m_distances[nameId];
+        }
+
+        /**
+         * Checks whether the given name contains the query (ignoring case) or whether its distance to the query is
+         * smaller than the given bound.
+         *
+         * @param name any name
+         * @param upperDistanceBound excluding upper bound for the distance
+         * @return <code>true</code> or <code>false</code> if the name matches or not, <code>null</code> if the name
+         *         is not indexed
+         */
+        Boolean matches(final String name, final double upperDistanceBound) {
+            Integer nameId = m_nameIds.get(name);
+            if (nameId == null) {
+                return null;
+            }
+            int id = nameId;
+            // a name can only contain the query if it contains all of its bi-grams
+            if ((m_queryGramCount == 0 || m_intersections[id] == m_queryGramCount)
+                && m_upperCaseNames[id].contains(m_upperCaseQuery)) {
+                return Boolean.TRUE;
+            }
+            return Boolean.valueOf(m_distances[id] < upperDistanceBound);
+        }
+    }
+
+    /**
+     * Computes the Tanimoto bi-gram distance between two strings without using an index.
+     *
+     * @param textA the first string
+     * @param textB the second string
+     * @return the distance between 0 and 1
+     */
+    static double distance(final String textA, final String textB) {
+        int[] gramsA = biGrams(textA.toUpperCase());
+        int[] gramsB = biGrams(textB.toUpperCase());
+        int intersection = 0;
+        int i = 0;
+        int j = 0;
+        while ((i < gramsA.length) && (j < gramsB.length)) {
+            if (gramsA[i] == gramsB[j]) {
+                intersection++;
+                i++;
+                j++;
+            } else if (gramsA[i] < gramsB[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return distance(intersection, gramsA.length, gramsB.length);
+    }
+
+    private static double distance(final int intersection, final int countA, final int countB) {
+        double denominator = countA + countB - intersection;
+        if (denominator > 0) {
+            return 1.0 - intersection / denominator;
+        } else {
+            return 1.0;
+        }
+    }
+
+    /**
+     * Returns the distinct bi-grams of the string, encoded as ints, in ascending order.
+     */
+    private static int[] biGrams(final String s) {
+        if (s.length() < 2) {
+            return new int[0];
+        }
+        int[] grams = new int[s.length() - 1];
+        for (int i = 0; i < grams.length; i++) {
+            grams[i] = (s.charAt(i) << 16) | s.charAt(i + 1);
+        }
+        Arrays.sort(grams);
+        int unique = 1;
+        for (int i = 1; i < grams.length; i++) {
+            if (grams[i] != grams[unique - 1]) {
+                grams[unique++] = grams[i];
+            }
+        }
+        return Arrays.copyOf(grams, unique);
+    }
+}
@@ -45,13 +45,15 @@
 
 package org.knime.workbench.repository.view;
 
+import java.util.ArrayList;
 import java.util.Comparator;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
-import org.eclipse.jface.viewers.Viewer;
 import org.knime.workbench.repository.model.AbstractNodeTemplate;
 import org.knime.workbench.repository.model.Category;
+import org.knime.workbench.repository.model.IContainerObject;
 import org.knime.workbench.repository.model.IRepositoryObject;
 import org.knime.workbench.repository.model.MetaNodeTemplate;
 import org.knime.workbench.repository.model.Root;
@@ -68,19 +70,10 @@ final class TanimotoTextualViewFilter extends TextualViewFilter {
      */
     private static final double UPPER_DISTANCE_BOUND = 0.85;
 
-    /**
-     * {@inheritDoc}
-     */
-    @Override
-    public boolean select(final Viewer viewer, final Object parentElement, final Object element) {
+    private volatile TanimotoBiGramIndex m_index;
 
-        // this means that the filter has been cleared
-        if (!hasNonEmptyQuery()) {
-            return true;
-        }
-        // call helper method
-        return doSelect(parentElement, element, true);
-    }
+    /** distances of all indexed names to the current query, computed once per query string */
+    private volatile TanimotoBiGramIndex.Query m_currentQuery;
 
     /**
      * Copied from {@link TextualViewFilter}.
@@ -138,74 +131,88 @@ protected boolean doSelect(final Object parentElement, final Object element, fin
     }
 
     /**
-     * @param test String to test
-     * @return <code>true</code> if the test is contained in the m_query String (ignoring case)
+     * Builds the bi-gram index over all names below the given repository object, i.e. node, metanode and category
+     * names. Names that are not part of the index are still matched, but distances are computed on the fly for them.
+     *
+     * @param root the repository root or <code>null</code> to drop the index
      */
-    @Override
-    protected boolean match(final String test) {
-        if (test == null) {
-            return false;
-        }
-        boolean contains = test.toUpperCase().contains(getQueryString());
-        if (!contains) {
-            return computeTanimotoBiGramDistance(test, getQueryString()) < UPPER_DISTANCE_BOUND;
+    void indexRepository(final IRepositoryObject root) {
+        if (root == null) {
+            m_index = null;
         } else {
-            return true;
+            List<String> names = new ArrayList<>();
+            collectNames(root, names);
+            m_index = new TanimotoBiGramIndex(names);
         }
+        m_currentQuery = null;
     }
 
+    private static void collectNames(final IRepositoryObject object, final List<String> names) {
+        if (object instanceof AbstractNodeTemplate) {
+            names.add(((AbstractNodeTemplate)object).getName());
+            if (object instanceof MetaNodeTemplate) {
+                names.add(((MetaNodeTemplate)object).getManager().getName());
+            }
+        } else if (object instanceof Category) {
+            names.add(((Category)object).getName());
+        }
+        if (object instanceof IContainerObject) {
+            for (IRepositoryObject child : ((IContainerObject)object).getChildren()) {
+                collectNames(child, names);
+            }
+        }
+    }
 
     /**
-     * Copied from the Tanimoto BiGram distance from the distmatrix package.
+     * {@inheritDoc}
      */
-    private static double computeTanimotoBiGramDistance(final String textA, final String textB) {
-
-        String a = textA.toUpperCase();
-        String b = textB.toUpperCase();
-
-        Set<String> gramsA = split(a, 2);
-        Set<String> gramsB = split(b, 2);
-
-        int nominator = cardinalityOfIntersection(gramsA, gramsB);
-        int inAButNotInB = cardinalityOfRelativeComplement(gramsA, gramsB);
-        int inBButNotInA = cardinalityOfRelativeComplement(gramsB, gramsA);
-
-        double denominator = nominator + inAButNotInB + inBButNotInA;
-
-        if (denominator > 0) {
-            return 1.0 - nominator / denominator;
-        } else {
-            return 1.0;
-        }
+    @Override
+    public void setQueryString(final String query) {
+        super.setQueryString(query);
+        m_currentQuery = null;
     }
 
-    private static int cardinalityOfIntersection(final Set<String> a, final Set<String> b) {
-        int toReturn = 0;
-        for (String gram : a) {
-            if (b.contains(gram)) {
-                toReturn++;
-            }
+    /**
+     * Returns the index query result for the current query string, computing it on first access.
+     *
+     * @return the query result or <code>null</code> if no index is available
+     */
+    private TanimotoBiGramIndex.Query currentQuery() {
+        TanimotoBiGramIndex index = m_index;
+        if ((index == null) || !hasNonEmptyQuery()) {
+            return null;
         }
-        return toReturn;
+        // read once, the viewer may call us from more than one thread
+        TanimotoBiGramIndex.Query query = m_currentQuery;
+        if ((query == null) || (query.getIndex() != index) || !query.getUpperCaseQuery().equals(getQueryString())) {
+            query = index.query(getQueryString());
+            m_currentQuery = query;
+        }
+        return query;
     }
 
-    private static int cardinalityOfRelativeComplement(final Set<String> a, final Set<String> b) {
-        int toReturn = 0;
-        for (String gram : a) {
-            if (!b.contains(gram)) {
-                toReturn++;
+    /**
+     * @param test String to test
+     * @return <code>true</code> if the test is contained in the m_query String (ignoring case)
+     */
+    @Override
+    protected boolean match(final String test) {
+        if (test == null) {
+            return false;
+        }
+        TanimotoBiGramIndex.Query query = currentQuery();
+        if (query != null) {
+            Boolean matches = query.matches(test, UPPER_DISTANCE_BOUND);
+            if (matches != null) {
+                return matches;
             }
         }
-        return toReturn;
-    }
-
-    private static Set<String> split(final String a, final int count) {
-        Set<String> toReturn = new HashSet<String>(a.length() > 1 ? a.length() - 1 : 12);
-
-        for (int i = 0; i < a.length() - count + 1; i++) {
-            toReturn.add(a.substring(i, i + count));
+        boolean contains = test.toUpperCase().contains(getQueryString());
+        if (!contains) {
+            return TanimotoBiGramIndex.distance(test, getQueryString()) < UPPER_DISTANCE_BOUND;
+        } else {
+            return true;
         }
-        return toReturn;
     }
 
     /**
@@ -218,14 +225,30 @@ public Comparator<String> createComparator() {
         // so i decided to use a thread safe implementation.
         if (hasNonEmptyQuery()) {
             final String currentQuery = getQueryString();
+            final TanimotoBiGramIndex.Query indexQuery = currentQuery();
+            // distances of strings that are not in the index (e.g. labels decorated by the viewer)
+            final Map<String, Double> otherDistances = new ConcurrentHashMap<>();
+            final DescriptionMatches descriptionMatches = getDescriptionMatches();
 
             return new Comparator<String>() {
+                private double distance(final String s) {
+                    if (indexQuery != null) {
+                        double d = indexQuery.distance(s);
+                        if (!Double.isNaN(d)) {
+                            return d;
+                        }
+                    }
+                    return otherDistances.computeIfAbsent(s, k -> TanimotoBiGramIndex.distance(currentQuery, k));
+                }
 
                 @Override
                 public int compare(final String o1, final String o2) {
-                    double computeTanimotoBiGramDistanceO1 = computeTanimotoBiGramDistance(currentQuery, o1);
-                    double computeTanimotoBiGramDistanceO2 = computeTanimotoBiGramDistance(currentQuery, o2);
-                    return Double.compare(computeTanimotoBiGramDistanceO1, computeTanimotoBiGramDistanceO2);
+                    int c = Double.compare(distance(o1), distance(o2));
+                    if (c == 0) {
+                        // nodes that only match by description are ordered by their relevance
+                        c = Integer.compare(descriptionMatches.getRank(o1), descriptionMatches.getRank(o2));
+                    }
+                    return c;
                 }
             };
 
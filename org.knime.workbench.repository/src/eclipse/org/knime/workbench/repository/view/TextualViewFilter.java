@@ -49,6 +49,8 @@
 
 import org.eclipse.jface.viewers.Viewer;
 import org.eclipse.jface.viewers.ViewerFilter;
+import org.knime.workbench.repository.model.IRepositoryObject;
+import org.knime.workbench.repository.model.Root;
 
 /**
  *
@@ -58,7 +60,16 @@
 public abstract class TextualViewFilter extends ViewerFilter {
     private String m_query;
 
+    private final RepositoryVisibility.Cache m_visibility = new RepositoryVisibility.Cache(
+        o -> RepositoryVisibility.matchesName(o, this::match) || matchesDescription(o), true);
+
+    /** the description matches of the current query, searched on first use; <code>null</code> until then */
+    private volatile DescriptionMatches m_descriptionMatches;
+
     /**
+     * Looks up the element in the visibility computed for the whole tree if the viewer shows a repository, and falls
+     * back to {@link #doSelect(Object, Object, boolean)} otherwise.
+     *
      * {@inheritDoc}
      */
     @Override
@@ -69,6 +80,13 @@ public boolean select(final Viewer viewer, final Object parentElement,
         if (!hasNonEmptyQuery()) {
             return true;
         }
+        if ((viewer != null) && (viewer.getInput() instanceof Root)) {
+            Boolean visible =
+                m_visibility.get((Root)viewer.getInput(), getQueryString()).select(parentElement, element);
+            if (visible != null) {
+                return visible;
+            }
+        }
         // call helper method
         return doSelect(parentElement, element, true);
     }
@@ -108,6 +126,7 @@ public void setQueryString(final String query) {
         } else {
             m_query = null;
         }
+        m_descriptionMatches = null;
     }
 
     /**
@@ -128,6 +147,38 @@ public boolean hasNonEmptyQuery() {
         return (m_query != null) && (m_query.length() > 0);
     }
 
+    /**
+     * Whether the object matches the current query by its description rather than its name, i.e. by the description
+     * index of the repository.
+     *
+     * @param object any repository object
+     * @return <code>true</code> if the object is a node whose description matches the query
+     */
+    boolean matchesDescription(final IRepositoryObject object) {
+        return getDescriptionMatches().contains(object);
+    }
+
+    /**
+     * @return the nodes whose description matches the current query, never <code>null</code>
+     */
+    DescriptionMatches getDescriptionMatches() {
+        DescriptionMatches matches = m_descriptionMatches;
+        if (matches == null) {
+            matches = DescriptionMatches.forQuery(m_query);
+            m_descriptionMatches = matches;
+        }
+        return matches;
+    }
+
+    /**
+     * Discards any selection state the filter has derived from the current tree, e.g. because the tree has changed.
+     */
+    void invalidate() {
+        // the description index may have become available in the meantime
+        m_descriptionMatches = null;
+        m_visibility.invalidate();
+    }
+
     /**
      * @return a comparator that determines the sorting of the items, <code>null</code> if no comparator should be used
      *         and the default sorting retained. The default implementation returns <code>null</code>.
@@ -0,0 +1,158 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.workbench.ui.favorites;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.ui.XMLMemento;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests the write-behind of {@link FavoriteNodesStore}.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class FavoriteNodesStoreTest {
+    private static final long SAVE_DELAY = 200;
+
+    /** Directory for the favorites file. */
+    @Rule
+    public TemporaryFolder m_tempFolder = new TemporaryFolder();
+
+    private final AtomicInteger m_writes = new AtomicInteger();
+
+    private File m_file;
+
+    private FavoriteNodesStore m_store;
+
+    /**
+     * Creates a store whose contents record how often they have been written.
+     */
+    @Before
+    public void createStore() {
+        m_file = new File(m_tempFolder.getRoot(), "favoriteNodes.xml");
+        m_store = new FavoriteNodesStore(m_file, () -> {
+            XMLMemento memento = XMLMemento.createWriteRoot("favoritenodes");
+            memento.putInteger("write", m_writes.incrementAndGet());
+            return memento;
+        }, SAVE_DELAY);
+    }
+
+    /**
+     * Checks that changes reported in short succession are written once, after the save delay.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testChangesAreCoalesced() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            m_store.changed();
+        }
+        assertThat("Written before the save delay", m_file.exists(), is(false));
+
+        waitForFile();
+        Thread.sleep(3 * SAVE_DELAY);
+        assertThat("Number of writes", m_writes.get(), is(1));
+        assertThat("Written contents", m_store.read().getInteger("write"), is(1));
+        assertThat("Temporary file left", new File(m_file.getParentFile(), m_file.getName() + ".tmp").exists(),
+            is(false));
+
+        m_store.changed();
+        waitForContents(2);
+        assertThat("Number of writes after second change", m_writes.get(), is(2));
+    }
+
+    /**
+     * Checks that flushing writes immediately and cancels the pending write.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testFlush() throws Exception {
+        m_store.changed();
+        m_store.flush();
+        assertThat("Written by flush", m_file.exists(), is(true));
+        assertThat("Number of writes after flush", m_writes.get(), is(1));
+
+        Thread.sleep(3 * SAVE_DELAY);
+        assertThat("Number of writes after the save delay", m_writes.get(), is(1));
+    }
+
+    /**
+     * Checks that reading a missing file returns <code>null</code>.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testReadMissingFile() throws Exception {
+        assertThat("Contents of missing file", m_store.read(), is(nullValue()));
+    }
+
+    private void waitForFile() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!m_file.exists() && (System.nanoTime() < deadline)) {
+            Thread.sleep(20);
+        }
+        assertThat("File written", m_file.exists(), is(true));
+    }
+
+    private void waitForContents(final int write) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while ((m_store.read().getInteger("write") < write) && (System.nanoTime() < deadline)) {
+            Thread.sleep(20);
+        }
+        assertThat("Written contents", m_store.read().getInteger("write"), is(write));
+    }
+}
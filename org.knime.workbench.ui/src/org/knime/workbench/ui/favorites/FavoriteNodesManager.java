@@ -48,21 +48,23 @@
 package org.knime.workbench.ui.favorites;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
-import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
-import java.io.Reader;
-import java.io.Writer;
-import java.nio.charset.Charset;
-
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.swt.widgets.Display;
 import org.eclipse.ui.IMemento;
 import org.eclipse.ui.XMLMemento;
 import org.knime.core.node.NodeLogger;
+import org.knime.core.util.KNIMEJob;
 import org.knime.workbench.core.util.ImageRepository;
 import org.knime.workbench.core.util.ImageRepository.SharedImages;
+import org.knime.workbench.repository.NodeUsageListener;
 import org.knime.workbench.repository.NodeUsageRegistry;
 import org.knime.workbench.repository.RepositoryManager;
 import org.knime.workbench.repository.model.AbstractRepositoryObject;
@@ -91,6 +93,17 @@ public final class FavoriteNodesManager {
 
     private Category m_lastNodes;
 
+    /**
+     * The ids of the personal favorites, taken whenever they change. The favorites are written on a background thread
+     * which must not iterate over the children of the category while they are being changed.
+     */
+    private volatile List<String> m_favoriteIds = Collections.emptyList();
+
+    private final FavoriteNodesStore m_store;
+
+    /** Completed once the saved favorites have been loaded, changes are only written afterwards. */
+    private final CompletableFuture<Void> m_loaded = new CompletableFuture<>();
+
     // loading and saving
     private static final String TAG_FAVORITES = "favoritenodes";
 
@@ -124,7 +137,25 @@ public static synchronized FavoriteNodesManager getInstance() {
     }
 
     private FavoriteNodesManager() {
+        m_store = new FavoriteNodesStore(getFavoriteNodesFile(), this::createMemento);
         createTreeModel();
+        NodeUsageRegistry.addNodeUsageListener(new NodeUsageListener() {
+            @Override
+            public void nodeAdded() {
+                changed();
+            }
+
+            @Override
+            public void usedHistoryChanged() {
+                changed();
+            }
+
+            @Override
+            public void frequentHistoryChanged() {
+                changed();
+            }
+        });
+        loadFavorites();
     }
 
     /**
@@ -168,8 +199,17 @@ private void createTreeModel() {
         m_lastNodes.setAfterID("freq");
         m_lastNodes.setSortChildren(false);
         m_root.addChild(m_lastNodes);
+    }
 
-        loadFavorites();
+    /**
+     * Returns a future that is completed once the saved favorites and the node usage history have been loaded. The
+     * categories of the tree model are empty until then. The future is completed in the UI thread, which is the only
+     * thread that changes the categories.
+     *
+     * @return a future
+     */
+    CompletableFuture<Void> whenLoaded() {
+        return m_loaded;
     }
 
     /**
@@ -177,7 +217,11 @@ private void createTreeModel() {
      * @param node adds this node to the favorite nodes category
      */
     public void addFavoriteNode(final NodeTemplate node) {
-        m_favNodes.addChild((NodeTemplate)node.deepCopy());
+        synchronized (m_favNodes) {
+            m_favNodes.addChild((NodeTemplate)node.deepCopy());
+            updateFavoriteIds();
+        }
+        changed();
     }
 
     /**
@@ -185,7 +229,31 @@ public void addFavoriteNode(final NodeTemplate node) {
      * @param node removes this node from the favorites
      */
     public void removeFavoriteNode(final NodeTemplate node) {
-        m_favNodes.removeChild(node);
+        synchronized (m_favNodes) {
+            m_favNodes.removeChild(node);
+            updateFavoriteIds();
+        }
+        changed();
+    }
+
+    /** Must be called while holding the lock on {@link #m_favNodes}. */
+    private void updateFavoriteIds() {
+        IRepositoryObject[] children = m_favNodes.getChildren();
+        List<String> ids = new ArrayList<>(children.length);
+        for (IRepositoryObject reposObj : children) {
+            ids.add(((NodeTemplate)reposObj).getID());
+        }
+        m_favoriteIds = Collections.unmodifiableList(ids);
+    }
+
+    /**
+     * Writes the favorites once the changes have settled, but not before they have been loaded (otherwise the saved
+     * history would be lost).
+     */
+    private void changed() {
+        if (m_loaded.isDone()) {
+            m_store.changed();
+        }
     }
 
     /**
@@ -215,34 +283,27 @@ public void updateFrequentUsedNodes() {
     }
 
     /**
-     * Saves the ids of the favorite nodes to the state location of the plugin.
+     * Saves the ids of the favorite nodes to the state location of the plugin. Changes are saved automatically in the
+     * background, this method writes them immediately (e.g. when the plug-in is stopped).
      */
     public void saveFavoriteNodes() {
+        if (m_loaded.isDone()) {
+            m_store.flush();
+        }
+    }
+
+    private XMLMemento createMemento() {
         XMLMemento memento = XMLMemento.createWriteRoot(TAG_FAVORITES);
         saveFavoriteNodes(memento);
-        Writer writer = null;
-        try {
-            writer = new OutputStreamWriter(new FileOutputStream(getFavoriteNodesFile()), Charset.forName("UTF-8"));
-            memento.save(writer);
-        } catch (IOException ioe) {
-            LOGGER.error("Problems writing file for FavoriteNodes: ", ioe);
-        } finally {
-            try {
-                if (writer != null) {
-                    writer.close();
-                }
-            } catch (IOException ioe) {
-                LOGGER.error("Error closing input stream for FavoriteNodes ", ioe);
-            }
-        }
+        return memento;
     }
 
     private void saveFavoriteNodes(final XMLMemento memento) {
         // personal favorites
         IMemento favNodes = memento.createChild(TAG_PERSONAL_FAVS);
-        for (IRepositoryObject reposObj : m_favNodes.getChildren()) {
+        for (String id : m_favoriteIds) {
             IMemento item = favNodes.createChild(TAG_FAVORITE);
-            item.putString(TAG_NODE_ID, ((NodeTemplate)reposObj).getID());
+            item.putString(TAG_NODE_ID, id);
         }
         // most frequent
         IMemento freqNodes = memento.createChild(TAG_MOST_FREQUENT);
@@ -256,41 +317,62 @@ private File getFavoriteNodesFile() {
         return KNIMEUIPlugin.getDefault().getStateLocation().append("favoriteNodes.xml").toFile();
     }
 
+    /**
+     * Loads the favorites in the background. The saved node ids are only resolved once the node repository has been
+     * read. The categories are shown by the favorites view, therefore they are only filled in the UI thread.
+     */
     private void loadFavorites() {
-        // load the personal favorites
-        Reader reader = null;
-        try {
-            reader = new InputStreamReader(new FileInputStream(getFavoriteNodesFile()), Charset.forName("UTF-8"));
-            loadFavoriteNodes(XMLMemento.createReadRoot(reader));
-        } catch (FileNotFoundException fnf) {
-            // no favorites saved
-        } catch (Exception e) {
-            LOGGER.error("Failed to load favorite nodes file", e);
-        } finally {
-            try {
-                if (reader != null) {
-                    reader.close();
+        Job loader = new KNIMEJob("Favorite Nodes Loader", FrameworkUtil.getBundle(getClass())) {
+            @Override
+            protected IStatus run(final IProgressMonitor monitor) {
+                List<NodeTemplate> favorites = Collections.emptyList();
+                try {
+                    XMLMemento memento = m_store.read();
+                    if (memento != null) {
+                        // waits until the repository has been read, triggers reading if nobody else did
+                        RepositoryManager.INSTANCE.getRoot();
+                        favorites = loadFavoriteNodes(memento);
+                    }
+                } catch (Exception e) {
+                    LOGGER.error("Failed to load favorite nodes file", e);
+                } finally {
+                    final List<NodeTemplate> loadedFavorites = favorites;
+                    Display.getDefault().asyncExec(() -> {
+                        try {
+                            loadedFavorites.forEach(FavoriteNodesManager.this::addFavoriteNode);
+                            updateNodes();
+                        } finally {
+                            m_loaded.complete(null);
+                        }
+                    });
                 }
-            } catch (IOException ioe) {
-                LOGGER.error("Failed to close favorite nodes file", ioe);
+                return Status.OK_STATUS;
             }
-        }
+        };
+        loader.setSystem(true);
+        loader.schedule();
     }
 
-    private void loadFavoriteNodes(final XMLMemento favoriteNodes) {
+    /**
+     * Loads the node usage history and resolves the personal favorites, without touching the categories.
+     *
+     * @return the personal favorites that are still available
+     */
+    private static List<NodeTemplate> loadFavoriteNodes(final XMLMemento favoriteNodes) {
+        List<NodeTemplate> favorites = new ArrayList<>();
         IMemento favNodes = favoriteNodes.getChild(TAG_PERSONAL_FAVS);
         for (IMemento favNode : favNodes.getChildren(TAG_FAVORITE)) {
             String id = favNode.getString(TAG_NODE_ID);
             NodeTemplate node = RepositoryManager.INSTANCE.getNodeTemplate(id);
             if (node != null) {
-                addFavoriteNode(node);
+                favorites.add(node);
             }
         }
         IMemento freqNodes = favoriteNodes.getChild(TAG_MOST_FREQUENT);
         NodeUsageRegistry.loadFrequentNodes(freqNodes);
         IMemento lastNodes = favoriteNodes.getChild(TAG_LAST_USED);
         NodeUsageRegistry.loadLastUsedNodes(lastNodes);
-        updateNodes();
+        return favorites;
     }
 
     /**
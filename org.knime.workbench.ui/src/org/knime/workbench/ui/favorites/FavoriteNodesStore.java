@@ -0,0 +1,173 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.workbench.ui.favorites;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.function.Supplier;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.ui.WorkbenchException;
+import org.eclipse.ui.XMLMemento;
+import org.knime.core.node.NodeLogger;
+import org.knime.core.util.KNIMEJob;
+import org.osgi.framework.FrameworkUtil;
+
+/**
+ * Write-behind store for the favorite nodes file. Changes are written on a background thread once they have settled,
+ * i.e. when no further change has been reported for a short while. The file is first written to a temporary file which
+ * then replaces the actual file, so that the file is never left half-written.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class FavoriteNodesStore {
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(FavoriteNodesStore.class);
+
+    /** The time (in ms) without changes after which the file is written. */
+    private static final long SAVE_DELAY = 2000;
+
+    private final File m_file;
+
+    private final Supplier<XMLMemento> m_contents;
+
+    private final long m_saveDelay;
+
+    private final Job m_writer;
+
+    /**
+     * @param file the file to read and write
+     * @param contents creates the contents to write, called on the writer thread; it must therefore only read state
+     *            that is safe to read from any thread
+     */
+    FavoriteNodesStore(final File file, final Supplier<XMLMemento> contents) {
+        this(file, contents, SAVE_DELAY);
+    }
+
+    /**
+     * @param file the file to read and write
+     * @param contents creates the contents to write, called on the writer thread; it must therefore only read state
+     *            that is safe to read from any thread
+     * @param saveDelay the time (in ms) without changes after which the file is written
+     */
+    FavoriteNodesStore(final File file, final Supplier<XMLMemento> contents, final long saveDelay) {
+        m_file = file;
+        m_contents = contents;
+        m_saveDelay = saveDelay;
+        m_writer = new KNIMEJob("Favorite Nodes Writer", FrameworkUtil.getBundle(getClass())) {
+            @Override
+            protected IStatus run(final IProgressMonitor monitor) {
+                write();
+                return Status.OK_STATUS;
+            }
+        };
+        m_writer.setSystem(true);
+    }
+
+    /**
+     * Reads the file.
+     *
+     * @return the file's contents or <code>null</code> if the file doesn't exist
+     * @throws IOException if the file can't be read
+     * @throws WorkbenchException if the file can't be parsed
+     */
+    XMLMemento read() throws IOException, WorkbenchException {
+        try (Reader reader = new InputStreamReader(new FileInputStream(m_file), StandardCharsets.UTF_8)) {
+            return XMLMemento.createReadRoot(reader);
+        } catch (FileNotFoundException fnf) {
+            // no favorites saved
+            return null;
+        }
+    }
+
+    /**
+     * Reports a change. The file is written after the save delay ({@value #SAVE_DELAY} ms by default) unless another
+     * change is reported meanwhile.
+     */
+    void changed() {
+        // a sleeping writer is cancelled and scheduled again; a running one is re-run after it has finished
+        m_writer.cancel();
+        m_writer.schedule(m_saveDelay);
+    }
+
+    /**
+     * Writes the file immediately in the calling thread, a pending write is cancelled.
+     */
+    void flush() {
+        m_writer.cancel();
+        write();
+    }
+
+    private synchronized void write() {
+        File tmpFile = new File(m_file.getParentFile(), m_file.getName() + ".tmp");
+        try {
+            try (Writer writer = new OutputStreamWriter(new FileOutputStream(tmpFile), StandardCharsets.UTF_8)) {
+                m_contents.get().save(writer);
+            }
+            try {
+                Files.move(tmpFile.toPath(), m_file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmpFile.toPath(), m_file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException ioe) {
+            LOGGER.error("Problems writing file for FavoriteNodes: ", ioe);
+            tmpFile.delete();
+        }
+    }
+}
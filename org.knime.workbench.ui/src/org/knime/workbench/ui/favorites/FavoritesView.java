@@ -47,10 +47,6 @@
  */
 package org.knime.workbench.ui.favorites;
 
-import org.eclipse.core.runtime.IProgressMonitor;
-import org.eclipse.core.runtime.IStatus;
-import org.eclipse.core.runtime.Status;
-import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jface.util.LocalSelectionTransfer;
 import org.eclipse.jface.viewers.AbstractTreeViewer;
 import org.eclipse.jface.viewers.DoubleClickEvent;
@@ -67,7 +63,6 @@
 import org.knime.core.node.NodeFactory;
 import org.knime.core.node.NodeLogger;
 import org.knime.core.node.NodeModel;
-import org.knime.core.util.KNIMEJob;
 import org.knime.workbench.core.nodeprovider.NodeProvider;
 import org.knime.workbench.repository.NodeUsageListener;
 import org.knime.workbench.repository.NodeUsageRegistry;
@@ -75,7 +70,6 @@
 import org.knime.workbench.repository.model.Root;
 import org.knime.workbench.repository.view.RepositoryContentProvider;
 import org.knime.workbench.repository.view.RepositoryLabelProvider;
-import org.osgi.framework.FrameworkUtil;
 
 /**
  *
@@ -104,34 +98,16 @@ public void createPartControl(final Composite parent) {
 
         // no sorting
         m_viewer.setComparator(null);
-        m_viewer.setInput("Loading favorite nodes...");
-
-        Job treeUpdater = new KNIMEJob("Favorite Nodes Loader",
-                FrameworkUtil.getBundle(getClass())) {
-            @Override
-            protected IStatus run(final IProgressMonitor monitor) {
-                final Root root = FavoriteNodesManager.getInstance().getRoot();
-                final Object category = root.getChildByID(
-                        FavoriteNodesManager.FAV_CAT_ID, false);
-
-                if (monitor.isCanceled()) {
-                    return Status.CANCEL_STATUS;
-                } else {
-                    Display.getDefault().asyncExec(new Runnable() {
-                        @Override
-                        public void run() {
-                            if (!parent.isDisposed()) {
-                                m_viewer.setInput(root);
-                                m_viewer.expandToLevel(category, 1);
-                            }
-                        }
-                    });
-                }
-                return Status.OK_STATUS;
+        // the categories are shown immediately, the saved favorites are filled in once they have been loaded
+        final FavoriteNodesManager manager = FavoriteNodesManager.getInstance();
+        final Root root = manager.getRoot();
+        m_viewer.setInput(root);
+        manager.whenLoaded().thenRun(() -> Display.getDefault().asyncExec(() -> {
+            if (!parent.isDisposed()) {
+                m_viewer.refresh();
+                m_viewer.expandToLevel(root.getChildByID(FavoriteNodesManager.FAV_CAT_ID, false), 1);
             }
-        };
-        treeUpdater.setSystem(true);
-        treeUpdater.schedule();
+        }));
 
         NodeUsageRegistry.addNodeUsageListener(FavoritesView.this);
         hookDoubleClickAction();
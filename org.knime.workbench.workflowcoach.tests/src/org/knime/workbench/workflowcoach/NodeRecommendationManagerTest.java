@@ -0,0 +1,219 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.workbench.workflowcoach;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assume.assumeThat;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.knime.core.node.NodeFrequencies;
+import org.knime.core.node.NodeInfo;
+import org.knime.core.node.NodeTriple;
+import org.knime.workbench.repository.RepositoryManager;
+import org.knime.workbench.repository.model.IContainerObject;
+import org.knime.workbench.repository.model.IRepositoryObject;
+import org.knime.workbench.repository.model.NodeTemplate;
+import org.knime.workbench.workflowcoach.NodeRecommendationManager.NodeRecommendation;
+import org.knime.workbench.workflowcoach.data.NodeTripleStore;
+
+/**
+ * Tests the recommendations for multiple nodes of {@link NodeRecommendationManager}, based on statistics whose
+ * successors are taken from the node repository.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class NodeRecommendationManagerTest {
+    private static final int SUCCESSORS = 20;
+
+    /** Directory for the store. */
+    @Rule
+    public TemporaryFolder m_tempFolder = new TemporaryFolder();
+
+    private final List<NodeTemplate> m_successors = new ArrayList<>();
+
+    private final StringBuilder m_triples = new StringBuilder();
+
+    private final Map<String, NodeInfo> m_nodes = new HashMap<>();
+
+    /**
+     * Collects the nodes that are recommended by the statistics.
+     */
+    @Before
+    public void collectSuccessors() {
+        collect(RepositoryManager.INSTANCE.getRoot());
+        assumeThat("Enough nodes in the repository", m_successors.size(), is(SUCCESSORS));
+    }
+
+    private void collect(final IContainerObject container) {
+        for (IRepositoryObject child : container.getChildren()) {
+            if (m_successors.size() == SUCCESSORS) {
+                return;
+            }
+            if (child instanceof IContainerObject) {
+                collect((IContainerObject)child);
+            } else if (child instanceof NodeTemplate) {
+                NodeTemplate template = (NodeTemplate)child;
+                // only nodes that are found again by their factory and name
+                if (RepositoryManager.INSTANCE.getNodeTemplate(template.getFactory().getName(),
+                    template.getName()) == template) {
+                    m_successors.add(template);
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks that nodes without statistics don't lower the frequencies of the recommendations for the other nodes.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testNodesWithoutStatisticsAreIgnored() throws Exception {
+        addTriple(null, "A", 0, 10);
+        addTriple(null, "A", 1, 30);
+        NodeTripleStore store = createStore();
+        addTriple(null, "Unknown", 0, 10);
+        parseTriples();
+
+        Map<NodeInfo, List<NodeInfo>> nodes = new LinkedHashMap<>();
+        nodes.put(m_nodes.get("A"), Collections.emptyList());
+        nodes.put(m_nodes.get("Unknown"), Collections.emptyList());
+        List<NodeRecommendation> res =
+            NodeRecommendationManager.getNodeRecommendationFor(store, nodes, Long.MAX_VALUE);
+        assertThat("Number of recommendations", res.size(), is(2));
+        assertThat("Most frequent recommendation", res.get(0).getNodeTemplate(), is(m_successors.get(1)));
+        assertThat("Frequency of most frequent recommendation", res.get(0).getFrequency(), is(7500));
+        assertThat("Frequency of second recommendation", res.get(1).getFrequency(), is(2500));
+    }
+
+    /**
+     * Checks that the recommendations for a very large selection are returned shortly after the latency budget, and
+     * that the frequencies of the nodes processed until then still add up.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test(timeout = 10000)
+    public void testLargeSelectionIsCutShort() throws Exception {
+        int nodeCount = 20000;
+        for (int i = 0; i < nodeCount; i++) {
+            for (int p = 0; p < 3; p++) {
+                addTriple("N" + ((i + p + 1) % nodeCount), "N" + i, (i + p) % SUCCESSORS, 1 + p);
+            }
+        }
+        NodeTripleStore store = createStore();
+        Map<NodeInfo, List<NodeInfo>> nodes = new LinkedHashMap<>();
+        for (int i = 0; i < nodeCount; i++) {
+            List<NodeInfo> predecessors = new ArrayList<>();
+            for (int p = 0; p < 3; p++) {
+                predecessors.add(m_nodes.get("N" + ((i + p + 1) % nodeCount)));
+            }
+            nodes.put(m_nodes.get("N" + i), predecessors);
+        }
+
+        long budget = TimeUnit.MILLISECONDS.toNanos(50);
+        long start = System.nanoTime();
+        List<NodeRecommendation> res =
+            NodeRecommendationManager.getNodeRecommendationFor(store, nodes, start + budget);
+        long duration = System.nanoTime() - start;
+        assertThat("Recommendations returned within the budget plus one second, took "
+            + TimeUnit.NANOSECONDS.toMillis(duration) + " ms", duration < (budget + TimeUnit.SECONDS.toNanos(1)),
+            is(true));
+        assertThat("Recommendations for the nodes processed within the budget", res.isEmpty(), is(false));
+        int total = res.stream().mapToInt(NodeRecommendation::getFrequency).sum();
+        assertThat("Total frequency " + total + " close to 10000", Math.abs(total - 10000) <= SUCCESSORS, is(true));
+    }
+
+    private void addTriple(final String predecessor, final String node, final int successor, final int count) {
+        NodeTemplate s = m_successors.get(successor);
+        m_triples.append((m_triples.length() == 0) ? "" : ",").append('{');
+        if (predecessor != null) {
+            m_triples.append("\"predecessor\":").append(nodeJson("test." + predecessor, predecessor)).append(',');
+        }
+        m_triples.append("\"node\":").append(nodeJson("test." + node, node)).append(',');
+        m_triples.append("\"successor\":").append(nodeJson(s.getFactory().getName(), s.getName())).append(',');
+        m_triples.append("\"count\":").append(count).append('}');
+    }
+
+    private static String nodeJson(final String factory, final String name) {
+        return "{\"factory\":\"" + factory + "\",\"name\":\"" + name.replace("\\", "\\\\").replace("\"", "\\\"")
+            + "\"}";
+    }
+
+    /**
+     * Parses the triples added so far and remembers their predecessors and nodes by name.
+     */
+    private List<NodeTriple> parseTriples() throws Exception {
+        byte[] json = ("{\"frequencies\":[" + m_triples + "]}").getBytes(StandardCharsets.UTF_8);
+        List<NodeTriple> triples = NodeFrequencies.from(new ByteArrayInputStream(json)).getFrequencies();
+        for (NodeTriple t : triples) {
+            t.getPredecessor().ifPresent(n -> m_nodes.putIfAbsent(n.getName(), n));
+            t.getNode().ifPresent(n -> m_nodes.putIfAbsent(n.getName(), n));
+        }
+        return triples;
+    }
+
+    private NodeTripleStore createStore() throws Exception {
+        Path file = m_tempFolder.newFile("triples.store").toPath();
+        NodeTripleStore.write(parseTriples().stream(), file);
+        m_triples.setLength(0);
+        return NodeTripleStore.open(file);
+    }
+}
@@ -0,0 +1,334 @@
+/*
+ * ------------------------------------------------------------------------
+ *
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.workbench.workflowcoach.data;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Tests the manifest and delta protocol of {@link AbstractFileDownloadTripleProvider} against a local HTTP server.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+public class AbstractFileDownloadTripleProviderTest {
+    private static final String FILE_NAME = "recommendations.json";
+
+    private static final byte[] EMPTY_TRIPLES = "{\"frequencies\":[]}".getBytes(StandardCharsets.UTF_8);
+
+    /** Directory for the downloaded files. */
+    @Rule
+    public TemporaryFolder m_tempFolder = new TemporaryFolder();
+
+    private final Map<String, byte[]> m_served = new ConcurrentHashMap<>();
+
+    private final List<String> m_requests = Collections.synchronizedList(new ArrayList<>());
+
+    private HttpServer m_server;
+
+    private AbstractFileDownloadTripleProvider m_provider;
+
+    /**
+     * Starts the server.
+     *
+     * @throws IOException if the server cannot be started
+     */
+    @Before
+    public void startServer() throws IOException {
+        m_server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        m_server.createContext("/", exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            m_requests.add(path);
+            byte[] content = m_served.get(path);
+            if (content == null) {
+                exchange.sendResponseHeaders(404, -1);
+            } else {
+                exchange.sendResponseHeaders(200, content.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(content);
+                }
+            }
+            exchange.close();
+        });
+        m_server.start();
+        String url = "http://" + m_server.getAddress().getHostString() + ":" + m_server.getAddress().getPort() + "/"
+            + FILE_NAME;
+        m_provider = new TestProvider(url, m_tempFolder.getRoot().toPath());
+    }
+
+    /**
+     * Stops the server.
+     */
+    @After
+    public void stopServer() {
+        m_server.stop(0);
+    }
+
+    /**
+     * Checks that the base file is only downloaded once and that only new delta chunks are fetched afterwards.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testIncrementalUpdate() throws Exception {
+        publish("1", 2);
+        m_provider.update();
+        assertThat("Requests of first update", m_requests,
+            is(Arrays.asList(manifest(), base(), delta(0), delta(1))));
+        assertThat("Update required after first update", m_provider.updateRequired(), is(false));
+        assertThat("Deltas after first update", m_provider.getNodeTripleDeltas().size(), is(2));
+
+        m_requests.clear();
+        publish("1", 3);
+        m_provider.update();
+        assertThat("Requests of second update", m_requests, is(Arrays.asList(manifest(), delta(2))));
+        assertThat("Deltas after second update", m_provider.getNodeTripleDeltas().size(), is(3));
+
+        m_requests.clear();
+        publish("2", 0);
+        m_provider.update();
+        assertThat("Requests after new base version", m_requests, is(Arrays.asList(manifest(), base())));
+        assertThat("Deltas after new base version", m_provider.getNodeTripleDeltas().size(), is(0));
+        assertThat("Files after new base version", downloadedDeltaFiles().size(), is(0));
+    }
+
+    /**
+     * Checks that a base file whose checksum doesn't match the manifest is rejected.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testBaseChecksumMismatch() throws Exception {
+        publish("1", 0);
+        m_served.put(base(), "{\"frequencies\":[ ]}".getBytes(StandardCharsets.UTF_8));
+        try {
+            m_provider.update();
+            fail("Expected IOException for wrong checksum");
+        } catch (IOException ex) {
+            assertThat("Exception message", ex.getMessage().contains("Checksum"), is(true));
+        }
+        assertThat("Update required", m_provider.updateRequired(), is(true));
+        assertThat("Store present", m_provider.getNodeTripleStore().isPresent(), is(false));
+    }
+
+    /**
+     * Checks that a delta chunk whose checksum doesn't match the manifest is rejected and fetched again by the next
+     * update, while the base file is kept.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testDeltaChecksumMismatch() throws Exception {
+        publish("1", 1);
+        m_served.put(delta(0), "{\"frequencies\":[ ]}".getBytes(StandardCharsets.UTF_8));
+        try {
+            m_provider.update();
+            fail("Expected IOException for wrong checksum");
+        } catch (IOException ex) {
+            assertThat("Exception message", ex.getMessage().contains("Checksum"), is(true));
+        }
+        assertThat("Update required", m_provider.updateRequired(), is(false));
+        assertThat("Deltas", m_provider.getNodeTripleDeltas().size(), is(0));
+
+        m_requests.clear();
+        publish("1", 1);
+        m_provider.update();
+        assertThat("Requests of repeated update", m_requests, is(Arrays.asList(manifest(), delta(0))));
+        assertThat("Deltas after repeated update", m_provider.getNodeTripleDeltas().size(), is(1));
+    }
+
+    /**
+     * Checks that a manifest announcing a delta chunk without its checksum is rejected.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testMissingDeltaChecksum() throws Exception {
+        publish("1", 2);
+        String manifest = new String(m_served.get(manifest()), StandardCharsets.UTF_8);
+        m_served.put(manifest(), Arrays.stream(manifest.split("\n")).filter(l -> !l.startsWith("delta.1."))
+            .collect(Collectors.joining("\n")).getBytes(StandardCharsets.UTF_8));
+        try {
+            m_provider.update();
+            fail("Expected IOException for missing checksum");
+        } catch (IOException ex) {
+            assertThat("Exception message", ex.getMessage().contains("delta chunk 1"), is(true));
+        }
+        assertThat("Deltas", m_provider.getNodeTripleDeltas().size(), is(1));
+    }
+
+    /**
+     * Checks that delta chunks are only applied in order: if an earlier chunk is lost, the later ones are ignored
+     * until the next update has fetched them again.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testMissingEarlierDelta() throws Exception {
+        publish("1", 2);
+        m_provider.update();
+        List<Path> files = downloadedDeltaFiles();
+        assertThat("Downloaded deltas", files.size(), is(2));
+        Files.delete(files.stream().filter(p -> p.getFileName().toString().contains(".delta.0-")).findFirst().get());
+        assertThat("Deltas without first chunk", m_provider.getNodeTripleDeltas().size(), is(0));
+
+        m_requests.clear();
+        m_provider.update();
+        assertThat("Requests of repeated update", m_requests, is(Arrays.asList(manifest(), delta(0), delta(1))));
+        assertThat("Deltas after repeated update", m_provider.getNodeTripleDeltas().size(), is(2));
+    }
+
+    /**
+     * Checks that the base file is downloaded again if the server has withdrawn delta chunks.
+     *
+     * @throws Exception if an error occurs
+     */
+    @Test
+    public void testWithdrawnDeltas() throws Exception {
+        publish("1", 2);
+        m_provider.update();
+
+        m_requests.clear();
+        publish("1", 1);
+        m_provider.update();
+        assertThat("Requests after withdrawing a chunk", m_requests,
+            is(Arrays.asList(manifest(), base(), delta(0))));
+        assertThat("Deltas after withdrawing a chunk", m_provider.getNodeTripleDeltas().size(), is(1));
+    }
+
+    /**
+     * Serves a base file of the given version and the given number of delta chunks together with a matching
+     * manifest. The content of the chunks differs, so that each has its own checksum.
+     */
+    private void publish(final String version, final int deltas) throws Exception {
+        StringBuilder manifest = new StringBuilder();
+        manifest.append("version=").append(version).append('\n');
+        manifest.append("sha256=").append(sha256(EMPTY_TRIPLES)).append('\n');
+        manifest.append("deltas=").append(deltas).append('\n');
+        m_served.clear();
+        m_served.put(base(), EMPTY_TRIPLES);
+        for (int i = 0; i < deltas; i++) {
+            byte[] content = ("{\"frequencies\":[]" + String.join("", Collections.nCopies(i, " ")) + "}")
+                .getBytes(StandardCharsets.UTF_8);
+            m_served.put(delta(i), content);
+            manifest.append("delta.").append(i).append(".sha256=").append(sha256(content)).append('\n');
+        }
+        m_served.put(manifest(), manifest.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private List<Path> downloadedDeltaFiles() throws IOException {
+        try (Stream<Path> files = Files.list(m_tempFolder.getRoot().toPath())) {
+            return files.filter(p -> p.getFileName().toString().contains(".delta.")
+                && !p.getFileName().toString().endsWith(".bin")).collect(Collectors.toList());
+        }
+    }
+
+    private static String base() {
+        return "/" + FILE_NAME;
+    }
+
+    private static String manifest() {
+        return base() + ".manifest";
+    }
+
+    private static String delta(final int index) {
+        return base() + ".delta." + index;
+    }
+
+    private static String sha256(final byte[] content) throws Exception {
+        StringBuilder hex = new StringBuilder();
+        for (byte b : MessageDigest.getInstance("SHA-256").digest(content)) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    private static final class TestProvider extends AbstractFileDownloadTripleProvider {
+        TestProvider(final String url, final Path directory) {
+            super(url, FILE_NAME, directory);
+        }
+
+        @Override
+        public String getName() {
+            return "Test";
+        }
+
+        @Override
+        public String getDescription() {
+            return "Test provider";
+        }
+
+        @Override
+        public boolean isEnabled() {
+            return true;
+        }
+    }
+}
@@ -49,14 +49,21 @@
 package org.knime.workbench.workflowcoach;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.PriorityQueue;
 import java.util.Set;
-import java.util.function.BiConsumer;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.stream.Collectors;
 
 import org.eclipse.core.runtime.CoreException;
@@ -72,6 +79,7 @@
 import org.knime.core.node.NodeLogger;
 import org.knime.core.node.NodeTriple;
 import org.knime.core.node.workflow.ConnectionContainer.ConnectionType;
+import org.knime.core.node.workflow.NodeID;
 import org.knime.core.ui.node.workflow.ConnectionContainerUI;
 import org.knime.core.ui.node.workflow.NativeNodeContainerUI;
 import org.knime.core.ui.node.workflow.NodeContainerUI;
@@ -79,6 +87,7 @@
 import org.knime.workbench.repository.model.NodeTemplate;
 import org.knime.workbench.workflowcoach.data.NodeTripleProvider;
 import org.knime.workbench.workflowcoach.data.NodeTripleProviderFactory;
+import org.knime.workbench.workflowcoach.data.NodeTripleStore;
 import org.knime.workbench.workflowcoach.data.UpdatableNodeTripleProvider;
 import org.knime.workbench.workflowcoach.prefs.WorkflowCoachPreferenceInitializer;
 
@@ -106,9 +115,23 @@ public interface IUpdateListener {
 
     private static final NodeLogger LOGGER = NodeLogger.getLogger(NodeRecommendationManager.class);
 
-    private static final String SOURCE_NODES_KEY = "<source_nodes>";
+    /** The maximum number of recommendations that are kept per node and per predecessor-node pair. */
+    private static final int MAX_RECOMMENDATIONS = 100;
 
-    private static final String NODE_NAME_SEP = "#";
+    /**
+     * The weight of the recommendations of the predecessor-node pairs (trigrams) when scoring the recommendations for
+     * multiple nodes; the recommendations of the node alone (bigrams) are weighted with the remainder.
+     */
+    private static final double PAIR_WEIGHT = 0.7;
+
+    /** The scores of the recommendations for multiple nodes are turned into frequencies with this factor. */
+    private static final int SCORE_SCALE = 10000;
+
+    /**
+     * The time after which determining the recommendations for multiple nodes is stopped, the recommendations of the
+     * nodes processed so far are returned then.
+     */
+    private static final long MULTI_NODE_BUDGET_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
 
     private static final String TRIPLE_PROVIDER_EXTENSION_POINT_ID = "org.knime.workbench.workflowcoach.nodetriples";
 
@@ -116,7 +139,7 @@ public interface IUpdateListener {
 
     private final List<IUpdateListener> m_listeners = new ArrayList<>(1);
 
-    private List<Map<String, List<NodeRecommendation>>> m_recommendations;
+    private volatile List<Recommendations> m_recommendations;
 
 
     static {
@@ -176,33 +199,24 @@ public void removeUpdateListener(final IUpdateListener listener) {
      * @throws Exception if something went wrong while loading the statistics (e.g. a corrupt file)
      * @see #getNodeTripleProviders()
      */
-    public void loadRecommendations() throws Exception {
+    public synchronized void loadRecommendations() throws Exception {
         //read from multiple frequency sources
         List<NodeTripleProvider> providers = getNodeTripleProviders();
-        List<Map<String, List<NodeRecommendation>>> recommendations = new ArrayList<>(providers.size());
+        List<Recommendations> recommendations = new ArrayList<>(providers.size());
 
         for (NodeTripleProvider provider : providers) {
             if (provider.isEnabled() && !updateRequired(provider)) {
-                Map<String, List<NodeRecommendation>> recommendationMap = new HashMap<>();
-                recommendations.add(recommendationMap);
-
-                provider.getNodeTriples().forEach(nf -> fillRecommendationsMap(recommendationMap, nf));
-
-                //aggregate multiple occurring id's
-                //but apply a different aggregation method to source nodes
-                BiConsumer<NodeRecommendation, NodeRecommendation> avgAggr = (np1, np2) -> {
-                    np1.increaseFrequency(np2.getFrequency(), 1);
-                };
-                BiConsumer<NodeRecommendation, NodeRecommendation> sumAggr = (np1, np2) -> {
-                    np1.increaseFrequency(np2.getFrequency(), 0);
-                };
-                recommendationMap.keySet().stream().forEach(s -> {
-                    if (s.equals(SOURCE_NODES_KEY)) {
-                        aggregate(recommendationMap.get(s), sumAggr);
-                    } else {
-                        aggregate(recommendationMap.get(s), avgAggr);
-                    }
-                });
+                Optional<NodeTripleStore> store = provider.getNodeTripleStore();
+                if (store.isPresent()) {
+                    List<NodeTripleStore> deltas = (provider instanceof UpdatableNodeTripleProvider)
+                        ? ((UpdatableNodeTripleProvider)provider).getNodeTripleDeltas() : Collections.emptyList();
+                    recommendations.add(new StoreRecommendations(provider, store.get(), deltas));
+                    continue;
+                }
+
+                RecommendationsBuilder builder = new RecommendationsBuilder();
+                provider.getNodeTriples().forEach(nf -> fillRecommendations(builder, nf));
+                recommendations.add(new AggregatedRecommendations(builder));
             }
         } //end for
 
@@ -210,32 +224,70 @@ public void loadRecommendations() throws Exception {
         m_listeners.stream().forEach(l -> l.updated());
     }
 
-    private static void fillRecommendationsMap(final Map<String, List<NodeRecommendation>> recommendationMap,
-        final NodeTriple nf) {
+    /**
+     * Merges statistics that the loaded providers have downloaded incrementally since the recommendations have been
+     * loaded (see {@link UpdatableNodeTripleProvider#getNodeTripleDeltas()}) into the in-memory recommendations. Only
+     * the new delta chunks are read. If the base statistics of a provider have changed, all recommendations are
+     * (re-)loaded via {@link #loadRecommendations()}. Listeners are only notified if something has changed. Merging and
+     * loading are serialized, so that a merge never overwrites recommendations that have been loaded concurrently.
+     *
+     * @throws Exception if something went wrong while loading the statistics (e.g. a corrupt file)
+     * @since 4.4
+     */
+    public synchronized void mergeUpdates() throws Exception {
+        List<Recommendations> current = m_recommendations;
+        if (current == null) {
+            return;
+        }
+        List<Recommendations> merged = new ArrayList<>(current.size());
+        boolean changed = false;
+        for (Recommendations r : current) {
+            if ((r instanceof StoreRecommendations)
+                && (((StoreRecommendations)r).m_provider instanceof UpdatableNodeTripleProvider)) {
+                StoreRecommendations sr = (StoreRecommendations)r;
+                UpdatableNodeTripleProvider provider = (UpdatableNodeTripleProvider)sr.m_provider;
+                Optional<NodeTripleStore> base = provider.getNodeTripleStore();
+                List<NodeTripleStore> deltas = provider.getNodeTripleDeltas();
+                if (!base.isPresent() || (base.get() != sr.m_base) || (deltas.size() < sr.getNumberOfDeltas())) {
+                    loadRecommendations();
+                    return;
+                }
+                if (deltas.size() > sr.getNumberOfDeltas()) {
+                    merged.add(sr.withDeltas(deltas.subList(sr.getNumberOfDeltas(), deltas.size())));
+                    changed = true;
+                    continue;
+                }
+            }
+            merged.add(r);
+        }
+        if (changed) {
+            m_recommendations = merged;
+            m_listeners.stream().forEach(l -> l.updated());
+        }
+    }
+
+    private static void fillRecommendations(final RecommendationsBuilder builder, final NodeTriple nf) {
         /* considering the successor only, i.e. for all entries where the predecessor and the node
          * itself is not present
          */
         if (!nf.getNode().isPresent() && !nf.getPredecessor().isPresent() && isSourceNode(nf.getSuccessor())) {
-            add(recommendationMap, SOURCE_NODES_KEY, nf.getSuccessor(), nf.getCount());
+            builder.addSource(findNodeTemplate(nf.getSuccessor()), nf.getCount());
         }
 
         /* considering the the node itself as successor, but only for those nodes that don't have a
          * predecessor -> source nodes, i.e. nodes without an input port
          */
         if (!nf.getPredecessor().isPresent() && nf.getNode().isPresent() && isSourceNode(nf.getNode().get())) {
-            add(recommendationMap, SOURCE_NODES_KEY, nf.getNode().get(), nf.getCount());
+            builder.addSource(findNodeTemplate(nf.getNode().get()), nf.getCount());
         }
 
-        /* without predecessor but with the node, if given*/
+        /* with the node, if given, and considering the predecessor, if given */
         if (nf.getNode().isPresent()) {
-            add(recommendationMap, getKey(nf.getNode().get()), nf.getSuccessor(), nf.getCount());
-        }
-
-        /* considering predecessor, if given */
-        if (nf.getPredecessor().isPresent() && nf.getNode().isPresent()) {
-            add(recommendationMap,
-                getKey(nf.getPredecessor().get()) + NODE_NAME_SEP + getKey(nf.getNode().get()),
-                nf.getSuccessor(), nf.getCount());
+            NodeTemplate successor = findNodeTemplate(nf.getSuccessor());
+            if (successor != null) {
+                builder.addSuccessor(NodeKey.of(nf.getNode().get()),
+                    nf.getPredecessor().map(NodeKey::of).orElse(null), successor, nf.getCount());
+            }
         }
     }
 
@@ -260,51 +312,14 @@ private static boolean updateRequired(final NodeTripleProvider ntp) {
         return (ntp instanceof UpdatableNodeTripleProvider) && ((UpdatableNodeTripleProvider)ntp).updateRequired();
     }
 
-    /**
-     * Adds a new node recommendation to the map.
-     */
-    private static void add(final Map<String, List<NodeRecommendation>> recommendation, final String key,
-        final NodeInfo ni, final int count) {
-        List<NodeRecommendation> p = recommendation.computeIfAbsent(key, k -> new ArrayList<>());
-        //create the new node recommendation
-        NodeTemplate nt = findNodeTemplate(ni);
-        if (nt != null) {
-            p.add(new NodeRecommendation(nt, count));
-        }
-    }
-
     private static NodeTemplate findNodeTemplate(final NodeInfo ni) {
-        NodeTemplate nt = RepositoryManager.INSTANCE.getNodeTemplate(ni.getFactory());
-        if (nt == null) {
-            //the node to look for might be a dynamically generated node
-            //in that case the node template's id is <node factory-class name>#<node name>
-            nt = RepositoryManager.INSTANCE.getNodeTemplate(getKey(ni));
-        }
-        return nt;
+        return findNodeTemplate(ni.getFactory(), ni.getName());
     }
 
-    /**
-     * Aggregates multiple occurring id's and takes the mean of the frequencies
-     *
-     * @param l the list is manipulated directly
-     * @param aggregationOperation the operation that aggregates the frequency of two node recommendations - important:
-     *            only the first node recommendation-object must be manipulated
-     */
-    private static void aggregate(final List<NodeRecommendation> l,
-        final BiConsumer<NodeRecommendation, NodeRecommendation> aggregationOperation) {
-        Map<String, NodeRecommendation> aggregates = new HashMap<>();
-
-        for (NodeRecommendation np : l) {
-            if (aggregates.containsKey(np.toString())) {
-                //aggregate
-                NodeRecommendation np2 = aggregates.get(np.toString());
-                aggregationOperation.accept(np2, np);
-            } else {
-                aggregates.put(np.toString(), np);
-            }
-        }
-        l.clear();
-        l.addAll(aggregates.values());
+    private static NodeTemplate findNodeTemplate(final String factory, final String name) {
+        //the node to look for might be a dynamically generated node
+        //in that case the node template's id is <node factory-class name>#<node name>
+        return RepositoryManager.INSTANCE.getNodeTemplate(factory, name);
     }
 
     /**
@@ -322,124 +337,735 @@ private static void aggregate(final List<NodeRecommendation> l,
      * determine all current predecessors ('sp') of the selected node 'sn' and find all node triples that match the
      * given predecessor-node pairs ('sp','sn') (i.e. 'sp'='p' and 'sn'='n'). The recommended nodes are the successor
      * nodes 's' given by the found triples. Those are added to the same list as the recommendations of (1). (3)
-     * Post-processing: duplicate recommendations are resolved by removing the recommendations with a smaller
-     * counts/frequencies
+     * Post-processing: duplicate recommendations are resolved in favor of the recommendations of (2), the node 'sn'
+     * itself is removed and the list is sorted by frequency
+     *
+     * The sorted lists of (1) and of each predecessor-node pair of (2) are computed (and cut to the most frequent
+     * recommendations) when the statistics are loaded, hence only the already sorted lists for the current predecessors
+     * of 'sn' need to be merged here. Statistics that are available as a {@link NodeTripleStore} are not loaded onto
+     * the heap; the triples of 'sn' and of the pairs ('sp','sn') are found by a binary search and sorted on demand.
      *
      * If the array of given nodes is empty, all potential source nodes are recommended, i.e. all nodes 'n' in the node
      * triples list that don't have a predecessor 'p'.
      *
+     * If more than one node is given, the successors of the selected paths are recommended, i.e. of those given nodes
+     * that are not followed by another given node. For each of them the recommendations of its predecessor-node pairs
+     * (2) and of the node alone (1) are turned into probabilities and interpolated; the scores of the nodes are then
+     * summed up, hence nodes that are recommended for several given nodes (e.g. a joiner) are ranked higher. The
+     * frequencies of the returned recommendations are the scaled scores. If this takes longer than the latency budget
+     * (e.g. for very large selections), the recommendations of the nodes processed so far are returned.
+     *
      * @param nnc if it's an empty array, source nodes only will be recommended, if more than one node is given, the
-     *            node recommendations for different nodes will end up in the same list
+     *            node recommendations for the different nodes will end up in the same list
      * @return an array of lists of node recommendations, i.e. a list of node recommendations for each used node
      *         {@link NodeTripleProvider}. It will return <code>null</code> if something went wrong with loading the
      *         node statistics!
      */
     public List<NodeRecommendation>[] getNodeRecommendationFor(final NativeNodeContainerUI... nnc) {
-        if (m_recommendations == null) {
+        List<Recommendations> recommendations = m_recommendations;
+        if (recommendations == null) {
             return null;
         }
         @SuppressWarnings("unchecked")
-        List<NodeRecommendation>[] res = new List[m_recommendations.size()];
-        for (int idx = 0; idx < res.length; idx++) {
-            if (nnc.length == 0) {
-                //recommendations if no node is given -> source nodes are recommended
-                res[idx] = m_recommendations.get(idx).get(SOURCE_NODES_KEY);
-                if (res[idx] == null) {
-                    res[idx] = Collections.emptyList();
-                }
-            } else if (nnc.length == 1) {
-                String nodeID = getKey(nnc[0]);
-                Set<NodeRecommendation> set = new HashSet<NodeRecommendationManager.NodeRecommendation>();
-
-                /* recommendations based on the given node and possible predecessors */
-                for (int i = 0; i < nnc[0].getNrInPorts(); i++) {
-                    ConnectionContainerUI cc = nnc[0].getParent().getIncomingConnectionFor(nnc[0].getID(), i);
-                    if (cc != null) {
-                        //only take the predecessor if its not leaving the workflow (e.g. the actual predecessor is outside of a metanode)
-                        if (cc.getType() != ConnectionType.WFMIN) {
-                            NodeContainerUI predecessor = nnc[0].getParent().getNodeContainer(cc.getSource());
-                            if (predecessor instanceof NativeNodeContainerUI) {
-                                List<NodeRecommendation> l = m_recommendations.get(idx)
-                                    .get(getKey((NativeNodeContainerUI)predecessor) + NODE_NAME_SEP + getKey(nnc[0]));
-                                if (l != null) {
-                                    set.addAll(l);
-                                }
-                            }
-                        }
+        List<NodeRecommendation>[] res = new List[recommendations.size()];
+        if (nnc.length == 0) {
+            //recommendations if no node is given -> source nodes are recommended
+            for (int idx = 0; idx < res.length; idx++) {
+                res[idx] = recommendations.get(idx).getSourceNodes();
+            }
+        } else if (nnc.length == 1) {
+            NodeKey node = NodeKey.of(nnc[0]);
+            List<NodeKey> predecessors = getPredecessors(nnc[0]);
+            for (int idx = 0; idx < res.length; idx++) {
+                res[idx] = getNodeRecommendationFor(recommendations.get(idx), node, predecessors);
+            }
+        } else {
+            List<NativeNodeContainerUI> ends = getPathEnds(nnc);
+            Map<NodeKey, List<NodeKey>> predecessors = new LinkedHashMap<>();
+            for (NativeNodeContainerUI end : ends) {
+                predecessors.putIfAbsent(NodeKey.of(end), getPredecessors(end));
+            }
+            long deadline = System.nanoTime() + MULTI_NODE_BUDGET_NANOS;
+            for (int idx = 0; idx < res.length; idx++) {
+                res[idx] = getNodeRecommendationFor(recommendations.get(idx), predecessors, deadline);
+            }
+        }
+        return res;
+    }
+
+    /**
+     * @param nnc a node
+     * @return the keys of the native predecessors of the node
+     */
+    private static List<NodeKey> getPredecessors(final NativeNodeContainerUI nnc) {
+        List<NodeKey> predecessors = new ArrayList<>(nnc.getNrInPorts());
+        for (int i = 0; i < nnc.getNrInPorts(); i++) {
+            ConnectionContainerUI cc = nnc.getParent().getIncomingConnectionFor(nnc.getID(), i);
+            //only take the predecessor if its not leaving the workflow
+            //(e.g. the actual predecessor is outside of a metanode)
+            if ((cc != null) && (cc.getType() != ConnectionType.WFMIN)) {
+                NodeContainerUI predecessor = nnc.getParent().getNodeContainer(cc.getSource());
+                if (predecessor instanceof NativeNodeContainerUI) {
+                    NodeKey key = NodeKey.of((NativeNodeContainerUI)predecessor);
+                    if (!predecessors.contains(key)) {
+                        predecessors.add(key);
                     }
                 }
+            }
+        }
+        return predecessors;
+    }
 
-                /* recommendation based on the given node only */
-                List<NodeRecommendation> p1 = m_recommendations.get(idx).get(nodeID);
-                if (p1 != null) {
-                    set.addAll(p1);
+    /**
+     * @param nnc the given nodes
+     * @return the given nodes that are not directly followed by another given node
+     */
+    private static List<NativeNodeContainerUI> getPathEnds(final NativeNodeContainerUI[] nnc) {
+        Set<NodeID> followed = new HashSet<>();
+        for (NativeNodeContainerUI n : nnc) {
+            for (int i = 0; i < n.getNrInPorts(); i++) {
+                ConnectionContainerUI cc = n.getParent().getIncomingConnectionFor(n.getID(), i);
+                if ((cc != null) && (cc.getType() != ConnectionType.WFMIN)) {
+                    followed.add(cc.getSource());
                 }
+            }
+        }
+        List<NativeNodeContainerUI> ends = new ArrayList<>(nnc.length);
+        for (NativeNodeContainerUI n : nnc) {
+            if (!followed.contains(n.getID())) {
+                ends.add(n);
+            }
+        }
+        // a selection that only consists of cycles has no ends
+        return ends.isEmpty() ? Arrays.asList(nnc) : ends;
+    }
 
-                //add to the result list
-                res[idx] = new ArrayList<NodeRecommendationManager.NodeRecommendation>(set.size());
-                res[idx].addAll(set);
-            } else {
-                throw new UnsupportedOperationException(
-                    "Recommendations for more than one node are not supported, yet.");
+    private static List<NodeRecommendation> getNodeRecommendationFor(final Recommendations recommendations,
+        final NodeKey node, final List<NodeKey> predecessors) {
+        NodeEntry entry = recommendations.get(node);
+        if (entry == null) {
+            return Collections.emptyList();
+        }
+
+        /* recommendations based on the given node and possible predecessors */
+        List<NodeRecommendation[]> lists = new ArrayList<>(predecessors.size() + 1);
+        for (NodeKey predecessor : predecessors) {
+            NodeRecommendation[] l = entry.get(predecessor);
+            if (l != null) {
+                lists.add(l);
             }
+        }
 
-            /* post-process result */
-            Collections.sort(res[idx]);
-            if (nnc.length == 1) {
-                //remove the node, the recommendations have bee requested for, from the list
-                //in order to match the nodes [NodeFactory]#[NodeName] needs to be compared, otherwise it won't work with dynamically generated nodes
-                res[idx] = res[idx].stream().filter(nr -> !getKey(nr.getNodeTemplate()).equals(getKey(nnc[0])))
-                    .collect(Collectors.toList());
+        /* recommendation based on the given node only */
+        if (lists.isEmpty()) {
+            return Collections.unmodifiableList(Arrays.asList(entry.getSuccessors()));
+        }
+        lists.add(entry.getSuccessors());
+        return merge(lists);
+    }
+
+    /**
+     * Scores the recommendations for multiple nodes, see {@link #getNodeRecommendationFor(NativeNodeContainerUI...)}.
+     * Since each recommendation list is bounded, a lookup is bounded by the number of nodes and predecessors times the
+     * cost of selecting the most frequent recommendations.
+     *
+     * @param recommendations the recommendations of a provider
+     * @param nodes the nodes to recommend successors for together with their predecessors
+     * @param deadline the {@link System#nanoTime()} after which no more nodes are taken into account
+     * @return the recommendations sorted by their scores
+     */
+    private static List<NodeRecommendation> getNodeRecommendationFor(final Recommendations recommendations,
+        final Map<NodeKey, List<NodeKey>> nodes, final long deadline) {
+        Map<NodeTemplate, double[]> scores = new HashMap<>();
+        int processed = 0;
+        // the scores are averaged over the nodes with statistics only
+        int contributing = 0;
+        for (Map.Entry<NodeKey, List<NodeKey>> e : nodes.entrySet()) {
+            if ((processed > 0) && (System.nanoTime() > deadline)) {
+                LOGGER.debug("Recommendations for " + nodes.size() + " nodes cut short after " + processed + " nodes");
+                break;
             }
+            processed++;
+            NodeEntry entry = recommendations.get(e.getKey());
+            if (entry == null) {
+                continue;
+            }
+            contributing++;
+            List<NodeRecommendation[]> pairs = new ArrayList<>(e.getValue().size());
+            for (NodeKey predecessor : e.getValue()) {
+                NodeRecommendation[] l = entry.get(predecessor);
+                if (l != null) {
+                    pairs.add(l);
+                }
+            }
+            // trigrams if available, interpolated with the bigrams of the node
+            double nodeWeight = pairs.isEmpty() ? 1.0 : (1.0 - PAIR_WEIGHT);
+            addScores(scores, entry.getSuccessors(), nodeWeight);
+            for (NodeRecommendation[] l : pairs) {
+                addScores(scores, l, PAIR_WEIGHT / pairs.size());
+            }
+        }
+
+        // select the highest scores in O(n log k)
+        PriorityQueue<Map.Entry<NodeTemplate, double[]>> top =
+            new PriorityQueue<>(MAX_RECOMMENDATIONS + 1, Comparator.comparingDouble(e -> e.getValue()[0]));
+        for (Map.Entry<NodeTemplate, double[]> e : scores.entrySet()) {
+            top.add(e);
+            if (top.size() > MAX_RECOMMENDATIONS) {
+                top.poll();
+            }
+        }
+        List<NodeRecommendation> res = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            Map.Entry<NodeTemplate, double[]> e = top.poll();
+            int frequency = (int)Math.round(e.getValue()[0] / contributing * SCORE_SCALE);
+            if (frequency > 0) {
+                res.add(new NodeRecommendation(e.getKey(), frequency));
+            }
+        }
+        Collections.reverse(res);
+        setTotalFrequencies(res);
+        return res;
+    }
+
+    /**
+     * Scores the recommendations for multiple nodes based on the statistics of a single store, see
+     * {@link #getNodeRecommendationFor(Recommendations, Map, long)}. Only used by tests, which cannot create node
+     * containers.
+     *
+     * @param store the statistics
+     * @param nodes the nodes to recommend successors for together with their predecessors
+     * @param deadline the {@link System#nanoTime()} after which no more nodes are taken into account
+     * @return the recommendations sorted by their scores
+     */
+    static List<NodeRecommendation> getNodeRecommendationFor(final NodeTripleStore store,
+        final Map<NodeInfo, List<NodeInfo>> nodes, final long deadline) {
+        Map<NodeKey, List<NodeKey>> keys = new LinkedHashMap<>();
+        nodes.forEach((node, predecessors) -> keys.put(NodeKey.of(node),
+            predecessors.stream().map(NodeKey::of).collect(Collectors.toList())));
+        return getNodeRecommendationFor(new StoreRecommendations(null, store, Collections.emptyList()), keys,
+            deadline);
+    }
+
+    private static void addScores(final Map<NodeTemplate, double[]> scores, final NodeRecommendation[] l,
+        final double weight) {
+        for (NodeRecommendation nr : l) {
+            if (nr.getTotalFrequency() > 0) {
+                scores.computeIfAbsent(nr.getNodeTemplate(), k -> new double[1])[0] +=
+                    weight * nr.getFrequency() / nr.getTotalFrequency();
+            }
+        }
+    }
 
-            //update the total frequencies
-            int tmpFreqs = 0;
-            for (NodeRecommendation np : res[idx]) {
-                tmpFreqs += np.getFrequency();
+    /**
+     * Merges already sorted recommendation lists into a single sorted list in one pass. If a node is recommended by
+     * more than one list, the recommendation of the first of these lists is used.
+     *
+     * @param lists the lists sorted by frequency, in order of precedence
+     * @return the merged list, with new recommendation objects whose total frequencies are set accordingly
+     */
+    private static List<NodeRecommendation> merge(final List<NodeRecommendation[]> lists) {
+        Map<NodeTemplate, NodeRecommendation> selected = new HashMap<>();
+        for (NodeRecommendation[] l : lists) {
+            for (NodeRecommendation nr : l) {
+                selected.putIfAbsent(nr.getNodeTemplate(), nr);
+            }
+        }
+
+        List<NodeRecommendation> res = new ArrayList<>(Math.min(selected.size(), MAX_RECOMMENDATIONS));
+        int[] pos = new int[lists.size()];
+        while (res.size() < MAX_RECOMMENDATIONS) {
+            int next = -1;
+            for (int i = 0; i < pos.length; i++) {
+                NodeRecommendation[] l = lists.get(i);
+                //skip the recommendations that are superseded by another list
+                while ((pos[i] < l.length) && (selected.get(l[pos[i]].getNodeTemplate()) != l[pos[i]])) {
+                    pos[i]++;
+                }
+                if ((pos[i] < l.length) && ((next < 0)
+                    || (l[pos[i]].compareTo(lists.get(next)[pos[next]]) < 0))) {
+                    next = i;
+                }
             }
-            for (NodeRecommendation np : res[idx]) {
-                np.setTotalFrequency(tmpFreqs);
+            if (next < 0) {
+                break;
             }
+            NodeRecommendation nr = lists.get(next)[pos[next]++];
+            res.add(new NodeRecommendation(nr.getNodeTemplate(), nr.getFrequency()));
         }
+        setTotalFrequencies(res);
         return res;
     }
 
+    /**
+     * Sets the total frequency of each recommendation to the sum of the frequencies of all given recommendations.
+     */
+    private static void setTotalFrequencies(final Iterable<NodeRecommendation> recommendations) {
+        int total = 0;
+        for (NodeRecommendation np : recommendations) {
+            total += np.getFrequency();
+        }
+        for (NodeRecommendation np : recommendations) {
+            np.setTotalFrequency(total);
+        }
+    }
+
+    /**
+     * Joins the recommendation lists of the different providers (as returned by
+     * {@link #getNodeRecommendationFor(NativeNodeContainerUI...)}) by their element ranks, yet taking the equality of
+     * elements into account. The lists are traversed rank by rank and each recommended node gets a single row, i.e.
+     * the same recommendations of different lists end up in the same row, the row being placed at the best rank of the
+     * node.
+     *
+     * Assume two lists of recommendations, {a1,a2,a3,...} and {b1,b2,b3,...} and, e.g., a2==b3 (i.e. these are the same
+     * recommendations) the joined list of arrays is then [a1, b1], [a2, b3], [null, b2], [a3, null], ...
+     *
+     * @param recommendations n lists of recommendations of possibly different sizes, each without duplicates
+     * @return a list of recommendation arrays (the array potentially with <code>null</code>-entries) accordingly sorted
+     * @since 4.4
+     */
+    public static List<NodeRecommendation[]> joinRecommendations(final List<NodeRecommendation>[] recommendations) {
+        int maxSize = 0;
+        for (List<NodeRecommendation> l : recommendations) {
+            maxSize = Math.max(maxSize, l.size());
+        }
+        int n = recommendations.length;
+        Map<NodeTemplate, NodeRecommendation[]> joined = new LinkedHashMap<>();
+        for (int i = 0; i < maxSize; i++) {
+            for (int j = 0; j < n; j++) {
+                if (i < recommendations[j].size()) {
+                    NodeRecommendation nr = recommendations[j].get(i);
+                    joined.computeIfAbsent(nr.getNodeTemplate(), k -> new NodeRecommendation[n])[j] = nr;
+                }
+            }
+        }
+        return new ArrayList<>(joined.values());
+    }
+
     /**
      * Returns the number of registered and enabled {@link NodeTripleProvider}s.
      *
      * @return the number of loaded providers
      */
     public int getNumLoadedProviders() {
-        if (m_recommendations == null) {
+        List<Recommendations> recommendations = m_recommendations;
+        if (recommendations == null) {
             return 0;
         } else {
-            return m_recommendations.size();
+            return recommendations.size();
+        }
+    }
+
+    /**
+     * The key to look up the recommendations for a node. In order to match dynamically generated nodes, the node
+     * factory class name and the node name need to be compared.
+     */
+    private static final class NodeKey {
+        private final String m_factory;
+
+        private final String m_name;
+
+        NodeKey(final String factory, final String name) {
+            m_factory = factory;
+            m_name = name;
+        }
+
+        static NodeKey of(final NativeNodeContainerUI nnc) {
+            return new NodeKey(nnc.getNodeFactoryClassName(), nnc.getName());
+        }
+
+        static NodeKey of(final NodeInfo ni) {
+            return new NodeKey(ni.getFactory(), ni.getName());
+        }
+
+        static NodeKey of(final NodeTemplate nt) {
+            return new NodeKey(nt.getFactory().getName(), nt.getName());
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * m_factory.hashCode() + Objects.hashCode(m_name);
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof NodeKey)) {
+                return false;
+            }
+            NodeKey other = (NodeKey)obj;
+            return m_factory.equals(other.m_factory) && Objects.equals(m_name, other.m_name);
+        }
+    }
+
+    /**
+     * The recommended successors of a single node, sorted by frequency.
+     */
+    private interface NodeEntry {
+        /**
+         * @return the recommended successors of the node, ignoring its predecessors
+         */
+        NodeRecommendation[] getSuccessors();
+
+        /**
+         * @param predecessor the predecessor of the node
+         * @return the recommended successors of the predecessor-node pair or <code>null</code>
+         */
+        NodeRecommendation[] get(NodeKey predecessor);
+    }
+
+    /**
+     * A {@link NodeEntry} whose recommendation lists have been sorted in advance.
+     */
+    private static final class SortedNodeEntry implements NodeEntry {
+        private final NodeRecommendation[] m_successors;
+
+        private final Map<NodeKey, NodeRecommendation[]> m_byPredecessor;
+
+        SortedNodeEntry(final NodeRecommendation[] successors,
+            final Map<NodeKey, NodeRecommendation[]> byPredecessor) {
+            m_successors = successors;
+            m_byPredecessor = byPredecessor;
+        }
+
+        @Override
+        public NodeRecommendation[] getSuccessors() {
+            return m_successors;
+        }
+
+        @Override
+        public NodeRecommendation[] get(final NodeKey predecessor) {
+            return m_byPredecessor.get(predecessor);
         }
     }
 
     /**
-     * @param nnc the native node container to create the key for
-     * @return the key to be used to look up the node recommendations
+     * The recommendations of a single {@link NodeTripleProvider}. Instances must not be changed once they have been
+     * created.
      */
-    private static String getKey(final NativeNodeContainerUI nnc) {
-        return nnc.getNodeFactoryClassName() + NODE_NAME_SEP + nnc.getName();
+    private abstract static class Recommendations {
+        /**
+         * @return the recommended source nodes
+         */
+        abstract List<NodeRecommendation> getSourceNodes();
+
+        /**
+         * @param node the node to get the successors for
+         * @return the recommended successors of the node or <code>null</code>
+         */
+        abstract NodeEntry get(NodeKey node);
     }
 
     /**
-     * @param nt the node info to create the key for
-     * @return the key to be used to look up the node recommendations
+     * Recommendations that are aggregated from the node triples of a provider without a {@link NodeTripleStore}. All
+     * recommendation lists are sorted and cut to the most frequent entries when the instance is created.
      */
-    private static String getKey(final NodeInfo ni) {
-        return ni.getFactory() + NODE_NAME_SEP + ni.getName();
+    private static final class AggregatedRecommendations extends Recommendations {
+        private final NodeRecommendation[] m_sourceNodes;
+
+        private final Map<NodeKey, NodeEntry> m_nodes;
+
+        AggregatedRecommendations(final RecommendationsBuilder builder) {
+            m_sourceNodes = RecommendationsBuilder.sort(builder.m_sources.values(), null);
+            m_nodes = new HashMap<>(builder.m_successors.size() * 4 / 3 + 1);
+            builder.m_successors.keySet().forEach(node -> m_nodes.put(node, createEntry(builder, node)));
+        }
+
+        private static NodeEntry createEntry(final RecommendationsBuilder builder, final NodeKey node) {
+            Map<NodeKey, Map<NodeTemplate, NodeRecommendation>> pairs =
+                builder.m_pairSuccessors.getOrDefault(node, Collections.emptyMap());
+            Map<NodeKey, NodeRecommendation[]> byPredecessor = new HashMap<>(pairs.size() * 4 / 3 + 1);
+            pairs.forEach((pred, s) -> byPredecessor.put(pred, RecommendationsBuilder.sort(s.values(), node)));
+            return new SortedNodeEntry(RecommendationsBuilder.sort(builder.m_successors.get(node).values(), node),
+                byPredecessor);
+        }
+
+        @Override
+        List<NodeRecommendation> getSourceNodes() {
+            return Collections.unmodifiableList(Arrays.asList(m_sourceNodes));
+        }
+
+        @Override
+        NodeEntry get(final NodeKey node) {
+            return m_nodes.get(node);
+        }
     }
 
     /**
-     * @param nt the node template to create the key for
-     * @return the key to be used to look up the node recommendations and to filter the recommendations for the same
-     *         node they were requested for
+     * Aggregates node triples into recommendations. The frequencies of source nodes are summed up, the frequencies of
+     * the successors of the same node (or predecessor-node pair) are averaged.
      */
-    private static String getKey(final NodeTemplate nt) {
-        return nt.getFactory().getName() + NODE_NAME_SEP + nt.getName();
+    private static final class RecommendationsBuilder {
+        private final Map<NodeTemplate, NodeRecommendation> m_sources = new LinkedHashMap<>();
+
+        private final Map<NodeKey, Map<NodeTemplate, NodeRecommendation>> m_successors = new HashMap<>();
+
+        private final Map<NodeKey, Map<NodeKey, Map<NodeTemplate, NodeRecommendation>>> m_pairSuccessors =
+            new HashMap<>();
+
+        void addSource(final NodeTemplate node, final int count) {
+            NodeRecommendation existing = m_sources.get(node);
+            if (existing == null) {
+                m_sources.put(node, new NodeRecommendation(node, count));
+            } else {
+                existing.increaseFrequency(count, 0);
+            }
+        }
+
+        /**
+         * @param node the node
+         * @param predecessor the predecessor of the node or <code>null</code>
+         * @param successor the recommended successor
+         * @param count the frequency of the triple
+         */
+        void addSuccessor(final NodeKey node, final NodeKey predecessor, final NodeTemplate successor,
+            final int count) {
+            average(m_successors.computeIfAbsent(node, k -> new LinkedHashMap<>()), successor, count);
+            if (predecessor != null) {
+                average(m_pairSuccessors.computeIfAbsent(node, k -> new HashMap<>())
+                    .computeIfAbsent(predecessor, k -> new LinkedHashMap<>()), successor, count);
+            }
+        }
+
+        static void average(final Map<NodeTemplate, NodeRecommendation> successors,
+            final NodeTemplate successor, final int count) {
+            NodeRecommendation existing = successors.get(successor);
+            if (existing == null) {
+                successors.put(successor, new NodeRecommendation(successor, count));
+            } else {
+                existing.increaseFrequency(count, 1);
+            }
+        }
+
+        /**
+         * Sorts the recommendations by frequency and keeps the most frequent ones only.
+         *
+         * @param recommendations the aggregated recommendations
+         * @param exclude the node the recommendations are determined for, it is not recommended itself; can be
+         *            <code>null</code>
+         * @return copies of the sorted recommendations with their total frequencies set; the copies are not changed
+         *         when further triples are added to the builder
+         */
+        static NodeRecommendation[] sort(final Collection<NodeRecommendation> recommendations,
+            final NodeKey exclude) {
+            List<NodeRecommendation> l = new ArrayList<>(recommendations.size());
+            for (NodeRecommendation nr : recommendations) {
+                if ((exclude == null) || !exclude.equals(NodeKey.of(nr.getNodeTemplate()))) {
+                    l.add(new NodeRecommendation(nr));
+                }
+            }
+            Collections.sort(l);
+            if (l.size() > MAX_RECOMMENDATIONS) {
+                l = l.subList(0, MAX_RECOMMENDATIONS);
+            }
+            setTotalFrequencies(l);
+            return l.toArray(new NodeRecommendation[l.size()]);
+        }
+    }
+
+    /**
+     * Recommendations that are looked up in a {@link NodeTripleStore} and its delta chunks. The triples are not copied
+     * onto the heap: the triples of a node (or a predecessor-node pair) are found by a binary search in each store,
+     * and only they are aggregated and sorted when the node is looked up. New delta chunks are merged by adding them
+     * as further layers.
+     */
+    private static final class StoreRecommendations extends Recommendations {
+        private final NodeTripleProvider m_provider;
+
+        private final NodeTripleStore m_base;
+
+        /** The base store followed by the delta chunks. */
+        private final List<StoreLayer> m_layers;
+
+        private List<NodeRecommendation> m_sourceNodes;
+
+        StoreRecommendations(final NodeTripleProvider provider, final NodeTripleStore base,
+            final List<NodeTripleStore> deltas) {
+            this(provider, addLayers(Collections.singletonList(new StoreLayer(base)), deltas));
+        }
+
+        private StoreRecommendations(final NodeTripleProvider provider, final List<StoreLayer> layers) {
+            m_provider = provider;
+            m_base = layers.get(0).m_store;
+            m_layers = layers;
+        }
+
+        private static List<StoreLayer> addLayers(final List<StoreLayer> layers, final List<NodeTripleStore> stores) {
+            List<StoreLayer> res = new ArrayList<>(layers.size() + stores.size());
+            res.addAll(layers);
+            stores.forEach(s -> res.add(new StoreLayer(s)));
+            return res;
+        }
+
+        /**
+         * @return the number of delta chunks that have been merged
+         */
+        int getNumberOfDeltas() {
+            return m_layers.size() - 1;
+        }
+
+        /**
+         * @param newDeltas delta chunks that haven't been merged yet
+         * @return new recommendations containing the given chunks in addition
+         */
+        StoreRecommendations withDeltas(final List<NodeTripleStore> newDeltas) {
+            // the layers are shared, so that node templates that have been looked up already are reused
+            return new StoreRecommendations(m_provider, addLayers(m_layers, newDeltas));
+        }
+
+        @Override
+        synchronized List<NodeRecommendation> getSourceNodes() {
+            // the source nodes are spread over the whole stores, hence they are determined only once
+            if (m_sourceNodes == null) {
+                RecommendationsBuilder builder = new RecommendationsBuilder();
+                m_layers.forEach(l -> l.addSourcesTo(builder));
+                m_sourceNodes = Collections
+                    .unmodifiableList(Arrays.asList(RecommendationsBuilder.sort(builder.m_sources.values(), null)));
+            }
+            return m_sourceNodes;
+        }
+
+        @Override
+        NodeEntry get(final NodeKey node) {
+            int[] ids = new int[m_layers.size()];
+            boolean found = false;
+            for (int l = 0; l < ids.length; l++) {
+                ids[l] = m_layers.get(l).m_store.getNodeId(node.m_factory, node.m_name);
+                found |= (ids[l] != NodeTripleStore.NONE);
+            }
+            return found ? new StoreNodeEntry(node, m_layers, ids) : null;
+        }
+    }
+
+    /**
+     * The recommended successors of a single node in the layers of {@link StoreRecommendations}. The lists are
+     * determined whenever they are requested.
+     */
+    private static final class StoreNodeEntry implements NodeEntry {
+        private final NodeKey m_node;
+
+        private final List<StoreLayer> m_layers;
+
+        /** The node's id in each layer, {@link NodeTripleStore#NONE} if it is not contained. */
+        private final int[] m_ids;
+
+        StoreNodeEntry(final NodeKey node, final List<StoreLayer> layers, final int[] ids) {
+            m_node = node;
+            m_layers = layers;
+            m_ids = ids;
+        }
+
+        @Override
+        public NodeRecommendation[] getSuccessors() {
+            Map<NodeTemplate, NodeRecommendation> successors = new LinkedHashMap<>();
+            for (int l = 0; l < m_ids.length; l++) {
+                if (m_ids[l] != NodeTripleStore.NONE) {
+                    NodeTripleStore store = m_layers.get(l).m_store;
+                    m_layers.get(l).addSuccessors(successors, store.startOf(m_ids[l]), store.endOf(m_ids[l]));
+                }
+            }
+            return RecommendationsBuilder.sort(successors.values(), m_node);
+        }
+
+        @Override
+        public NodeRecommendation[] get(final NodeKey predecessor) {
+            Map<NodeTemplate, NodeRecommendation> successors = new LinkedHashMap<>();
+            for (int l = 0; l < m_ids.length; l++) {
+                if (m_ids[l] == NodeTripleStore.NONE) {
+                    continue;
+                }
+                NodeTripleStore store = m_layers.get(l).m_store;
+                int pred = store.getNodeId(predecessor.m_factory, predecessor.m_name);
+                if (pred != NodeTripleStore.NONE) {
+                    m_layers.get(l).addSuccessors(successors, store.startOf(m_ids[l], pred),
+                        store.endOf(m_ids[l], pred));
+                }
+            }
+            return successors.isEmpty() ? null : RecommendationsBuilder.sort(successors.values(), m_node);
+        }
+    }
+
+    /**
+     * A single {@link NodeTripleStore} together with the node templates of its nodes. The templates are only looked
+     * up when a node is recommended for the first time, and only source nodes are checked for their type, which may
+     * instantiate the node factory.
+     */
+    private static final class StoreLayer {
+        private final NodeTripleStore m_store;
+
+        /** The templates looked up so far; an empty optional if there is no template for the node. */
+        private final AtomicReferenceArray<Optional<NodeTemplate>> m_templates;
+
+        private Boolean[] m_isSource;
+
+        StoreLayer(final NodeTripleStore store) {
+            m_store = store;
+            m_templates = new AtomicReferenceArray<>(store.getNodeCount());
+        }
+
+        private NodeTemplate getTemplate(final int id) {
+            Optional<NodeTemplate> template = m_templates.get(id);
+            if (template == null) {
+                template = Optional.ofNullable(findNodeTemplate(m_store.getFactory(id), m_store.getName(id)));
+                m_templates.set(id, template);
+            }
+            return template.orElse(null);
+        }
+
+        private boolean isSource(final int id) {
+            if (m_isSource[id] == null) {
+                NodeTemplate template = getTemplate(id);
+                try {
+                    m_isSource[id] = (template != null) && (template.getType() == NodeType.Source);
+                } catch (Exception ex) {
+                    LOGGER.warn("Could not create factory instance for " + m_store.getFactory(id) + ": "
+                        + ex.getMessage(), ex);
+                    m_isSource[id] = false;
+                }
+            }
+            return m_isSource[id];
+        }
+
+        /**
+         * Adds the source nodes of this store to the given builder.
+         */
+        synchronized void addSourcesTo(final RecommendationsBuilder builder) {
+            if (m_isSource == null) {
+                m_isSource = new Boolean[m_store.getNodeCount()];
+            }
+            for (int i = 0, size = m_store.size(); i < size; i++) {
+                if (m_store.getPredecessor(i) != NodeTripleStore.NONE) {
+                    continue;
+                }
+                int node = m_store.getNode(i);
+                /* considering the successor only, i.e. for all entries where the predecessor and the node
+                 * itself is not present
+                 */
+                if ((node == NodeTripleStore.NONE) && isSource(m_store.getSuccessor(i))) {
+                    builder.addSource(getTemplate(m_store.getSuccessor(i)), m_store.getCount(i));
+                }
+                /* considering the the node itself as successor, but only for those nodes that don't have a
+                 * predecessor -> source nodes, i.e. nodes without an input port
+                 */
+                if ((node != NodeTripleStore.NONE) && isSource(node)) {
+                    builder.addSource(getTemplate(node), m_store.getCount(i));
+                }
+            }
+        }
+
+        /**
+         * Averages the successors of the triples in the given range into the given map.
+         */
+        void addSuccessors(final Map<NodeTemplate, NodeRecommendation> successors, final int from, final int to) {
+            for (int i = from; i < to; i++) {
+                NodeTemplate successor = getTemplate(m_store.getSuccessor(i));
+                if (successor != null) {
+                    RecommendationsBuilder.average(successors, successor, m_store.getCount(i));
+                }
+            }
+        }
     }
 
     /**
@@ -469,6 +1095,18 @@ public static class NodeRecommendation implements Comparable<NodeRecommendation>
             m_totalFrequency = frequency;
         }
 
+        /**
+         * Creates a copy of the given node recommendation.
+         *
+         * @param other the recommendation to copy
+         */
+        private NodeRecommendation(final NodeRecommendation other) {
+            m_node = other.m_node;
+            m_frequency = other.m_frequency;
+            m_totalFrequency = other.m_totalFrequency;
+            m_num = other.m_num;
+        }
+
         /**
          * Returns the frequency (in percent), i.e. how often this node recommendation appears in a node triple or pair
          * (given by a {@link NodeTripleProvider}
@@ -500,7 +1138,7 @@ private void setTotalFrequency(final int frequency) {
         /**
          * Increases the frequency by the given amount. Needed in order to aggregate frequencies of node recommendations
          * that recommend the same node (e.g. if the selected node only is taken into account and the predecessor
-         * ignored). See {@link NodeRecommendationManager#aggregate(List)}.
+         * ignored). See {@link RecommendationsBuilder}.
          *
          * @param freqIncrease the amount of how much to increase the frequency
          * @param countIncrease the amount the count should be increased by which the frequency is in the end divided by
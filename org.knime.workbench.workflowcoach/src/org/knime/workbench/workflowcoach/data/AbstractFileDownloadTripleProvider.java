@@ -48,6 +48,7 @@
  */
 package org.knime.workbench.workflowcoach.data;
 
+import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -56,17 +57,26 @@
 import java.net.ProxySelector;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.file.DirectoryStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.text.SimpleDateFormat;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Properties;
 import java.util.TimeZone;
 import java.util.stream.Stream;
 import java.util.zip.GZIPInputStream;
@@ -87,6 +97,24 @@
 /**
  * A node triple provider that downloads the nodes triples from a url and stores it to a file.
  *
+ * <p>
+ * If the server additionally provides a manifest at <tt>&lt;url&gt;.manifest</tt>, statistics are updated
+ * incrementally. The manifest is a properties file with the following entries:
+ * </p>
+ * <ul>
+ * <li><tt>version</tt>: the version of the base file served at <tt>&lt;url&gt;</tt></li>
+ * <li><tt>sha256</tt>: the SHA-256 checksum of the (uncompressed) base file</li>
+ * <li><tt>deltas</tt>: the number of delta chunks that have been published for this base version</li>
+ * <li><tt>delta.&lt;i&gt;.sha256</tt>: the SHA-256 checksum of the i-th delta chunk (0-based) which is served at
+ * <tt>&lt;url&gt;.delta.&lt;i&gt;</tt></li>
+ * </ul>
+ * <p>
+ * Delta chunks have the same format as the base file and are append-only, i.e. their triples are added to the
+ * triples of the base file and all previous chunks. Only the base file is downloaded again when its version changes,
+ * otherwise only new chunks are fetched. Downloads are validated by their checksum instead of being parsed. If there
+ * is no manifest, the whole file is downloaded whenever it has been modified.
+ * </p>
+ *
  * @author Martin Horn, University of Konstanz
  */
 public abstract class AbstractFileDownloadTripleProvider implements UpdatableNodeTripleProvider {
@@ -99,12 +127,32 @@ public abstract class AbstractFileDownloadTripleProvider implements UpdatableNod
      */
     private static final String TMP_FILE_NAME = "file_download.temp";
 
+    private static final String MANIFEST_SUFFIX = ".manifest";
+
+    private static final String DELTA_SUFFIX = ".delta.";
+
+    private static final String STORE_SUFFIX = ".bin";
+
+    private static final String VERSION_KEY = "version";
+
+    private static final String SHA256_KEY = "sha256";
+
+    private static final String DELTAS_KEY = "deltas";
+
     private final String m_url;
 
     private final Path m_file;
 
     private final Path m_tmpFile;
 
+    private final Path m_manifestFile;
+
+    private NodeTripleStore m_store;
+
+    private Path m_storeFile;
+
+    private final Map<Path, NodeTripleStore> m_deltaStores = new HashMap<>();
+
     /**
      * Creates a new triple provider.
      *
@@ -113,17 +161,142 @@ public abstract class AbstractFileDownloadTripleProvider implements UpdatableNod
      *
      */
     protected AbstractFileDownloadTripleProvider(final String url, final String fileName) {
+        this(url, fileName, Paths.get(KNIMEConstants.getKNIMEHomeDir()));
+    }
+
+    /**
+     * Creates a new triple provider that stores the downloaded files in the given directory.
+     *
+     * @param url the URL to download the file from
+     * @param fileName the file name to store the downloaded nodes triples to - file name only, not a path!
+     * @param directory the directory the downloaded files are stored in
+     * @since 4.4
+     */
+    protected AbstractFileDownloadTripleProvider(final String url, final String fileName, final Path directory) {
         m_url = url;
-        m_file = Paths.get(KNIMEConstants.getKNIMEHomeDir(), fileName);
-        m_tmpFile = Paths.get(KNIMEConstants.getKNIMEHomeDir(), TMP_FILE_NAME);
+        m_file = directory.resolve(fileName);
+        m_tmpFile = directory.resolve(TMP_FILE_NAME);
+        m_manifestFile = directory.resolve(fileName + MANIFEST_SUFFIX);
     }
 
     /**
      * {@inheritDoc}
+     * <p>
+     * The stream contains the triples of the base file followed by the triples of all downloaded delta chunks.
+     * </p>
      */
     @Override
     public Stream<NodeTriple> getNodeTriples() throws IOException {
-        return NodeFrequencies.from(Files.newInputStream(m_file)).getFrequencies().stream();
+        Stream<NodeTriple> triples = readTriples(m_file);
+        for (Path delta : getDeltaFiles()) {
+            triples = Stream.concat(triples, readTriples(delta));
+        }
+        return triples;
+    }
+
+    private static Stream<NodeTriple> readTriples(final Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return NodeFrequencies.from(in).getFrequencies().stream();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * The store is compiled from the downloaded base file after each update (or on first access if it is missing) and
+     * kept next to it. It doesn't contain the delta chunks, see {@link #getNodeTripleDeltas()}.
+     * </p>
+     */
+    @Override
+    public synchronized Optional<NodeTripleStore> getNodeTripleStore() throws IOException {
+        if (!Files.exists(m_file)) {
+            return Optional.empty();
+        }
+        Path storeFile = getStoreFile(m_file);
+        if (!storeFile.equals(m_storeFile)) {
+            m_store = openStore(m_file, storeFile);
+            m_storeFile = storeFile;
+        }
+        return Optional.of(m_store);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized List<NodeTripleStore> getNodeTripleDeltas() throws IOException {
+        if (!Files.exists(m_file)) {
+            return Collections.emptyList();
+        }
+        List<Path> deltas = getDeltaFiles();
+        m_deltaStores.keySet().retainAll(deltas);
+        List<NodeTripleStore> result = new ArrayList<>();
+        for (Path delta : deltas) {
+            NodeTripleStore store = m_deltaStores.get(delta);
+            if (store == null) {
+                store = openStore(delta, delta.resolveSibling(delta.getFileName() + STORE_SUFFIX));
+                m_deltaStores.put(delta, store);
+            }
+            result.add(store);
+        }
+        return result;
+    }
+
+    /**
+     * Opens a compiled store, compiling it from the source file if it doesn't exist yet or cannot be read.
+     */
+    private NodeTripleStore openStore(final Path source, final Path storeFile) throws IOException {
+        if (Files.exists(storeFile)) {
+            try {
+                return NodeTripleStore.open(storeFile);
+            } catch (IOException ex) {
+                NodeLogger.getLogger(getClass()).debug("Could not open compiled node triples '" + storeFile
+                    + "', compiling them again: " + ex.getMessage(), ex);
+            }
+        }
+        compileStore(source, storeFile);
+        return NodeTripleStore.open(storeFile);
+    }
+
+    /**
+     * Returns the file the compiled store for a downloaded base file is kept in. The name contains the modification
+     * time of the downloaded file, so that a store that is still memory-mapped never has to be replaced (which is not
+     * possible on all platforms) and an outdated store is never used.
+     */
+    private Path getStoreFile(final Path downloadedFile) throws IOException {
+        return m_file.resolveSibling(m_file.getFileName() + "."
+            + Long.toHexString(Files.getLastModifiedTime(downloadedFile).toMillis()) + STORE_SUFFIX);
+    }
+
+    private void compileStore(final Path source, final Path storeFile) throws IOException {
+        try (Stream<NodeTriple> triples = readTriples(source)) {
+            NodeTripleStore.write(triples, storeFile);
+        }
+    }
+
+    /**
+     * Removes the compiled stores of previous downloads and delta chunks that don't belong to the current base file.
+     * Files that are still memory-mapped may not be deletable on some platforms; they are removed next time.
+     */
+    private void deleteOutdatedFiles(final Path currentStoreFile) throws IOException {
+        List<Path> deltas = getDeltaFiles();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(m_file.getParent(), m_file.getFileName() + ".*")) {
+            for (Path p : stream) {
+                String name = p.getFileName().toString();
+                boolean outdatedStore = name.endsWith(STORE_SUFFIX) && !name.contains(DELTA_SUFFIX)
+                    && !p.equals(currentStoreFile);
+                boolean outdatedDelta = name.contains(DELTA_SUFFIX)
+                    && deltas.stream().noneMatch(d -> name.startsWith(d.getFileName().toString()));
+                if (outdatedStore || outdatedDelta) {
+                    try {
+                        Files.deleteIfExists(p);
+                    } catch (IOException ex) {
+                        NodeLogger.getLogger(getClass())
+                            .debug("Could not delete outdated node triples '" + p + "': " + ex.getMessage(), ex);
+                    }
+                }
+            }
+        }
     }
 
     /**
@@ -142,18 +315,24 @@ public void update() throws Exception {
         HttpClient client = new HttpClient();
         applyProxySettings(client, new URI(m_url));
         client.getHttpConnectionManager().getParams().setConnectionTimeout(TIMEOUT);
-        GetMethod method = new GetMethod(m_url);
-        method.getParams().setParameter(HttpMethodParams.RETRY_HANDLER, new DefaultHttpMethodRetryHandler(3, false));
+
+        Optional<Properties> remoteManifest = downloadManifest(client);
+        if (remoteManifest.isPresent() && updateIncrementally(client, remoteManifest.get())) {
+            return;
+        }
+
+        GetMethod method = createGetMethod(m_url);
         if (Files.exists(m_file)) {
             String lastModified = getHttpDateFormat().format(Date.from(Files.getLastModifiedTime(m_file).toInstant()));
             method.setRequestHeader("If-Modified-Since", lastModified);
         }
-        method.setRequestHeader("Accept-Encoding", "gzip");
         int statusCode = client.executeMethod(method);
         if (statusCode == HttpStatus.SC_NOT_MODIFIED) {
+            method.releaseConnection();
             return;
         }
         if (statusCode != HttpStatus.SC_OK) {
+            method.releaseConnection();
             throw new HttpException("Cannot access server node recommendation file: " + method.getStatusLine());
         }
 
@@ -167,7 +346,7 @@ public void update() throws Exception {
         //check the download and rename the file
         try {
             checkDownloadedFile(m_tmpFile);
-            Files.move(m_tmpFile, m_file, StandardCopyOption.REPLACE_EXISTING);
+            replaceBaseFile(null);
         } finally {
             //delete temporary file
             Files.deleteIfExists(m_tmpFile);
@@ -175,8 +354,201 @@ public void update() throws Exception {
     }
 
     /**
-     * Attempts to parse the temporary file containing the downloaded recommendation data. If the file does not contain
-     * node triples an {@code IOException} is thrown. Necessary to detect e.g. login-webpages in hotels.
+     * Downloads the base file if its version has changed and all delta chunks that have not been downloaded yet.
+     *
+     * @return <code>true</code> if the update has been done, <code>false</code> if the manifest's number of delta
+     *         chunks is invalid and the whole file has to be downloaded instead
+     */
+    private boolean updateIncrementally(final HttpClient client, final Properties remote) throws IOException {
+        String remoteVersion = remote.getProperty(VERSION_KEY);
+        String remoteChecksum = remote.getProperty(SHA256_KEY);
+        int remoteDeltas = getDeltaCount(remote);
+        if (remoteDeltas < 0) {
+            NodeLogger.getLogger(getClass()).info("Invalid number of delta chunks '" + remote.getProperty(DELTAS_KEY)
+                + "' in node recommendation manifest at " + m_url + MANIFEST_SUFFIX
+                + ", downloading the whole file instead");
+            return false;
+        }
+        if ((remoteVersion == null) || (remoteChecksum == null)) {
+            throw new IOException("Invalid node recommendation manifest at " + m_url + MANIFEST_SUFFIX);
+        }
+
+        Properties local = readLocalManifest();
+        int localDeltas = getDeltaCount(local);
+        if (!Files.exists(m_file) || !remoteVersion.equals(local.getProperty(VERSION_KEY))
+            || !remoteChecksum.equalsIgnoreCase(local.getProperty(SHA256_KEY)) || (localDeltas < 0)
+            || (remoteDeltas < localDeltas)) {
+            try {
+                download(client, m_url, m_tmpFile, remoteChecksum);
+                local = new Properties();
+                local.setProperty(VERSION_KEY, remoteVersion);
+                local.setProperty(SHA256_KEY, remoteChecksum);
+                local.setProperty(DELTAS_KEY, "0");
+                replaceBaseFile(local);
+            } finally {
+                Files.deleteIfExists(m_tmpFile);
+            }
+            localDeltas = 0;
+        } else {
+            // chunks whose files have been lost locally are fetched again, together with all later ones
+            localDeltas = getDeltaFiles().size();
+        }
+
+        for (int i = localDeltas; i < remoteDeltas; i++) {
+            String checksum = remote.getProperty("delta." + i + "." + SHA256_KEY);
+            if (checksum == null) {
+                throw new IOException("Checksum of delta chunk " + i + " missing in node recommendation manifest at "
+                    + m_url + MANIFEST_SUFFIX);
+            }
+            Path deltaFile = getDeltaFile(i, checksum);
+            try {
+                download(client, m_url + DELTA_SUFFIX + i, m_tmpFile, checksum);
+                Files.move(m_tmpFile, deltaFile, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(m_tmpFile);
+            }
+            // record each chunk right away, so that an interrupted update doesn't need to fetch it again
+            local.setProperty("delta." + i + "." + SHA256_KEY, checksum);
+            local.setProperty(DELTAS_KEY, Integer.toString(i + 1));
+            writeLocalManifest(local);
+        }
+        return true;
+    }
+
+    /**
+     * Compiles the downloaded temporary file and moves it to the base file's location. This is the only time the
+     * downloaded file is parsed.
+     *
+     * @param manifest the new local manifest or <code>null</code> if the server doesn't provide one
+     */
+    private synchronized void replaceBaseFile(final Properties manifest) throws IOException {
+        Path storeFile = getStoreFile(m_tmpFile);
+        try {
+            compileStore(m_tmpFile, storeFile);
+        } catch (IOException ex) {
+            throw new IOException("Downloaded file doesn't contain node recommendation data.", ex);
+        }
+        // moving the file keeps its modification time and hence the name of the store file valid
+        Files.move(m_tmpFile, m_file, StandardCopyOption.REPLACE_EXISTING);
+        if (manifest != null) {
+            writeLocalManifest(manifest);
+        } else {
+            Files.deleteIfExists(m_manifestFile);
+        }
+        deleteOutdatedFiles(storeFile);
+    }
+
+    /**
+     * Downloads the server's manifest.
+     *
+     * @return the manifest or an empty optional if the server doesn't provide one
+     */
+    private Optional<Properties> downloadManifest(final HttpClient client) throws IOException {
+        GetMethod method = createGetMethod(m_url + MANIFEST_SUFFIX);
+        try {
+            int statusCode = client.executeMethod(method);
+            if (statusCode != HttpStatus.SC_OK) {
+                return Optional.empty();
+            }
+            Properties manifest = new Properties();
+            try (InputStream in = getInputStream(method)) {
+                manifest.load(in);
+            }
+            return Optional.of(manifest);
+        } finally {
+            method.releaseConnection();
+        }
+    }
+
+    /**
+     * Downloads a file and checks its SHA-256 checksum while it is being written.
+     */
+    private static void download(final HttpClient client, final String url, final Path target,
+        final String expectedChecksum) throws IOException {
+        GetMethod method = createGetMethod(url);
+        try {
+            int statusCode = client.executeMethod(method);
+            if (statusCode != HttpStatus.SC_OK) {
+                throw new HttpException("Cannot access server node recommendation file: " + method.getStatusLine());
+            }
+            MessageDigest digest = createDigest();
+            try (InputStream in = new DigestInputStream(getInputStream(method), digest);
+                    OutputStream out = Files.newOutputStream(target)) {
+                IOUtils.copy(in, out);
+            }
+            String checksum = toHex(digest.digest());
+            if (!checksum.equalsIgnoreCase(expectedChecksum.trim())) {
+                throw new IOException("Checksum of downloaded file " + url + " doesn't match: expected "
+                    + expectedChecksum + " but was " + checksum);
+            }
+        } finally {
+            method.releaseConnection();
+        }
+    }
+
+    private Properties readLocalManifest() throws IOException {
+        Properties props = new Properties();
+        if (Files.exists(m_manifestFile)) {
+            try (InputStream in = Files.newInputStream(m_manifestFile)) {
+                props.load(in);
+            }
+        }
+        return props;
+    }
+
+    private void writeLocalManifest(final Properties manifest) throws IOException {
+        Path tmp = m_manifestFile.resolveSibling(m_manifestFile.getFileName() + ".tmp");
+        try (OutputStream out = Files.newOutputStream(tmp)) {
+            manifest.store(out, null);
+        }
+        Files.move(tmp, m_manifestFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Returns the downloaded delta chunks in the order in which they have been published.
+     */
+    private List<Path> getDeltaFiles() throws IOException {
+        Properties local = readLocalManifest();
+        int deltas = Math.max(0, getDeltaCount(local));
+        List<Path> result = new ArrayList<>(deltas);
+        for (int i = 0; i < deltas; i++) {
+            String checksum = local.getProperty("delta." + i + "." + SHA256_KEY);
+            Path file = (checksum == null) ? null : getDeltaFile(i, checksum);
+            if ((file == null) || !Files.exists(file)) {
+                // chunks must be applied in order, hence later ones are ignored as well
+                break;
+            }
+            result.add(file);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of delta chunks listed in the given manifest, or -1 if the number is not a valid count.
+     */
+    private static int getDeltaCount(final Properties manifest) {
+        try {
+            int deltas = Integer.parseInt(manifest.getProperty(DELTAS_KEY, "0").trim());
+            return (deltas < 0) ? -1 : deltas;
+        } catch (NumberFormatException ex) {
+            return -1;
+        }
+    }
+
+    /**
+     * The name of a chunk contains its checksum, so that an existing file (which may still be memory-mapped) never
+     * has to be overwritten.
+     */
+    private Path getDeltaFile(final int index, final String checksum) {
+        String c = checksum.trim().toLowerCase(Locale.ROOT);
+        return m_file.resolveSibling(
+            m_file.getFileName() + DELTA_SUFFIX + index + "-" + c.substring(0, Math.min(16, c.length())));
+    }
+
+    /**
+     * Checks whether the temporary file containing the downloaded recommendation data looks like node triples. This
+     * is a cheap check of the file's beginning; the file is parsed completely only once afterwards, when it is
+     * compiled into a {@link NodeTripleStore}. Necessary to detect e.g. login-webpages in hotels.
      * @see NodeFrequencies#from(InputStream)
      *
      * @param file the temporary file containing the downloaded data
@@ -184,10 +556,15 @@ public void update() throws Exception {
      *             downloaded file
      */
     protected void checkDownloadedFile(final Path file) throws IOException {
-        try {
-            NodeFrequencies.from(Files.newInputStream(file));
-        } catch (IOException e) {
-            throw new IOException("Downloaded file doesn't contain node recommendation data.");
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+            int b = in.read();
+            // skip a UTF-8 byte order mark and whitespace
+            while ((b == 0xEF) || (b == 0xBB) || (b == 0xBF) || Character.isWhitespace(b)) {
+                b = in.read();
+            }
+            if (b != '{') {
+                throw new IOException("Downloaded file doesn't contain node recommendation data.");
+            }
         }
     }
 
@@ -198,8 +575,16 @@ protected void checkDownloadedFile(final Path file) throws IOException {
     public Optional<LocalDateTime> getLastUpdate() {
         try {
             if (Files.exists(m_file)) {
-                return Optional
-                    .of(LocalDateTime.ofInstant(Files.getLastModifiedTime(m_file).toInstant(), ZoneId.systemDefault()));
+                LocalDateTime lastUpdate =
+                    LocalDateTime.ofInstant(Files.getLastModifiedTime(m_file).toInstant(), ZoneId.systemDefault());
+                if (Files.exists(m_manifestFile)) {
+                    LocalDateTime manifestUpdate = LocalDateTime
+                        .ofInstant(Files.getLastModifiedTime(m_manifestFile).toInstant(), ZoneId.systemDefault());
+                    if (manifestUpdate.isAfter(lastUpdate)) {
+                        lastUpdate = manifestUpdate;
+                    }
+                }
+                return Optional.of(lastUpdate);
             } else {
                 return Optional.empty();
             }
@@ -210,6 +595,13 @@ public Optional<LocalDateTime> getLastUpdate() {
         }
     }
 
+    private static GetMethod createGetMethod(final String url) {
+        GetMethod method = new GetMethod(url);
+        method.getParams().setParameter(HttpMethodParams.RETRY_HANDLER, new DefaultHttpMethodRetryHandler(3, false));
+        method.setRequestHeader("Accept-Encoding", "gzip");
+        return method;
+    }
+
     private static InputStream getInputStream(final GetMethod method) throws IOException {
         InputStream in = method.getResponseBodyAsStream();
         Header encoding = method.getResponseHeader("Content-Encoding");
@@ -219,6 +611,23 @@ private static InputStream getInputStream(final GetMethod method) throws IOExcep
         return in;
     }
 
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            // every Java platform is required to support SHA-256
+            throw new IllegalStateException(ex.getMessage(), ex);
+        }
+    }
+
+    private static String toHex(final byte[] bytes) {
+        StringBuilder hex = new StringBuilder(2 * bytes.length);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
     private static SimpleDateFormat getHttpDateFormat() {
         SimpleDateFormat dateFormat = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss zzz", Locale.US);
         TimeZone tZone = TimeZone.getTimeZone("GMT");
@@ -101,6 +101,19 @@ public interface NodeTripleProvider {
      */
      Stream<NodeTriple> getNodeTriples() throws IOException;
 
+     /**
+      * Returns the node triples in their compiled, memory-mapped form if the provider supports it. Providers that
+      * return a store don't need to stream and parse all triples when the recommendations are loaded. The default
+      * implementation returns an empty optional, in which case {@link #getNodeTriples()} is used.
+      *
+      * @return the compiled node triples or an empty optional
+      * @throws IOException if something went wrong while accessing the underlying source of the node triples
+      * @since 4.4
+      */
+     default Optional<NodeTripleStore> getNodeTripleStore() throws IOException {
+         return Optional.empty();
+     }
+
      /**
       * Returns the time when this provider was last updated. If the provider hasn't been updated at all (i.e. its
       * data is missing) then an empty optional is returned.
@@ -0,0 +1,431 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.workbench.workflowcoach.data;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.knime.core.node.NodeInfo;
+import org.knime.core.node.NodeTriple;
+
+/**
+ * Compiled, binary form of node triple statistics. Nodes are interned into consecutive ids, the triples are stored
+ * as primitive int columns (predecessor, node, successor, count) sorted by node and predecessor. The file is
+ * memory-mapped when opened, hence only the node names are decoded and all triples for a node or a
+ * predecessor-node pair can be found by a binary search without any string operations.
+ *
+ * <p>
+ * Absent predecessors or nodes (see {@link NodeTriple#getPredecessor()} and {@link NodeTriple#getNode()}) are
+ * represented by {@link #NONE}. Instances are immutable and thread-safe.
+ * </p>
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ * @since 4.4
+ */
+public final class NodeTripleStore {
+    /** Id of an absent predecessor or node. */
+    public static final int NONE = -1;
+
+    private static final int MAGIC = 0x4b4e5453; // "KNTS"
+
+    private static final int VERSION = 1;
+
+    private final String[] m_factories;
+
+    private final String[] m_names;
+
+    private final Map<String, Map<String, Integer>> m_ids;
+
+    private final IntBuffer m_predecessors;
+
+    private final IntBuffer m_nodes;
+
+    private final IntBuffer m_successors;
+
+    private final IntBuffer m_counts;
+
+    private final int m_size;
+
+    private NodeTripleStore(final ByteBuffer buffer) throws IOException {
+        if ((buffer.remaining() < 16) || (buffer.getInt() != MAGIC)) {
+            throw new IOException("Not a node triple store");
+        }
+        int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported node triple store version " + version);
+        }
+        int nodeCount = buffer.getInt();
+        m_size = buffer.getInt();
+        if ((nodeCount < 0) || (m_size < 0)) {
+            throw new IOException("Corrupt node triple store");
+        }
+
+        m_factories = new String[nodeCount];
+        m_names = new String[nodeCount];
+        m_ids = new HashMap<>();
+        for (int i = 0; i < nodeCount; i++) {
+            m_factories[i] = readString(buffer);
+            m_names[i] = readString(buffer);
+            m_ids.computeIfAbsent(m_factories[i], k -> new HashMap<>()).put(m_names[i], i);
+        }
+
+        // skip the padding so that the int columns are aligned
+        buffer.position((buffer.position() + 3) & ~3);
+        if (buffer.remaining() < 16L * m_size) {
+            throw new IOException("Truncated node triple store");
+        }
+        m_predecessors = intColumn(buffer, 0);
+        m_nodes = intColumn(buffer, 1);
+        m_successors = intColumn(buffer, 2);
+        m_counts = intColumn(buffer, 3);
+    }
+
+    private IntBuffer intColumn(final ByteBuffer buffer, final int column) {
+        ByteBuffer b = buffer.duplicate();
+        b.position(buffer.position() + (4 * column * m_size));
+        b.limit(b.position() + (4 * m_size));
+        return b.slice().asIntBuffer();
+    }
+
+    private static String readString(final ByteBuffer buffer) throws IOException {
+        int length = buffer.getInt();
+        if ((length < 0) || (length > buffer.remaining())) {
+            throw new IOException("Corrupt node triple store");
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Memory-maps a store that has been written with {@link #write(Stream, Path)}.
+     *
+     * @param file the store file
+     * @return the store
+     * @throws IOException if the file cannot be read or is not a valid store
+     */
+    public static NodeTripleStore open(final Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // the mapping stays valid after the channel has been closed
+            return new NodeTripleStore(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Compiles the given node triples into a store file. The file is written atomically, i.e. it is either completely
+     * written or left untouched.
+     *
+     * @param triples the node triples
+     * @param file the store file
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(final Stream<NodeTriple> triples, final Path file) throws IOException {
+        List<String> factories = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+        Map<String, Map<String, Integer>> ids = new HashMap<>();
+        int[] predecessors = new int[1024];
+        int[] nodes = new int[1024];
+        int[] successors = new int[1024];
+        int[] counts = new int[1024];
+        int size = 0;
+
+        for (Iterator<NodeTriple> it = triples.iterator(); it.hasNext();) {
+            NodeTriple t = it.next();
+            if (size == counts.length) {
+                int newLength = 2 * size;
+                predecessors = Arrays.copyOf(predecessors, newLength);
+                nodes = Arrays.copyOf(nodes, newLength);
+                successors = Arrays.copyOf(successors, newLength);
+                counts = Arrays.copyOf(counts, newLength);
+            }
+            predecessors[size] = intern(t.getPredecessor(), ids, factories, names);
+            nodes[size] = intern(t.getNode(), ids, factories, names);
+            successors[size] = intern(Optional.of(t.getSuccessor()), ids, factories, names);
+            counts[size] = t.getCount();
+            size++;
+        }
+
+        // sort by node, predecessor and successor; NONE is smaller than all ids and hence comes first
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        order = sortBy(order, successors, factories.size());
+        order = sortBy(order, predecessors, factories.size());
+        order = sortBy(order, nodes, factories.size());
+
+        Path tempFile = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(factories.size());
+            out.writeInt(size);
+            for (int i = 0; i < factories.size(); i++) {
+                writeString(out, factories.get(i));
+                writeString(out, names.get(i));
+            }
+            while ((out.size() & 3) != 0) {
+                out.writeByte(0);
+            }
+            for (int[] column : new int[][]{predecessors, nodes, successors, counts}) {
+                for (int i : order) {
+                    out.writeInt(column[i]);
+                }
+            }
+        } catch (IOException ex) {
+            Files.deleteIfExists(tempFile);
+            throw ex;
+        }
+        Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Stable counting sort of triple indices by the ids in the given column.
+     *
+     * @param order the triple indices in their current order
+     * @param column the ids to sort by, {@link #NONE} or between 0 (inclusive) and the number of nodes (exclusive)
+     * @param nodeCount the number of nodes
+     * @return the sorted triple indices
+     */
+    private static int[] sortBy(final int[] order, final int[] column, final int nodeCount) {
+        // ids are shifted by one so that NONE becomes 0; start[id + 1] is the position of the first triple with id
+        int[] start = new int[nodeCount + 2];
+        for (int i : order) {
+            start[column[i] + 2]++;
+        }
+        for (int id = 1; id < start.length; id++) {
+            start[id] += start[id - 1];
+        }
+        int[] sorted = new int[order.length];
+        for (int i : order) {
+            sorted[start[column[i] + 1]++] = i;
+        }
+        return sorted;
+    }
+
+    private static int intern(final Optional<NodeInfo> node, final Map<String, Map<String, Integer>> ids,
+        final List<String> factories, final List<String> names) {
+        if (!node.isPresent()) {
+            return NONE;
+        }
+        NodeInfo ni = node.get();
+        return ids.computeIfAbsent(ni.getFactory(), k -> new HashMap<>()).computeIfAbsent(ni.getName(), k -> {
+            factories.add(ni.getFactory());
+            names.add(ni.getName());
+            return factories.size() - 1;
+        });
+    }
+
+    private static void writeString(final DataOutputStream out, final String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    /**
+     * Returns the number of distinct nodes.
+     *
+     * @return the number of nodes, ids range from 0 (inclusive) to this number (exclusive)
+     */
+    public int getNodeCount() {
+        return m_factories.length;
+    }
+
+    /**
+     * Returns the id of a node.
+     *
+     * @param factory the node's factory class name
+     * @param name the node's name
+     * @return the node's id or {@link #NONE} if the node doesn't occur in any triple
+     */
+    public int getNodeId(final String factory, final String name) {
+        Map<String, Integer> m = m_ids.get(factory);
+        Integer id = (m == null) ? null : m.get(name);
+        return (id == null) ? NONE : id;
+    }
+
+    /**
+     * Returns the factory class name of a node.
+     *
+     * @param id the node's id
+     * @return the factory class name
+     */
+    public String getFactory(final int id) {
+        return m_factories[id];
+    }
+
+    /**
+     * Returns the name of a node.
+     *
+     * @param id the node's id
+     * @return the name
+     */
+    public String getName(final int id) {
+        return m_names[id];
+    }
+
+    /**
+     * Returns the number of triples.
+     *
+     * @return the number of triples
+     */
+    public int size() {
+        return m_size;
+    }
+
+    /**
+     * Returns the predecessor's id of a triple.
+     *
+     * @param index the triple's index
+     * @return the id or {@link #NONE}
+     */
+    public int getPredecessor(final int index) {
+        return m_predecessors.get(index);
+    }
+
+    /**
+     * Returns the node's id of a triple.
+     *
+     * @param index the triple's index
+     * @return the id or {@link #NONE}
+     */
+    public int getNode(final int index) {
+        return m_nodes.get(index);
+    }
+
+    /**
+     * Returns the successor's id of a triple.
+     *
+     * @param index the triple's index
+     * @return the id
+     */
+    public int getSuccessor(final int index) {
+        return m_successors.get(index);
+    }
+
+    /**
+     * Returns the count of a triple.
+     *
+     * @param index the triple's index
+     * @return the count
+     */
+    public int getCount(final int index) {
+        return m_counts.get(index);
+    }
+
+    /**
+     * Returns the index of the first triple with the given node.
+     *
+     * @param node the node's id or {@link #NONE}
+     * @return the index of the first triple, equal to {@link #endOf(int)} if there is none
+     */
+    public int startOf(final int node) {
+        return lowerBound(node, NONE);
+    }
+
+    /**
+     * Returns the index after the last triple with the given node.
+     *
+     * @param node the node's id or {@link #NONE}
+     * @return the end index (exclusive)
+     */
+    public int endOf(final int node) {
+        return lowerBound(node + 1, NONE);
+    }
+
+    /**
+     * Returns the index of the first triple with the given predecessor and node.
+     *
+     * @param node the node's id or {@link #NONE}
+     * @param predecessor the predecessor's id or {@link #NONE}
+     * @return the index of the first triple, equal to {@link #endOf(int, int)} if there is none
+     */
+    public int startOf(final int node, final int predecessor) {
+        return lowerBound(node, predecessor);
+    }
+
+    /**
+     * Returns the index after the last triple with the given predecessor and node.
+     *
+     * @param node the node's id or {@link #NONE}
+     * @param predecessor the predecessor's id or {@link #NONE}
+     * @return the end index (exclusive)
+     */
+    public int endOf(final int node, final int predecessor) {
+        return lowerBound(node, predecessor + 1);
+    }
+
+    private int lowerBound(final int node, final int predecessor) {
+        int low = 0;
+        int high = m_size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int n = m_nodes.get(mid);
+            if ((n < node) || ((n == node) && (m_predecessors.get(mid) < predecessor))) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
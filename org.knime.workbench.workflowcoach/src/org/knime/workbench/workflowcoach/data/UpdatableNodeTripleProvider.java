@@ -48,6 +48,10 @@
  */
 package org.knime.workbench.workflowcoach.data;
 
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
 /**
  * Node triple provider with an additional update method.
  *
@@ -73,4 +77,18 @@ public interface UpdatableNodeTripleProvider extends NodeTripleProvider {
      */
     boolean updateRequired();
 
+    /**
+     * Returns the compiled delta chunks that have been downloaded on top of the base statistics returned by
+     * {@link #getNodeTripleStore()}, in the order in which they have been published. Their triples are added to the
+     * triples of the base statistics. New chunks only ever get appended to this list until the base statistics
+     * change. The default implementation returns an empty list.
+     *
+     * @return a list of delta chunks, never <code>null</code>
+     * @throws IOException if the chunks cannot be read
+     * @since 4.4
+     */
+    default List<NodeTripleStore> getNodeTripleDeltas() throws IOException {
+        return Collections.emptyList();
+    }
+
 }
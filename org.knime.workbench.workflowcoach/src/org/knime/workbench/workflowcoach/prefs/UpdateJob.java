@@ -55,6 +55,7 @@
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.jobs.Job;
+import org.knime.workbench.workflowcoach.NodeRecommendationManager;
 import org.knime.workbench.workflowcoach.data.UpdatableNodeTripleProvider;
 import org.osgi.framework.FrameworkUtil;
 
@@ -137,6 +138,15 @@ protected IStatus run(final IProgressMonitor monitor) {
             }
         }
 
+        //make incrementally downloaded statistics available without reloading everything
+        try {
+            NodeRecommendationManager.getInstance().mergeUpdates();
+        } catch (Exception e) {
+            if (exception == null) {
+                exception = e;
+            }
+        }
+
         monitor.done();
         if (exception == null) {
             m_listener.updateFinished(Optional.empty());
@@ -0,0 +1,178 @@
+/*
+ * ------------------------------------------------------------------------
+ *  Copyright by KNIME AG, Zurich, Switzerland
+ *  Website: http://www.knime.com; Email: contact@knime.com
+ *
+ *  This program is free software; you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License, Version 3, as
+ *  published by the Free Software Foundation.
+ *
+ *  This program is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program; if not, see <http://www.gnu.org/licenses>.
+ *
+ *  Additional permission under GNU GPL version 3 section 7:
+ *
+ *  KNIME interoperates with ECLIPSE solely via ECLIPSE's plug-in APIs.
+ *  Hence, KNIME and ECLIPSE are both independent programs and are not
+ *  derived from each other. Should, however, the interpretation of the
+ *  GNU GPL Version 3 ("License") under any applicable laws result in
+ *  KNIME and ECLIPSE being a combined program, KNIME AG herewith grants
+ *  you the additional permission to use and propagate KNIME together with
+ *  ECLIPSE with only the license terms in place for ECLIPSE applying to
+ *  ECLIPSE and the GNU GPL Version 3 applying for KNIME, provided the
+ *  license terms of ECLIPSE themselves allow for the respective use and
+ *  propagation of ECLIPSE together with KNIME.
+ *
+ *  Additional permission relating to nodes for KNIME that extend the Node
+ *  Extension (and in particular that are based on subclasses of NodeModel,
+ *  NodeDialog, and NodeView) and that only interoperate with KNIME through
+ *  standard APIs ("Nodes"):
+ *  Nodes are deemed to be separate and independent programs and to not be
+ *  covered works.  Notwithstanding anything to the contrary in the
+ *  License, the License does not apply to Nodes, you are not required to
+ *  license Nodes under the License, and you are granted a license to
+ *  prepare and propagate Nodes, in each case even if such Nodes are
+ *  propagated with or for interoperation with KNIME.  The owner of a Node
+ *  may freely choose the license terms applicable to such Node, including
+ *  when such Node is propagated with or for interoperation with KNIME.
+ * ------------------------------------------------------------------------
+ */
+package org.knime.workbench.workflowcoach.ui;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+
+import org.eclipse.swt.widgets.Display;
+import org.knime.core.node.NodeLogger;
+
+/**
+ * Delivers the content of the {@link WorkflowCoachView} to the UI thread. Recommendations are computed on a
+ * background thread; each new request or update supersedes the requests that are still pending, hence only the result
+ * of the latest one is shown. UI updates are never blocking and updates that are posted before the UI thread got to
+ * run the previous one are coalesced, i.e. only the latest update is run. Therefore each update must describe the
+ * complete content of the view.
+ *
+ * @author KNIME AG, Zurich, Switzerland
+ */
+final class RecommendationUpdater {
+    private static final NodeLogger LOGGER = NodeLogger.getLogger(RecommendationUpdater.class);
+
+    private final Display m_display;
+
+    private final ExecutorService m_executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(final Runnable r) {
+            Thread t = new Thread(r, "Workflow Coach Recommendations");
+            t.setDaemon(true);
+            return t;
+        }
+    });
+
+    /** Incremented with every request or update, a request is superseded if it doesn't match anymore. */
+    private final AtomicLong m_generation = new AtomicLong();
+
+    private final AtomicReference<Runnable> m_pendingUpdate = new AtomicReference<>();
+
+    private Future<?> m_currentRequest;
+
+    private volatile boolean m_disposed;
+
+    /**
+     * @param display the display the updates are run in
+     */
+    RecommendationUpdater(final Display display) {
+        m_display = display;
+    }
+
+    /**
+     * Submits a new request that is computed on a background thread and cancels all pending requests. The
+     * computation gets a flag that indicates whether the request has been superseded in the meantime and returns the
+     * update to run in the UI thread (or <code>null</code> if there is nothing to update).
+     *
+     * @param request the request
+     */
+    synchronized void submit(final Function<BooleanSupplier, Runnable> request) {
+        if (m_disposed) {
+            return;
+        }
+        final long generation = supersede();
+        BooleanSupplier isSuperseded = () -> m_disposed || (m_generation.get() != generation);
+        m_currentRequest = m_executor.submit(() -> {
+            if (isSuperseded.getAsBoolean()) {
+                return;
+            }
+            try {
+                Runnable update = request.apply(isSuperseded);
+                if (update != null) {
+                    postIfCurrent(update, generation);
+                }
+            } catch (RuntimeException e) {
+                LOGGER.error("Could not determine node recommendations: " + e.getMessage(), e);
+            }
+        });
+    }
+
+    /**
+     * Cancels all pending requests and runs the given update asynchronously in the UI thread.
+     *
+     * @param update the update, it replaces a previous update that hasn't been run yet
+     */
+    synchronized void update(final Runnable update) {
+        supersede();
+        post(update);
+    }
+
+    /**
+     * Posts the result of a request unless the request has been superseded. The check and the post happen under the
+     * same lock as {@link #supersede()}, hence a stale result can never replace the update of a newer request.
+     */
+    private synchronized void postIfCurrent(final Runnable update, final long generation) {
+        if (!m_disposed && (m_generation.get() == generation)) {
+            post(update);
+        }
+    }
+
+    private synchronized long supersede() {
+        if (m_currentRequest != null) {
+            m_currentRequest.cancel(false);
+            m_currentRequest = null;
+        }
+        return m_generation.incrementAndGet();
+    }
+
+    private void post(final Runnable update) {
+        if (m_disposed || (m_pendingUpdate.getAndSet(update) != null)) {
+            // a runnable that will pick up the new update has already been scheduled
+            return;
+        }
+        if (!m_display.isDisposed()) {
+            m_display.asyncExec(() -> {
+                Runnable u = m_pendingUpdate.getAndSet(null);
+                if ((u != null) && !m_disposed) {
+                    u.run();
+                }
+            });
+        }
+    }
+
+    /**
+     * Cancels all pending requests and updates and stops the background thread.
+     */
+    void dispose() {
+        m_disposed = true;
+        supersede();
+        m_pendingUpdate.set(null);
+        m_executor.shutdownNow();
+    }
+}